@@ -0,0 +1,49 @@
+package com.gestionschool.gestionecole;
+
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Test de charge HTTP contre une instance démarrée à part, exclu du lancement par défaut.
+// Comparer les modes en relançant l'application avec chaque profil :
+//   java -jar target/gestionecole-*.jar                                   (threads plateforme)
+//   java -jar target/gestionecole-*.jar --spring.profiles.active=virtuel  (Java 21+)
+//   java -jar target/gestionecole-*.jar --spring.profiles.active=reactif  (chemin=/api/reactif/eleves)
+// puis : mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ChargeHttpBenchmark -p chemin=/api/eleves -rf json -rff target/charge.json"
+// Throughput donne le débit, SampleTime les percentiles (p0.99) de latence.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(200)
+@Fork(1)
+public class ChargeHttpBenchmark {
+    @Param({ "http://localhost:8080" })
+    public String url;
+    @Param({ "/api/eleves" })
+    public String chemin;
+
+    private HttpClient client;
+    private HttpRequest requete;
+
+    @Setup
+    public void preparer() throws IOException, InterruptedException {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+        requete = HttpRequest.newBuilder(URI.create(url + chemin)).header("Accept", "application/json").GET().build();
+        int statut = client.send(requete, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (statut != 200) {
+            throw new IllegalStateException(url + chemin + " répond " + statut);
+        }
+    }
+
+    @Benchmark
+    public int requete() throws IOException, InterruptedException {
+        return client.send(requete, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
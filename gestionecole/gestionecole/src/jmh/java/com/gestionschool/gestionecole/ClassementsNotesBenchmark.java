@@ -0,0 +1,50 @@
+package com.gestionschool.gestionecole;
+
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Classements incrémentaux : modification d'une note (retrait puis ajout) et lecture des rangs d'un élève
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ClassementsNotesBenchmark {
+    @Param({ "100000", "1000000" })
+    public int taille;
+
+    private ClassementsNotes classements;
+    private List<Note> notes;
+    private int suivante;
+
+    @Setup
+    public void preparer() {
+        classements = new ClassementsNotes();
+        notes = JeuDeDonnees.notes(taille);
+        notes.forEach(classements::ajouter);
+    }
+
+    @Benchmark
+    public void modifierNote() {
+        Note ancienne = notes.get(suivante++ % notes.size());
+        Note nouvelle = new Note();
+        nouvelle.setMatriculeEleve(ancienne.getMatriculeEleve());
+        nouvelle.setNomCours(ancienne.getNomCours());
+        nouvelle.setClasse(ancienne.getClasse());
+        nouvelle.setTypeEvaluation(ancienne.getTypeEvaluation());
+        nouvelle.setDateEvaluation(ancienne.getDateEvaluation());
+        nouvelle.setValeur(20 - ancienne.getValeur());
+        classements.retirer(ancienne);
+        classements.ajouter(nouvelle);
+        classements.retirer(nouvelle);
+        classements.ajouter(ancienne);
+    }
+
+    @Benchmark
+    public List<PositionEleve> positionsEleve() {
+        Note note = notes.get(suivante++ % notes.size());
+        return classements.positions(note.getMatriculeEleve(), note.getClasse(), ClassementsNotes.periode(note.getDateEvaluation()), null);
+    }
+}
@@ -0,0 +1,164 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Démarrage mesuré de l'extérieur : l'application est lancée dans un processus à part, chronométrée jusqu'à la première
+// réponse 200 sur --chemin, et sa mémoire résidente (VmRSS, Linux) relevée à cet instant. Pas de JMH ici : une mesure
+// par processus, répétée --executions fois, médiane/min/max écrits dans target/demarrage-result.json.
+// Variantes par défaut : "standard" (target/gestionecole-*.jar) et "rapide" (target/demarrage/, profil demarrage-rapide) :
+//   mvn -Pdemarrage-rapide,memoire package -DskipTests
+//   mvn -Pbenchmarks test-compile exec:exec -Djmh.main=com.gestionschool.gestionecole.DemarrageBenchmark -Djmh.args="--profils memoire"
+// --variante "nom=java ... -jar ..." remplace les variantes par défaut (lancement par java -cp : exec:exec découpe jmh.args
+// aux espaces) ; --seuil-ms fait échouer la commande si la médiane de la dernière variante dépasse le seuil,
+// pour garder le temps de démarrage sous contrôle d'une version à l'autre.
+public final class DemarrageBenchmark {
+    private static final Duration DELAI_MAX = Duration.ofMinutes(2);
+
+    private DemarrageBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int executions = 5;
+        int port = 18090;
+        String chemin = "/api/classes?limit=1";
+        String profils = "";
+        long seuilMs = 0;
+        Path sortie = Path.of("target", "demarrage-result.json");
+        Map<String, List<String>> variantes = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--executions" -> executions = Integer.parseInt(args[++i]);
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--chemin" -> chemin = args[++i];
+                case "--profils" -> profils = args[++i];
+                case "--seuil-ms" -> seuilMs = Long.parseLong(args[++i]);
+                case "--sortie" -> sortie = Path.of(args[++i]);
+                case "--variante" -> {
+                    String[] variante = args[++i].split("=", 2);
+                    variantes.put(variante[0], Arrays.asList(variante[1].trim().split("\\s+")));
+                }
+                default -> throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+        if (variantes.isEmpty()) {
+            String jar = jar(Path.of("target"));
+            variantes.put("standard", List.of("java", "-jar", "target/" + jar));
+            variantes.put("rapide", List.of("java", "-XX:SharedArchiveFile=target/demarrage/application.jsa",
+                    "-Dspring.aot.enabled=true", "-jar", "target/demarrage/" + jar));
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest requete = HttpRequest.newBuilder(URI.create("http://localhost:" + port + chemin)).timeout(Duration.ofSeconds(5)).GET().build();
+        Map<String, Object> resultats = new LinkedHashMap<>();
+        long derniereMediane = 0;
+        System.out.printf("%-12s %12s %10s %10s %14s%n", "variante", "médiane (ms)", "min (ms)", "max (ms)", "RSS médian (Mo)");
+        for (Map.Entry<String, List<String>> variante : variantes.entrySet()) {
+            List<String> commande = new ArrayList<>(variante.getValue());
+            commande.add("--server.port=" + port);
+            if (!profils.isBlank()) {
+                commande.add("--spring.profiles.active=" + profils);
+            }
+            long[] durees = new long[executions];
+            long[] rss = new long[executions];
+            for (int n = 0; n < executions; n++) {
+                long[] mesure = mesurer(commande, client, requete, Path.of("target", "demarrage-" + variante.getKey() + ".log"));
+                durees[n] = mesure[0];
+                rss[n] = mesure[1];
+            }
+            Arrays.sort(durees);
+            Arrays.sort(rss);
+            derniereMediane = durees[executions / 2];
+            Map<String, Object> resultat = new LinkedHashMap<>();
+            resultat.put("commande", String.join(" ", commande));
+            resultat.put("premiereRequeteMs", resume(durees));
+            resultat.put("rssKo", resume(rss));
+            resultats.put(variante.getKey(), resultat);
+            System.out.printf("%-12s %12d %10d %10d %14d%n", variante.getKey(), durees[executions / 2], durees[0], durees[executions - 1],
+                    rss[executions / 2] / 1024);
+        }
+        Files.createDirectories(sortie.toAbsolutePath().getParent());
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("chemin", chemin);
+        rapport.put("executions", executions);
+        rapport.put("variantes", resultats);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(sortie.toFile(), rapport);
+        if (seuilMs > 0 && derniereMediane > seuilMs) {
+            System.err.println("Démarrage trop lent : " + derniereMediane + " ms > " + seuilMs + " ms");
+            System.exit(1);
+        }
+    }
+
+    // { millisecondes jusqu'à la première réponse 200, RSS en Ko à cet instant (-1 hors Linux) }
+    private static long[] mesurer(List<String> commande, HttpClient client, HttpRequest requete, Path journal) throws Exception {
+        long debut = System.nanoTime();
+        Process processus = new ProcessBuilder(commande).redirectErrorStream(true).redirectOutput(journal.toFile()).start();
+        try {
+            while (true) {
+                if (!processus.isAlive()) {
+                    throw new IllegalStateException("Arrêt pendant le démarrage (code " + processus.exitValue() + "), voir " + journal);
+                }
+                if (System.nanoTime() - debut > DELAI_MAX.toNanos()) {
+                    throw new IllegalStateException("Pas de réponse 200 après " + DELAI_MAX.toSeconds() + " s, voir " + journal);
+                }
+                try {
+                    if (client.send(requete, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new long[] { (System.nanoTime() - debut) / 1_000_000, rss(processus.pid()) };
+                    }
+                } catch (IOException e) {
+                    // Port pas encore ouvert
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            processus.destroy();
+            if (!processus.waitFor(20, TimeUnit.SECONDS)) {
+                processus.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Valeurs triées
+    private static Map<String, Long> resume(long[] valeurs) {
+        Map<String, Long> resume = new LinkedHashMap<>();
+        resume.put("mediane", valeurs[valeurs.length / 2]);
+        resume.put("min", valeurs[0]);
+        resume.put("max", valeurs[valeurs.length - 1]);
+        return resume;
+    }
+
+    private static long rss(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String ligne : Files.readAllLines(status)) {
+            if (ligne.startsWith("VmRSS:")) {
+                return Long.parseLong(ligne.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static String jar(Path repertoire) {
+        String[] jars = repertoire.toFile().list((dir, nom) -> nom.startsWith("gestionecole-") && nom.endsWith(".jar"));
+        if (jars == null || jars.length == 0) {
+            throw new IllegalStateException("Aucun jar dans " + repertoire + File.separator + " : lancer mvn package d'abord");
+        }
+        return jars[0];
+    }
+}
@@ -0,0 +1,49 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// EleveService.getAllEleves() sur une source en mémoire qui rend des Documents BSON, comme le driver
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EleveServiceBenchmark {
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taille;
+
+    private EleveService eleveService;
+
+    @Setup
+    public void preparer() {
+        MappingMongoConverter converter = MappingBenchmark.converter();
+        List<Document> documents = MappingBenchmark.documents(converter, JeuDeDonnees.eleves(taille));
+
+        EleveRepository repository = (EleveRepository) Proxy.newProxyInstance(EleveRepository.class.getClassLoader(),
+                new Class<?>[] { EleveRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        List<Eleve> eleves = new ArrayList<>(documents.size());
+                        for (Document document : documents) {
+                            eleves.add(converter.read(Eleve.class, document));
+                        }
+                        return eleves;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        eleveService = new EleveService();
+        ReflectionTestUtils.setField(eleveService, "eleveRepository", repository);
+    }
+
+    @Benchmark
+    public List<Eleve> getAllEleves() {
+        return eleveService.getAllEleves();
+    }
+}
@@ -0,0 +1,85 @@
+package com.gestionschool.gestionecole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Données synthétiques reproductibles pour les benchmarks (graine fixe)
+public final class JeuDeDonnees {
+    public static final String[] CLASSES = { "6ème A", "6ème B", "5ème A", "5ème B", "4ème A", "4ème B", "3ème A", "3ème B" };
+    public static final String[] NIVEAUX = { "6ème", "6ème", "5ème", "5ème", "4ème", "4ème", "3ème", "3ème" };
+    public static final String[] COURS = { "Mathématiques", "Français", "Anglais", "Histoire-Géographie", "SVT", "Physique-Chimie", "EPS" };
+    public static final String[] EVALUATIONS = { "Contrôle", "Examen", "TP", "Devoir" };
+    public static final String[] MOIS = { "Octobre", "Novembre", "Décembre", "Janvier", "Février", "Mars", "Avril", "Mai", "Juin" };
+    public static final String[] STATUTS = { "Payé", "Payé", "Payé", "En attente", "En retard" };
+
+    private JeuDeDonnees() {}
+
+    public static String matricule(int i) {
+        return String.format("EFSG%06d", i);
+    }
+
+    public static List<Eleve> eleves(int nombre) {
+        Random random = new Random(42);
+        List<Eleve> eleves = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            int classe = random.nextInt(CLASSES.length);
+            Eleve eleve = new Eleve();
+            eleve.setId(String.format("%024x", i));
+            eleve.setNom("Nom" + i);
+            eleve.setPrenom("Prenom" + random.nextInt(5000));
+            eleve.setSexe(random.nextBoolean() ? "M" : "F");
+            eleve.setNomClasse(CLASSES[classe]);
+            eleve.setNiveau(NIVEAUX[classe]);
+            eleve.setMatricule(matricule(i));
+            eleve.setDateNaissance(String.format("20%02d-%02d-%02d", 10 + random.nextInt(6), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            eleve.setVilleNaissance("Ville" + random.nextInt(200));
+            eleve.setTelephone(String.format("06%08d", random.nextInt(100_000_000)));
+            eleves.add(eleve);
+        }
+        return eleves;
+    }
+
+    // Environ vingt notes par élève, une seule par élève et par évaluation (index unique evaluation_eleve)
+    public static List<Note> notes(int nombre) {
+        Random random = new Random(42);
+        int nombreEleves = Math.max(1, nombre / 20);
+        List<Note> notes = new ArrayList<>(nombre);
+        Set<String> evaluations = new HashSet<>();
+        for (int i = 0; i < nombre; i++) {
+            int eleve = random.nextInt(nombreEleves);
+            Note note = new Note();
+            note.setId(String.format("%024x", i));
+            note.setMatriculeEleve(matricule(eleve));
+            note.setNomCours(COURS[random.nextInt(COURS.length)]);
+            note.setClasse(CLASSES[eleve % CLASSES.length]);
+            note.setValeur(Math.round(random.nextDouble() * 80) / 4.0);
+            note.setTypeEvaluation(EVALUATIONS[random.nextInt(EVALUATIONS.length)]);
+            do {
+                note.setDateEvaluation(String.format("2025-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            } while (!evaluations.add(note.getMatriculeEleve() + "|" + note.getNomCours() + "|" + note.getTypeEvaluation() + "|" + note.getDateEvaluation()));
+            note.setObservation(random.nextInt(4) == 0 ? "Peut mieux faire" : null);
+            notes.add(note);
+        }
+        return notes;
+    }
+
+    // Une mensualité par élève et par mois
+    public static List<Scolarite> scolarites(int nombre) {
+        Random random = new Random(42);
+        List<Scolarite> scolarites = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            int eleve = i / MOIS.length;
+            String statut = STATUTS[random.nextInt(STATUTS.length)];
+            double montantAnnuel = 180_000 + 30_000 * (eleve % 4);
+            Scolarite scolarite = new Scolarite(matricule(eleve), "Nom" + eleve, CLASSES[eleve % CLASSES.length], montantAnnuel,
+                    MOIS[i % MOIS.length], 2025, "Payé".equals(statut) ? montantAnnuel / 12.0 : 0.0,
+                    "2025-01-05", "Espèces", statut);
+            scolarite.setId(String.format("%024x", i));
+            scolarites.add(scolarite);
+        }
+        return scolarites;
+    }
+}
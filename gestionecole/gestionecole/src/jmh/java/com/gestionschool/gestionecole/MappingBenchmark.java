@@ -0,0 +1,77 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Conversion Document BSON <-> entité, le travail fait par MongoRepository.findAll()/save() une fois les octets reçus
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappingBenchmark {
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taille;
+
+    private MappingMongoConverter converter;
+    private List<Note> notes;
+    private List<Document> documentsNotes;
+    private List<Document> documentsEleves;
+
+    @Setup
+    public void preparer() {
+        converter = converter();
+        notes = JeuDeDonnees.notes(taille);
+        documentsNotes = documents(converter, notes);
+        documentsEleves = documents(converter, JeuDeDonnees.eleves(taille));
+    }
+
+    @Benchmark
+    public void lireNotes(Blackhole blackhole) {
+        for (Document document : documentsNotes) {
+            blackhole.consume(converter.read(Note.class, document));
+        }
+    }
+
+    @Benchmark
+    public void lireEleves(Blackhole blackhole) {
+        for (Document document : documentsEleves) {
+            blackhole.consume(converter.read(Eleve.class, document));
+        }
+    }
+
+    @Benchmark
+    public void ecrireNotes(Blackhole blackhole) {
+        for (Note note : notes) {
+            Document document = new Document();
+            converter.write(note, document);
+            blackhole.consume(document);
+        }
+    }
+
+    static MappingMongoConverter converter() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    static List<Document> documents(MappingMongoConverter converter, List<?> entites) {
+        List<Document> documents = new ArrayList<>(entites.size());
+        for (Object entite : entites) {
+            Document document = new Document();
+            converter.write(entite, document);
+            documents.add(document);
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gestionschool.gestionecole;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+
+// Base en mémoire (StockageMemoire, celle du profil "memoire") démarrée dans le processus du benchmark :
+// les services mesurés y exécutent leurs vraies requêtes, agrégations et mises à jour, via MongoTemplate et les repositories
+public final class MongoBenchmark {
+    private static final int TAILLE_LOT = 10_000;
+
+    private final StockageMemoire stockage = new StockageMemoire("benchmarks", null);
+    private final MongoClient client;
+    private final MongoTemplate mongoTemplate;
+    private final MongoRepositoryFactory repositories;
+
+    public MongoBenchmark() {
+        stockage.demarrer();
+        client = MongoClients.create(stockage.getConnexion());
+        mongoTemplate = new MongoTemplate(client, "benchmarks");
+        repositories = new MongoRepositoryFactory(mongoTemplate);
+        IndexService indexService = new IndexService();
+        ReflectionTestUtils.setField(indexService, "mongoTemplate", mongoTemplate);
+        indexService.creerIndex();
+    }
+
+    public MongoTemplate getMongoTemplate() {
+        return mongoTemplate;
+    }
+
+    public <T> T repository(Class<T> type) {
+        return repositories.getRepository(type);
+    }
+
+    public void inserer(List<?> documents, Class<?> type) {
+        for (int debut = 0; debut < documents.size(); debut += TAILLE_LOT) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+                    .insert(documents.subList(debut, Math.min(documents.size(), debut + TAILLE_LOT)))
+                    .execute();
+        }
+    }
+
+    public void arreter() {
+        client.close();
+        stockage.arreter();
+    }
+}
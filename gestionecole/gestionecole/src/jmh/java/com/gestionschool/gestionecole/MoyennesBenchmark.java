@@ -0,0 +1,48 @@
+package com.gestionschool.gestionecole;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// BulletinService sur les notes en base : bulletins d'une classe (agrégations NoteRepository.moyennesParCoursClasse
+// et bulletinsClasse) et bulletin d'un élève, avec sa moyenne de classe et son rang
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MoyennesBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int taille;
+
+    private MongoBenchmark base;
+    private BulletinService bulletinService;
+    private int nombreEleves;
+    private int suivant;
+
+    @Setup
+    public void preparer() {
+        base = new MongoBenchmark();
+        base.inserer(JeuDeDonnees.notes(taille), Note.class);
+        nombreEleves = Math.max(1, taille / 20);
+        bulletinService = new BulletinService();
+        ReflectionTestUtils.setField(bulletinService, "noteRepository", base.repository(NoteRepository.class));
+    }
+
+    @TearDown
+    public void arreter() {
+        base.arreter();
+    }
+
+    @Benchmark
+    public BulletinClasse bulletinsClasse() {
+        return bulletinService.getBulletinClasse(JeuDeDonnees.CLASSES[suivant++ % JeuDeDonnees.CLASSES.length]);
+    }
+
+    @Benchmark
+    public Optional<Bulletin> bulletinEleve() {
+        return bulletinService.getBulletin(JeuDeDonnees.matricule(suivant++ % nombreEleves));
+    }
+}
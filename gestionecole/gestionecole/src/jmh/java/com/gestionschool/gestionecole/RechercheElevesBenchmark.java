@@ -0,0 +1,32 @@
+package com.gestionschool.gestionecole;
+
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Recherche à la frappe sur l'index en mémoire (10 premiers résultats)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RechercheElevesBenchmark {
+    @Param({ "100000" })
+    public int taille;
+    @Param({ "EFSG0123", "nom4567", "prenom 42", "6e", "4ème b nom99" })
+    public String requete;
+
+    private IndexEleves index;
+
+    @Setup
+    public void preparer() {
+        index = new IndexEleves();
+        JeuDeDonnees.eleves(taille).forEach(index::ajouter);
+    }
+
+    @Benchmark
+    public List<Eleve> rechercher() {
+        return index.rechercher(requete, 10);
+    }
+}
@@ -0,0 +1,73 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encodage JSON des réponses de liste (GET /api/notes, /api/scolarites, /api/eleves), écrit dans un flux qui compte les octets
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerialisationBenchmark {
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int taille;
+
+    private ObjectMapper objectMapper;
+    private List<Note> notes;
+    private List<Scolarite> scolarites;
+    private List<Eleve> eleves;
+
+    @Setup
+    public void preparer() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        notes = JeuDeDonnees.notes(taille);
+        scolarites = JeuDeDonnees.scolarites(taille);
+        eleves = JeuDeDonnees.eleves(taille);
+    }
+
+    @Benchmark
+    public long notes() throws IOException {
+        return ecrire(notes);
+    }
+
+    @Benchmark
+    public long scolarites() throws IOException {
+        return ecrire(scolarites);
+    }
+
+    @Benchmark
+    public long eleves() throws IOException {
+        return ecrire(eleves);
+    }
+
+    private long ecrire(Object valeur) throws IOException {
+        CompteurOctets flux = new CompteurOctets();
+        objectMapper.writeValue(flux, valeur);
+        return flux.octets;
+    }
+
+    private static class CompteurOctets extends OutputStream {
+        private long octets;
+
+        @Override
+        public void write(int b) {
+            octets++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            octets += len;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.gestionschool.gestionecole;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// SoldeScolariteService sur les mensualités en base : reconstruction de tous les soldes (agrégation puis $merge)
+// et mise à jour incrémentale du solde d'un élève quand un paiement change
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SoldeScolariteBenchmark {
+    @Param({ "1000", "10000", "100000" })
+    public int taille;
+
+    private MongoBenchmark base;
+    private SoldeScolariteService soldeScolariteService;
+    private List<Scolarite> scolarites;
+    private int suivante;
+
+    @Setup
+    public void preparer() {
+        base = new MongoBenchmark();
+        scolarites = JeuDeDonnees.scolarites(taille);
+        base.inserer(scolarites, Scolarite.class);
+        ArchivageService archivageService = new ArchivageService();
+        ReflectionTestUtils.setField(archivageService, "mongoTemplate", base.getMongoTemplate());
+        ReflectionTestUtils.setField(archivageService, "partitionAnneeRepository", base.repository(PartitionAnneeRepository.class));
+        soldeScolariteService = new SoldeScolariteService();
+        ReflectionTestUtils.setField(soldeScolariteService, "mongoTemplate", base.getMongoTemplate());
+        ReflectionTestUtils.setField(soldeScolariteService, "soldeScolariteRepository", base.repository(SoldeScolariteRepository.class));
+        ReflectionTestUtils.setField(soldeScolariteService, "archivageService", archivageService);
+        soldeScolariteService.recalculer();
+    }
+
+    @TearDown
+    public void arreter() {
+        base.arreter();
+    }
+
+    @Benchmark
+    public long recalculer() {
+        return soldeScolariteService.recalculer();
+    }
+
+    // Une mensualité passe de payée à impayée ou l'inverse : seul le solde de l'élève et de l'année est modifié
+    @Benchmark
+    public void paiementModifie() {
+        int i = suivante++ % scolarites.size();
+        Scolarite ancienne = scolarites.get(i);
+        Scolarite nouvelle = new Scolarite(ancienne.getMatriculeEleve(), ancienne.getNomEleve(), ancienne.getNomClasse(),
+                ancienne.getMontantAnnuel(), ancienne.getMois(), ancienne.getAnnee(),
+                ancienne.getMontantPaye() > 0 ? 0.0 : ancienne.getMontantAnnuel() / 12.0,
+                ancienne.getDatePaiement(), ancienne.getModePaiement(), ancienne.getStatut());
+        nouvelle.setId(ancienne.getId());
+        soldeScolariteService.paiementEnregistre(ancienne, nouvelle);
+        scolarites.set(i, nouvelle);
+    }
+}
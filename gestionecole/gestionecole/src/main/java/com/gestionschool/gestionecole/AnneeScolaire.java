@@ -0,0 +1,63 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Année scolaire "2024-2025" : du 1er septembre 2024 (inclus) au 1er septembre 2025 (exclu).
+// Les dates sont stockées en yyyy-MM-dd, les bornes se comparent donc comme des chaînes.
+public final class AnneeScolaire {
+    public static final int MOIS_RENTREE = 9;
+    private static final Pattern FORMAT = Pattern.compile("^(\\d{4})-(\\d{4})$");
+
+    private AnneeScolaire() {
+    }
+
+    public static String de(LocalDate date) {
+        int debut = date.getMonthValue() >= MOIS_RENTREE ? date.getYear() : date.getYear() - 1;
+        return debut + "-" + (debut + 1);
+    }
+
+    // Null pour une date absente ou illisible
+    public static String de(String date) {
+        if (date == null || date.length() < 7) {
+            return null;
+        }
+        try {
+            int annee = Integer.parseInt(date.substring(0, 4));
+            int mois = Integer.parseInt(date.substring(5, 7));
+            int debut = mois >= MOIS_RENTREE ? annee : annee - 1;
+            return debut + "-" + (debut + 1);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static String courante() {
+        return de(LocalDate.now());
+    }
+
+    public static int debut(String anneeScolaire) {
+        Matcher matcher = FORMAT.matcher(anneeScolaire == null ? "" : anneeScolaire);
+        if (!matcher.matches() || Integer.parseInt(matcher.group(2)) != Integer.parseInt(matcher.group(1)) + 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Année scolaire invalide (2024-2025 attendu) : " + anneeScolaire);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    public static String premierJour(String anneeScolaire) {
+        return debut(anneeScolaire) + "-0" + MOIS_RENTREE + "-01";
+    }
+
+    // Exclu
+    public static String dernierJour(String anneeScolaire) {
+        return (debut(anneeScolaire) + 1) + "-0" + MOIS_RENTREE + "-01";
+    }
+
+    public static String suivante(String anneeScolaire) {
+        int debut = debut(anneeScolaire) + 1;
+        return debut + "-" + (debut + 1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.gestionschool.gestionecole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Appel d'une séance : présence de chaque élève (eleveId -> présent)
+public class Appel {
+    private String coursId;
+    private String classe;
+    private String date;
+    private Map<String, Boolean> presences = new LinkedHashMap<>();
+    // Getters et setters
+    public String getCoursId() { return coursId; }
+    public void setCoursId(String coursId) { this.coursId = coursId; }
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+    public Map<String, Boolean> getPresences() { return presences; }
+    public void setPresences(Map<String, Boolean> presences) { this.presences = presences; }
+}
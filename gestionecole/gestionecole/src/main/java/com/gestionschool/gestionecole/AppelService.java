@@ -0,0 +1,359 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+
+// Appel d'une classe entière en une requête, stocké en un seul document par séance (cours, classe, date)
+@Service
+public class AppelService {
+    private static final int TENTATIVES = 5;
+
+    @Autowired
+    private SeanceEmargementRepository seanceEmargementRepository;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ExpansionService expansionService;
+    @Autowired
+    private ArchivageService archivageService;
+
+    public Optional<Appel> getAppel(String coursId, String classe, String date) {
+        return seanceEmargementRepository.findByCoursIdAndClasseAndDate(coursId, classe, date).map(this::toAppel);
+    }
+
+    public Appel enregistrerAppel(Appel appel) {
+        return toAppel(enregistrer(appel.getCoursId(), appel.getClasse(), appel.getDate(), appel.getPresences(), true));
+    }
+
+    // Présence d'un seul élève (vue de compatibilité des émargements individuels)
+    public Emargement marquer(String coursId, String classe, String date, String eleveId, Boolean present) {
+        Map<String, Boolean> presences = new LinkedHashMap<>();
+        presences.put(eleveId, Boolean.TRUE.equals(present));
+        SeanceEmargement seance = enregistrer(coursId, classe, date, presences, false);
+        return emargement(seance, seance.position(eleveId));
+    }
+
+    public boolean retirer(String seanceId, String eleveId) {
+        for (int tentative = 1; ; tentative++) {
+            Optional<SeanceEmargement> trouvee = seanceEmargementRepository.findById(seanceId);
+            if (trouvee.isEmpty() || trouvee.get().position(eleveId) < 0) {
+                return false;
+            }
+            SeanceEmargement seance = trouvee.get();
+            int position = seance.position(eleveId);
+            boolean etaitPresent = seance.estPresent(position);
+            BitSet anciennes = BitSet.valueOf(seance.getPresences());
+            BitSet presences = new BitSet();
+            for (int i = 0, j = 0; i < seance.getEleveIds().size(); i++) {
+                if (i != position) {
+                    presences.set(j, anciennes.get(i));
+                    j++;
+                }
+            }
+            List<String> eleveIds = new ArrayList<>(seance.getEleveIds());
+            eleveIds.remove(position);
+            seance.setEleveIds(eleveIds);
+            seance.setPresences(presences.toByteArray());
+            seance.setNombrePresents(presences.cardinality());
+            try {
+                // Écriture et compteurs sans reconstruction des statistiques entre les deux
+                Lock verrou = statistiquesService.verrouEcriture();
+                verrou.lock();
+                try {
+                    seanceEmargementRepository.save(seance);
+                    statistiquesService.emargementsEnregistres(-1, etaitPresent ? -1 : 0);
+                } finally {
+                    verrou.unlock();
+                }
+                versionsCollections.incrementer("emargements");
+                return true;
+            } catch (OptimisticLockingFailureException e) {
+                if (tentative == TENTATIVES) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public List<Emargement> getEmargementsEleve(String eleveId) {
+        List<Emargement> emargements = new ArrayList<>();
+        for (SeanceEmargement seance : seanceEmargementRepository.findByEleveIds(eleveId)) {
+            emargements.add(emargement(seance, seance.position(eleveId)));
+        }
+        return emargements;
+    }
+
+    public List<Emargement> getAllEmargements() {
+        List<Emargement> emargements = new ArrayList<>();
+        for (SeanceEmargement seance : seanceEmargementRepository.findAll()) {
+            for (int i = 0; i < seance.getEleveIds().size(); i++) {
+                emargements.add(emargement(seance, i));
+            }
+        }
+        return emargements;
+    }
+
+    // Émargements des séances d'une année scolaire, lues dans sa partition si elle est close
+    public List<Emargement> getEmargementsAnnee(String anneeScolaire) {
+        List<Emargement> emargements = new ArrayList<>();
+        for (SeanceEmargement seance : mongoTemplate.find(new Query(archivageService.criteres("seances_emargement", anneeScolaire)),
+                SeanceEmargement.class, archivageService.collection("seances_emargement", anneeScolaire))) {
+            for (int i = 0; i < seance.getEleveIds().size(); i++) {
+                emargements.add(emargement(seance, i));
+            }
+        }
+        return emargements;
+    }
+
+    // Jointure faite une fois par séance (élèves de la classe, cours) puis répartie sur ses émargements
+    public List<Map<String, Object>> getAllEmargements(List<String> expansions, String anneeScolaire) {
+        List<Document> pipeline = new ArrayList<>();
+        String collection = "seances_emargement";
+        if (anneeScolaire != null) {
+            pipeline.add(new Document("$match", new Query(archivageService.criteres(collection, anneeScolaire)).getQueryObject()));
+            collection = archivageService.collection(collection, anneeScolaire);
+        }
+        pipeline.addAll(expansionService.etapes("seances_emargement", expansions));
+        List<Map<String, Object>> emargements = new ArrayList<>();
+        for (Document document : mongoTemplate.getCollection(collection).aggregate(pipeline)) {
+            emargements.addAll(lignes(document, expansions, 0));
+        }
+        return emargements;
+    }
+
+    // Page d'émargements de séances dans l'ordre (séance, position), après le curseur { s: id de séance, p: position }
+    // (null : depuis le début). Les séances sont lues par lots de limite + 1 jusqu'à remplir la page.
+    public PageResult getEmargementsPage(String anneeScolaire, Document apres, int limite, List<String> expansions) {
+        String collection = "seances_emargement";
+        Criteria filtre = anneeScolaire == null ? new Criteria() : archivageService.criteres(collection, anneeScolaire);
+        if (anneeScolaire != null) {
+            collection = archivageService.collection(collection, anneeScolaire);
+        }
+        Object seanceCurseur = apres == null ? null : apres.get("s");
+        int positionCurseur = apres == null ? -1 : apres.getInteger("p", -1);
+        List<Map<String, Object>> content = new ArrayList<>();
+        Object derniereSeance = null;
+        int dernierePosition = -1;
+        boolean suivante = false;
+        boolean premierLot = true;
+        Object depuis = seanceCurseur;
+        while (true) {
+            Criteria criteres = depuis == null ? filtre : new Criteria().andOperator(filtre,
+                    premierLot ? Criteria.where("_id").gte(depuis) : Criteria.where("_id").gt(depuis));
+            List<Document> pipeline = new ArrayList<>();
+            pipeline.add(new Document("$match", new Query(criteres).getQueryObject()));
+            pipeline.add(new Document("$sort", new Document("_id", 1)));
+            pipeline.add(new Document("$limit", limite + 1));
+            pipeline.addAll(expansionService.etapes("seances_emargement", expansions));
+            List<Document> seances = mongoTemplate.getCollection(collection).aggregate(pipeline).into(new ArrayList<>());
+            for (Document seance : seances) {
+                int debut = premierLot && seance.get("_id").equals(seanceCurseur) ? positionCurseur + 1 : 0;
+                List<Map<String, Object>> lignes = lignes(seance, expansions, debut);
+                for (int i = 0; i < lignes.size(); i++) {
+                    if (content.size() == limite) {
+                        suivante = true;
+                        break;
+                    }
+                    content.add(lignes.get(i));
+                    derniereSeance = seance.get("_id");
+                    dernierePosition = debut + i;
+                }
+                if (suivante) {
+                    break;
+                }
+            }
+            if (suivante || seances.size() <= limite) {
+                break;
+            }
+            depuis = seances.get(seances.size() - 1).get("_id");
+            premierLot = false;
+        }
+        PageResult result = new PageResult();
+        result.setContent(content);
+        result.setLimit(limite);
+        if (suivante) {
+            result.setNextCursor(PaginationService.encodeCursor(new Document("s", derniereSeance).append("p", dernierePosition)));
+        }
+        return result;
+    }
+
+    // Émargements d'une séance lue par agrégation (avec ses expansions), à partir de la position debut
+    private List<Map<String, Object>> lignes(Document document, List<String> expansions, int debut) {
+        SeanceEmargement seance = mongoTemplate.getConverter().read(SeanceEmargement.class, document);
+        Map<String, Object> eleves = new HashMap<>();
+        for (Document eleve : document.getList("eleve", Document.class, List.of())) {
+            eleves.put(eleve.getString("id"), eleve);
+        }
+        List<Map<String, Object>> lignes = new ArrayList<>();
+        for (int i = debut; i < seance.getEleveIds().size(); i++) {
+            Emargement emargement = emargement(seance, i);
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("id", emargement.getId());
+            json.put("eleveId", emargement.getEleveId());
+            json.put("coursId", emargement.getCoursId());
+            json.put("date", emargement.getDate());
+            json.put("present", emargement.getPresent());
+            if (expansions.contains("eleve") && eleves.containsKey(emargement.getEleveId())) {
+                json.put("eleve", eleves.get(emargement.getEleveId()));
+            }
+            if (document.containsKey("cours")) {
+                json.put("cours", document.get("cours"));
+            }
+            lignes.add(json);
+        }
+        return lignes;
+    }
+
+    // Job ASSIDUITE : présences et absences par élève sur les séances d'une classe (année en cours si anneeScolaire est absent),
+    // avancement signalé par séance lue
+    public Map<String, Object> getAssiduiteClasse(String classe, String anneeScolaire, Progression progression) {
+        String annee = anneeScolaire == null ? AnneeScolaire.courante() : anneeScolaire;
+        Query query = new Query(archivageService.criteres("seances_emargement", annee)).addCriteria(Criteria.where("classe").is(classe));
+        List<SeanceEmargement> seances = mongoTemplate.find(query, SeanceEmargement.class, archivageService.collection("seances_emargement", annee));
+        Map<String, long[]> compteurs = new LinkedHashMap<>(); // eleveId -> { séances, présences }
+        for (int s = 0; s < seances.size(); s++) {
+            SeanceEmargement seance = seances.get(s);
+            BitSet presences = BitSet.valueOf(seance.getPresences());
+            for (int i = 0; i < seance.getEleveIds().size(); i++) {
+                long[] compteur = compteurs.computeIfAbsent(seance.getEleveIds().get(i), id -> new long[2]);
+                compteur[0]++;
+                if (presences.get(i)) {
+                    compteur[1]++;
+                }
+            }
+            progression.avancer(s + 1, seances.size());
+        }
+        Map<String, Eleve> eleves = new HashMap<>();
+        eleveRepository.findAllById(compteurs.keySet()).forEach(eleve -> eleves.put(eleve.getId(), eleve));
+        List<Map<String, Object>> lignes = new ArrayList<>();
+        for (Map.Entry<String, long[]> entree : compteurs.entrySet()) {
+            Eleve eleve = eleves.get(entree.getKey());
+            long[] compteur = entree.getValue();
+            Map<String, Object> ligne = new LinkedHashMap<>();
+            ligne.put("eleveId", entree.getKey());
+            ligne.put("matricule", eleve == null ? null : eleve.getMatricule());
+            ligne.put("nom", eleve == null ? null : eleve.getNom());
+            ligne.put("prenom", eleve == null ? null : eleve.getPrenom());
+            ligne.put("seances", compteur[0]);
+            ligne.put("presences", compteur[1]);
+            ligne.put("absences", compteur[0] - compteur[1]);
+            ligne.put("tauxPresence", Math.round(compteur[1] * 1000.0 / compteur[0]) / 10.0);
+            lignes.add(ligne);
+        }
+        lignes.sort(Comparator.comparing((Map<String, Object> ligne) -> (Long) ligne.get("absences")).reversed());
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("classe", classe);
+        rapport.put("anneeScolaire", annee);
+        rapport.put("seances", seances.size());
+        rapport.put("eleves", lignes);
+        return rapport;
+    }
+
+    public Optional<Emargement> getEmargement(String seanceId, String eleveId) {
+        return seanceEmargementRepository.findById(seanceId)
+                .filter(seance -> seance.position(eleveId) >= 0)
+                .map(seance -> emargement(seance, seance.position(eleveId)));
+    }
+
+    public Optional<SeanceEmargement> getSeance(String seanceId) {
+        return seanceEmargementRepository.findById(seanceId);
+    }
+
+    // Lecture-modification-écriture protégée par @Version : on recommence si une autre requête a modifié la séance
+    private SeanceEmargement enregistrer(String coursId, String classe, String date, Map<String, Boolean> presences, boolean listeClasse) {
+        archivageService.verifierOuverte("seances_emargement", AnneeScolaire.de(date));
+        for (int tentative = 1; ; tentative++) {
+            SeanceEmargement seance = seanceEmargementRepository.findByCoursIdAndClasseAndDate(coursId, classe, date)
+                    .orElseGet(() -> nouvelleSeance(coursId, classe, date, listeClasse));
+            List<String> eleveIds = new ArrayList<>(seance.getEleveIds());
+            BitSet bits = BitSet.valueOf(seance.getPresences());
+            int anciensPresents = bits.cardinality();
+            int anciensEleves = seance.getId() == null ? 0 : eleveIds.size();
+
+            presences.forEach((eleveId, present) -> {
+                int position = eleveIds.indexOf(eleveId);
+                if (position < 0) {
+                    eleveIds.add(eleveId);
+                    position = eleveIds.size() - 1;
+                }
+                bits.set(position, Boolean.TRUE.equals(present));
+            });
+            seance.setEleveIds(eleveIds);
+            seance.setPresences(bits.toByteArray());
+            seance.setNombrePresents(bits.cardinality());
+            try {
+                SeanceEmargement saved;
+                Lock verrou = statistiquesService.verrouEcriture();
+                verrou.lock();
+                try {
+                    saved = seanceEmargementRepository.save(seance);
+                    statistiquesService.emargementsEnregistres(eleveIds.size() - anciensEleves, bits.cardinality() - anciensPresents);
+                } finally {
+                    verrou.unlock();
+                }
+                versionsCollections.incrementer("emargements");
+                return saved;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (tentative == TENTATIVES) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Pour un appel, la liste de la classe (triée) donne les positions : les élèves non cités sont absents
+    private SeanceEmargement nouvelleSeance(String coursId, String classe, String date, boolean listeClasse) {
+        SeanceEmargement seance = new SeanceEmargement();
+        seance.setCoursId(coursId);
+        seance.setClasse(classe);
+        seance.setDate(date);
+        if (listeClasse && classe != null) {
+            seance.setEleveIds(new ArrayList<>(eleveRepository.findIdsByNomClasse(classe).stream().map(Eleve::getId).toList()));
+        }
+        return seance;
+    }
+
+    private Appel toAppel(SeanceEmargement seance) {
+        Appel appel = new Appel();
+        appel.setCoursId(seance.getCoursId());
+        appel.setClasse(seance.getClasse());
+        appel.setDate(seance.getDate());
+        BitSet bits = BitSet.valueOf(seance.getPresences());
+        for (int i = 0; i < seance.getEleveIds().size(); i++) {
+            appel.getPresences().put(seance.getEleveIds().get(i), bits.get(i));
+        }
+        return appel;
+    }
+
+    private static Emargement emargement(SeanceEmargement seance, int position) {
+        String eleveId = seance.getEleveIds().get(position);
+        Emargement emargement = new Emargement();
+        emargement.setId(EmargementService.idSeance(seance.getId(), eleveId));
+        emargement.setEleveId(eleveId);
+        emargement.setCoursId(seance.getCoursId());
+        emargement.setDate(seance.getDate());
+        emargement.setPresent(seance.estPresent(position));
+        return emargement;
+    }
+}
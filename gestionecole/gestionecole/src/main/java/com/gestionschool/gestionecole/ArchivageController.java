@@ -0,0 +1,22 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/archivage")
+public class ArchivageController {
+    @Autowired
+    private ArchivageService archivageService;
+
+    @GetMapping
+    public List<PartitionAnnee> getPartitions() {
+        return archivageService.getPartitions();
+    }
+    // Bascule immédiate, sans attendre l'exécution planifiée
+    @PostMapping("/bascule")
+    public List<PartitionAnnee> basculer() {
+        return archivageService.basculer();
+    }
+}
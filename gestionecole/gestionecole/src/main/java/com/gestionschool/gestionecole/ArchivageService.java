@@ -0,0 +1,466 @@
+package com.gestionschool.gestionecole;
+
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+
+// Bascule annuelle : les années closes quittent les collections chaudes (notes, scolarites, emargements, seances_emargement)
+// pour une partition par année (notes_2023_2024...), puis, au-delà de gestionecole.archivage.annees-en-base années closes,
+// pour un fichier gzip NDJSON (JSON étendu) du bucket GridFS "archives", lisible depuis toutes les instances.
+// Les collections chaudes gardent l'année en cours.
+// Une année close n'accepte plus d'écriture (409) ; sa lecture est routée vers sa partition, réhydratée depuis l'archive au besoin.
+// Les scolarités se rattachent à leur année de facturation (champ annee), close quand l'année scolaire en cours a commencé après elle.
+@Service
+public class ArchivageService {
+    private static final Logger log = LoggerFactory.getLogger(ArchivageService.class);
+    private static final int TAILLE_LOT = 1000;
+    // Compression prise par une instance arrêtée depuis : reprise par une autre
+    private static final Duration ABANDON_COMPRESSION = Duration.ofHours(1);
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+    public static final String SCOLARITES = "scolarites";
+    // Collection chaude -> champ date qui la range par année scolaire
+    private static final Map<String, String> CHAMPS_DATE = Map.of("notes", "dateEvaluation", "emargements", "date", "seances_emargement", "date");
+    public static final List<String> COLLECTIONS = List.of("notes", SCOLARITES, "emargements", "seances_emargement");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private PartitionAnneeRepository partitionAnneeRepository;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private ClassementService classementService;
+
+    @Value("${gestionecole.archivage.annees-en-base:2}")
+    private int anneesEnBase;
+
+    // Bascule et réhydratation ne se croisent pas (pas de synchronized : le service est un proxy)
+    private final Object verrou = new Object();
+    private GridFSBucket archives;
+
+    @PostConstruct
+    public void initialiser() {
+        archives = GridFSBuckets.create(mongoTemplate.getDb(), "archives");
+    }
+
+    @Scheduled(cron = "${gestionecole.archivage.cron:0 30 2 * * *}")
+    public void basculerPlanifie() {
+        try {
+            List<PartitionAnnee> partitions = basculer();
+            if (!partitions.isEmpty()) {
+                log.info("Bascule annuelle : {} partition(s) modifiée(s)", partitions.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Bascule annuelle interrompue, reprise à la prochaine exécution", e);
+        }
+    }
+
+    public List<PartitionAnnee> getPartitions() {
+        return partitionAnneeRepository.findAll(Sort.by("collection", "annee"));
+    }
+
+    // Idempotente : chaque lot est copié (remplacement par _id) avant d'être supprimé de la collection chaude
+    public List<PartitionAnnee> basculer() {
+        synchronized (verrou) {
+            Map<String, PartitionAnnee> modifiees = new LinkedHashMap<>();
+            boolean notes = false;
+            for (String collection : COLLECTIONS) {
+                for (String annee : anneesClosesEnBase(collection)) {
+                    PartitionAnnee partition = deplacer(collection, annee);
+                    modifiees.put(partition.getId(), partition);
+                    versionsCollections.incrementer(version(collection));
+                    notes |= "notes".equals(collection);
+                }
+            }
+            if (!modifiees.isEmpty()) {
+                statistiquesService.invalider();
+            }
+            if (notes) {
+                classementService.reconstruireEnArrierePlan();
+            }
+            for (PartitionAnnee partition : compresser()) {
+                modifiees.put(partition.getId(), partition);
+            }
+            return new ArrayList<>(modifiees.values());
+        }
+    }
+
+    // Collection à lire pour une année : sa partition si elle a été basculée, la collection chaude sinon
+    public String collection(String collection, String annee) {
+        if (!estClose(collection, annee)) {
+            return collection;
+        }
+        Optional<PartitionAnnee> partition = partitionAnneeRepository.findById(PartitionAnnee.id(collection, annee));
+        if (partition.isEmpty() || PartitionAnnee.EN_BASCULE.equals(partition.get().getEtat())) {
+            return collection;
+        }
+        if (PartitionAnnee.ARCHIVEE.equals(partition.get().getEtat())) {
+            synchronized (verrou) {
+                PartitionAnnee relue = partitionAnneeRepository.findById(partition.get().getId()).orElseThrow();
+                if (PartitionAnnee.ARCHIVEE.equals(relue.getEtat())) {
+                    restaurer(relue);
+                }
+            }
+        }
+        return partition.get().getPartition();
+    }
+
+    // Documents d'une année, dans la collection chaude comme dans sa partition
+    public Criteria criteres(String collection, String annee) {
+        if (SCOLARITES.equals(collection)) {
+            return Criteria.where("annee").is(anneeFacturation(annee));
+        }
+        return Criteria.where(CHAMPS_DATE.get(collection)).gte(AnneeScolaire.premierJour(annee)).lt(AnneeScolaire.dernierJour(annee));
+    }
+
+    public void verifierOuverte(String collection, String annee) {
+        if (estBasculee(collection, annee)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Année " + annee + " close : " + collection + " n'accepte plus d'écriture");
+        }
+    }
+
+    public boolean estBasculee(String collection, String annee) {
+        return annee != null && estClose(collection, annee) && partitionAnneeRepository.existsById(PartitionAnnee.id(collection, annee));
+    }
+
+    // Années basculées d'une collection (partitions en base ou archivées)
+    public List<String> anneesBasculees(String collection) {
+        return partitionAnneeRepository.findByCollection(collection, Sort.by("annee")).stream().map(PartitionAnnee::getAnnee).toList();
+    }
+
+    // Collection chaude puis partitions encore en base (les archives sont déjà des exports NDJSON,
+    // une partition EN_BASCULE n'est qu'une copie partielle de documents encore dans la collection chaude)
+    public List<String> collectionsEnBase(String collection) {
+        List<String> collections = new ArrayList<>();
+        collections.add(collection);
+        for (PartitionAnnee partition : partitionAnneeRepository.findByCollection(collection, Sort.by("annee"))) {
+            if (PartitionAnnee.EN_BASE.equals(partition.getEtat()) || PartitionAnnee.EN_COMPRESSION.equals(partition.getEtat())) {
+                collections.add(partition.getPartition());
+            }
+        }
+        return collections;
+    }
+
+    private boolean estClose(String collection, String annee) {
+        int debutCourante = AnneeScolaire.debut(AnneeScolaire.courante());
+        return SCOLARITES.equals(collection) ? anneeFacturation(annee) < debutCourante : AnneeScolaire.debut(annee) < debutCourante;
+    }
+
+    // Années closes encore présentes dans la collection chaude
+    private List<String> anneesClosesEnBase(String collection) {
+        List<String> annees = new ArrayList<>();
+        MongoCollection<Document> chaude = mongoTemplate.getCollection(collection);
+        if (SCOLARITES.equals(collection)) {
+            Bson closes = new Query(Criteria.where("annee").lt(AnneeScolaire.debut(AnneeScolaire.courante()))).getQueryObject();
+            for (Integer annee : chaude.distinct("annee", closes, Integer.class)) {
+                if (annee != null) {
+                    annees.add(String.valueOf(annee));
+                }
+            }
+            annees.sort(null);
+            return annees;
+        }
+        String champ = CHAMPS_DATE.get(collection);
+        String courante = AnneeScolaire.courante();
+        Document premiere = chaude.find(new Query(Criteria.where(champ).gte("0000").lt(AnneeScolaire.premierJour(courante))).getQueryObject())
+                .sort(Sorts.ascending(champ)).projection(new Document(champ, 1)).first();
+        String annee = premiere == null ? null : AnneeScolaire.de(premiere.getString(champ));
+        for (; annee != null && !annee.equals(courante); annee = AnneeScolaire.suivante(annee)) {
+            if (chaude.find(new Query(criteres(collection, annee)).getQueryObject()).projection(new Document("_id", 1)).first() != null) {
+                annees.add(annee);
+            }
+        }
+        return annees;
+    }
+
+    // La partition est enregistrée avant la copie : l'année refuse les écritures (409) pendant tout le déplacement.
+    // Copie complète, lectures basculées sur la partition, puis suppression dans la collection chaude des seuls documents
+    // identiques à leur copie : une écriture arrivée juste avant l'enregistrement est recopiée au tour suivant, pas perdue.
+    private PartitionAnnee deplacer(String collection, String annee) {
+        String id = PartitionAnnee.id(collection, annee);
+        PartitionAnnee partition = partitionAnneeRepository.findById(id).orElseGet(() -> {
+            PartitionAnnee nouvelle = new PartitionAnnee();
+            nouvelle.setId(id);
+            nouvelle.setCollection(collection);
+            nouvelle.setAnnee(annee);
+            nouvelle.setPartition(collection + "_" + annee.replace('-', '_'));
+            nouvelle.setEtat(PartitionAnnee.EN_BASCULE);
+            nouvelle.setDateBascule(maintenant());
+            return partitionAnneeRepository.save(nouvelle);
+        });
+        // Archive en cours d'écriture par une autre instance : les retardataires attendront la prochaine bascule
+        if (PartitionAnnee.EN_COMPRESSION.equals(partition.getEtat())) {
+            return partition;
+        }
+        // Retardataires d'une année déjà archivée (écrits avant la bascule) : l'archive est rechargée pour les accueillir
+        if (PartitionAnnee.ARCHIVEE.equals(partition.getEtat())) {
+            restaurer(partition);
+        }
+        MongoCollection<Document> chaude = mongoTemplate.getCollection(collection);
+        MongoCollection<Document> cible = mongoTemplate.getCollection(partition.getPartition());
+        copierIndex(chaude, cible);
+        Bson filtre = new Query(criteres(collection, annee)).getQueryObject();
+        try (MongoCursor<Document> curseur = chaude.find(filtre).batchSize(TAILLE_LOT).iterator()) {
+            List<Document> lot = new ArrayList<>(TAILLE_LOT);
+            while (curseur.hasNext()) {
+                lot.add(curseur.next());
+                if (lot.size() == TAILLE_LOT) {
+                    remplacer(cible, lot);
+                    lot.clear();
+                }
+            }
+            remplacer(cible, lot);
+        }
+        if (!PartitionAnnee.EN_BASE.equals(partition.getEtat())) {
+            partition.setEtat(PartitionAnnee.EN_BASE);
+            partition = partitionAnneeRepository.save(partition);
+        }
+        long deplaces = 0;
+        List<Document> lot;
+        while (!(lot = chaude.find(filtre).sort(Sorts.ascending("_id")).limit(TAILLE_LOT).into(new ArrayList<>())).isEmpty()) {
+            List<WriteModel<Document>> suppressions = new ArrayList<>(lot.size());
+            for (Document document : lot) {
+                suppressions.add(new DeleteOneModel<>(identique(document)));
+            }
+            long supprimes = chaude.bulkWrite(suppressions, new BulkWriteOptions().ordered(false)).getDeletedCount();
+            if (supprimes < lot.size()) {
+                // Modifiés depuis leur copie : la version courante remplace la copie avant le prochain tour
+                remplacer(cible, chaude.find(in("_id", lot.stream().map(document -> document.get("_id")).toList())).into(new ArrayList<>()));
+            }
+            deplaces += supprimes;
+        }
+        partition.setDocuments(cible.countDocuments());
+        partition.setDateBascule(maintenant());
+        log.info("{} {} : {} document(s) déplacé(s) vers {}", collection, annee, deplaces, partition.getPartition());
+        return partitionAnneeRepository.save(partition);
+    }
+
+    // Filtre qui ne trouve le document que s'il a encore exactement ces valeurs
+    private static Bson identique(Document document) {
+        List<Bson> champs = new ArrayList<>();
+        for (Map.Entry<String, Object> champ : document.entrySet()) {
+            champs.add(eq(champ.getKey(), champ.getValue()));
+        }
+        return and(champs);
+    }
+
+    // Au-delà des anneesEnBase années closes les plus récentes, chaque partition part dans un fichier compressé
+    private List<PartitionAnnee> compresser() {
+        List<PartitionAnnee> compressees = new ArrayList<>();
+        if (anneesEnBase < 0) {
+            return compressees;
+        }
+        for (String collection : COLLECTIONS) {
+            List<PartitionAnnee> partitions = partitionAnneeRepository.findByCollection(collection, Sort.by(Sort.Direction.DESC, "annee"));
+            for (int i = anneesEnBase; i < partitions.size(); i++) {
+                if (PartitionAnnee.EN_BASE.equals(partitions.get(i).getEtat()) || PartitionAnnee.EN_COMPRESSION.equals(partitions.get(i).getEtat())) {
+                    compresser(partitions.get(i)).ifPresent(compressees::add);
+                }
+            }
+        }
+        return compressees;
+    }
+
+    // La partition est d'abord prise (EN_BASE -> EN_COMPRESSION) : la bascule planifiée tourne sur chaque instance et une seule
+    // l'archive. Fichier GridFS écrit puis relu, registre mis à jour, collection supprimée en dernier : une interruption ne perd rien,
+    // et une archive existante plus complète que la collection n'est jamais remplacée.
+    private Optional<PartitionAnnee> compresser(PartitionAnnee candidate) {
+        Query libre = Query.query(Criteria.where("_id").is(candidate.getId()).orOperator(
+                Criteria.where("etat").is(PartitionAnnee.EN_BASE),
+                Criteria.where("etat").is(PartitionAnnee.EN_COMPRESSION).and("dateArchivage").lt(maintenant(ABANDON_COMPRESSION))));
+        PartitionAnnee partition = mongoTemplate.findAndModify(libre,
+                new Update().set("etat", PartitionAnnee.EN_COMPRESSION).set("dateArchivage", maintenant()),
+                FindAndModifyOptions.options().returnNew(true), PartitionAnnee.class);
+        if (partition == null) {
+            return Optional.empty();
+        }
+        MongoCollection<Document> source = mongoTemplate.getCollection(partition.getPartition());
+        GridFSUploadStream upload = archives.openUploadStream(partition.getPartition() + ".ndjson.gz",
+                new GridFSUploadOptions().metadata(new Document("partition", partition.getId())));
+        ObjectId fichier = upload.getObjectId();
+        long documents = 0;
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(upload), StandardCharsets.UTF_8));
+                 MongoCursor<Document> curseur = source.find().batchSize(TAILLE_LOT).iterator()) {
+                while (curseur.hasNext()) {
+                    writer.write(curseur.next().toJson(JSON));
+                    writer.newLine();
+                    documents++;
+                }
+            }
+            long relus = lignes(fichier);
+            long existants = partition.getFichier() == null ? 0 : lignes(new ObjectId(partition.getFichier()));
+            if (relus != documents || existants > documents) {
+                supprimerArchive(fichier);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(partition.getId()).and("etat").is(PartitionAnnee.EN_COMPRESSION)),
+                        Update.update("etat", PartitionAnnee.EN_BASE), PartitionAnnee.class);
+                log.error("{} non archivée : {} document(s) en base, {} relu(s) dans l'archive, {} dans l'archive précédente",
+                        partition.getPartition(), documents, relus, existants);
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            supprimerArchive(fichier);
+            throw new UncheckedIOException("Archive non écrite : " + partition.getPartition(), e);
+        } catch (RuntimeException e) {
+            supprimerArchive(fichier);
+            throw e;
+        }
+        String precedente = partition.getFichier();
+        partition.setEtat(PartitionAnnee.ARCHIVEE);
+        partition.setDocuments(documents);
+        partition.setFichier(fichier.toHexString());
+        partition.setDateArchivage(maintenant());
+        partitionAnneeRepository.save(partition);
+        if (precedente != null) {
+            supprimerArchive(new ObjectId(precedente));
+        }
+        source.drop();
+        log.info("{} archivée dans GridFS {} ({} document(s))", partition.getPartition(), fichier.toHexString(), documents);
+        return Optional.of(partition);
+    }
+
+    private long lignes(ObjectId fichier) throws IOException {
+        try (BufferedReader reader = lecteur(fichier)) {
+            return reader.lines().filter(ligne -> !ligne.isBlank()).count();
+        }
+    }
+
+    private BufferedReader lecteur(ObjectId fichier) throws IOException {
+        return new BufferedReader(new InputStreamReader(new GZIPInputStream(archives.openDownloadStream(fichier)), StandardCharsets.UTF_8));
+    }
+
+    private void supprimerArchive(ObjectId fichier) {
+        try {
+            archives.delete(fichier);
+        } catch (MongoGridFSException e) {
+            log.warn("Archive {} non supprimée : {}", fichier.toHexString(), e.getMessage());
+        }
+    }
+
+    private static String maintenant() {
+        return maintenant(Duration.ZERO);
+    }
+
+    // Horodatage à la seconde, toujours de même longueur : les dates se comparent comme des chaînes
+    private static String maintenant(Duration avant) {
+        return LocalDateTime.now().minus(avant).truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    // L'archive reste en GridFS : la partition sera de nouveau compressée à la prochaine bascule, l'archive remplacée
+    private void restaurer(PartitionAnnee partition) {
+        MongoCollection<Document> cible = mongoTemplate.getCollection(partition.getPartition());
+        copierIndex(mongoTemplate.getCollection(partition.getCollection()), cible);
+        long documents = 0;
+        try (BufferedReader reader = lecteur(new ObjectId(partition.getFichier()))) {
+            List<Document> lot = new ArrayList<>(TAILLE_LOT);
+            String ligne;
+            while ((ligne = reader.readLine()) != null) {
+                if (!ligne.isBlank()) {
+                    lot.add(Document.parse(ligne));
+                }
+                if (lot.size() == TAILLE_LOT) {
+                    remplacer(cible, lot);
+                    documents += lot.size();
+                    lot.clear();
+                }
+            }
+            remplacer(cible, lot);
+            documents += lot.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archive illisible : " + partition.getFichier(), e);
+        }
+        partition.setEtat(PartitionAnnee.EN_BASE);
+        partitionAnneeRepository.save(partition);
+        log.info("{} réhydratée depuis GridFS {} ({} document(s))", partition.getPartition(), partition.getFichier(), documents);
+    }
+
+    private static void remplacer(MongoCollection<Document> cible, List<Document> lot) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> ecritures = new ArrayList<>(lot.size());
+        for (Document document : lot) {
+            ecritures.add(new ReplaceOneModel<>(eq("_id", document.get("_id")), document, new ReplaceOptions().upsert(true)));
+        }
+        cible.bulkWrite(ecritures, new BulkWriteOptions().ordered(false));
+    }
+
+    // Mêmes index que la collection chaude (filtre partiel compris) : les lectures routées gardent leurs plans
+    private static void copierIndex(MongoCollection<Document> chaude, MongoCollection<Document> partition) {
+        for (Document index : chaude.listIndexes()) {
+            if (!"_id_".equals(index.getString("name"))) {
+                partition.createIndex(index.get("key", Document.class), new IndexOptions().name(index.getString("name"))
+                        .unique(index.getBoolean("unique", false)).sparse(index.getBoolean("sparse", false))
+                        .partialFilterExpression(index.get("partialFilterExpression", Document.class)));
+            }
+        }
+    }
+
+    private static int anneeFacturation(String annee) {
+        try {
+            return Integer.parseInt(annee);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Année invalide : " + annee);
+        }
+    }
+
+    // Les séances d'appel partagent la version (et donc les ETag) des émargements
+    private static String version(String collection) {
+        return "seances_emargement".equals(collection) ? "emargements" : collection;
+    }
+}
@@ -0,0 +1,358 @@
+package com.gestionschool.gestionecole;
+
+import de.bwaldvogel.mongo.backend.DatabaseResolver;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.aggregation.Aggregation;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.bwaldvogel.mongo.backend.memory.MemoryDatabase;
+import de.bwaldvogel.mongo.bson.Document;
+import de.bwaldvogel.mongo.bson.ObjectId;
+import de.bwaldvogel.mongo.exception.MongoServerException;
+import de.bwaldvogel.mongo.oplog.Oplog;
+import io.netty.channel.Channel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Backend MongoDB en mémoire (protocole MongoDB, collections dans des tables concurrentes) dont les index
+// secondaires non uniques, ignorés par le backend d'origine, sont des IndexHachage et dont les index uniques partiels
+// (partialFilterExpression, ignoré lui aussi) sont des IndexUniquePartiel.
+// Ce que le backend ne connaît pas et que les services emploient est traduit avant exécution :
+// $round, $trim (espaces seulement), $convert vers objectId et les tableaux littéraux de $concatArrays réécrits avec les opérateurs disponibles,
+// mises à jour par pipeline (AggregationUpdate) évaluées document par document puis écrites si le document n'a pas changé entre-temps.
+public class BaseMemoire extends MemoryBackend {
+    private static final ObjectId OBJECT_ID_MIN = new ObjectId("000000000000000000000000");
+
+    @Override
+    public MemoryDatabase openOrCreateDatabase(String nom) {
+        return new Base(nom, this);
+    }
+
+    private static class Base extends MemoryDatabase {
+        private static final int DOUBLON = 11000;
+        private static final int ESSAIS_MAX = 100;
+
+        // "collection.index" -> partialFilterExpression des index uniques partiels
+        private final Map<String, Document> filtresPartiels = new ConcurrentHashMap<>();
+
+        Base(String nom, BaseMemoire backend) {
+            super(nom, backend.getCursorRegistry());
+        }
+
+        @Override
+        protected Index<Integer> openOrCreateSecondaryIndex(String collection, String nomIndex, List<IndexKey> cles, boolean sparse) {
+            return new IndexHachage(nomIndex, cles, sparse);
+        }
+
+        @Override
+        protected void addIndex(Document description) {
+            if (description.get("partialFilterExpression") instanceof Document filtre) {
+                String ns = description.get("ns").toString();
+                filtresPartiels.put(ns.substring(ns.indexOf('.') + 1) + "." + description.get("name"), filtre);
+            }
+            super.addIndex(description);
+        }
+
+        @Override
+        protected Index<Integer> openOrCreateUniqueIndex(String collection, String nomIndex, List<IndexKey> cles, boolean sparse) {
+            Document filtre = filtresPartiels.get(collection + "." + nomIndex);
+            return filtre != null ? new IndexUniquePartiel(nomIndex, cles, sparse, filtre) : super.openOrCreateUniqueIndex(collection, nomIndex, cles, sparse);
+        }
+
+        @Override
+        public Document handleCommand(Channel channel, String command, Document query, DatabaseResolver resolver, Oplog oplog) {
+            Document commande = (Document) reecrire(query);
+            if (command.equalsIgnoreCase("aggregate")) {
+                commande.put("pipeline", etapes((List<?>) commande.get("pipeline")));
+            }
+            if (command.equalsIgnoreCase("update") && ((List<?>) commande.get("updates")).stream()
+                    .anyMatch(u -> ((Document) u).get("u") instanceof List)) {
+                return mettreAJour(channel, commande, resolver, oplog);
+            }
+            if (command.equalsIgnoreCase("findAndModify") && commande.get("update") instanceof List) {
+                return trouverEtModifier(channel, commande, resolver, oplog);
+            }
+            return super.handleCommand(channel, command, commande, resolver, oplog);
+        }
+
+        // Commande update dont au moins une instruction est un pipeline : instructions exécutées une à une
+        private Document mettreAJour(Channel channel, Document commande, DatabaseResolver resolver, Oplog oplog) {
+            String collection = (String) commande.get("update");
+            List<?> instructions = (List<?>) commande.get("updates");
+            long n = 0;
+            long modifies = 0;
+            List<Document> upserts = new ArrayList<>();
+            List<Object> erreurs = new ArrayList<>();
+            for (int i = 0; i < instructions.size(); i++) {
+                Document instruction = (Document) instructions.get(i);
+                Document resultat;
+                if (instruction.get("u") instanceof List<?> pipeline) {
+                    resultat = appliquerPipeline(channel, collection, (Document) instruction.getOrDefault("q", new Document()), null, pipeline,
+                            Boolean.TRUE.equals(instruction.get("upsert")), Boolean.TRUE.equals(instruction.get("multi")), resolver, oplog);
+                } else {
+                    Document seule = new Document("update", collection).append("updates", List.of(instruction));
+                    resultat = super.handleCommand(channel, "update", seule, resolver, oplog);
+                }
+                n += nombre(resultat.get("n"));
+                modifies += nombre(resultat.get("nModified"));
+                if (resultat.get("upserted") instanceof List<?> ids) {
+                    for (Object id : ids) {
+                        upserts.add(new Document("index", i).append("_id", ((Document) id).get("_id")));
+                    }
+                }
+                if (resultat.get("writeErrors") instanceof List<?> liste) {
+                    for (Object erreur : liste) {
+                        erreurs.add(new Document((Document) erreur).append("index", i));
+                    }
+                }
+            }
+            Document reponse = new Document("n", n).append("nModified", modifies);
+            if (!upserts.isEmpty()) {
+                reponse.put("upserted", upserts);
+            }
+            if (!erreurs.isEmpty()) {
+                reponse.put("writeErrors", erreurs);
+            }
+            return reponse.append("ok", 1.0);
+        }
+
+        private Document trouverEtModifier(Channel channel, Document commande, DatabaseResolver resolver, Oplog oplog) {
+            String collection = (String) commande.get("findAndModify");
+            Document[] avantApres = new Document[2];
+            Document resultat = appliquerPipeline(channel, collection, (Document) commande.getOrDefault("query", new Document()),
+                    (Document) commande.get("sort"), (List<?>) commande.get("update"), Boolean.TRUE.equals(commande.get("upsert")), false,
+                    resolver, oplog, avantApres);
+            Document dernier = new Document("n", resultat.get("n")).append("updatedExisting", avantApres[0] != null);
+            if (resultat.get("upserted") instanceof List<?> ids && !ids.isEmpty()) {
+                dernier.put("upserted", ((Document) ids.get(0)).get("_id"));
+            }
+            Object valeur = Boolean.TRUE.equals(commande.get("new")) ? avantApres[1] : avantApres[0];
+            return new Document("lastErrorObject", dernier).append("value", valeur).append("ok", 1.0);
+        }
+
+        private Document appliquerPipeline(Channel channel, String collection, Document filtre, Document tri, List<?> pipeline,
+                                           boolean upsert, boolean multi, DatabaseResolver resolver, Oplog oplog) {
+            return appliquerPipeline(channel, collection, filtre, tri, pipeline, upsert, multi, resolver, oplog, new Document[2]);
+        }
+
+        // Lecture, évaluation du pipeline sur le document lu, puis remplacement conditionné à $$ROOT inchangé (sinon nouvel essai)
+        private Document appliquerPipeline(Channel channel, String collection, Document filtre, Document tri, List<?> pipeline,
+                                           boolean upsert, boolean multi, DatabaseResolver resolver, Oplog oplog, Document[] avantApres) {
+            long n = 0;
+            long modifies = 0;
+            List<Object> dejaModifies = new ArrayList<>();
+            for (int essai = 1; ; essai++) {
+                if (essai > ESSAIS_MAX) {
+                    throw new MongoServerException("Mise à jour par pipeline abandonnée après " + ESSAIS_MAX + " essais sur " + collection);
+                }
+                Document recherche = dejaModifies.isEmpty() ? filtre
+                        : new Document("$and", List.of(filtre, new Document("_id", new Document("$nin", dejaModifies))));
+                Document ancien = premier(channel, collection, recherche, tri, resolver, oplog);
+                if (ancien == null) {
+                    if (n > 0 || !upsert) {
+                        return new Document("n", n).append("nModified", modifies);
+                    }
+                    Document nouveau = evaluer(pipeline, egalites(filtre), collection, resolver, oplog);
+                    if (!nouveau.containsKey("_id")) {
+                        nouveau.put("_id", new ObjectId());
+                    }
+                    Document insertion = super.handleCommand(channel, "insert",
+                            new Document("insert", collection).append("documents", List.of(nouveau)), resolver, oplog);
+                    if (insertion.get("writeErrors") instanceof List<?> erreurs) {
+                        if (nombre(((Document) erreurs.get(0)).get("code")) == DOUBLON) {
+                            continue; // inséré entre-temps par une autre écriture : mise à jour du document existant
+                        }
+                        return new Document("n", 0L).append("nModified", 0L).append("writeErrors", erreurs);
+                    }
+                    avantApres[1] = nouveau;
+                    return new Document("n", 1L).append("nModified", 0L)
+                            .append("upserted", List.of(new Document("index", 0).append("_id", nouveau.get("_id"))));
+                }
+                Document nouveau = evaluer(pipeline, ancien, collection, resolver, oplog);
+                nouveau.put("_id", ancien.get("_id"));
+                Document conditionnel = new Document("_id", ancien.get("_id"))
+                        .append("$expr", new Document("$eq", List.of("$$ROOT", new Document("$literal", ancien))));
+                Document remplacement = super.handleCommand(channel, "update", new Document("update", collection)
+                        .append("updates", List.of(new Document("q", conditionnel).append("u", nouveau))), resolver, oplog);
+                if (nombre(remplacement.get("n")) == 0) {
+                    continue;
+                }
+                n++;
+                modifies += nombre(remplacement.get("nModified"));
+                avantApres[0] = ancien;
+                avantApres[1] = nouveau;
+                if (!multi) {
+                    return new Document("n", n).append("nModified", modifies);
+                }
+                dejaModifies.add(ancien.get("_id"));
+            }
+        }
+
+        private Document premier(Channel channel, String collection, Document filtre, Document tri, DatabaseResolver resolver, Oplog oplog) {
+            Document find = new Document("find", collection).append("filter", filtre).append("limit", 1).append("singleBatch", true);
+            if (tri != null) {
+                find.put("sort", tri);
+            }
+            Document cursor = (Document) super.handleCommand(channel, "find", find, resolver, oplog).get("cursor");
+            List<?> lot = (List<?>) cursor.get("firstBatch");
+            return lot.isEmpty() ? null : (Document) lot.get(0);
+        }
+
+        private Document evaluer(List<?> pipeline, Document document, String collection, DatabaseResolver resolver, Oplog oplog) {
+            Aggregation aggregation = Aggregation.fromPipeline(etapes(pipeline), resolver, this, resolveCollection(collection, false), oplog);
+            return aggregation.runStages(Stream.of(document.cloneDeeply())).get(0);
+        }
+
+        // Étape $set : alias de $addFields, inconnu du backend
+        private static List<Document> etapes(List<?> pipeline) {
+            List<Document> etapes = new ArrayList<>(pipeline.size());
+            for (Object etape : pipeline) {
+                Document document = (Document) etape;
+                if (document.size() == 1 && (document.containsKey("$set") || document.containsKey("$addFields"))) {
+                    Document champs = (Document) document.getOrDefault("$set", document.get("$addFields"));
+                    etapes.add(new Document("$addFields", imbriquer(champs, "")));
+                } else {
+                    etapes.add(document);
+                }
+            }
+            return etapes;
+        }
+
+        // Champs pointés ("payeParMois.Janvier") fusionnés dans le sous-document, que le backend ne sait pas faire
+        private static Document imbriquer(Map<String, Object> champs, String chemin) {
+            Map<String, Object> arbre = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> champ : champs.entrySet()) {
+                String[] parties = champ.getKey().split("\\.", 2);
+                if (parties.length == 1) {
+                    arbre.put(champ.getKey(), champ.getValue());
+                } else {
+                    sousChamps(arbre, parties[0]).put(parties[1], champ.getValue());
+                }
+            }
+            Document resultat = new Document();
+            for (Map.Entry<String, Object> champ : arbre.entrySet()) {
+                String complet = chemin + champ.getKey();
+                resultat.put(champ.getKey(), champ.getValue() instanceof LinkedHashMap<?, ?>
+                        ? new Document("$mergeObjects", List.of(new Document("$ifNull", List.of("$" + complet, new Document())),
+                                imbriquer(sousChamps(arbre, champ.getKey()), complet + ".")))
+                        : champ.getValue());
+            }
+            return resultat;
+        }
+
+        // Sous-champs d'un préfixe : LinkedHashMap, jamais une valeur de la commande (toujours des Document)
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> sousChamps(Map<String, Object> arbre, String prefixe) {
+            return (Map<String, Object>) arbre.computeIfAbsent(prefixe, cle -> new LinkedHashMap<String, Object>());
+        }
+
+        // Document de départ d'un upsert : égalités de premier niveau du filtre
+        private static Document egalites(Document filtre) {
+            Document document = new Document();
+            for (Map.Entry<String, Object> champ : filtre.entrySet()) {
+                if (!champ.getKey().startsWith("$") && !(champ.getValue() instanceof Document valeur
+                        && valeur.keySet().stream().anyMatch(cle -> cle.startsWith("$")))) {
+                    document.put(champ.getKey(), champ.getValue());
+                }
+            }
+            return document;
+        }
+
+        private static long nombre(Object valeur) {
+            return valeur instanceof Number nombre ? nombre.longValue() : 0;
+        }
+    }
+
+    private static Object reecrire(Object valeur) {
+        if (valeur instanceof Document document) {
+            if (document.size() == 1 && document.containsKey("$round")) {
+                return arrondi(document.get("$round"));
+            }
+            if (document.size() == 1 && document.containsKey("$trim")) {
+                return sansEspaces(reecrire(((Document) document.get("$trim")).get("input")));
+            }
+            if (document.size() == 1 && document.get("$concatArrays") instanceof List<?> tableaux) {
+                return new Document("$concatArrays", tableaux.stream().map(t -> t instanceof List<?> litteral ? tableauEvalue(litteral) : reecrire(t)).toList());
+            }
+            if (document.size() == 1 && document.get("$convert") instanceof Document conversion && "objectId".equals(conversion.get("to"))) {
+                return versObjectId(reecrire(conversion.get("input")), reecrire(conversion.get("onError")), reecrire(conversion.get("onNull")));
+            }
+            Document copie = new Document();
+            document.forEach((cle, v) -> copie.put(cle, reecrire(v)));
+            return copie;
+        }
+        if (valeur instanceof List<?> liste) {
+            List<Object> copie = new ArrayList<>(liste.size());
+            liste.forEach(v -> copie.add(reecrire(v)));
+            return copie;
+        }
+        return valeur;
+    }
+
+    // $round : arrondi au pair le plus proche (comme MongoDB), décimales en littéral
+    private static Object arrondi(Object argument) {
+        List<?> arguments = argument instanceof List<?> liste ? liste : List.of(argument);
+        Object x = reecrire(arguments.get(0));
+        int decimales = arguments.size() > 1 ? ((Number) arguments.get(1)).intValue() : 0;
+        if (decimales == 0) {
+            return arrondiEntier(x);
+        }
+        double echelle = Math.pow(10, decimales);
+        return new Document("$divide", List.of(arrondiEntier(new Document("$multiply", List.of(x, echelle))), echelle));
+    }
+
+    private static Object arrondiEntier(Object x) {
+        Document plancher = new Document("$floor", x);
+        Document reste = new Document("$subtract", List.of(x, plancher));
+        Document superieur = new Document("$add", List.of(plancher, 1));
+        Document pair = new Document("$eq", List.of(new Document("$mod", List.of(plancher, 2)), 0));
+        return new Document("$cond", List.of(new Document("$gt", List.of(reste, 0.5)), superieur,
+                new Document("$cond", List.of(new Document("$lt", List.of(reste, 0.5)), plancher,
+                        new Document("$cond", List.of(pair, plancher, superieur))))));
+    }
+
+    // $trim réduit aux espaces : morceaux entre espaces, vides de tête et de fin écartés, puis recollés
+    private static Object sansEspaces(Object x) {
+        Document morceaux = new Document("$split", List.of(x, " "));
+        Document pleins = new Document("$map", new Document("input", morceaux).append("in", new Document("$ne", List.of("$$this", ""))));
+        Document premier = new Document("$indexOfArray", List.of(pleins, true));
+        Document dernier = new Document("$subtract", List.of(new Document("$size", morceaux),
+                new Document("$indexOfArray", List.of(new Document("$reverseArray", pleins), true))));
+        Document gardes = new Document("$slice", List.of(morceaux, premier, new Document("$subtract", List.of(dernier, premier))));
+        Document texte = new Document("$reduce", new Document("input", gardes).append("initialValue", "")
+                .append("in", new Document("$cond", List.of(new Document("$eq", List.of("$$value", "")), "$$this",
+                        new Document("$concat", List.of("$$value", " ", "$$this"))))));
+        return new Document("$cond", Arrays.asList(new Document("$eq", Arrays.asList(x, null)), null,
+                new Document("$cond", List.of(new Document("$eq", List.of(premier, -1)), "", texte))));
+    }
+
+    // $convert vers objectId : seules les chaînes de 24 chiffres hexadécimaux passent par $toObjectId, le reste donne onError.
+    // Chaîne : entre "" et le plus petit ObjectId dans l'ordre BSON ; $cond n'évalue que la branche retenue
+    private static Object versObjectId(Object x, Object siErreur, Object siNull) {
+        Document chaine = new Document("$and", List.of(new Document("$gte", List.of(x, "")), new Document("$lt", List.of(x, OBJECT_ID_MIN))));
+        Document hexadecimal = new Document("$allElementsTrue", List.of(new Document("$map", new Document("input", new Document("$range", List.of(0, 24)))
+                .append("as", "position")
+                .append("in", new Document("$gte", List.of(new Document("$indexOfCP",
+                        List.of("0123456789abcdefABCDEF", new Document("$substrCP", List.of(x, "$$position", 1)))), 0))))));
+        Document valide = new Document("$cond", List.of(chaine,
+                new Document("$cond", List.of(new Document("$eq", List.of(new Document("$strLenCP", x), 24)), hexadecimal, false)), false));
+        return new Document("$cond", Arrays.asList(new Document("$eq", Arrays.asList(new Document("$ifNull", Arrays.asList(x, null)), null)), siNull,
+                new Document("$cond", Arrays.asList(valide, new Document("$toObjectId", x), siErreur))));
+    }
+
+    // Tableau littéral [a, b] : ses éléments ne sont pas évalués par le backend, chacun devient un $map sur un intervalle d'un élément
+    // (champ absent : null, comme MongoDB)
+    private static Object tableauEvalue(List<?> elements) {
+        List<Object> morceaux = new ArrayList<>(elements.size());
+        for (Object element : elements) {
+            morceaux.add(new Document("$map", new Document("input", new Document("$range", List.of(0, 1)))
+                    .append("as", "element").append("in", new Document("$ifNull", Arrays.asList(reecrire(element), null)))));
+        }
+        return new Document("$concatArrays", morceaux);
+    }
+}
@@ -0,0 +1,29 @@
+package com.gestionschool.gestionecole;
+
+import java.util.List;
+
+// Bulletin d'un élève : uniquement les chiffres agrégés, jamais les notes de l'école
+public class Bulletin {
+    private String matriculeEleve;
+    private String classe;
+    private List<MoyenneCours> moyennes;
+    private Double moyenneGenerale;
+    private Double moyenneClasse;
+    private Integer rang;
+    private Integer effectifClasse;
+    // Getters et setters
+    public String getMatriculeEleve() { return matriculeEleve; }
+    public void setMatriculeEleve(String matriculeEleve) { this.matriculeEleve = matriculeEleve; }
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public List<MoyenneCours> getMoyennes() { return moyennes; }
+    public void setMoyennes(List<MoyenneCours> moyennes) { this.moyennes = moyennes; }
+    public Double getMoyenneGenerale() { return moyenneGenerale; }
+    public void setMoyenneGenerale(Double moyenneGenerale) { this.moyenneGenerale = moyenneGenerale; }
+    public Double getMoyenneClasse() { return moyenneClasse; }
+    public void setMoyenneClasse(Double moyenneClasse) { this.moyenneClasse = moyenneClasse; }
+    public Integer getRang() { return rang; }
+    public void setRang(Integer rang) { this.rang = rang; }
+    public Integer getEffectifClasse() { return effectifClasse; }
+    public void setEffectifClasse(Integer effectifClasse) { this.effectifClasse = effectifClasse; }
+}
@@ -0,0 +1,19 @@
+package com.gestionschool.gestionecole;
+
+import java.util.List;
+
+public class BulletinClasse {
+    private String classe;
+    private Double moyenneClasse;
+    private List<MoyenneCours> moyennesParCours;
+    private List<Bulletin> bulletins;
+    // Getters et setters
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public Double getMoyenneClasse() { return moyenneClasse; }
+    public void setMoyenneClasse(Double moyenneClasse) { this.moyenneClasse = moyenneClasse; }
+    public List<MoyenneCours> getMoyennesParCours() { return moyennesParCours; }
+    public void setMoyennesParCours(List<MoyenneCours> moyennesParCours) { this.moyennesParCours = moyennesParCours; }
+    public List<Bulletin> getBulletins() { return bulletins; }
+    public void setBulletins(List<Bulletin> bulletins) { this.bulletins = bulletins; }
+}
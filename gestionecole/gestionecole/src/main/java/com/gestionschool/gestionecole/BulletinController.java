@@ -0,0 +1,59 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.Optional;
+
+// Bulletins, imports et exports sont rarement demandés : contrôleurs et services créés à la première requête (démarrage plus court)
+@Lazy
+@RestController
+@RequestMapping("/api/bulletins")
+public class BulletinController {
+    @Autowired
+    private BulletinService bulletinService;
+    @Autowired
+    private BulletinPdfService bulletinPdfService;
+
+    @GetMapping("/{matricule}")
+    public Optional<Bulletin> getBulletin(@PathVariable String matricule) {
+        return bulletinService.getBulletin(matricule);
+    }
+
+    @GetMapping("/classe/{classe}")
+    public BulletinClasse getBulletinClasse(@PathVariable String classe) {
+        return bulletinService.getBulletinClasse(classe);
+    }
+
+    @GetMapping("/{matricule}/pdf")
+    public ResponseEntity<byte[]> getBulletinPdf(@PathVariable String matricule) {
+        return bulletinPdfService.pdfEleve(matricule)
+                .map(pdf -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"bulletin-" + matricule + ".pdf\"")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(pdf))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // ZIP écrit au fil de la génération
+    @GetMapping("/classe/{classe}/pdf")
+    public ResponseEntity<StreamingResponseBody> getBulletinsClassePdf(@PathVariable String classe) {
+        return zip("bulletins-" + classe, out -> bulletinPdfService.zipClasse(classe, out));
+    }
+
+    @GetMapping("/niveau/{niveau}/pdf")
+    public ResponseEntity<StreamingResponseBody> getBulletinsNiveauPdf(@PathVariable String niveau) {
+        return zip("bulletins-" + niveau, out -> bulletinPdfService.zipNiveau(niveau, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> zip(String nom, StreamingResponseBody corps) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nom.replace('"', '_') + ".zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(corps);
+    }
+}
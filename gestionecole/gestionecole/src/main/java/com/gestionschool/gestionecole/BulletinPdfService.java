@@ -0,0 +1,222 @@
+package com.gestionschool.gestionecole;
+
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Bulletins PDF rendus côté serveur (templates/bulletin.html) sur un pool borné.
+// Les PDF d'une classe ou d'un niveau sont écrits dans le ZIP dès qu'ils sont prêts ; au plus 2 par thread sont en attente.
+@Lazy
+@Service
+public class BulletinPdfService {
+    private static final Logger log = LoggerFactory.getLogger(BulletinPdfService.class);
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Autowired
+    private BulletinService bulletinService;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    private final int threads;
+    private final ExecutorService pool;
+
+    public BulletinPdfService(@Value("${gestionecole.bulletins.pdf.threads:0}") int threads) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread thread = new Thread(r, "bulletin-pdf-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void arreter() {
+        pool.shutdownNow();
+    }
+
+    public Optional<byte[]> pdfEleve(String matricule) {
+        return bulletinService.getBulletin(matricule).map(bulletin -> {
+            Eleve eleve = eleveRepository.findByMatriculeIn(List.of(matricule)).stream().findFirst().orElse(null);
+            return rendre(bulletin, eleve);
+        });
+    }
+
+    public void zipClasse(String classe, OutputStream out) throws IOException {
+        zipClasse(classe, out, Progression.AUCUNE);
+    }
+
+    // Job BULLETINS_CLASSE : avancement signalé à chaque PDF écrit dans le ZIP
+    public void zipClasse(String classe, OutputStream out, Progression progression) throws IOException {
+        zipper(taches(List.of(classe), false), out, progression);
+    }
+
+    public void zipNiveau(String niveau, OutputStream out) throws IOException {
+        List<String> classes = mongoTemplate.findDistinct(Query.query(Criteria.where("niveau").is(niveau)), "nomClasse", Classes.class, String.class);
+        zipper(taches(classes.stream().sorted().toList(), true), out, Progression.AUCUNE);
+    }
+
+    private List<Tache> taches(List<String> classes, boolean dossierParClasse) {
+        List<Tache> taches = new ArrayList<>();
+        for (String classe : classes) {
+            List<Bulletin> bulletins = bulletinService.getBulletinClasse(classe).getBulletins();
+            Map<String, Eleve> eleves = eleveRepository.findByMatriculeIn(bulletins.stream().map(Bulletin::getMatriculeEleve).toList())
+                    .stream().collect(Collectors.toMap(Eleve::getMatricule, Function.identity(), (a, b) -> a));
+            for (Bulletin bulletin : bulletins) {
+                Eleve eleve = eleves.get(bulletin.getMatriculeEleve());
+                String fichier = nomFichier(bulletin.getMatriculeEleve() + (eleve == null ? "" : "-" + eleve.getNom() + "-" + eleve.getPrenom())) + ".pdf";
+                taches.add(new Tache(dossierParClasse ? nomFichier(classe) + "/" + fichier : fichier, bulletin, eleve));
+            }
+        }
+        return taches;
+    }
+
+    private void zipper(List<Tache> taches, OutputStream out, Progression progression) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Les PDF sont déjà compressés
+        zip.setLevel(Deflater.BEST_SPEED);
+        CompletionService<Tache> rendus = new ExecutorCompletionService<>(pool);
+        List<Future<Tache>> enCours = new ArrayList<>();
+        List<String> erreurs = new ArrayList<>();
+        Iterator<Tache> suivantes = taches.iterator();
+        int soumises = 0;
+        try {
+            for (; soumises < 2 * threads && suivantes.hasNext(); soumises++) {
+                enCours.add(soumettre(rendus, suivantes.next()));
+            }
+            for (int recues = 0; recues < soumises; recues++) {
+                Tache tache = rendus.take().get();
+                if (tache.pdf != null) {
+                    zip.putNextEntry(new ZipEntry(tache.fichier));
+                    zip.write(tache.pdf);
+                    zip.closeEntry();
+                    zip.flush();
+                } else {
+                    erreurs.add(tache.fichier + " : " + tache.erreur);
+                }
+                progression.avancer(recues + 1, taches.size());
+                if (suivantes.hasNext()) {
+                    enCours.add(soumettre(rendus, suivantes.next()));
+                    soumises++;
+                }
+            }
+            if (!erreurs.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("erreurs.txt"));
+                zip.write(String.join("\n", erreurs).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Génération des bulletins interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            // Client déconnecté ou erreur : les rendus restants sont abandonnés
+            enCours.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private Future<Tache> soumettre(CompletionService<Tache> rendus, Tache tache) {
+        return rendus.submit(() -> {
+            try {
+                tache.pdf = rendre(tache.bulletin, tache.eleve);
+            } catch (RuntimeException e) {
+                log.warn("Bulletin {} non généré : {}", tache.fichier, e.getMessage());
+                tache.erreur = e.getMessage();
+            }
+            return tache;
+        });
+    }
+
+    private byte[] rendre(Bulletin bulletin, Eleve eleve) {
+        Context context = new Context(Locale.FRENCH);
+        context.setVariable("bulletin", bulletin);
+        context.setVariable("eleve", eleve);
+        context.setVariable("appreciation", appreciation(bulletin.getMoyenneGenerale()));
+        context.setVariable("anneeScolaire", AnneeScolaire.courante());
+        context.setVariable("dateGeneration", LocalDate.now().format(DATE));
+        String html = templateEngine.process("bulletin", context);
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(64 * 1024);
+        try {
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.useFastMode();
+            builder.withHtmlContent(html, null);
+            builder.toStream(pdf);
+            builder.run();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return pdf.toByteArray();
+    }
+
+    // Mêmes seuils que BulletinPage.js
+    static String appreciation(Double moyenne) {
+        double moy = moyenne == null ? 0 : moyenne;
+        if (moy >= 16) return "Excellent - Félicitations !";
+        if (moy >= 14) return "Très bien - Bon travail !";
+        if (moy >= 12) return "Bien - Continuez ainsi !";
+        if (moy >= 10) return "Assez bien - Peut mieux faire";
+        if (moy >= 8) return "Passable - Efforts à fournir";
+        return "Insuffisant - Travail à reprendre";
+    }
+
+    private static String nomFichier(String texte) {
+        String sansAccents = Normalizer.normalize(texte, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return sansAccents.replaceAll("[^A-Za-z0-9._-]+", "_");
+    }
+
+    private static class Tache {
+        private final String fichier;
+        private final Bulletin bulletin;
+        private final Eleve eleve;
+        private byte[] pdf;
+        private String erreur;
+
+        Tache(String fichier, Bulletin bulletin, Eleve eleve) {
+            this.fichier = fichier;
+            this.bulletin = bulletin;
+            this.eleve = eleve;
+        }
+    }
+}
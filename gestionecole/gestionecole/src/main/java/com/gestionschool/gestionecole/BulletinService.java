@@ -0,0 +1,66 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Lazy
+@Service
+public class BulletinService {
+    @Autowired
+    private NoteRepository noteRepository;
+
+    public Optional<Bulletin> getBulletin(String matriculeEleve) {
+        List<MoyenneCours> moyennes = noteRepository.moyennesParCoursEleve(matriculeEleve);
+        if (moyennes.isEmpty()) {
+            return Optional.empty();
+        }
+        String classe = moyennes.get(0).getClasse();
+        Map<String, Double> moyennesClasse = noteRepository.moyennesParCoursClasse(classe).stream()
+                .collect(Collectors.toMap(MoyenneCours::getNomCours, MoyenneCours::getMoyenne));
+        moyennes.forEach(m -> m.setMoyenneClasse(moyennesClasse.get(m.getNomCours())));
+
+        // Moyenne générale et rang calculés par la même agrégation que getBulletinClasse : mêmes valeurs, mêmes ex aequo
+        Bulletin bulletin = noteRepository.rangClasse(classe, matriculeEleve);
+        bulletin.setMatriculeEleve(matriculeEleve);
+        bulletin.setClasse(classe);
+        bulletin.setMoyennes(moyennes);
+        return Optional.of(bulletin);
+    }
+
+    public BulletinClasse getBulletinClasse(String classe) {
+        List<MoyenneCours> moyennesParCours = noteRepository.moyennesParCoursClasse(classe);
+        moyennesParCours.forEach(m -> m.setClasse(classe));
+        List<Bulletin> bulletins = noteRepository.bulletinsClasse(classe);
+
+        Map<String, MoyenneCours> parCours = moyennesParCours.stream()
+                .collect(Collectors.toMap(MoyenneCours::getNomCours, Function.identity()));
+        double moyenneClasse = bulletins.stream().mapToDouble(Bulletin::getMoyenneGenerale).average().orElse(0);
+        for (int i = 0; i < bulletins.size(); i++) {
+            Bulletin bulletin = bulletins.get(i);
+            bulletin.setClasse(classe);
+            // Rang de compétition : les ex aequo partagent le meilleur rang (1, 1, 3)
+            Bulletin precedent = i > 0 ? bulletins.get(i - 1) : null;
+            bulletin.setRang(precedent != null && precedent.getMoyenneGenerale().equals(bulletin.getMoyenneGenerale())
+                    ? precedent.getRang() : i + 1);
+            bulletin.setEffectifClasse(bulletins.size());
+            bulletin.setMoyenneClasse(moyenneClasse);
+            bulletin.getMoyennes().forEach(m -> {
+                MoyenneCours cours = parCours.get(m.getNomCours());
+                m.setMoyenneClasse(cours != null ? cours.getMoyenne() : null);
+            });
+        }
+
+        BulletinClasse bulletinClasse = new BulletinClasse();
+        bulletinClasse.setClasse(classe);
+        bulletinClasse.setMoyenneClasse(moyenneClasse);
+        bulletinClasse.setMoyennesParCours(moyennesParCours);
+        bulletinClasse.setBulletins(bulletins);
+        return bulletinClasse;
+    }
+}
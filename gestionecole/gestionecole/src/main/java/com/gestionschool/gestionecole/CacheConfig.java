@@ -0,0 +1,10 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cache Caffeine des données de référence (classes, cours, enseignants, emplois du temps), voir spring.cache.* dans application.properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,38 @@
+package com.gestionschool.gestionecole;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheController {
+    @Autowired
+    private CacheManager cacheManager;
+
+    @GetMapping
+    public Map<String, Map<String, Object>> getStatistiques() {
+        Map<String, Map<String, Object>> statistiques = new LinkedHashMap<>();
+        for (String nom : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(nom) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                Map<String, Object> valeurs = new LinkedHashMap<>();
+                valeurs.put("taille", cache.getNativeCache().estimatedSize());
+                valeurs.put("hits", stats.hitCount());
+                valeurs.put("misses", stats.missCount());
+                valeurs.put("hitRate", stats.hitRate());
+                valeurs.put("evictions", stats.evictionCount());
+                statistiques.put(nom, valeurs);
+            }
+        }
+        return statistiques;
+    }
+    @DeleteMapping
+    public void vider() {
+        cacheManager.getCacheNames().forEach(nom -> cacheManager.getCache(nom).clear());
+    }
+}
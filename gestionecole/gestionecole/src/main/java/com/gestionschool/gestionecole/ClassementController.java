@@ -0,0 +1,41 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+// Sous /api/notes : les réponses suivent la version de la collection notes (ETag)
+@RestController
+@RequestMapping("/api/notes/statistiques")
+public class ClassementController {
+    @Autowired
+    private ClassementService classementService;
+
+    @GetMapping
+    public StatistiquesDistribution getStatistiques(@RequestParam String classe, @RequestParam String cours,
+                                                    @RequestParam(required = false) String periode,
+                                                    @RequestParam(required = false) String type) {
+        return classementService.statistiques(classe, cours, periode, type);
+    }
+    @GetMapping("/classement")
+    public List<PositionEleve> getClassement(@RequestParam String classe, @RequestParam String cours,
+                                             @RequestParam(required = false) String periode,
+                                             @RequestParam(required = false) String type) {
+        return classementService.classement(classe, cours, periode, type);
+    }
+    @GetMapping("/eleve/{matricule}")
+    public List<PositionEleve> getPositions(@PathVariable String matricule, @RequestParam String classe,
+                                            @RequestParam(required = false) String periode,
+                                            @RequestParam(required = false) String type) {
+        return classementService.positions(matricule, classe, periode, type);
+    }
+    @GetMapping("/evaluations")
+    public List<StatistiquesDistribution> getEvaluations(@RequestParam String classe, @RequestParam String cours,
+                                                         @RequestParam(required = false) String periode) {
+        return classementService.evaluations(classe, cours, periode);
+    }
+    @PostMapping("/reconstruction")
+    public void reconstruire() {
+        classementService.reconstruireEnArrierePlan();
+    }
+}
@@ -0,0 +1,148 @@
+package com.gestionschool.gestionecole;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Rangs, percentiles et distributions des notes : classements construits au démarrage (en arrière-plan) puis tenus à jour par NoteService
+@Service
+public class ClassementService {
+    private static final Logger log = LoggerFactory.getLogger(ClassementService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private VersionsCollections versionsCollections;
+
+    @Value("${gestionecole.classements.construction-auto:true}")
+    private boolean constructionAuto;
+
+    private volatile ClassementsNotes classements;
+    private volatile boolean enConstruction;
+    // Cours (classe, nomCours) modifiés pendant une construction, relus une fois les nouveaux classements en place
+    private final Set<List<String>> modifiesPendantConstruction = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construireAuDemarrage() {
+        if (constructionAuto) {
+            reconstruireEnArrierePlan();
+        }
+    }
+
+    public void reconstruireEnArrierePlan() {
+        Thread thread = new Thread(this::reconstruire, "classements-notes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public StatistiquesDistribution statistiques(String classe, String nomCours, String periode, String typeEvaluation) {
+        return classements().statistiques(classe, nomCours, periode(periode), typeEvaluation);
+    }
+
+    public List<PositionEleve> classement(String classe, String nomCours, String periode, String typeEvaluation) {
+        return classements().classement(classe, nomCours, periode(periode), typeEvaluation);
+    }
+
+    public List<PositionEleve> positions(String matricule, String classe, String periode, String typeEvaluation) {
+        return classements().positions(matricule, classe, periode(periode), typeEvaluation);
+    }
+
+    public List<StatistiquesDistribution> evaluations(String classe, String nomCours, String periode) {
+        return classements().evaluations(classe, nomCours, periode == null || periode.isBlank() ? null : periode);
+    }
+
+    public void noteEnregistree(Note ancienne, Note nouvelle) {
+        if (enConstruction) {
+            marquer(ancienne);
+            marquer(nouvelle);
+        }
+        ClassementsNotes courant = classements;
+        if (courant != null) {
+            courant.retirer(ancienne);
+            courant.ajouter(nouvelle);
+        }
+    }
+
+    public void noteSupprimee(Note ancienne) {
+        noteEnregistree(ancienne, null);
+    }
+
+    public synchronized void reconstruire() {
+        enConstruction = true;
+        try {
+            long debut = System.currentTimeMillis();
+            ClassementsNotes nouveau = new ClassementsNotes();
+            Query query = new Query();
+            query.fields().include("matriculeEleve", "nomCours", "classe", "valeur", "typeEvaluation", "dateEvaluation");
+            try (Stream<Note> notes = mongoTemplate.stream(query, Note.class)) {
+                notes.forEach(nouveau::ajouter);
+            }
+            classements = nouveau;
+            for (List<String> cours : modifiesPendantConstruction) {
+                modifiesPendantConstruction.remove(cours);
+                nouveau.remplacer(cours.get(0), cours.get(1), notesDuCours(cours.get(0), cours.get(1)));
+            }
+            // Les statistiques servies avant la bascule (classements vides ou anciens) ne sont plus valables : ETag à changer
+            versionsCollections.incrementer("notes");
+            log.info("Classements des notes construits : {} notes en {} ms", nouveau.taille(), System.currentTimeMillis() - debut);
+        } catch (RuntimeException e) {
+            log.warn("Classements des notes non construits : {}", e.getMessage());
+        } finally {
+            enConstruction = false;
+        }
+    }
+
+    private void marquer(Note note) {
+        if (ClassementsNotes.classable(note)) {
+            modifiesPendantConstruction.add(List.of(note.getClasse(), note.getNomCours()));
+        }
+    }
+
+    private List<Note> notesDuCours(String classe, String nomCours) {
+        return mongoTemplate.find(parCours(classe, nomCours), Note.class);
+    }
+
+    static Query parCours(String classe, String nomCours) {
+        return new Query(Criteria.where("classe").is(classe).and("nomCours").is(nomCours));
+    }
+
+    // Période courante par défaut ; « 2024-2025-T2 » ou « sans-date » sinon
+    private static String periode(String periode) {
+        if (periode == null || periode.isBlank()) {
+            return ClassementsNotes.periode(LocalDate.now().toString());
+        }
+        if (!periode.matches("\\d{4}-\\d{4}-T[123]") && !ClassementsNotes.SANS_DATE.equals(periode)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Période invalide (attendue AAAA-AAAA-T1, T2 ou T3) : " + periode);
+        }
+        return periode;
+    }
+
+    // Une lecture avant la fin de la construction attend les classements, sans en relancer une si la construction
+    // qu'elle attendait les a produits (nouvelle vérification sous le moniteur de reconstruire())
+    private ClassementsNotes classements() {
+        ClassementsNotes courant = classements;
+        if (courant == null) {
+            synchronized (this) {
+                if (classements == null) {
+                    reconstruire();
+                }
+                courant = classements;
+            }
+        }
+        return courant == null ? new ClassementsNotes() : courant;
+    }
+}
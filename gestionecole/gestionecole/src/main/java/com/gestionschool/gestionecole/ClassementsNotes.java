@@ -0,0 +1,306 @@
+package com.gestionschool.gestionecole;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Classements en mémoire, par classe, cours et période (trimestre de l'année scolaire, déduit de la date d'évaluation).
+// Pour chaque groupe, la somme et le nombre de notes de chaque élève, et la distribution triée de leurs moyennes :
+// une note enregistrée déplace la seule moyenne de son élève, le rang se lit ensuite par dichotomie.
+// Chaque note compte dans le groupe de son type d'évaluation et dans le groupe tous types confondus.
+public class ClassementsNotes {
+    public static final String TOUS_TYPES = "*";
+    public static final String SANS_TYPE = "";
+    public static final String SANS_DATE = "sans-date";
+
+    private final Map<String, Map<String, ClassementCours>> classes = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private int notes;
+
+    // Trimestres : septembre-décembre, janvier-mars, avril-août
+    public static String periode(String dateEvaluation) {
+        if (dateEvaluation == null || dateEvaluation.length() < 10) {
+            return SANS_DATE;
+        }
+        try {
+            LocalDate date = LocalDate.parse(dateEvaluation.substring(0, 10));
+            int mois = date.getMonthValue();
+            int debut = mois >= 9 ? date.getYear() : date.getYear() - 1;
+            int trimestre = mois >= 9 ? 1 : mois <= 3 ? 2 : 3;
+            return debut + "-" + (debut + 1) + "-T" + trimestre;
+        } catch (DateTimeParseException e) {
+            return SANS_DATE;
+        }
+    }
+
+    public static boolean classable(Note note) {
+        return note != null && note.getValeur() != null && note.getClasse() != null
+                && note.getNomCours() != null && note.getMatriculeEleve() != null;
+    }
+
+    public void ajouter(Note note) {
+        appliquer(note, 1);
+    }
+
+    public void retirer(Note note) {
+        appliquer(note, -1);
+    }
+
+    // Remplace tout le classement d'un cours dans une classe (relecture après une modification concurrente)
+    public void remplacer(String classe, String nomCours, Iterable<Note> notesCours) {
+        ClassementCours nouveau = new ClassementCours();
+        int nombre = 0;
+        for (Note note : notesCours) {
+            if (classable(note)) {
+                nouveau.appliquer(note, 1);
+                nombre++;
+            }
+        }
+        verrou.writeLock().lock();
+        try {
+            Map<String, ClassementCours> cours = classes.computeIfAbsent(classe, c -> new HashMap<>());
+            ClassementCours ancien = nombre == 0 ? cours.remove(nomCours) : cours.put(nomCours, nouveau);
+            notes += nombre - (ancien == null ? 0 : ancien.notes);
+            if (cours.isEmpty()) {
+                classes.remove(classe);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return notes;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public StatistiquesDistribution statistiques(String classe, String nomCours, String periode, String typeEvaluation) {
+        verrou.readLock().lock();
+        try {
+            Groupe groupe = groupe(classe, nomCours, periode, typeEvaluation);
+            StatistiquesDistribution statistiques = groupe == null ? new DistributionNotes().statistiques() : groupe.moyennes.statistiques();
+            statistiques.setClasse(classe);
+            statistiques.setNomCours(nomCours);
+            statistiques.setPeriode(periode);
+            statistiques.setTypeEvaluation(typeEvaluation);
+            return statistiques;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public List<PositionEleve> classement(String classe, String nomCours, String periode, String typeEvaluation) {
+        verrou.readLock().lock();
+        try {
+            Groupe groupe = groupe(classe, nomCours, periode, typeEvaluation);
+            List<PositionEleve> positions = new ArrayList<>();
+            if (groupe != null) {
+                for (String matricule : groupe.parEleve.keySet()) {
+                    positions.add(groupe.position(matricule, classe, nomCours, periode, typeEvaluation));
+                }
+            }
+            positions.sort(Comparator.comparing(PositionEleve::getRang).thenComparing(PositionEleve::getMatriculeEleve));
+            return positions;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Place de l'élève dans chacun des cours de sa classe
+    public List<PositionEleve> positions(String matricule, String classe, String periode, String typeEvaluation) {
+        verrou.readLock().lock();
+        try {
+            List<PositionEleve> positions = new ArrayList<>();
+            Map<String, ClassementCours> cours = classes.getOrDefault(classe, Map.of());
+            cours.forEach((nomCours, classement) -> {
+                Groupe groupe = classement.groupes.get(cle(periode, typeEvaluation));
+                if (groupe != null && groupe.parEleve.containsKey(matricule)) {
+                    positions.add(groupe.position(matricule, classe, nomCours, periode, typeEvaluation));
+                }
+            });
+            positions.sort(Comparator.comparing(PositionEleve::getNomCours));
+            return positions;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Distribution des notes de chaque évaluation (type et date) d'un cours sur la période
+    public List<StatistiquesDistribution> evaluations(String classe, String nomCours, String periode) {
+        verrou.readLock().lock();
+        try {
+            List<StatistiquesDistribution> evaluations = new ArrayList<>();
+            ClassementCours classement = classes.getOrDefault(classe, Map.of()).get(nomCours);
+            if (classement != null) {
+                classement.evaluations.forEach((evaluation, distribution) -> {
+                    if (periode == null || periode.equals(periode(evaluation.date))) {
+                        StatistiquesDistribution statistiques = distribution.statistiques();
+                        statistiques.setClasse(classe);
+                        statistiques.setNomCours(nomCours);
+                        statistiques.setPeriode(periode(evaluation.date));
+                        statistiques.setTypeEvaluation(evaluation.type);
+                        statistiques.setDateEvaluation(evaluation.date);
+                        evaluations.add(statistiques);
+                    }
+                });
+            }
+            evaluations.sort(Comparator.comparing((StatistiquesDistribution s) -> String.valueOf(s.getDateEvaluation()))
+                    .thenComparing(StatistiquesDistribution::getTypeEvaluation));
+            return evaluations;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void appliquer(Note note, int sens) {
+        if (!classable(note)) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            Map<String, ClassementCours> cours = classes.computeIfAbsent(note.getClasse(), c -> new HashMap<>());
+            ClassementCours classement = cours.computeIfAbsent(note.getNomCours(), c -> new ClassementCours());
+            int avant = classement.notes;
+            classement.appliquer(note, sens);
+            notes += classement.notes - avant;
+            if (classement.notes <= 0) {
+                cours.remove(note.getNomCours());
+                if (cours.isEmpty()) {
+                    classes.remove(note.getClasse());
+                }
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private Groupe groupe(String classe, String nomCours, String periode, String typeEvaluation) {
+        ClassementCours classement = classes.getOrDefault(classe, Map.of()).get(nomCours);
+        return classement == null ? null : classement.groupes.get(cle(periode, typeEvaluation));
+    }
+
+    private static String cle(String periode, String typeEvaluation) {
+        return periode + '\u0000' + (typeEvaluation == null ? TOUS_TYPES : typeEvaluation);
+    }
+
+    private static String type(Note note) {
+        return note.getTypeEvaluation() == null ? SANS_TYPE : note.getTypeEvaluation();
+    }
+
+    private static class ClassementCours {
+        private final Map<String, Groupe> groupes = new HashMap<>();
+        private final Map<Evaluation, DistributionNotes> evaluations = new HashMap<>();
+        private int notes;
+
+        // Une note absente du classement (retrait sans ajout préalable) est ignorée
+        void appliquer(Note note, int sens) {
+            int valeur = DistributionNotes.centiemes(note.getValeur());
+            String periode = periode(note.getDateEvaluation());
+            Groupe groupeEleve = groupes.get(cle(periode, type(note)));
+            if (sens < 0 && (groupeEleve == null || !groupeEleve.parEleve.containsKey(note.getMatriculeEleve()))) {
+                return;
+            }
+            Evaluation evaluation = new Evaluation(type(note), note.getDateEvaluation() == null ? SANS_DATE : note.getDateEvaluation());
+            DistributionNotes distribution = evaluations.get(evaluation);
+            if (sens > 0) {
+                if (distribution == null) {
+                    distribution = new DistributionNotes();
+                    evaluations.put(evaluation, distribution);
+                }
+                distribution.ajouter(valeur);
+            } else if (distribution == null || !distribution.retirer(valeur)) {
+                return;
+            } else if (distribution.taille() == 0) {
+                evaluations.remove(evaluation);
+            }
+
+            appliquer(cle(periode, TOUS_TYPES), note.getMatriculeEleve(), valeur, sens);
+            appliquer(cle(periode, type(note)), note.getMatriculeEleve(), valeur, sens);
+            notes += sens;
+        }
+
+        private void appliquer(String cle, String matricule, int valeur, int sens) {
+            Groupe groupe = groupes.computeIfAbsent(cle, c -> new Groupe());
+            groupe.appliquer(matricule, valeur, sens);
+            if (groupe.parEleve.isEmpty()) {
+                groupes.remove(cle);
+            }
+        }
+    }
+
+    private static class Groupe {
+        // Par élève : somme des notes en centièmes et nombre de notes
+        private final Map<String, long[]> parEleve = new HashMap<>();
+        private final DistributionNotes moyennes = new DistributionNotes();
+
+        void appliquer(String matricule, int valeur, int sens) {
+            long[] cumul = parEleve.get(matricule);
+            if (cumul == null) {
+                if (sens < 0) {
+                    return;
+                }
+                cumul = new long[2];
+                parEleve.put(matricule, cumul);
+            } else {
+                moyennes.retirer(moyenne(cumul));
+            }
+            cumul[0] += sens * (long) valeur;
+            cumul[1] += sens;
+            if (cumul[1] <= 0) {
+                parEleve.remove(matricule);
+            } else {
+                moyennes.ajouter(moyenne(cumul));
+            }
+        }
+
+        PositionEleve position(String matricule, String classe, String nomCours, String periode, String typeEvaluation) {
+            long[] cumul = parEleve.get(matricule);
+            int moyenne = moyenne(cumul);
+            PositionEleve position = new PositionEleve();
+            position.setMatriculeEleve(matricule);
+            position.setClasse(classe);
+            position.setNomCours(nomCours);
+            position.setPeriode(periode);
+            position.setTypeEvaluation(typeEvaluation);
+            position.setMoyenne(moyenne / 100.0);
+            position.setNombreNotes((int) cumul[1]);
+            position.setRang(moyennes.rang(moyenne));
+            position.setEffectif(moyennes.taille());
+            position.setPercentile(DistributionNotes.arrondi(moyennes.percentile(moyenne)));
+            return position;
+        }
+
+        private static int moyenne(long[] cumul) {
+            return (int) Math.round((double) cumul[0] / cumul[1]);
+        }
+    }
+
+    private static class Evaluation {
+        private final String type;
+        private final String date;
+
+        Evaluation(String type, String date) {
+            this.type = type;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object autre) {
+            return autre instanceof Evaluation e && type.equals(e.type) && date.equals(e.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode() * 31 + date.hashCode();
+        }
+    }
+}
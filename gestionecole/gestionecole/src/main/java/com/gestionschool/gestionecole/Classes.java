@@ -1,12 +1,14 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "classes")
 public class Classes {
     @Id
     private String id;
+    @Indexed
     private String nomClasse;
     private String niveau;
     private Integer capacite;
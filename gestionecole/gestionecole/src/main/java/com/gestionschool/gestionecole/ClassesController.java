@@ -1,23 +1,32 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/classes")
 public class ClassesController {
     @Autowired
     private ClassesService classesService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<Classes> getAllClasses() {
         return classesService.getAllClasses();
     }
+    @GetMapping(params = "limit")
+    public PageResult getClassesPage(PageQuery pageQuery) {
+        return classesService.getClassesPage(pageQuery);
+    }
     @GetMapping("/{id}")
-    public Optional<Classes> getClasseById(@PathVariable String id) {
-        return classesService.getClasseById(id);
+    public ResponseEntity<Classes> getClasseById(@PathVariable String id) {
+        return patchService.lecture(classesService.getClasseById(id));
     }
     @PostMapping
     public Classes createClasse(@RequestBody Classes classe) {
@@ -28,6 +37,12 @@ public class ClassesController {
         classe.setId(id);
         return classesService.saveClasse(classe);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Classes> patchClasse(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Classes classe = classesService.patchClasse(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(classe)).body(classe);
+    }
     @DeleteMapping("/{id}")
     public void deleteClasse(@PathVariable String id) {
         classesService.deleteClasse(id);
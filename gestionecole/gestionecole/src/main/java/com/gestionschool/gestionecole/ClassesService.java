@@ -1,25 +1,78 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class ClassesService {
     @Autowired
     private ClassesRepository classesRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private EffectifClasseService effectifClasseService;
 
+    @Cacheable(value = "classes", key = "'tous'")
     public List<Classes> getAllClasses() {
         return classesRepository.findAll();
     }
+    public PageResult getClassesPage(PageQuery pageQuery) {
+        return paginationService.page(Classes.class, pageQuery);
+    }
+    @Cacheable(value = "classes", key = "#id")
     public Optional<Classes> getClasseById(String id) {
         return classesRepository.findById(id);
     }
+    @CacheEvict(value = "classes", allEntries = true)
     public Classes saveClasse(Classes classe) {
-        return classesRepository.save(classe);
+        Classes ancienne = classe.getId() == null ? null : classesRepository.findById(classe.getId()).orElse(null);
+        Classes saved;
+        // Écriture et compteur sans reconstruction des statistiques entre les deux
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            saved = classesRepository.save(classe);
+            statistiquesService.compteurAjoute("classes", ancienne == null);
+        } finally {
+            verrou.unlock();
+        }
+        effectifClasseService.classeEnregistree(ancienne, saved);
+        versionsCollections.incrementer("classes");
+        return saved;
+    }
+    @CacheEvict(value = "classes", allEntries = true)
+    public Classes patchClasse(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(Classes.class, id, patch, ifMatch, (ancienne, nouvelle, ecriture) -> {
+            Classes saved = ecriture.get();
+            effectifClasseService.classeEnregistree(ancienne, saved);
+            versionsCollections.incrementer("classes");
+            return saved;
+        });
     }
+    @CacheEvict(value = "classes", allEntries = true)
     public void deleteClasse(String id) {
-        classesRepository.deleteById(id);
+        if (classesRepository.existsById(id)) {
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                classesRepository.deleteById(id);
+                statistiquesService.compteurSupprime("classes");
+            } finally {
+                verrou.unlock();
+            }
+            versionsCollections.incrementer("classes");
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.gestionschool.gestionecole;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Journal des commandes MongoDB plus longues que le seuil ; les durées de toutes les commandes sont dans mongodb.driver.commands
+public class CommandesLentesListener implements CommandListener {
+    private static final Logger log = LoggerFactory.getLogger("gestionecole.lent");
+    private static final int LONGUEUR_MAX = 500;
+    private static final Set<String> LOTS = Set.of("documents", "updates", "deletes");
+    private static final Set<String> IGNORES = Set.of("lsid", "$clusterTime");
+
+    private final long seuilNanos;
+    private final Map<Integer, String> commandes = new ConcurrentHashMap<>();
+
+    public CommandesLentesListener(Duration seuil) {
+        this.seuilNanos = seuil.toNanos();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        commandes.put(event.getRequestId(), resume(event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String commande = commandes.remove(event.getRequestId());
+        long duree = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (duree >= seuilNanos) {
+            log.warn("mongo lent : {} sur {} en {} ms : {}", event.getCommandName(), event.getDatabaseName(),
+                    duree / 1_000_000, commande);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        commandes.remove(event.getRequestId());
+    }
+
+    private static String resume(BsonDocument commande) {
+        // Copie modifiable (le driver transmet un RawBsonDocument immuable) ;
+        // les lots d'insertion peuvent peser plusieurs Mo : seul le nombre de documents est gardé
+        BsonDocument copie = new BsonDocument();
+        for (Map.Entry<String, BsonValue> champ : commande.entrySet()) {
+            if (LOTS.contains(champ.getKey()) && champ.getValue().isArray()) {
+                copie.put(champ.getKey(), new BsonInt32(champ.getValue().asArray().size()));
+            } else if (!IGNORES.contains(champ.getKey())) {
+                copie.put(champ.getKey(), champ.getValue());
+            }
+        }
+        String texte = copie.toJson();
+        return texte.length() > LONGUEUR_MAX ? texte.substring(0, LONGUEUR_MAX) + "…" : texte;
+    }
+}
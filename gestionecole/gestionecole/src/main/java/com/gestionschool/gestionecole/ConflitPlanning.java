@@ -0,0 +1,35 @@
+package com.gestionschool.gestionecole;
+
+public class ConflitPlanning {
+    private String emploiDuTempsId;
+    private String conflitAvec;
+    private String ressource;
+    private String jour;
+    private String debut;
+    private String fin;
+
+    public ConflitPlanning() {}
+
+    public ConflitPlanning(Creneau creneau, Creneau autre, String ressource) {
+        this.emploiDuTempsId = creneau.getId();
+        this.conflitAvec = autre.getId();
+        this.ressource = ressource;
+        this.jour = autre.getJour();
+        this.debut = Creneau.heure(Math.max(creneau.getDebut(), autre.getDebut()));
+        this.fin = Creneau.heure(Math.min(creneau.getFin(), autre.getFin()));
+    }
+
+    // Getters et setters
+    public String getEmploiDuTempsId() { return emploiDuTempsId; }
+    public void setEmploiDuTempsId(String emploiDuTempsId) { this.emploiDuTempsId = emploiDuTempsId; }
+    public String getConflitAvec() { return conflitAvec; }
+    public void setConflitAvec(String conflitAvec) { this.conflitAvec = conflitAvec; }
+    public String getRessource() { return ressource; }
+    public void setRessource(String ressource) { this.ressource = ressource; }
+    public String getJour() { return jour; }
+    public void setJour(String jour) { this.jour = jour; }
+    public String getDebut() { return debut; }
+    public void setDebut(String debut) { this.debut = debut; }
+    public String getFin() { return fin; }
+    public void setFin(String fin) { this.fin = fin; }
+}
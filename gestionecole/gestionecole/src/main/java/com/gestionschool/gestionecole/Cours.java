@@ -1,6 +1,7 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "cours")
@@ -10,6 +11,7 @@ public class Cours {
     private String nomCours;
     private String description;
     private Integer duree; // en heures
+    @Indexed
     private String classe; // Classe correspondante
     // Getters et setters
     public String getId() { return id; }
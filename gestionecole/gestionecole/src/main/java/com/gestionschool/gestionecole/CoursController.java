@@ -1,20 +1,29 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/cours")
 public class CoursController {
     @Autowired
     private CoursService coursService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<Cours> getAllCours() {
         return coursService.getAllCours();
     }
+    @GetMapping(params = "limit")
+    public PageResult getCoursPage(PageQuery pageQuery) {
+        return coursService.getCoursPage(pageQuery);
+    }
     
     @GetMapping("/classe/{classe}")
     public List<Cours> getCoursByClasse(@PathVariable String classe) {
@@ -22,8 +31,8 @@ public class CoursController {
     }
     
     @GetMapping("/{id}")
-    public Optional<Cours> getCoursById(@PathVariable String id) {
-        return coursService.getCoursById(id);
+    public ResponseEntity<Cours> getCoursById(@PathVariable String id) {
+        return patchService.lecture(coursService.getCoursById(id));
     }
     @PostMapping
     public Cours createCours(@RequestBody Cours cours) {
@@ -34,6 +43,12 @@ public class CoursController {
         cours.setId(id);
         return coursService.saveCours(cours);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Cours> patchCours(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Cours cours = coursService.patchCours(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(cours)).body(cours);
+    }
     @DeleteMapping("/{id}")
     public void deleteCours(@PathVariable String id) {
         coursService.deleteCours(id);
@@ -1,30 +1,80 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class CoursService {
     @Autowired
     private CoursRepository coursRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
 
+    @Cacheable(value = "cours", key = "'tous'")
     public List<Cours> getAllCours() {
         return coursRepository.findAll();
     }
+    public PageResult getCoursPage(PageQuery pageQuery) {
+        return paginationService.page(Cours.class, pageQuery);
+    }
     
+    @Cacheable(value = "cours", key = "'classe:' + #classe")
     public List<Cours> getCoursByClasse(String classe) {
         return coursRepository.findByClasse(classe);
     }
     
+    @Cacheable(value = "cours", key = "#id")
     public Optional<Cours> getCoursById(String id) {
         return coursRepository.findById(id);
     }
+    @CacheEvict(value = "cours", allEntries = true)
     public Cours saveCours(Cours cours) {
-        return coursRepository.save(cours);
+        boolean nouveau = cours.getId() == null || !coursRepository.existsById(cours.getId());
+        Cours saved;
+        // Écriture et compteur sans reconstruction des statistiques entre les deux
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            saved = coursRepository.save(cours);
+            statistiquesService.compteurAjoute("cours", nouveau);
+        } finally {
+            verrou.unlock();
+        }
+        versionsCollections.incrementer("cours");
+        return saved;
+    }
+    @CacheEvict(value = "cours", allEntries = true)
+    public Cours patchCours(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(Cours.class, id, patch, ifMatch, (ancien, nouveau, ecriture) -> {
+            Cours saved = ecriture.get();
+            versionsCollections.incrementer("cours");
+            return saved;
+        });
     }
+    @CacheEvict(value = "cours", allEntries = true)
     public void deleteCours(String id) {
-        coursRepository.deleteById(id);
+        if (coursRepository.existsById(id)) {
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                coursRepository.deleteById(id);
+                statistiquesService.compteurSupprime("cours");
+            } finally {
+                verrou.unlock();
+            }
+            versionsCollections.incrementer("cours");
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.gestionschool.gestionecole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Créneau d'un emploi du temps converti en minutes depuis minuit, avec les ressources qu'il occupe
+public class Creneau {
+    private static final Pattern HEURE = Pattern.compile("^(\\d{1,2})\\s*[:hH]\\s*(\\d{2})?(?::\\d{2})?$");
+
+    private final String id;
+    private final String jour;
+    private final int debut;
+    private final int fin;
+    private final List<String> ressources;
+
+    private Creneau(String id, String jour, int debut, int fin, List<String> ressources) {
+        this.id = id;
+        this.jour = jour;
+        this.debut = debut;
+        this.fin = fin;
+        this.ressources = ressources;
+    }
+
+    public static Creneau de(EmploiDuTemps emploiDuTemps) {
+        if (emploiDuTemps.getJour() == null || emploiDuTemps.getJour().isBlank()) {
+            throw new IllegalArgumentException("Jour manquant");
+        }
+        int debut = minutes(emploiDuTemps.getHeureDebut());
+        int fin = minutes(emploiDuTemps.getHeureFin());
+        if (fin <= debut) {
+            throw new IllegalArgumentException("L'heure de fin doit être après l'heure de début");
+        }
+        // Ressources occupées pendant le créneau (enseignant et salle à ajouter quand ils seront liés)
+        List<String> ressources = new ArrayList<>(2);
+        if (emploiDuTemps.getClasseId() != null) {
+            ressources.add("classe:" + emploiDuTemps.getClasseId());
+        }
+        if (emploiDuTemps.getCoursId() != null) {
+            ressources.add("cours:" + emploiDuTemps.getCoursId());
+        }
+        return new Creneau(emploiDuTemps.getId(), emploiDuTemps.getJour().trim().toLowerCase(Locale.FRENCH), debut, fin, ressources);
+    }
+
+    // Accepte "08:30", "8h30", "8h", "08:30:00"
+    public static int minutes(String heure) {
+        Matcher matcher = heure == null ? null : HEURE.matcher(heure.trim());
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Heure invalide : " + heure);
+        }
+        int heures = Integer.parseInt(matcher.group(1));
+        int minutes = matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2));
+        if (heures > 24 || minutes > 59 || heures * 60 + minutes > 24 * 60) {
+            throw new IllegalArgumentException("Heure invalide : " + heure);
+        }
+        return heures * 60 + minutes;
+    }
+
+    public static String heure(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    public boolean chevauche(Creneau autre) {
+        return debut < autre.fin && autre.debut < fin;
+    }
+
+    public String getId() { return id; }
+    public String getJour() { return jour; }
+    public int getDebut() { return debut; }
+    public int getFin() { return fin; }
+    public List<String> getRessources() { return ressources; }
+}
@@ -0,0 +1,93 @@
+package com.gestionschool.gestionecole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lecture, découpage et écriture d'enregistrements CSV (champs entre guillemets, "" pour un guillemet)
+public final class Csv {
+    private Csv() {}
+
+    public static List<String> decouper(String ligne, char separateur) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    champ.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    champ.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                champs.add(champ.toString());
+                champ.setLength(0);
+            } else {
+                champ.append(c);
+            }
+        }
+        champs.add(champ.toString());
+        return champs;
+    }
+
+    public static String echapper(Object valeur, char separateur) {
+        if (valeur == null) {
+            return "";
+        }
+        String texte = valeur.toString();
+        if (texte.indexOf(separateur) < 0 && texte.indexOf('"') < 0 && texte.indexOf('\n') < 0 && texte.indexOf('\r') < 0) {
+            return texte;
+        }
+        return '"' + texte.replace("\"", "\"\"") + '"';
+    }
+
+    // Lecture enregistrement par enregistrement : un champ entre guillemets peut contenir des retours à la ligne
+    // (echapper() les garde), l'enregistrement se poursuit alors sur les lignes suivantes
+    public static class Lecteur {
+        private final BufferedReader reader;
+        private long lignesLues;
+        private long numero;
+
+        public Lecteur(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        public String lire() throws IOException {
+            String ligne = reader.readLine();
+            if (ligne == null) {
+                return null;
+            }
+            numero = ++lignesLues;
+            StringBuilder enregistrement = new StringBuilder(ligne);
+            boolean entreGuillemets = entreGuillemets(ligne, false);
+            while (entreGuillemets && (ligne = reader.readLine()) != null) {
+                lignesLues++;
+                enregistrement.append('\n').append(ligne);
+                entreGuillemets = entreGuillemets(ligne, true);
+            }
+            return enregistrement.toString();
+        }
+
+        // Numéro de la première ligne du dernier enregistrement lu
+        public long numero() {
+            return numero;
+        }
+
+        // "" (guillemet échappé) ouvre et referme : seule la parité compte
+        private static boolean entreGuillemets(String ligne, boolean entreGuillemets) {
+            for (int i = 0; i < ligne.length(); i++) {
+                if (ligne.charAt(i) == '"') {
+                    entreGuillemets = !entreGuillemets;
+                }
+            }
+            return entreGuillemets;
+        }
+    }
+}
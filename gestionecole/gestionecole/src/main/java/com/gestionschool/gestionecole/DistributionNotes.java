@@ -0,0 +1,158 @@
+package com.gestionschool.gestionecole;
+
+import java.util.Arrays;
+
+// Distribution triée de valeurs sur 20, stockées en centièmes : rang et quantiles par recherche dichotomique.
+// Une distribution couvre une classe (quelques dizaines de valeurs) : l'insertion décale au plus ce tableau, sans retri.
+// Sommes entières, pour que retirer une valeur rende exactement l'état précédent.
+public class DistributionNotes {
+    public static final int MAX = 2000;
+    public static final int TRANCHES = 20;
+
+    private int[] valeurs = new int[8];
+    private int taille;
+    private long somme;
+    private long sommeCarres;
+
+    public static int centiemes(double valeur) {
+        return (int) Math.max(0, Math.min(MAX, Math.round(valeur * 100)));
+    }
+
+    public void ajouter(int valeur) {
+        if (taille == valeurs.length) {
+            valeurs = Arrays.copyOf(valeurs, taille * 2);
+        }
+        int position = premierSuperieur(valeur);
+        System.arraycopy(valeurs, position, valeurs, position + 1, taille - position);
+        valeurs[position] = valeur;
+        taille++;
+        somme += valeur;
+        sommeCarres += (long) valeur * valeur;
+    }
+
+    public boolean retirer(int valeur) {
+        int position = premierSuperieurOuEgal(valeur);
+        if (position == taille || valeurs[position] != valeur) {
+            return false;
+        }
+        System.arraycopy(valeurs, position + 1, valeurs, position, taille - position - 1);
+        taille--;
+        somme -= valeur;
+        sommeCarres -= (long) valeur * valeur;
+        return true;
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    public int inferieurs(int valeur) {
+        return premierSuperieurOuEgal(valeur);
+    }
+
+    public int superieurs(int valeur) {
+        return taille - premierSuperieur(valeur);
+    }
+
+    // Rang de compétition : les ex æquo partagent le meilleur rang
+    public int rang(int valeur) {
+        return superieurs(valeur) + 1;
+    }
+
+    // Part des valeurs en dessous, les ex æquo comptant pour moitié
+    public double percentile(int valeur) {
+        if (taille == 0) {
+            return 0;
+        }
+        int egaux = taille - inferieurs(valeur) - superieurs(valeur);
+        return 100.0 * (inferieurs(valeur) + egaux / 2.0) / taille;
+    }
+
+    public Double moyenne() {
+        return taille == 0 ? null : somme / 100.0 / taille;
+    }
+
+    public Double ecartType() {
+        if (taille == 0) {
+            return null;
+        }
+        double moyenne = (double) somme / taille;
+        double variance = Math.max(0, (double) sommeCarres / taille - moyenne * moyenne);
+        return Math.sqrt(variance) / 100;
+    }
+
+    // Quantile par interpolation linéaire entre les deux rangs encadrants
+    public Double quantile(double q) {
+        if (taille == 0) {
+            return null;
+        }
+        double position = q * (taille - 1);
+        int bas = (int) Math.floor(position);
+        int haut = Math.min(taille - 1, bas + 1);
+        return (valeurs[bas] + (valeurs[haut] - valeurs[bas]) * (position - bas)) / 100;
+    }
+
+    public Double min() {
+        return taille == 0 ? null : valeurs[0] / 100.0;
+    }
+
+    public Double max() {
+        return taille == 0 ? null : valeurs[taille - 1] / 100.0;
+    }
+
+    // Effectifs par tranche d'un point : [0;1[, [1;2[, ..., [19;20]
+    public int[] histogramme() {
+        int[] tranches = new int[TRANCHES];
+        int debut = 0;
+        for (int t = 0; t < TRANCHES; t++) {
+            int fin = t == TRANCHES - 1 ? taille : premierSuperieurOuEgal((t + 1) * MAX / TRANCHES);
+            tranches[t] = fin - debut;
+            debut = fin;
+        }
+        return tranches;
+    }
+
+    public StatistiquesDistribution statistiques() {
+        StatistiquesDistribution statistiques = new StatistiquesDistribution();
+        statistiques.setEffectif(taille);
+        statistiques.setMoyenne(arrondi(moyenne()));
+        statistiques.setEcartType(arrondi(ecartType()));
+        statistiques.setMin(min());
+        statistiques.setPremierQuartile(arrondi(quantile(0.25)));
+        statistiques.setMediane(arrondi(quantile(0.5)));
+        statistiques.setTroisiemeQuartile(arrondi(quantile(0.75)));
+        statistiques.setMax(max());
+        statistiques.setHistogramme(histogramme());
+        return statistiques;
+    }
+
+    private int premierSuperieurOuEgal(int valeur) {
+        int bas = 0, haut = taille;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (valeurs[milieu] < valeur) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    private int premierSuperieur(int valeur) {
+        int bas = 0, haut = taille;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (valeurs[milieu] <= valeur) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    static Double arrondi(Double valeur) {
+        return valeur == null ? null : Math.round(valeur * 100) / 100.0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.ArrayList;
+import java.util.List;
+
+// Liste matérialisée des élèves d'une classe (un document par nomClasse), tenue à jour par EleveService
+@Document(collection = "effectifs_classes")
+public class EffectifClasse {
+    @Id
+    private String id; // nomClasse
+    private String nomClasse;
+    private Integer capacite;
+    private int effectif;
+    private List<String> matricules = new ArrayList<>(); // matricule, ou id de l'élève s'il n'en a pas
+
+    public Integer getPlacesRestantes() {
+        return capacite == null ? null : Math.max(0, capacite - effectif);
+    }
+
+    // Getters et setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getNomClasse() { return nomClasse; }
+    public void setNomClasse(String nomClasse) { this.nomClasse = nomClasse; }
+    public Integer getCapacite() { return capacite; }
+    public void setCapacite(Integer capacite) { this.capacite = capacite; }
+    public int getEffectif() { return effectif; }
+    public void setEffectif(int effectif) { this.effectif = effectif; }
+    public List<String> getMatricules() { return matricules; }
+    public void setMatricules(List<String> matricules) { this.matricules = matricules; }
+}
@@ -0,0 +1,21 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/classes")
+public class EffectifClasseController {
+    @Autowired
+    private EffectifClasseService effectifClasseService;
+
+    @GetMapping("/{id}/roster")
+    public Optional<EffectifClasse> getEffectif(@PathVariable String id) {
+        return effectifClasseService.getEffectif(id);
+    }
+    @PostMapping("/rosters/recalcul")
+    public long recalculer() {
+        return effectifClasseService.recalculer();
+    }
+}
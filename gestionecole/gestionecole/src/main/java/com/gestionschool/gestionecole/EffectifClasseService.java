@@ -0,0 +1,245 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+// Effectifs par classe : chaque inscription est une seule mise à jour conditionnelle (effectif < capacite),
+// donc deux inscriptions simultanées ne peuvent pas dépasser la capacité
+@Service
+public class EffectifClasseService {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ClassesRepository classesRepository;
+    @Autowired
+    private VersionsCollections versionsCollections;
+
+    public Optional<EffectifClasse> getEffectif(String classeId) {
+        return classesRepository.findById(classeId).map(classe -> {
+            EffectifClasse effectif = mongoTemplate.findById(classe.getNomClasse(), EffectifClasse.class);
+            if (effectif == null) {
+                effectif = new EffectifClasse();
+                effectif.setId(classe.getNomClasse());
+                effectif.setNomClasse(classe.getNomClasse());
+                effectif.setMatricules(elevesDeLaClasse(classe.getNomClasse()));
+                effectif.setEffectif(effectif.getMatricules().size());
+            }
+            effectif.setCapacite(classe.getCapacite());
+            return effectif;
+        });
+    }
+
+    // Matricules inscrits dans la classe parmi ceux donnés : liste matérialisée, sinon élèves de la classe
+    public Set<String> inscrits(String nomClasse, Collection<String> matricules) {
+        Query query = Query.query(Criteria.where("_id").is(nomClasse));
+        query.fields().include("matricules");
+        EffectifClasse effectif = mongoTemplate.findOne(query, EffectifClasse.class);
+        Set<String> inscrits = new HashSet<>();
+        if (effectif != null && effectif.getMatricules() != null) {
+            for (String matricule : effectif.getMatricules()) {
+                if (matricules.contains(matricule)) {
+                    inscrits.add(matricule);
+                }
+            }
+            return inscrits;
+        }
+        Query eleves = Query.query(Criteria.where("nomClasse").is(nomClasse).and("matricule").in(matricules));
+        eleves.fields().include("matricule");
+        for (Eleve eleve : mongoTemplate.find(eleves, Eleve.class)) {
+            inscrits.add(eleve.getMatricule());
+        }
+        return inscrits;
+    }
+
+    // Avant l'enregistrement de l'élève : réserve la place dans la nouvelle classe (409 si elle est complète)
+    public void reserver(Eleve ancien, Eleve eleve) {
+        if (eleve.getNomClasse() == null) {
+            return;
+        }
+        String cle = cle(eleve);
+        if (ancien != null && Objects.equals(ancien.getNomClasse(), eleve.getNomClasse())) {
+            String ancienneCle = cle(ancien);
+            if (!ancienneCle.equals(cle)) {
+                mongoTemplate.updateFirst(parNom(eleve.getNomClasse()), new Update().pull("matricules", ancienneCle), EffectifClasse.class);
+                mongoTemplate.updateFirst(parNom(eleve.getNomClasse()), new Update().addToSet("matricules", cle), EffectifClasse.class);
+                versionsCollections.incrementer("classes");
+            }
+            return;
+        }
+        if (!inscrire(eleve.getNomClasse(), List.of(cle))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La classe " + eleve.getNomClasse() + " est complète");
+        }
+    }
+
+    // Après l'enregistrement : libère la place dans l'ancienne classe
+    public void enregistre(Eleve ancien, Eleve eleve) {
+        if (ancien != null && ancien.getNomClasse() != null && !Objects.equals(ancien.getNomClasse(), eleve.getNomClasse())) {
+            liberer(ancien.getNomClasse(), cle(ancien));
+        }
+    }
+
+    // L'enregistrement a échoué : rend la place réservée
+    public void annuler(Eleve ancien, Eleve eleve) {
+        if (eleve.getNomClasse() != null && (ancien == null || !Objects.equals(ancien.getNomClasse(), eleve.getNomClasse()))) {
+            liberer(eleve.getNomClasse(), cle(eleve));
+        }
+    }
+
+    public void supprime(Eleve ancien) {
+        if (ancien.getNomClasse() != null) {
+            liberer(ancien.getNomClasse(), cle(ancien));
+        }
+    }
+
+    // Import : tout le lot d'une classe en une écriture si la place suffit, sinon élève par élève jusqu'à la capacité
+    public List<String> inscrireTous(String nomClasse, List<String> cles) {
+        if (cles.isEmpty() || inscrire(nomClasse, cles)) {
+            return cles;
+        }
+        List<String> inscrits = new ArrayList<>();
+        for (String cle : cles) {
+            if (inscrire(nomClasse, List.of(cle))) {
+                inscrits.add(cle);
+            } else {
+                break;
+            }
+        }
+        return inscrits;
+    }
+
+    public void liberer(String nomClasse, String cle) {
+        Query query = Query.query(Criteria.where("_id").is(nomClasse).and("matricules").is(cle));
+        if (mongoTemplate.updateFirst(query, new Update().pull("matricules", cle).inc("effectif", -1), EffectifClasse.class).getModifiedCount() > 0) {
+            versionsCollections.incrementer("classes");
+        }
+    }
+
+    // Capacité reportée sur l'effectif ; classe renommée : les effectifs de l'ancien et du nouveau nom sont recalculés
+    public void classeEnregistree(Classes ancienne, Classes classe) {
+        if (ancienne != null && ancienne.getNomClasse() != null && !ancienne.getNomClasse().equals(classe.getNomClasse())) {
+            reconstruire(ancienne.getNomClasse());
+            if (classe.getNomClasse() != null) {
+                reconstruire(classe.getNomClasse());
+            }
+            versionsCollections.incrementer("classes");
+            return;
+        }
+        if (classe.getNomClasse() != null) {
+            mongoTemplate.updateFirst(parNom(classe.getNomClasse()), new Update().set("capacite", classe.getCapacite()), EffectifClasse.class);
+        }
+    }
+
+    // Reconstruit tous les effectifs à partir des élèves (reprise des données existantes)
+    public long recalculer() {
+        List<Document> pipeline = List.of(
+                Document.parse("{ '$match': { 'nomClasse': { '$type': 'string' } } }"),
+                Document.parse("{ '$group': { '_id': '$nomClasse', 'effectif': { '$sum': 1 },"
+                        + " 'matricules': { '$push': { '$ifNull': [ '$matricule', { '$toString': '$_id' } ] } } } }"),
+                Document.parse("{ '$lookup': { 'from': '" + mongoTemplate.getCollectionName(Classes.class) + "',"
+                        + " 'localField': '_id', 'foreignField': 'nomClasse', 'as': 'classe' } }"),
+                Document.parse("{ '$project': { 'nomClasse': '$_id', 'effectif': 1, 'matricules': 1,"
+                        + " 'capacite': { '$arrayElemAt': [ '$classe.capacite', 0 ] } } }"),
+                new Document("$out", mongoTemplate.getCollectionName(EffectifClasse.class)));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Eleve.class))
+                .aggregate(pipeline).allowDiskUse(true).toCollection();
+        versionsCollections.incrementer("classes");
+        return mongoTemplate.count(new Query(), EffectifClasse.class);
+    }
+
+    // Matricule, à défaut l'id (attribué par EleveService avant la réservation d'un nouvel élève)
+    private static String cle(Eleve eleve) {
+        if (eleve.getMatricule() != null && !eleve.getMatricule().isBlank()) {
+            return eleve.getMatricule();
+        }
+        return eleve.getId();
+    }
+
+    private boolean inscrire(String nomClasse, List<String> cles) {
+        for (int tentative = 0; tentative < 2; tentative++) {
+            Criteria place = new Criteria().orOperator(Criteria.where("capacite").is(null),
+                    Criteria.expr(ComparisonOperators.valueOf(ArithmeticOperators.valueOf("effectif").add(cles.size()))
+                            .lessThanEqualTo("capacite")));
+            Query query = Query.query(Criteria.where("_id").is(nomClasse).and("matricules").nin(cles).andOperator(place));
+            Update update = new Update().addToSet("matricules").each(cles.toArray()).inc("effectif", cles.size());
+            if (mongoTemplate.updateFirst(query, update, EffectifClasse.class).getModifiedCount() > 0) {
+                versionsCollections.incrementer("classes");
+                return true;
+            }
+            EffectifClasse effectif = mongoTemplate.findById(nomClasse, EffectifClasse.class);
+            if (effectif != null) {
+                // Déjà inscrit (nouvel essai après une erreur) ou classe complète
+                return cles.size() == 1 && effectif.getMatricules().contains(cles.get(0));
+            }
+            creer(nomClasse);
+        }
+        return false;
+    }
+
+    // Première inscription d'une classe : document créé avec la capacité de la classe (sans capacité connue, pas de limite)
+    // et les élèves que la classe a déjà, pour qu'une base existante ne reparte pas d'un effectif vide
+    private void creer(String nomClasse) {
+        Classes classe = mongoTemplate.findOne(classeParNom(nomClasse), Classes.class);
+        List<String> matricules = elevesDeLaClasse(nomClasse);
+        Update update = new Update().setOnInsert("nomClasse", nomClasse)
+                .setOnInsert("capacite", classe == null ? null : classe.getCapacite())
+                .setOnInsert("effectif", matricules.size())
+                .setOnInsert("matricules", matricules);
+        try {
+            mongoTemplate.upsert(parNom(nomClasse), update, EffectifClasse.class);
+        } catch (DuplicateKeyException e) {
+            // créé en même temps par une autre inscription
+        }
+    }
+
+    // Effectif d'un nom de classe refait à partir des élèves qui le portent et de la capacité de la classe de ce nom ;
+    // supprimé quand ni classe ni élève ne porte plus ce nom
+    private void reconstruire(String nomClasse) {
+        Classes classe = mongoTemplate.findOne(classeParNom(nomClasse), Classes.class);
+        List<String> matricules = elevesDeLaClasse(nomClasse);
+        if (classe == null && matricules.isEmpty()) {
+            mongoTemplate.remove(parNom(nomClasse), EffectifClasse.class);
+            return;
+        }
+        Update update = new Update().set("nomClasse", nomClasse)
+                .set("capacite", classe == null ? null : classe.getCapacite())
+                .set("effectif", matricules.size())
+                .set("matricules", matricules);
+        mongoTemplate.upsert(parNom(nomClasse), update, EffectifClasse.class);
+    }
+
+    static Query classeParNom(String nomClasse) {
+        return Query.query(Criteria.where("nomClasse").is(nomClasse));
+    }
+
+    // Clés (matricule, à défaut id) des élèves enregistrés dans la classe
+    private List<String> elevesDeLaClasse(String nomClasse) {
+        Query query = Query.query(Criteria.where("nomClasse").is(nomClasse));
+        query.fields().include("matricule");
+        List<String> matricules = new ArrayList<>();
+        for (Eleve eleve : mongoTemplate.find(query, Eleve.class)) {
+            matricules.add(eleve.getMatricule() != null && !eleve.getMatricule().isBlank() ? eleve.getMatricule() : eleve.getId());
+        }
+        return matricules;
+    }
+
+    private static Query parNom(String nomClasse) {
+        return Query.query(Criteria.where("_id").is(nomClasse));
+    }
+}
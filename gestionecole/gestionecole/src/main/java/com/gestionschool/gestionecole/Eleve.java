@@ -1,6 +1,7 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "eleves")
@@ -10,8 +11,10 @@ public class Eleve {
     private String nom;
     private String prenom;
     private String sexe;
+    @Indexed
     private String nomClasse;
     private String niveau;
+    @Indexed(unique = true, sparse = true)
     private String matricule;
     private String dateNaissance;
     private String villeNaissance;
@@ -1,23 +1,36 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/eleves")
 public class EleveController {
     @Autowired
     private EleveService eleveService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<Eleve> getAllEleves() {
         return eleveService.getAllEleves();
     }
+    @GetMapping(params = "limit")
+    public PageResult getElevesPage(PageQuery pageQuery) {
+        return eleveService.getElevesPage(pageQuery);
+    }
+    @GetMapping("/search")
+    public List<Eleve> rechercherEleves(@RequestParam String q, @RequestParam(required = false) Integer k) {
+        return eleveService.rechercherEleves(q, k);
+    }
     @GetMapping("/{id}")
-    public Optional<Eleve> getEleveById(@PathVariable String id) {
-        return eleveService.getEleveById(id);
+    public ResponseEntity<Eleve> getEleveById(@PathVariable String id) {
+        return patchService.lecture(eleveService.getEleveById(id));
     }
     @PostMapping
     public Eleve createEleve(@RequestBody Eleve eleve) {
@@ -28,6 +41,12 @@ public class EleveController {
         eleve.setId(id);
         return eleveService.saveEleve(eleve);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Eleve> patchEleve(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Eleve eleve = eleveService.patchEleve(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(eleve)).body(eleve);
+    }
     @DeleteMapping("/{id}")
     public void deleteEleve(@PathVariable String id) {
         eleveService.deleteEleve(id);
@@ -0,0 +1,9 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+// Actif uniquement avec le profil "reactif"
+public interface EleveReactifRepository extends ReactiveMongoRepository<Eleve, String> {
+    Flux<Eleve> findByNomClasse(String nomClasse);
+}
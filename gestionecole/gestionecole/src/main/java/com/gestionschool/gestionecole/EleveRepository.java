@@ -1,5 +1,16 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.Collection;
+import java.util.List;
 
-public interface EleveRepository extends MongoRepository<Eleve, String> {} 
\ No newline at end of file
+public interface EleveRepository extends MongoRepository<Eleve, String> {
+    @Query(value = "{ 'matricule': { '$in': ?0 } }", fields = "{ 'matricule': 1 }")
+    List<Eleve> findMatriculesIn(Collection<String> matricules);
+
+    @Query(value = "{ 'nomClasse': ?0 }", fields = "{ '_id': 1 }", sort = "{ '_id': 1 }")
+    List<Eleve> findIdsByNomClasse(String nomClasse);
+
+    List<Eleve> findByMatriculeIn(Collection<String> matricules);
+}
@@ -1,25 +1,90 @@
 package com.gestionschool.gestionecole;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 @Service
 public class EleveService {
     @Autowired
     private EleveRepository eleveRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private RechercheElevesService rechercheElevesService;
+    @Autowired
+    private EffectifClasseService effectifClasseService;
 
     public List<Eleve> getAllEleves() {
         return eleveRepository.findAll();
     }
+    public List<Eleve> rechercherEleves(String q, Integer k) {
+        return rechercheElevesService.rechercher(q, k);
+    }
+    public PageResult getElevesPage(PageQuery pageQuery) {
+        return paginationService.page(Eleve.class, pageQuery);
+    }
     public Optional<Eleve> getEleveById(String id) {
         return eleveRepository.findById(id);
     }
     public Eleve saveEleve(Eleve eleve) {
-        return eleveRepository.save(eleve);
+        Eleve ancien = eleve.getId() == null ? null : eleveRepository.findById(eleve.getId()).orElse(null);
+        if (eleve.getId() == null) {
+            // Id attribué avant la réservation : c'est la clé d'effectif d'un élève sans matricule
+            eleve.setId(new ObjectId().toHexString());
+        }
+        return enregistrer(ancien, eleve, () -> eleveRepository.save(eleve));
+    }
+    public Eleve patchEleve(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(Eleve.class, id, patch, ifMatch, this::enregistrer);
     }
     public void deleteEleve(String id) {
-        eleveRepository.deleteById(id);
+        eleveRepository.findById(id).ifPresent(ancien -> {
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                eleveRepository.deleteById(id);
+                statistiquesService.eleveSupprime(ancien);
+            } finally {
+                verrou.unlock();
+            }
+            effectifClasseService.supprime(ancien);
+            rechercheElevesService.eleveSupprime(id);
+            versionsCollections.incrementer("eleves");
+        });
+    }
+
+    private Eleve enregistrer(Eleve ancien, Eleve eleve, Supplier<Eleve> ecriture) {
+        effectifClasseService.reserver(ancien, eleve);
+        Eleve saved;
+        // Écriture et compteurs (téléphones) sans reconstruction des statistiques entre les deux
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            try {
+                saved = ecriture.get();
+            } catch (RuntimeException e) {
+                effectifClasseService.annuler(ancien, eleve);
+                throw e;
+            }
+            statistiquesService.eleveEnregistre(ancien, saved);
+        } finally {
+            verrou.unlock();
+        }
+        effectifClasseService.enregistre(ancien, saved);
+        rechercheElevesService.eleveEnregistre(saved);
+        versionsCollections.incrementer("eleves");
+        return saved;
     }
 } 
\ No newline at end of file
@@ -1,15 +1,20 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "emargements")
+@CompoundIndex(name = "eleve_date", def = "{ 'eleveId': 1, 'date': 1 }")
+@CompoundIndex(name = "cours_date", def = "{ 'coursId': 1, 'date': 1 }")
 public class Emargement {
     @Id
     private String id;
     private String eleveId;
     private String coursId;
     private String date;
+    @Indexed
     private Boolean present;
     // Getters et setters
     public String getId() { return id; }
@@ -1,8 +1,12 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -10,14 +14,43 @@ import java.util.Optional;
 public class EmargementController {
     @Autowired
     private EmargementService emargementService;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private AppelService appelService;
 
     @GetMapping
     public List<Emargement> getAllEmargements() {
         return emargementService.getAllEmargements();
     }
+    @GetMapping(params = { "anneeScolaire", "!limit", "!expand" })
+    public List<Emargement> getEmargementsAnnee(@RequestParam String anneeScolaire) {
+        return emargementService.getEmargementsAnnee(anneeScolaire);
+    }
+    @GetMapping(params = { "expand", "!limit" })
+    public List<Map<String, Object>> getAllEmargementsDetailles(@RequestParam String expand,
+            @RequestParam(required = false) String anneeScolaire) {
+        return emargementService.getAllEmargements(expand, anneeScolaire);
+    }
+    @GetMapping(params = "limit")
+    public PageResult getEmargementsPage(PageQuery pageQuery, @RequestParam(required = false) String anneeScolaire) {
+        return emargementService.getEmargementsPage(pageQuery, anneeScolaire);
+    }
+    @GetMapping("/eleve/{eleveId}")
+    public List<Emargement> getEmargementsEleve(@PathVariable String eleveId) {
+        return emargementService.getEmargementsEleve(eleveId);
+    }
+    @GetMapping("/appel")
+    public Optional<Appel> getAppel(@RequestParam String coursId, @RequestParam String classe, @RequestParam String date) {
+        return appelService.getAppel(coursId, classe, date);
+    }
+    @PostMapping("/appel")
+    public Appel enregistrerAppel(@RequestBody Appel appel) {
+        return appelService.enregistrerAppel(appel);
+    }
     @GetMapping("/{id}")
-    public Optional<Emargement> getEmargementById(@PathVariable String id) {
-        return emargementService.getEmargementById(id);
+    public ResponseEntity<Emargement> getEmargementById(@PathVariable String id) {
+        return patchService.lecture(emargementService.getEmargementById(id));
     }
     @PostMapping
     public Emargement createEmargement(@RequestBody Emargement emargement) {
@@ -28,6 +61,12 @@ public class EmargementController {
         emargement.setId(id);
         return emargementService.saveEmargement(emargement);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Emargement> patchEmargement(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Emargement emargement = emargementService.patchEmargement(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(emargement)).body(emargement);
+    }
     @DeleteMapping("/{id}")
     public void deleteEmargement(@PathVariable String id) {
         emargementService.deleteEmargement(id);
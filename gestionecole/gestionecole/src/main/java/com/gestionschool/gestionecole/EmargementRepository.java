@@ -1,5 +1,10 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
 
-public interface EmargementRepository extends MongoRepository<Emargement, String> {} 
\ No newline at end of file
+public interface EmargementRepository extends MongoRepository<Emargement, String> {
+    long countByPresent(Boolean present);
+
+    List<Emargement> findByEleveId(String eleveId);
+}
@@ -1,25 +1,227 @@
 package com.gestionschool.gestionecole;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
+// Les émargements individuels sont une vue sur les séances (id "<séance>:<élève>") ; les anciens documents restent lisibles
 @Service
 public class EmargementService {
+    private static final String SEPARATEUR = ":";
+    private static final Set<String> CHAMPS = Set.of("id", "eleveId", "coursId", "date", "present");
+
     @Autowired
     private EmargementRepository emargementRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private AppelService appelService;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ExpansionService expansionService;
+    @Autowired
+    private ArchivageService archivageService;
+
+    public static String idSeance(String seanceId, String eleveId) {
+        return seanceId + SEPARATEUR + eleveId;
+    }
 
     public List<Emargement> getAllEmargements() {
-        return emargementRepository.findAll();
+        List<Emargement> emargements = new ArrayList<>(emargementRepository.findAll());
+        emargements.addAll(appelService.getAllEmargements());
+        return emargements;
+    }
+    // Émargements d'une année scolaire (anciens documents et séances), lus dans leurs partitions si elle est close
+    public List<Emargement> getEmargementsAnnee(String anneeScolaire) {
+        List<Emargement> emargements = new ArrayList<>(mongoTemplate.find(new Query(archivageService.criteres("emargements", anneeScolaire)),
+                Emargement.class, archivageService.collection("emargements", anneeScolaire)));
+        emargements.addAll(appelService.getEmargementsAnnee(anneeScolaire));
+        return emargements;
+    }
+    // ?expand=eleve,cours : mêmes émargements, avec les champs d'affichage de l'élève et du cours joints par MongoDB
+    public List<Map<String, Object>> getAllEmargements(String expand, String anneeScolaire) {
+        List<String> expansions = expansionService.expansions("emargements", expand);
+        List<Document> pipeline = new ArrayList<>();
+        String collection = "emargements";
+        if (anneeScolaire != null) {
+            pipeline.add(new Document("$match", new Query(archivageService.criteres(collection, anneeScolaire)).getQueryObject()));
+            collection = archivageService.collection(collection, anneeScolaire);
+        }
+        pipeline.addAll(expansionService.etapes("emargements", expansions));
+        List<Map<String, Object>> emargements = new ArrayList<>();
+        for (Document document : mongoTemplate.getCollection(collection).aggregate(pipeline)) {
+            emargements.add(PaginationService.toJson(document));
+        }
+        emargements.addAll(appelService.getAllEmargements(expansions, anneeScolaire));
+        return emargements;
+    }
+    // Anciens documents individuels (pagination commune) puis émargements des séances dans l'ordre (séance, position) :
+    // le curseur indique la partie où reprendre. Pas de tri au choix, les deux sources n'ont pas d'ordre commun.
+    public PageResult getEmargementsPage(PageQuery pageQuery, String anneeScolaire) {
+        if (pageQuery.getSort() != null && !pageQuery.getSort().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tri non disponible pour les émargements");
+        }
+        int limite = pageQuery.getLimit() == null ? PaginationService.TAILLE_PAR_DEFAUT
+                : Math.max(1, Math.min(pageQuery.getLimit(), PaginationService.TAILLE_MAX));
+        List<String> expansions = expansionService.expansions("emargements", pageQuery.getExpand());
+        Set<String> champs = champs(pageQuery.getFields());
+        Document curseur = pageQuery.getAfter() == null || pageQuery.getAfter().isBlank() ? null : PaginationService.decodeCursor(pageQuery.getAfter());
+        List<Map<String, Object>> content = new ArrayList<>();
+        if (curseur == null || curseur.containsKey("e")) {
+            PageQuery anciens = new PageQuery();
+            anciens.setLimit(limite);
+            anciens.setAfter(curseur == null ? null : curseur.getString("e"));
+            anciens.setFields(pageQuery.getFields());
+            anciens.setExpand(pageQuery.getExpand());
+            PageResult page = anneeScolaire == null ? paginationService.page(Emargement.class, anciens)
+                    : paginationService.page(Emargement.class, anciens, archivageService.criteres("emargements", anneeScolaire),
+                            archivageService.collection("emargements", anneeScolaire));
+            if (page.getNextCursor() != null) {
+                page.setNextCursor(PaginationService.encodeCursor(new Document("e", page.getNextCursor())));
+                return page;
+            }
+            content.addAll(page.getContent());
+            curseur = null;
+        }
+        PageResult page = appelService.getEmargementsPage(anneeScolaire, curseur, limite - content.size(), expansions);
+        for (Map<String, Object> ligne : page.getContent()) {
+            if (!champs.isEmpty()) {
+                ligne.keySet().removeIf(champ -> !"id".equals(champ) && !champs.contains(champ) && !expansions.contains(champ));
+            }
+            content.add(ligne);
+        }
+        page.setContent(content);
+        page.setLimit(limite);
+        return page;
+    }
+    public List<Emargement> getEmargementsEleve(String eleveId) {
+        List<Emargement> emargements = new ArrayList<>(emargementRepository.findByEleveId(eleveId));
+        emargements.addAll(appelService.getEmargementsEleve(eleveId));
+        return emargements;
     }
     public Optional<Emargement> getEmargementById(String id) {
+        if (id.contains(SEPARATEUR)) {
+            String[] parties = id.split(SEPARATEUR, 2);
+            return appelService.getEmargement(parties[0], parties[1]);
+        }
         return emargementRepository.findById(id);
     }
     public Emargement saveEmargement(Emargement emargement) {
-        return emargementRepository.save(emargement);
+        if (emargement.getId() != null && !emargement.getId().contains(SEPARATEUR)) {
+            Emargement ancien = emargementRepository.findById(emargement.getId()).orElse(null);
+            if (ancien != null) {
+                archivageService.verifierOuverte("emargements", AnneeScolaire.de(emargement.getDate()));
+                Emargement saved;
+                // Écriture et compteurs sans reconstruction des statistiques entre les deux
+                Lock verrou = statistiquesService.verrouEcriture();
+                verrou.lock();
+                try {
+                    saved = emargementRepository.save(emargement);
+                    statistiquesService.emargementEnregistre(ancien, saved);
+                } finally {
+                    verrou.unlock();
+                }
+                versionsCollections.incrementer("emargements");
+                return saved;
+            }
+        }
+        if (emargement.getId() != null && emargement.getId().contains(SEPARATEUR)) {
+            Optional<SeanceEmargement> seance = appelService.getSeance(emargement.getId().split(SEPARATEUR, 2)[0]);
+            if (seance.isPresent() && estMemeSeance(seance.get(), emargement)) {
+                return appelService.marquer(seance.get().getCoursId(), seance.get().getClasse(), seance.get().getDate(),
+                        emargement.getEleveId(), emargement.getPresent());
+            }
+            deleteEmargement(emargement.getId());
+        }
+        String classe = emargement.getEleveId() == null ? null
+                : eleveRepository.findById(emargement.getEleveId()).map(Eleve::getNomClasse).orElse(null);
+        return appelService.marquer(emargement.getCoursId(), classe, emargement.getDate(), emargement.getEleveId(), emargement.getPresent());
+    }
+    // Un émargement de séance se fusionne en mémoire puis passe par l'appel, qui n'écrit que la présence de l'élève
+    public Emargement patchEmargement(String id, Map<String, Object> patch, String ifMatch) {
+        if (id.contains(SEPARATEUR)) {
+            Emargement ancien = getEmargementById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Émargement introuvable : " + id));
+            patchService.verifierVersion(ifMatch, ancien);
+            patch.remove("id");
+            return saveEmargement(patchService.fusionner(ancien, patch));
+        }
+        return patchService.modifier(Emargement.class, id, patch, ifMatch, (ancien, nouveau, ecriture) -> {
+            archivageService.verifierOuverte("emargements", AnneeScolaire.de(nouveau.getDate()));
+            Emargement saved;
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                saved = ecriture.get();
+                statistiquesService.emargementEnregistre(ancien, saved);
+            } finally {
+                verrou.unlock();
+            }
+            versionsCollections.incrementer("emargements");
+            return saved;
+        });
     }
     public void deleteEmargement(String id) {
-        emargementRepository.deleteById(id);
+        if (id.contains(SEPARATEUR)) {
+            String[] parties = id.split(SEPARATEUR, 2);
+            appelService.retirer(parties[0], parties[1]);
+            return;
+        }
+        emargementRepository.findById(id).ifPresent(ancien -> {
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                emargementRepository.deleteById(id);
+                statistiquesService.emargementSupprime(ancien);
+            } finally {
+                verrou.unlock();
+            }
+            versionsCollections.incrementer("emargements");
+        });
+    }
+
+    // ?fields= : mêmes noms que les propriétés d'Emargement, 400 sinon (comme la pagination commune)
+    private static Set<String> champs(String fields) {
+        Set<String> champs = new HashSet<>();
+        if (fields != null) {
+            for (String champ : fields.split(",")) {
+                if (champ.isBlank()) {
+                    continue;
+                }
+                if (!CHAMPS.contains(champ.trim())) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Champ inconnu : " + champ.trim());
+                }
+                champs.add(champ.trim());
+            }
+        }
+        return champs;
+    }
+
+    private static boolean estMemeSeance(SeanceEmargement seance, Emargement emargement) {
+        String eleveId = emargement.getId().split(SEPARATEUR, 2)[1];
+        return eleveId.equals(emargement.getEleveId())
+                && Objects.equals(seance.getCoursId(), emargement.getCoursId())
+                && Objects.equals(seance.getDate(), emargement.getDate());
     }
-} 
\ No newline at end of file
+}
@@ -1,9 +1,12 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "emploisdutemps")
+@CompoundIndex(name = "classe_jour", def = "{ 'classeId': 1, 'jour': 1 }")
+@CompoundIndex(name = "cours_jour", def = "{ 'coursId': 1, 'jour': 1 }")
 public class EmploiDuTemps {
     @Id
     private String id;
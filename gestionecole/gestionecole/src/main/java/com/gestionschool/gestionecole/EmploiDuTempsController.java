@@ -1,23 +1,44 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/emploisdutemps")
 public class EmploiDuTempsController {
     @Autowired
     private EmploiDuTempsService emploiDuTempsService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<EmploiDuTemps> getAllEmploisDuTemps() {
         return emploiDuTempsService.getAllEmploisDuTemps();
     }
+    @GetMapping(params = { "expand", "!limit" })
+    public List<Map<String, Object>> getAllEmploisDuTempsDetailles(@RequestParam String expand) {
+        return emploiDuTempsService.getAllEmploisDuTemps(expand);
+    }
+    @GetMapping(params = "limit")
+    public PageResult getEmploisDuTempsPage(PageQuery pageQuery) {
+        return emploiDuTempsService.getEmploisDuTempsPage(pageQuery);
+    }
+    @GetMapping("/conflits")
+    public List<ConflitPlanning> verifierEmploiDuTemps() {
+        return emploiDuTempsService.verifierEmploiDuTemps();
+    }
+    @PostMapping("/conflits")
+    public List<ConflitPlanning> verifierCreneau(@RequestBody EmploiDuTemps emploiDuTemps) {
+        return emploiDuTempsService.verifierConflits(emploiDuTemps);
+    }
     @GetMapping("/{id}")
-    public Optional<EmploiDuTemps> getEmploiDuTempsById(@PathVariable String id) {
-        return emploiDuTempsService.getEmploiDuTempsById(id);
+    public ResponseEntity<EmploiDuTemps> getEmploiDuTempsById(@PathVariable String id) {
+        return patchService.lecture(emploiDuTempsService.getEmploiDuTempsById(id));
     }
     @PostMapping
     public EmploiDuTemps createEmploiDuTemps(@RequestBody EmploiDuTemps emploiDuTemps) {
@@ -28,6 +49,12 @@ public class EmploiDuTempsController {
         emploiDuTemps.setId(id);
         return emploiDuTempsService.saveEmploiDuTemps(emploiDuTemps);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<EmploiDuTemps> patchEmploiDuTemps(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EmploiDuTemps emploiDuTemps = emploiDuTempsService.patchEmploiDuTemps(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(emploiDuTemps)).body(emploiDuTemps);
+    }
     @DeleteMapping("/{id}")
     public void deleteEmploiDuTemps(@PathVariable String id) {
         emploiDuTempsService.deleteEmploiDuTemps(id);
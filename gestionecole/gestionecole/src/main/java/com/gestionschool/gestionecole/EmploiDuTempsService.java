@@ -1,25 +1,112 @@
 package com.gestionschool.gestionecole;
 
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class EmploiDuTempsService {
     @Autowired
     private EmploiDuTempsRepository emploiDuTempsRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private PlanningService planningService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ExpansionService expansionService;
 
+    @Cacheable(value = "emploisDuTemps", key = "'tous'")
     public List<EmploiDuTemps> getAllEmploisDuTemps() {
         return emploiDuTempsRepository.findAll();
     }
+    // ?expand=classe,cours : non mis en cache, les noms joints changent avec les classes et les cours
+    public List<Map<String, Object>> getAllEmploisDuTemps(String expand) {
+        List<Document> pipeline = expansionService.etapes("emploisdutemps", expansionService.expansions("emploisdutemps", expand));
+        List<Map<String, Object>> emplois = new ArrayList<>();
+        for (Document document : mongoTemplate.getCollection("emploisdutemps").aggregate(pipeline)) {
+            emplois.add(PaginationService.toJson(document));
+        }
+        return emplois;
+    }
+    public PageResult getEmploisDuTempsPage(PageQuery pageQuery) {
+        return paginationService.page(EmploiDuTemps.class, pageQuery);
+    }
+    @Cacheable(value = "emploisDuTemps", key = "#id")
     public Optional<EmploiDuTemps> getEmploiDuTempsById(String id) {
         return emploiDuTempsRepository.findById(id);
     }
+    @CacheEvict(value = "emploisDuTemps", allEntries = true)
     public EmploiDuTemps saveEmploiDuTemps(EmploiDuTemps emploiDuTemps) {
-        return emploiDuTempsRepository.save(emploiDuTemps);
+        boolean nouveau = emploiDuTemps.getId() == null || !emploiDuTempsRepository.existsById(emploiDuTemps.getId());
+        EmploiDuTemps saved;
+        // Écriture et compteur sans reconstruction des statistiques entre les deux
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            saved = planningService.planifier(emploiDuTemps, emploiDuTempsRepository::save);
+            statistiquesService.compteurAjoute("emploisDuTemps", nouveau);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } finally {
+            verrou.unlock();
+        }
+        versionsCollections.incrementer("emploisdutemps");
+        return saved;
+    }
+    @CacheEvict(value = "emploisDuTemps", allEntries = true)
+    public EmploiDuTemps patchEmploiDuTemps(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(EmploiDuTemps.class, id, patch, ifMatch, (ancien, nouveau, ecriture) -> {
+            EmploiDuTemps saved;
+            try {
+                saved = planningService.planifier(nouveau, e -> ecriture.get());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            versionsCollections.incrementer("emploisdutemps");
+            return saved;
+        });
+    }
+    public List<ConflitPlanning> verifierConflits(EmploiDuTemps emploiDuTemps) {
+        try {
+            return planningService.conflits(emploiDuTemps);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    public List<ConflitPlanning> verifierEmploiDuTemps() {
+        return planningService.verifierTout();
     }
+    @CacheEvict(value = "emploisDuTemps", allEntries = true)
     public void deleteEmploiDuTemps(String id) {
-        emploiDuTempsRepository.deleteById(id);
+        if (emploiDuTempsRepository.existsById(id)) {
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                emploiDuTempsRepository.deleteById(id);
+                statistiquesService.compteurSupprime("emploisDuTemps");
+            } finally {
+                verrou.unlock();
+            }
+            planningService.supprime(id);
+            versionsCollections.incrementer("emploisdutemps");
+        }
     }
 } 
\ No newline at end of file
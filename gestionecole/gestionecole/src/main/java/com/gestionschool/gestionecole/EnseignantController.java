@@ -1,23 +1,32 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/enseignants")
 public class EnseignantController {
     @Autowired
     private EnseignantService enseignantService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<Enseignant> getAllEnseignants() {
         return enseignantService.getAllEnseignants();
     }
+    @GetMapping(params = "limit")
+    public PageResult getEnseignantsPage(PageQuery pageQuery) {
+        return enseignantService.getEnseignantsPage(pageQuery);
+    }
     @GetMapping("/{id}")
-    public Optional<Enseignant> getEnseignantById(@PathVariable String id) {
-        return enseignantService.getEnseignantById(id);
+    public ResponseEntity<Enseignant> getEnseignantById(@PathVariable String id) {
+        return patchService.lecture(enseignantService.getEnseignantById(id));
     }
     @PostMapping
     public Enseignant createEnseignant(@RequestBody Enseignant enseignant) {
@@ -28,6 +37,12 @@ public class EnseignantController {
         enseignant.setId(id);
         return enseignantService.saveEnseignant(enseignant);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Enseignant> patchEnseignant(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Enseignant enseignant = enseignantService.patchEnseignant(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(enseignant)).body(enseignant);
+    }
     @DeleteMapping("/{id}")
     public void deleteEnseignant(@PathVariable String id) {
         enseignantService.deleteEnseignant(id);
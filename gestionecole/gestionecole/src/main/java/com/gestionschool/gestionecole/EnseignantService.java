@@ -1,25 +1,74 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class EnseignantService {
     @Autowired
     private EnseignantRepository enseignantRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
 
+    @Cacheable(value = "enseignants", key = "'tous'")
     public List<Enseignant> getAllEnseignants() {
         return enseignantRepository.findAll();
     }
+    public PageResult getEnseignantsPage(PageQuery pageQuery) {
+        return paginationService.page(Enseignant.class, pageQuery);
+    }
+    @Cacheable(value = "enseignants", key = "#id")
     public Optional<Enseignant> getEnseignantById(String id) {
         return enseignantRepository.findById(id);
     }
+    @CacheEvict(value = "enseignants", allEntries = true)
     public Enseignant saveEnseignant(Enseignant enseignant) {
-        return enseignantRepository.save(enseignant);
+        boolean nouveau = enseignant.getId() == null || !enseignantRepository.existsById(enseignant.getId());
+        Enseignant saved;
+        // Écriture et compteur sans reconstruction des statistiques entre les deux
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            saved = enseignantRepository.save(enseignant);
+            statistiquesService.compteurAjoute("enseignants", nouveau);
+        } finally {
+            verrou.unlock();
+        }
+        versionsCollections.incrementer("enseignants");
+        return saved;
+    }
+    @CacheEvict(value = "enseignants", allEntries = true)
+    public Enseignant patchEnseignant(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(Enseignant.class, id, patch, ifMatch, (ancien, nouveau, ecriture) -> {
+            Enseignant saved = ecriture.get();
+            versionsCollections.incrementer("enseignants");
+            return saved;
+        });
     }
+    @CacheEvict(value = "enseignants", allEntries = true)
     public void deleteEnseignant(String id) {
-        enseignantRepository.deleteById(id);
+        if (enseignantRepository.existsById(id)) {
+            Lock verrou = statistiquesService.verrouEcriture();
+            verrou.lock();
+            try {
+                enseignantRepository.deleteById(id);
+                statistiquesService.compteurSupprime("enseignants");
+            } finally {
+                verrou.unlock();
+            }
+            versionsCollections.incrementer("enseignants");
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.gestionschool.gestionecole;
+
+public class ErreurImport {
+    private long ligne;
+    private String message;
+
+    public ErreurImport() {}
+
+    public ErreurImport(long ligne, String message) {
+        this.ligne = ligne;
+        this.message = message;
+    }
+
+    // Getters et setters
+    public long getLigne() { return ligne; }
+    public void setLigne(long ligne) { this.ligne = ligne; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,20 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class EtagConfig {
+    @Bean
+    public WebMvcConfigurer etagConfigurer(VersionsCollections versionsCollections) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(@NonNull InterceptorRegistry registry) {
+                registry.addInterceptor(new EtagInterceptor(versionsCollections)).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.gestionschool.gestionecole;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import java.util.Set;
+
+// GET /api/<collection>/... : ETag calculé depuis la version de la collection, 304 sur If-None-Match sans appeler MongoDB.
+// GET /api/<collection>/{id} garde l'ETag du document (PatchService.etag), celui qu'attend If-Match sur PATCH
+public class EtagInterceptor implements HandlerInterceptor {
+    private static final Set<String> COLLECTIONS = Set.of("eleves", "classes", "cours", "notes", "enseignants",
+            "emploisdutemps", "scolarites", "emargements");
+
+    private final VersionsCollections versionsCollections;
+
+    public EtagInterceptor(VersionsCollections versionsCollections) {
+        this.versionsCollections = versionsCollections;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        String collection = collection(request.getRequestURI());
+        if (collection == null) {
+            return true;
+        }
+        String requete = request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+        // no-cache : le navigateur garde la réponse mais revalide à chaque appel
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (("/api/" + collection + "/{id}").equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))) {
+            return true;
+        }
+        String expand = request.getParameter("expand");
+        String etag = expand != null && ExpansionService.accepte(collection)
+                ? versionsCollections.etag(ExpansionService.collectionsLues(collection, expand), requete)
+                : versionsCollections.etag(collection, requete);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private static String collection(String uri) {
+        if (!uri.startsWith("/api/")) {
+            return null;
+        }
+        int fin = uri.indexOf('/', 5);
+        String segment = fin < 0 ? uri.substring(5) : uri.substring(5, fin);
+        return COLLECTIONS.contains(segment) ? segment : null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// ?expand=eleve,cours : les références (ids en chaîne) sont résolues côté MongoDB par $lookup sur _id,
+// et seuls les champs d'affichage de la cible sont gardés, sous le nom de l'expansion ({ id, nom, prenom... }).
+// Les ids écrits en ObjectId comme en chaîne sont trouvés ; une référence cassée laisse simplement le champ absent.
+@Service
+public class ExpansionService {
+    // Collection (segment d'URL) -> expansion -> { champ local, collection cible, champs d'affichage... }
+    private static final Map<String, Map<String, String[]>> REFERENCES = Map.of(
+            "emargements", Map.of(
+                    "eleve", new String[] { "eleveId", "eleves", "nom", "prenom", "matricule", "nomClasse" },
+                    "cours", new String[] { "coursId", "cours", "nomCours", "classe" }),
+            "seances_emargement", Map.of(
+                    "eleve", new String[] { "eleveIds", "eleves", "nom", "prenom", "matricule", "nomClasse" },
+                    "cours", new String[] { "coursId", "cours", "nomCours", "classe" }),
+            "emploisdutemps", Map.of(
+                    "classe", new String[] { "classeId", "classes", "nomClasse", "niveau" },
+                    "cours", new String[] { "coursId", "cours", "nomCours", "classe" }));
+    // Champs locaux qui contiennent une liste d'ids : l'expansion est alors un tableau, dans l'ordre de la collection cible
+    private static final Set<String> TABLEAUX = Set.of("eleveIds");
+
+    public static boolean accepte(String collection) {
+        return REFERENCES.containsKey(collection);
+    }
+
+    // Collections lues par une réponse étendue, pour l'ETag : la collection elle-même puis les cibles des expansions
+    public static List<String> collectionsLues(String collection, String expand) {
+        Set<String> collections = new LinkedHashSet<>();
+        collections.add(collection);
+        Map<String, String[]> references = REFERENCES.getOrDefault(collection, Map.of());
+        for (String expansion : noms(expand)) {
+            String[] reference = references.get(expansion);
+            if (reference != null) {
+                collections.add(reference[1]);
+            }
+        }
+        return new ArrayList<>(collections);
+    }
+
+    // Expansions demandées, 400 sur une expansion inconnue pour cette collection
+    public List<String> expansions(String collection, String expand) {
+        List<String> expansions = noms(expand);
+        Map<String, String[]> references = REFERENCES.getOrDefault(collection, Map.of());
+        for (String expansion : expansions) {
+            if (!references.containsKey(expansion)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expansion inconnue pour " + collection + " : " + expansion
+                        + (references.isEmpty() ? "" : " (possibles : " + String.join(", ", references.keySet()) + ")"));
+            }
+        }
+        return expansions;
+    }
+
+    // Champs locaux à garder dans une projection pour que les expansions restent possibles
+    public List<String> champsLocaux(String collection, List<String> expansions) {
+        return expansions.stream().map(e -> REFERENCES.get(collection).get(e)[0]).toList();
+    }
+
+    // Étapes à ajouter en fin de pipeline : ids en chaîne et en ObjectId, $lookup sur _id, projection des champs d'affichage
+    public List<Document> etapes(String collection, List<String> expansions) {
+        List<Document> etapes = new ArrayList<>();
+        for (String expansion : expansions) {
+            String[] reference = REFERENCES.get(collection).get(expansion);
+            boolean tableau = TABLEAUX.contains(reference[0]);
+            String local = "$" + reference[0];
+            String temporaire = "_expansion_" + expansion;
+            Document ids = tableau
+                    ? new Document("$concatArrays", List.of(new Document("$ifNull", List.of(local, List.of())),
+                            new Document("$map", new Document("input", new Document("$ifNull", List.of(local, List.of())))
+                                    .append("in", versObjectId("$$this")))))
+                    : new Document("$concatArrays", List.of(List.of(local), List.of(versObjectId(local))));
+            Document affichage = new Document("id", new Document("$toString", "$$this._id"));
+            for (int i = 2; i < reference.length; i++) {
+                affichage.append(reference[i], "$$this." + reference[i]);
+            }
+            Document projetes = new Document("$map", new Document("input", "$" + temporaire).append("in", affichage));
+            etapes.add(new Document("$set", new Document(temporaire, ids)));
+            etapes.add(new Document("$lookup", new Document("from", reference[1]).append("localField", temporaire)
+                    .append("foreignField", "_id").append("as", temporaire)));
+            etapes.add(new Document("$set", new Document(expansion, tableau ? projetes : new Document("$arrayElemAt", List.of(projetes, 0)))));
+            etapes.add(new Document("$unset", temporaire));
+        }
+        return etapes;
+    }
+
+    private static Document versObjectId(Object valeur) {
+        return new Document("$convert", new Document("input", valeur).append("to", "objectId")
+                .append("onError", null).append("onNull", null));
+    }
+
+    private static List<String> noms(String expand) {
+        List<String> noms = new ArrayList<>();
+        if (expand != null) {
+            for (String nom : expand.split(",")) {
+                if (!nom.isBlank() && !noms.contains(nom.trim())) {
+                    noms.add(nom.trim());
+                }
+            }
+        }
+        return noms;
+    }
+}
@@ -0,0 +1,70 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.zip.GZIPOutputStream;
+
+// GET /api/export/notes?format=csv&classe=6A&du=2024-09-01&au=2025-06-30&gzip=true
+@Lazy
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/notes")
+    public ResponseEntity<StreamingResponseBody> exporterNotes(ExportFiltre filtre,
+            @RequestParam(defaultValue = "ndjson") String format, @RequestParam(defaultValue = "false") boolean gzip) {
+        boolean csv = estCsv(format);
+        exportService.valider(filtre);
+        return reponse("notes", csv, gzip, out -> exportService.exporterNotes(filtre, csv, out));
+    }
+
+    @GetMapping("/scolarites")
+    public ResponseEntity<StreamingResponseBody> exporterScolarites(ExportFiltre filtre,
+            @RequestParam(defaultValue = "ndjson") String format, @RequestParam(defaultValue = "false") boolean gzip) {
+        boolean csv = estCsv(format);
+        exportService.valider(filtre);
+        return reponse("scolarites", csv, gzip, out -> exportService.exporterScolarites(filtre, csv, out));
+    }
+
+    @GetMapping("/emargements")
+    public ResponseEntity<StreamingResponseBody> exporterEmargements(ExportFiltre filtre,
+            @RequestParam(defaultValue = "ndjson") String format, @RequestParam(defaultValue = "false") boolean gzip) {
+        boolean csv = estCsv(format);
+        exportService.valider(filtre);
+        return reponse("emargements", csv, gzip, out -> exportService.exporterEmargements(filtre, csv, out));
+    }
+
+    private static boolean estCsv(String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return true;
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return false;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format inconnu : " + format + " (csv ou ndjson)");
+    }
+
+    private static ResponseEntity<StreamingResponseBody> reponse(String nom, boolean csv, boolean gzip, StreamingResponseBody export) {
+        String fichier = nom + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : csv ? MediaType.parseMediaType("text/csv;charset=UTF-8") : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody corps = !gzip ? export : out -> {
+            GZIPOutputStream compresse = new GZIPOutputStream(out, 64 * 1024);
+            export.writeTo(compresse);
+            compresse.finish();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fichier + "\"")
+                .contentType(type)
+                .body(corps);
+    }
+}
@@ -0,0 +1,19 @@
+package com.gestionschool.gestionecole;
+
+// Filtres communs des exports : du / au au format yyyy-MM-dd, bornes incluses
+public class ExportFiltre {
+    private String classe;
+    private Integer annee;
+    private String du;
+    private String au;
+
+    // Getters et setters
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public Integer getAnnee() { return annee; }
+    public void setAnnee(Integer annee) { this.annee = annee; }
+    public String getDu() { return du; }
+    public void setDu(String du) { this.du = du; }
+    public String getAu() { return au; }
+    public void setAu(String au) { this.au = au; }
+}
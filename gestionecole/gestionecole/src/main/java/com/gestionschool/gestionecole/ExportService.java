@@ -0,0 +1,223 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.lte;
+
+// Exports lus directement sur un curseur MongoDB et écrits au fil de l'eau : la mémoire reste constante quelle que soit la collection
+@Lazy
+@Service
+public class ExportService {
+    public static final int TAILLE_LOT = 1000;
+    private static final char SEPARATEUR = ',';
+    private static final Pattern DATE = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}$");
+
+    public static final List<String> COLONNES_NOTES = List.of("id", "matriculeEleve", "nomCours", "classe", "valeur",
+            "typeEvaluation", "dateEvaluation", "observation");
+    public static final List<String> COLONNES_SCOLARITES = List.of("id", "matriculeEleve", "nomEleve", "nomClasse", "annee", "mois",
+            "montantAnnuel", "montantMensuel", "montantPaye", "datePaiement", "modePaiement", "statut", "observation");
+    public static final List<String> COLONNES_EMARGEMENTS = List.of("id", "eleveId", "coursId", "classe", "date", "present");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private ArchivageService archivageService;
+
+    public void exporterNotes(ExportFiltre filtre, boolean csv, OutputStream out) throws IOException {
+        Bson requete = filtre(filtre, "classe", "dateEvaluation", null);
+        try (Sortie sortie = new Sortie(out, csv, COLONNES_NOTES)) {
+            parcourir("notes", requete, sortie);
+        }
+    }
+
+    public void exporterScolarites(ExportFiltre filtre, boolean csv, OutputStream out) throws IOException {
+        Bson requete = filtre(filtre, "nomClasse", "datePaiement", "annee");
+        try (Sortie sortie = new Sortie(out, csv, COLONNES_SCOLARITES)) {
+            parcourir("scolarites", requete, sortie);
+        }
+    }
+
+    // Émargements unitaires historiques puis séances d'appel dépliées en une ligne par élève
+    public void exporterEmargements(ExportFiltre filtre, boolean csv, OutputStream out) throws IOException {
+        List<Bson> unitaires = new ArrayList<>();
+        if (filtre.getClasse() != null && !filtre.getClasse().isBlank()) {
+            unitaires.add(in("eleveId", eleveRepository.findIdsByNomClasse(filtre.getClasse()).stream().map(Eleve::getId).toList()));
+        }
+        unitaires.addAll(periode(filtre, "date"));
+        Bson seances = filtre(filtre, "classe", "date", null);
+        try (Sortie sortie = new Sortie(out, csv, COLONNES_EMARGEMENTS)) {
+            parcourir("emargements", unitaires.isEmpty() ? new Document() : and(unitaires), sortie);
+            for (String collection : archivageService.collectionsEnBase("seances_emargement")) {
+                try (MongoCursor<Document> curseur = mongoTemplate.getCollection(collection).find(seances)
+                        .batchSize(TAILLE_LOT).iterator()) {
+                    while (curseur.hasNext()) {
+                        ecrireSeance(curseur.next(), sortie);
+                    }
+                }
+            }
+        }
+    }
+
+    // Collection chaude puis partitions des années closes encore en base
+    private void parcourir(String collection, Bson requete, Sortie sortie) throws IOException {
+        for (String lue : archivageService.collectionsEnBase(collection)) {
+            try (MongoCursor<Document> curseur = mongoTemplate.getCollection(lue).find(requete).batchSize(TAILLE_LOT).iterator()) {
+                while (curseur.hasNext()) {
+                    sortie.ecrire(PaginationService.toJson(curseur.next()));
+                }
+            }
+        }
+    }
+
+    private void ecrireSeance(Document seance, Sortie sortie) throws IOException {
+        List<String> eleveIds = seance.getList("eleveIds", String.class, List.of());
+        Binary presences = seance.get("presences", Binary.class);
+        BitSet bits = BitSet.valueOf(presences == null ? new byte[0] : presences.getData());
+        String seanceId = seance.get("_id").toString();
+        for (int i = 0; i < eleveIds.size(); i++) {
+            Map<String, Object> ligne = new LinkedHashMap<>();
+            ligne.put("id", EmargementService.idSeance(seanceId, eleveIds.get(i)));
+            ligne.put("eleveId", eleveIds.get(i));
+            ligne.put("coursId", seance.getString("coursId"));
+            ligne.put("classe", seance.getString("classe"));
+            ligne.put("date", seance.getString("date"));
+            ligne.put("present", bits.get(i));
+            sortie.ecrire(ligne);
+        }
+    }
+
+    private Bson filtre(ExportFiltre filtre, String champClasse, String champDate, String champAnnee) {
+        List<Bson> conditions = new ArrayList<>();
+        if (filtre.getClasse() != null && !filtre.getClasse().isBlank()) {
+            conditions.add(eq(champClasse, filtre.getClasse()));
+        }
+        if (champAnnee != null && filtre.getAnnee() != null) {
+            conditions.add(eq(champAnnee, filtre.getAnnee()));
+            conditions.addAll(periode(filtre.getDu(), filtre.getAu(), champDate));
+        } else {
+            conditions.addAll(periode(filtre, champDate));
+        }
+        return conditions.isEmpty() ? new Document() : and(conditions);
+    }
+
+    // Sans champ année, l'année filtre l'année civile de la date (dates stockées en yyyy-MM-dd)
+    private List<Bson> periode(ExportFiltre filtre, String champDate) {
+        List<Bson> conditions = periode(filtre.getDu(), filtre.getAu(), champDate);
+        if (filtre.getAnnee() != null) {
+            conditions.add(gte(champDate, filtre.getAnnee() + "-01-01"));
+            conditions.add(lt(champDate, (filtre.getAnnee() + 1) + "-01-01"));
+        }
+        return conditions;
+    }
+
+    private List<Bson> periode(String du, String au, String champDate) {
+        List<Bson> conditions = new ArrayList<>();
+        if (du != null && !du.isBlank()) {
+            conditions.add(gte(champDate, date(du)));
+        }
+        if (au != null && !au.isBlank()) {
+            conditions.add(lte(champDate, date(au)));
+        }
+        return conditions;
+    }
+
+    // Appelé avant d'ouvrir le flux : une erreur après le premier octet ne peut plus devenir un 400
+    public void valider(ExportFiltre filtre) {
+        date(filtre.getDu());
+        date(filtre.getAu());
+    }
+
+    private static String date(String valeur) {
+        if (valeur != null && !valeur.isBlank() && !DATE.matcher(valeur).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Date invalide (yyyy-MM-dd attendu) : " + valeur);
+        }
+        return valeur;
+    }
+
+    // Écriture NDJSON (un objet par ligne) ou CSV (en-tête puis colonnes fixes)
+    private class Sortie implements AutoCloseable {
+        private final Writer writer;
+        private final JsonGenerator json;
+        private final List<String> colonnes;
+        private long lignes;
+
+        Sortie(OutputStream out, boolean csv, List<String> colonnes) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.colonnes = csv ? colonnes : null;
+            if (csv) {
+                this.json = null;
+                ecrireCsv(colonnes);
+            } else {
+                this.json = objectMapper.getFactory().createGenerator(writer);
+                this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                this.json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            }
+        }
+
+        void ecrire(Map<String, Object> document) throws IOException {
+            lignes++;
+            if (json != null) {
+                objectMapper.writeValue(json, document);
+            } else {
+                List<Object> valeurs = new ArrayList<>(colonnes.size());
+                for (String colonne : colonnes) {
+                    valeurs.add(document.get(colonne));
+                }
+                ecrireCsv(valeurs);
+            }
+        }
+
+        private void ecrireCsv(List<?> valeurs) throws IOException {
+            for (int i = 0; i < valeurs.size(); i++) {
+                if (i > 0) {
+                    writer.write(SEPARATEUR);
+                }
+                writer.write(Csv.echapper(valeurs.get(i), SEPARATEUR));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (json != null) {
+                json.flush();
+                if (lignes > 0) {
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        }
+    }
+}
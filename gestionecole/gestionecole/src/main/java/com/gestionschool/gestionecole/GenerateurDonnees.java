@@ -0,0 +1,222 @@
+package com.gestionschool.gestionecole;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Jeu de données synthétique du profil "memoire" (tests de charge) : même graine, mêmes données.
+// Classes de TAILLE_CLASSE élèves sur les niveaux du collège, COURS par classe, notes par évaluations communes à la classe,
+// paiements mensuels de l'année civile ; les compteurs, effectifs, soldes, index de recherche et classements sont ensuite reconstruits.
+@Service
+@Profile("memoire")
+public class GenerateurDonnees {
+    private static final Logger log = LoggerFactory.getLogger(GenerateurDonnees.class);
+    public static final int ELEVES_MAX = 1_000_000;
+    private static final int TAILLE_CLASSE = 30;
+    private static final String[] NIVEAUX = { "6ème", "5ème", "4ème", "3ème" };
+    private static final String[] COURS = { "Mathématiques", "Français", "Anglais", "Histoire-Géographie", "SVT", "Physique-Chimie" };
+    private static final String[] NOMS = { "Diop", "Ndiaye", "Fall", "Sow", "Diallo", "Ba", "Faye", "Gueye", "Sarr", "Cissé",
+            "Mbaye", "Kane", "Thiam", "Seck", "Camara", "Martin", "Bernard", "Dubois", "Moreau", "Laurent" };
+    private static final String[] PRENOMS_F = { "Awa", "Fatou", "Aminata", "Mariama", "Khady", "Aïssatou", "Marie", "Léa", "Camille", "Sophie" };
+    private static final String[] PRENOMS_M = { "Moussa", "Mamadou", "Ibrahima", "Cheikh", "Ousmane", "Abdou", "Lucas", "Hugo", "Louis", "Thomas" };
+    private static final String[] VILLES = { "Dakar", "Thiès", "Saint-Louis", "Ziguinchor", "Kaolack", "Paris", "Lyon" };
+    private static final String[] MOIS = { "Janvier", "Février", "Mars", "Avril", "Mai", "Juin",
+            "Juillet", "Août", "Septembre", "Octobre", "Novembre", "Décembre" };
+    private static final String[] MODES = { "Espèces", "Chèque", "Virement", "Mobile Money" };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private EffectifClasseService effectifClasseService;
+    @Autowired
+    private SoldeScolariteService soldeScolariteService;
+    @Autowired
+    private RechercheElevesService rechercheElevesService;
+    @Autowired
+    private ClassementService classementService;
+
+    // Génération au démarrage si la base est vide (ex. pas d'instantané) : gestionecole.memoire.generation.*
+    @Value("${gestionecole.memoire.generation.eleves:0}")
+    private int elevesAuDemarrage;
+    @Value("${gestionecole.memoire.generation.notes-par-eleve:18}")
+    private int notesParEleveAuDemarrage;
+    @Value("${gestionecole.memoire.generation.paiements-par-eleve:6}")
+    private int paiementsParEleveAuDemarrage;
+    @Value("${gestionecole.memoire.generation.graine:42}")
+    private long graineAuDemarrage;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void genererAuDemarrage() {
+        if (elevesAuDemarrage > 0 && mongoTemplate.count(new Query(), Eleve.class) == 0) {
+            Thread thread = new Thread(() -> generer(elevesAuDemarrage, notesParEleveAuDemarrage, paiementsParEleveAuDemarrage, graineAuDemarrage),
+                    "generation-donnees");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public Map<String, Long> generer(int nombreEleves, int notesParEleve, int paiementsParEleve, long graine) {
+        if (nombreEleves < 1 || nombreEleves > ELEVES_MAX || notesParEleve < 0 || paiementsParEleve < 0 || paiementsParEleve > MOIS.length) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètres de génération invalides");
+        }
+        if (mongoTemplate.count(new Query(), Eleve.class) > 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La base contient déjà des élèves");
+        }
+        long debut = System.nanoTime();
+        Random random = new Random(graine);
+        Map<String, Long> comptes = new LinkedHashMap<>();
+
+        int nombreClasses = (nombreEleves + TAILLE_CLASSE - 1) / TAILLE_CLASSE;
+        List<Classes> classes = new ArrayList<>(nombreClasses);
+        List<Cours> cours = new ArrayList<>(nombreClasses * COURS.length);
+        for (int i = 0; i < nombreClasses; i++) {
+            Classes classe = new Classes();
+            classe.setNiveau(NIVEAUX[i % NIVEAUX.length]);
+            classe.setNomClasse(classe.getNiveau() + " " + section(i / NIVEAUX.length));
+            classe.setCapacite(TAILLE_CLASSE + 5);
+            classes.add(classe);
+            for (String nomCours : COURS) {
+                Cours c = new Cours();
+                c.setNomCours(nomCours);
+                c.setClasse(classe.getNomClasse());
+                c.setDuree(3 + random.nextInt(3));
+                cours.add(c);
+            }
+        }
+        comptes.put("classes", inserer(classes, Classes.class));
+        comptes.put("cours", inserer(cours, Cours.class));
+
+        List<Enseignant> enseignants = new ArrayList<>();
+        for (int i = 0; i < Math.max(COURS.length, nombreClasses); i++) {
+            Enseignant enseignant = new Enseignant();
+            enseignant.setNomEnseignant(NOMS[random.nextInt(NOMS.length)]);
+            enseignant.setPrenomEnseignant(random.nextBoolean() ? PRENOMS_F[random.nextInt(PRENOMS_F.length)] : PRENOMS_M[random.nextInt(PRENOMS_M.length)]);
+            enseignant.setSpecialite(COURS[i % COURS.length]);
+            enseignant.setTelephone(telephone(random));
+            enseignant.setEmail("enseignant" + (i + 1) + "@ecole.test");
+            enseignants.add(enseignant);
+        }
+        comptes.put("enseignants", inserer(enseignants, Enseignant.class));
+
+        LocalDate rentree = LocalDate.of(LocalDate.now().getMonthValue() >= 9 ? LocalDate.now().getYear() : LocalDate.now().getYear() - 1, 9, 1);
+        int evaluationsParCours = (notesParEleve + COURS.length - 1) / COURS.length;
+        int annee = LocalDate.now().getYear();
+        List<Eleve> eleves = new ArrayList<>(ImportService.TAILLE_LOT);
+        List<Note> notes = new ArrayList<>(ImportService.TAILLE_LOT);
+        List<Scolarite> scolarites = new ArrayList<>(ImportService.TAILLE_LOT);
+        long nombreNotes = 0;
+        long nombreScolarites = 0;
+        String telephoneFratrie = telephone(random);
+        for (int i = 0; i < nombreEleves; i++) {
+            Classes classe = classes.get(i / TAILLE_CLASSE);
+            int rangNiveau = (i / TAILLE_CLASSE) % NIVEAUX.length;
+            boolean fille = random.nextBoolean();
+            Eleve eleve = new Eleve();
+            eleve.setMatricule(String.format("G%07d", i + 1));
+            eleve.setNom(NOMS[random.nextInt(NOMS.length)]);
+            eleve.setPrenom(fille ? PRENOMS_F[random.nextInt(PRENOMS_F.length)] : PRENOMS_M[random.nextInt(PRENOMS_M.length)]);
+            eleve.setSexe(fille ? "F" : "M");
+            eleve.setNomClasse(classe.getNomClasse());
+            eleve.setNiveau(classe.getNiveau());
+            eleve.setDateNaissance(rentree.minusYears(11 + rangNiveau).minusDays(random.nextInt(365)).toString());
+            eleve.setVilleNaissance(VILLES[random.nextInt(VILLES.length)]);
+            // Environ un élève sur cinq partage le téléphone parent du précédent (fratries)
+            if (random.nextInt(5) != 0) {
+                telephoneFratrie = telephone(random);
+            }
+            eleve.setTelephone(telephoneFratrie);
+            eleves.add(eleve);
+
+            // Niveau propre à l'élève, autour duquel varient ses notes
+            double niveau = 11 + random.nextGaussian() * 3;
+            for (int n = 0; n < notesParEleve; n++) {
+                int k = n / COURS.length;
+                Note note = new Note();
+                note.setMatriculeEleve(eleve.getMatricule());
+                note.setClasse(classe.getNomClasse());
+                note.setNomCours(COURS[n % COURS.length]);
+                note.setTypeEvaluation(k % 3 == 2 ? "Examen" : "Devoir");
+                // Une date distincte par évaluation du cours (index unique evaluation_eleve), au moins un jour d'écart
+                note.setDateEvaluation(rentree.plusDays(21 + (long) k * Math.max(1, 252 / Math.max(evaluationsParCours, 1))).toString());
+                note.setValeur(Math.min(20, Math.max(0, Math.round((niveau + random.nextGaussian() * 2.5) * 4) / 4.0)));
+                notes.add(note);
+            }
+            for (int m = 0; m < paiementsParEleve; m++) {
+                boolean paye = random.nextInt(10) != 0;
+                Scolarite scolarite = new Scolarite(eleve.getMatricule(), eleve.getPrenom() + " " + eleve.getNom(), classe.getNomClasse(),
+                        180000.0 + 30000.0 * rangNiveau, MOIS[m], annee, paye ? 15000.0 + 2500.0 * rangNiveau : 0.0,
+                        paye ? LocalDate.of(annee, m + 1, 1 + random.nextInt(10)).toString() : null,
+                        paye ? MODES[random.nextInt(MODES.length)] : null, paye ? Scolarite.STATUT_PAYE : "En attente");
+                scolarites.add(scolarite);
+            }
+
+            if (eleves.size() == ImportService.TAILLE_LOT || i == nombreEleves - 1) {
+                inserer(eleves, Eleve.class);
+                eleves.clear();
+            }
+            if (notes.size() >= ImportService.TAILLE_LOT || i == nombreEleves - 1) {
+                nombreNotes += inserer(notes, Note.class);
+                notes.clear();
+            }
+            if (scolarites.size() >= ImportService.TAILLE_LOT || i == nombreEleves - 1) {
+                nombreScolarites += inserer(scolarites, Scolarite.class);
+                scolarites.clear();
+            }
+        }
+        comptes.put("eleves", (long) nombreEleves);
+        comptes.put("notes", nombreNotes);
+        comptes.put("scolarites", nombreScolarites);
+        for (String collection : comptes.keySet()) {
+            versionsCollections.incrementer(collection);
+        }
+
+        cacheManager.getCacheNames().forEach(nom -> cacheManager.getCache(nom).clear());
+        statistiquesService.recalculer();
+        effectifClasseService.recalculer();
+        soldeScolariteService.recalculer();
+        rechercheElevesService.reconstruireEnArrierePlan();
+        classementService.reconstruireEnArrierePlan();
+        comptes.put("dureeMs", (System.nanoTime() - debut) / 1_000_000);
+        log.info("Données synthétiques générées (graine {}) : {}", graine, comptes);
+        return comptes;
+    }
+
+    private <T> long inserer(List<T> documents, Class<T> type) {
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        mongoTemplate.insert(documents, type);
+        return documents.size();
+    }
+
+    // A..Z, puis AA, AB...
+    private static String section(int i) {
+        return i < 26 ? String.valueOf((char) ('A' + i)) : section(i / 26 - 1) + (char) ('A' + i % 26);
+    }
+
+    private static String telephone(Random random) {
+        return "77" + String.format("%07d", random.nextInt(10_000_000));
+    }
+}
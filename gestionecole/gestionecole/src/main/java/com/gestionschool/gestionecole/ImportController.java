@@ -0,0 +1,31 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Corps de requête brut : text/csv (en-tête obligatoire) ou application/x-ndjson (un objet JSON par ligne)
+@Lazy
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+    @Autowired
+    private ImportService importService;
+
+    @PostMapping(value = "/eleves", consumes = { "text/csv", "application/x-ndjson" })
+    public ImportRapport importerEleves(@RequestHeader("Content-Type") MediaType contentType, InputStream flux) throws IOException {
+        return importService.importerEleves(flux, estCsv(contentType));
+    }
+
+    @PostMapping(value = "/notes", consumes = { "text/csv", "application/x-ndjson" })
+    public ImportRapport importerNotes(@RequestHeader("Content-Type") MediaType contentType, InputStream flux) throws IOException {
+        return importService.importerNotes(flux, estCsv(contentType));
+    }
+
+    private static boolean estCsv(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.gestionschool.gestionecole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Résultat d'un import en masse ; seules les MAX_ERREURS premières erreurs sont détaillées
+public class ImportRapport {
+    public static final int MAX_ERREURS = 1000;
+
+    private long lignes;
+    private long importees;
+    private long rejetees;
+    private List<ErreurImport> erreurs = new ArrayList<>();
+
+    public void ajouterErreur(long ligne, String message) {
+        rejetees++;
+        if (erreurs.size() < MAX_ERREURS) {
+            erreurs.add(new ErreurImport(ligne, message));
+        }
+    }
+
+    public void ajouterImportees(long nombre) { importees += nombre; }
+    public void ajouterLigne() { lignes++; }
+
+    // Getters et setters
+    public long getLignes() { return lignes; }
+    public void setLignes(long lignes) { this.lignes = lignes; }
+    public long getImportees() { return importees; }
+    public void setImportees(long importees) { this.importees = importees; }
+    public long getRejetees() { return rejetees; }
+    public void setRejetees(long rejetees) { this.rejetees = rejetees; }
+    public List<ErreurImport> getErreurs() { return erreurs; }
+    public void setErreurs(List<ErreurImport> erreurs) { this.erreurs = erreurs; }
+}
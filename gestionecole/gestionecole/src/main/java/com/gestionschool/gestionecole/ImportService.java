@@ -0,0 +1,293 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Import en masse : le flux est lu enregistrement par enregistrement et écrit par lots non ordonnés de TAILLE_LOT documents
+@Lazy
+@Service
+public class ImportService {
+    public static final int TAILLE_LOT = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private ClassesRepository classesRepository;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private RechercheElevesService rechercheElevesService;
+    @Autowired
+    private EffectifClasseService effectifClasseService;
+    @Autowired
+    private ClassementService classementService;
+    @Autowired
+    private ArchivageService archivageService;
+
+    public ImportRapport importerEleves(InputStream flux, boolean csv) throws IOException {
+        Map<String, Classes> classes = classesParNom();
+        Set<String> niveaux = classes.values().stream()
+                .map(Classes::getNiveau)
+                .filter(n -> n != null)
+                .collect(Collectors.toSet());
+        Set<String> matriculesVus = new HashSet<>();
+
+        Function<Eleve, String> validation = eleve -> {
+            if (estVide(eleve.getMatricule())) {
+                return "Matricule manquant";
+            }
+            if (estVide(eleve.getNom())) {
+                return "Nom manquant";
+            }
+            if (eleve.getNomClasse() != null && !classes.containsKey(eleve.getNomClasse())) {
+                return "Classe inconnue : " + eleve.getNomClasse();
+            }
+            if (eleve.getNiveau() != null && !niveaux.contains(eleve.getNiveau())) {
+                return "Niveau inconnu : " + eleve.getNiveau();
+            }
+            Classes classe = eleve.getNomClasse() == null ? null : classes.get(eleve.getNomClasse());
+            if (classe != null && classe.getNiveau() != null && eleve.getNiveau() != null
+                    && !classe.getNiveau().equals(eleve.getNiveau())) {
+                return "La classe " + classe.getNomClasse() + " n'est pas de niveau " + eleve.getNiveau();
+            }
+            if (!matriculesVus.add(eleve.getMatricule())) {
+                return "Matricule en double dans le fichier : " + eleve.getMatricule();
+            }
+            return null;
+        };
+
+        BiConsumer<List<LigneImport<Eleve>>, ImportRapport> ecriture = (lot, rapport) -> {
+            Set<String> existants = eleveRepository.findMatriculesIn(lot.stream().map(l -> l.valeur.getMatricule()).toList())
+                    .stream().map(Eleve::getMatricule).collect(Collectors.toSet());
+            List<LigneImport<Eleve>> nouveaux = new ArrayList<>(lot.size());
+            for (LigneImport<Eleve> ligne : lot) {
+                if (existants.contains(ligne.valeur.getMatricule())) {
+                    rapport.ajouterErreur(ligne.numero, "Matricule déjà existant : " + ligne.valeur.getMatricule());
+                } else {
+                    nouveaux.add(ligne);
+                }
+            }
+            List<LigneImport<Eleve>> places = reserverPlaces(nouveaux, rapport);
+            for (LigneImport<Eleve> echec : inserer(places, Eleve.class, rapport)) {
+                if (echec.valeur.getNomClasse() != null) {
+                    effectifClasseService.liberer(echec.valeur.getNomClasse(), echec.valeur.getMatricule());
+                }
+            }
+        };
+
+        ImportRapport rapport = importer(flux, csv, Eleve.class, validation, ecriture);
+        // Les identifiants des élèves insérés en masse ne reviennent pas du bulk : index de recherche reconstruit,
+        // la version des élèves changeant de nouveau à sa publication
+        if (rapport.getImportees() > 0) {
+            rechercheElevesService.reconstruireEnArrierePlan();
+        }
+        return rapport;
+    }
+
+    public ImportRapport importerNotes(InputStream flux, boolean csv) throws IOException {
+        Map<String, Classes> classes = classesParNom();
+
+        Function<Note, String> validation = note -> {
+            if (estVide(note.getMatriculeEleve())) {
+                return "Matricule de l'élève manquant";
+            }
+            if (estVide(note.getNomCours())) {
+                return "Cours manquant";
+            }
+            if (note.getValeur() == null || note.getValeur() < 0 || note.getValeur() > 20) {
+                return "Note invalide (attendue entre 0 et 20)";
+            }
+            if (note.getClasse() != null && !classes.containsKey(note.getClasse())) {
+                return "Classe inconnue : " + note.getClasse();
+            }
+            if (archivageService.estBasculee("notes", AnneeScolaire.de(note.getDateEvaluation()))) {
+                return "Année " + AnneeScolaire.de(note.getDateEvaluation()) + " close";
+            }
+            return null;
+        };
+
+        BiConsumer<List<LigneImport<Note>>, ImportRapport> ecriture = (lot, rapport) -> {
+            Set<String> connus = eleveRepository.findMatriculesIn(lot.stream().map(l -> l.valeur.getMatriculeEleve()).collect(Collectors.toSet()))
+                    .stream().map(Eleve::getMatricule).collect(Collectors.toSet());
+            List<LigneImport<Note>> valides = new ArrayList<>(lot.size());
+            for (LigneImport<Note> ligne : lot) {
+                if (connus.contains(ligne.valeur.getMatriculeEleve())) {
+                    valides.add(ligne);
+                } else {
+                    rapport.ajouterErreur(ligne.numero, "Élève inconnu : " + ligne.valeur.getMatriculeEleve());
+                }
+            }
+            inserer(valides, Note.class, rapport);
+        };
+
+        ImportRapport rapport = importer(flux, csv, Note.class, validation, ecriture);
+        if (rapport.getImportees() > 0) {
+            classementService.reconstruireEnArrierePlan();
+        }
+        return rapport;
+    }
+
+    private <T> ImportRapport importer(InputStream flux, boolean csv, Class<T> type,
+                                       Function<T, String> validation,
+                                       BiConsumer<List<LigneImport<T>>, ImportRapport> ecriture) throws IOException {
+        ImportRapport rapport = new ImportRapport();
+        List<LigneImport<T>> lot = new ArrayList<>(TAILLE_LOT);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8));
+        // CSV : un enregistrement peut s'étendre sur plusieurs lignes ; JSON : un document par ligne
+        Csv.Lecteur lecteur = new Csv.Lecteur(reader);
+
+        String[] entetes = null;
+        char separateur = ',';
+        long numero = 0;
+        String texte;
+        while ((texte = csv ? lecteur.lire() : reader.readLine()) != null) {
+            numero = csv ? lecteur.numero() : numero + 1;
+            if (texte.isBlank()) {
+                continue;
+            }
+            if (csv && entetes == null) {
+                texte = texte.replace("\uFEFF", "");
+                separateur = texte.indexOf(';') >= 0 && texte.indexOf(',') < 0 ? ';' : ',';
+                entetes = Csv.decouper(texte, separateur).toArray(new String[0]);
+                continue;
+            }
+            rapport.ajouterLigne();
+
+            T valeur;
+            try {
+                valeur = csv ? lireCsv(texte, separateur, entetes, type) : objectMapper.readValue(texte, type);
+            } catch (IOException | IllegalArgumentException e) {
+                rapport.ajouterErreur(numero, "Ligne illisible : " + e.getMessage());
+                continue;
+            }
+            String erreur = validation.apply(valeur);
+            if (erreur != null) {
+                rapport.ajouterErreur(numero, erreur);
+                continue;
+            }
+            lot.add(new LigneImport<>(numero, valeur));
+            if (lot.size() == TAILLE_LOT) {
+                ecriture.accept(lot, rapport);
+                lot = new ArrayList<>(TAILLE_LOT);
+            }
+        }
+        if (!lot.isEmpty()) {
+            ecriture.accept(lot, rapport);
+        }
+        if (rapport.getImportees() > 0) {
+            statistiquesService.invalider();
+        }
+        return rapport;
+    }
+
+    private <T> T lireCsv(String texte, char separateur, String[] entetes, Class<T> type) {
+        List<String> valeurs = Csv.decouper(texte, separateur);
+        Map<String, String> champs = new HashMap<>();
+        for (int i = 0; i < entetes.length && i < valeurs.size(); i++) {
+            String valeur = valeurs.get(i).trim();
+            if (!valeur.isEmpty()) {
+                champs.put(entetes[i].trim(), valeur);
+            }
+        }
+        champs.remove("id");
+        return objectMapper.convertValue(champs, type);
+    }
+
+    // Une écriture par classe et par lot pour les places ; les élèves au-delà de la capacité sont rejetés
+    private List<LigneImport<Eleve>> reserverPlaces(List<LigneImport<Eleve>> lignes, ImportRapport rapport) {
+        List<LigneImport<Eleve>> places = new ArrayList<>(lignes.size());
+        Map<String, List<LigneImport<Eleve>>> parClasse = new LinkedHashMap<>();
+        for (LigneImport<Eleve> ligne : lignes) {
+            if (ligne.valeur.getNomClasse() == null) {
+                places.add(ligne);
+            } else {
+                parClasse.computeIfAbsent(ligne.valeur.getNomClasse(), c -> new ArrayList<>()).add(ligne);
+            }
+        }
+        parClasse.forEach((nomClasse, eleves) -> {
+            Set<String> inscrits = new HashSet<>(effectifClasseService.inscrireTous(nomClasse,
+                    eleves.stream().map(l -> l.valeur.getMatricule()).toList()));
+            for (LigneImport<Eleve> ligne : eleves) {
+                if (inscrits.contains(ligne.valeur.getMatricule())) {
+                    places.add(ligne);
+                } else {
+                    rapport.ajouterErreur(ligne.numero, "Classe complète : " + nomClasse);
+                }
+            }
+        });
+        return places;
+    }
+
+    // Rend les lignes refusées par MongoDB (déjà signalées dans le rapport)
+    private <T> List<LigneImport<T>> inserer(List<LigneImport<T>> lignes, Class<T> type, ImportRapport rapport) {
+        List<LigneImport<T>> echecs = new ArrayList<>();
+        if (lignes.isEmpty()) {
+            return echecs;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        bulk.insert(lignes.stream().map(l -> l.valeur).toList());
+        try {
+            rapport.ajouterImportees(bulk.execute().getInsertedCount());
+        } catch (BulkOperationException e) {
+            rapport.ajouterImportees(e.getResult().getInsertedCount());
+            for (BulkWriteError erreur : e.getErrors()) {
+                rapport.ajouterErreur(lignes.get(erreur.getIndex()).numero, erreur.getMessage());
+                echecs.add(lignes.get(erreur.getIndex()));
+            }
+        } finally {
+            versionsCollections.incrementer(mongoTemplate.getCollectionName(type));
+        }
+        return echecs;
+    }
+
+    private Map<String, Classes> classesParNom() {
+        Map<String, Classes> classes = new LinkedHashMap<>();
+        for (Classes classe : classesRepository.findAll()) {
+            if (classe.getNomClasse() != null) {
+                classes.putIfAbsent(classe.getNomClasse(), classe);
+            }
+        }
+        return classes;
+    }
+
+    private static boolean estVide(String valeur) {
+        return valeur == null || valeur.isBlank();
+    }
+
+    private static class LigneImport<T> {
+        private final long numero;
+        private final T valeur;
+
+        LigneImport(long numero, T valeur) {
+            this.numero = numero;
+            this.valeur = valeur;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/index")
+public class IndexController {
+    @Autowired
+    private IndexService indexService;
+
+    @GetMapping("/explain")
+    public List<RapportExplain> explain() {
+        return indexService.explain();
+    }
+    @GetMapping("/collscan")
+    public List<RapportExplain> collscan() {
+        return indexService.explain().stream().filter(RapportExplain::isCollscan).toList();
+    }
+    @PostMapping
+    public List<String> creerIndex() {
+        return indexService.creerIndex();
+    }
+}
@@ -0,0 +1,272 @@
+package com.gestionschool.gestionecole;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Index en mémoire pour la recherche d'élèves à la frappe, sur matricule, nom, prénom et classe.
+// Chaque mot (minuscules, sans accents) est indexé par ses préfixes de 1 et 2 lettres et par ses trigrammes.
+// Les listes de documents sont triées (identifiants attribués en ordre croissant) et s'intersectent par recherche dichotomique.
+// Chaque entrée d'un préfixe porte un masque des champs concernés : les termes courts, les moins sélectifs, se notent sans relire les chaînes.
+public class IndexEleves {
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+    private static final int MATRICULE = 0, NOM = 1, PRENOM = 2, CLASSE = 3;
+    // Score par champ : mot identique, mot commençant par le terme, terme contenu dans le mot
+    private static final int[][] SCORES = { { 100, 80, 30 }, { 60, 50, 20 }, { 60, 50, 20 }, { 40, 30, 10 } };
+
+    private final Map<String, Postings> grammes = new HashMap<>();
+    private final List<Eleve> eleves = new ArrayList<>();
+    private final List<String[]> champs = new ArrayList<>();
+    private final Map<String, Integer> documents = new HashMap<>();
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private int supprimes;
+
+    public void ajouter(Eleve eleve) {
+        verrou.writeLock().lock();
+        try {
+            retirer(eleve.getId());
+            indexer(eleve);
+            if (supprimes > 1000 && supprimes > eleves.size() / 4) {
+                compacter();
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public void supprimer(String id) {
+        verrou.writeLock().lock();
+        try {
+            retirer(id);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public List<Eleve> rechercher(String texte, int k) {
+        String requete = normaliser(texte);
+        if (requete.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        String[] termes = requete.split(" ");
+        verrou.readLock().lock();
+        try {
+            List<Postings> listes = new ArrayList<>();
+            Postings[] prefixes = new Postings[termes.length];
+            boolean termeLong = false;
+            for (int t = 0; t < termes.length; t++) {
+                for (String gramme : grammesRequete(termes[t])) {
+                    Postings postings = grammes.get(gramme);
+                    if (postings == null) {
+                        return List.of();
+                    }
+                    listes.add(postings);
+                    if (termes[t].length() <= 2) {
+                        prefixes[t] = postings;
+                    }
+                }
+                termeLong |= termes[t].length() > 2;
+            }
+            // Les plus courtes d'abord : la première sert de candidats, les suivantes rejettent au plus tôt
+            listes.sort(Comparator.comparingInt(p -> p.taille));
+            Postings plusCourte = listes.get(0);
+            // Tas des k meilleurs : le moins bon en tête (score le plus bas, puis dernier indexé)
+            Comparator<int[]> ordre = (a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(b[0], a[0]);
+            PriorityQueue<int[]> meilleurs = new PriorityQueue<>(k + 1, ordre);
+            candidats:
+            for (int i = 0; i < plusCourte.taille; i++) {
+                int doc = plusCourte.docs[i];
+                if (eleves.get(doc) == null) {
+                    continue;
+                }
+                for (int j = 1; j < listes.size(); j++) {
+                    if (!listes.get(j).contient(doc)) {
+                        continue candidats;
+                    }
+                }
+                String[] valeurs = termeLong ? champs.get(doc) : null;
+                int score = valeurs != null && valeurs[MATRICULE].startsWith(requete) ? 100 : 0;
+                for (int t = 0; t < termes.length; t++) {
+                    int note = prefixes[t] == null ? scoreTerme(valeurs, termes[t])
+                            : scoreMasque(prefixes[t] == plusCourte ? plusCourte.masques[i] & 0xFF : prefixes[t].masque(doc));
+                    if (note == 0) {
+                        continue candidats;
+                    }
+                    score += note;
+                }
+                int[] candidat = { doc, score };
+                // À score égal le premier indexé l'emporte : un candidat plus récent ne peut pas déloger la tête du tas
+                if (meilleurs.size() < k) {
+                    meilleurs.add(candidat);
+                } else if (ordre.compare(candidat, meilleurs.peek()) > 0) {
+                    meilleurs.poll();
+                    meilleurs.add(candidat);
+                }
+            }
+            Eleve[] resultat = new Eleve[meilleurs.size()];
+            for (int i = resultat.length - 1; i >= 0; i--) {
+                resultat[i] = eleves.get(meilleurs.poll()[0]);
+            }
+            return Arrays.asList(resultat);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    public static String normaliser(String texte) {
+        if (texte == null) {
+            return "";
+        }
+        String sansAccents = ACCENTS.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATEURS.matcher(sansAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private void indexer(Eleve eleve) {
+        int doc = eleves.size();
+        String[] valeurs = { normaliser(eleve.getMatricule()), normaliser(eleve.getNom()), normaliser(eleve.getPrenom()),
+                normaliser(eleve.getNomClasse()) };
+        Map<String, Integer> grammesDoc = new HashMap<>();
+        for (int champ = MATRICULE; champ <= CLASSE; champ++) {
+            if (valeurs[champ].isEmpty()) {
+                continue;
+            }
+            for (String mot : valeurs[champ].split(" ")) {
+                for (int longueur = 1; longueur <= Math.min(2, mot.length()); longueur++) {
+                    int masque = (1 << champ) | (mot.length() == longueur ? 1 << (4 + champ) : 0);
+                    grammesDoc.merge("^" + mot.substring(0, longueur), masque, (a, b) -> a | b);
+                }
+                for (int i = 0; i + 3 <= mot.length(); i++) {
+                    grammesDoc.merge(mot.substring(i, i + 3), 0, (a, b) -> a | b);
+                }
+            }
+        }
+        eleves.add(eleve);
+        champs.add(valeurs);
+        if (eleve.getId() != null) {
+            documents.put(eleve.getId(), doc);
+        }
+        grammesDoc.forEach((gramme, masque) -> grammes.computeIfAbsent(gramme, g -> new Postings()).ajouter(doc, masque));
+    }
+
+    private void retirer(String id) {
+        Integer doc = id == null ? null : documents.remove(id);
+        if (doc != null) {
+            eleves.set(doc, null);
+            champs.set(doc, null);
+            supprimes++;
+        }
+    }
+
+    private void compacter() {
+        List<Eleve> vivants = new ArrayList<>(documents.size());
+        for (Eleve eleve : eleves) {
+            if (eleve != null) {
+                vivants.add(eleve);
+            }
+        }
+        grammes.clear();
+        eleves.clear();
+        champs.clear();
+        documents.clear();
+        supprimes = 0;
+        vivants.forEach(this::indexer);
+    }
+
+    // 1 ou 2 lettres : préfixe de mot ; au-delà : tous les trigrammes du terme (à confirmer par contains au calcul du score)
+    private static List<String> grammesRequete(String terme) {
+        if (terme.length() <= 2) {
+            return List.of("^" + terme);
+        }
+        List<String> trigrammes = new ArrayList<>(terme.length() - 2);
+        for (int i = 0; i + 3 <= terme.length(); i++) {
+            trigrammes.add(terme.substring(i, i + 3));
+        }
+        return trigrammes;
+    }
+
+    // Masque d'un préfixe : bit champ = un mot du champ commence par le terme, bit 4 + champ = un mot du champ est le terme
+    private static int scoreMasque(int masque) {
+        int meilleur = 0;
+        for (int champ = MATRICULE; champ <= CLASSE; champ++) {
+            if ((masque & (1 << (4 + champ))) != 0) {
+                meilleur = Math.max(meilleur, SCORES[champ][0]);
+            } else if ((masque & (1 << champ)) != 0) {
+                meilleur = Math.max(meilleur, SCORES[champ][1]);
+            }
+        }
+        return meilleur;
+    }
+
+    private static int scoreTerme(String[] valeurs, String terme) {
+        int meilleur = 0;
+        for (int champ = MATRICULE; champ <= CLASSE; champ++) {
+            meilleur = Math.max(meilleur, scoreChamp(valeurs[champ], terme, SCORES[champ]));
+        }
+        return meilleur;
+    }
+
+    private static int scoreChamp(String valeur, String terme, int[] scores) {
+        int meilleur = 0;
+        int debut = 0;
+        while (debut <= valeur.length()) {
+            int fin = valeur.indexOf(' ', debut);
+            if (fin < 0) {
+                fin = valeur.length();
+            }
+            if (valeur.startsWith(terme, debut)) {
+                if (fin - debut == terme.length()) {
+                    return scores[0];
+                }
+                meilleur = scores[1];
+            } else if (meilleur == 0) {
+                int position = valeur.indexOf(terme, debut);
+                if (position >= 0 && position + terme.length() <= fin) {
+                    meilleur = scores[2];
+                }
+            }
+            debut = fin + 1;
+        }
+        return meilleur;
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private byte[] masques = new byte[4];
+        private int taille;
+
+        void ajouter(int doc, int masque) {
+            if (taille == docs.length) {
+                docs = Arrays.copyOf(docs, taille * 2);
+                masques = Arrays.copyOf(masques, taille * 2);
+            }
+            docs[taille] = doc;
+            masques[taille++] = (byte) masque;
+        }
+
+        boolean contient(int doc) {
+            return Arrays.binarySearch(docs, 0, taille, doc) >= 0;
+        }
+
+        int masque(int doc) {
+            return masques[Arrays.binarySearch(docs, 0, taille, doc)] & 0xFF;
+        }
+    }
+}
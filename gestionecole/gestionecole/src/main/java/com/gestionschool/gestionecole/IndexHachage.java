@@ -0,0 +1,177 @@
+package com.gestionschool.gestionecole;
+
+import de.bwaldvogel.mongo.MongoCollection;
+import de.bwaldvogel.mongo.backend.Index;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.KeyValue;
+import de.bwaldvogel.mongo.bson.Document;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Index secondaire non unique du stockage en mémoire : une table de hachage par préfixe des clés de l'index,
+// si bien qu'un index (classe, nomCours) sert aussi les requêtes sur la seule classe, comme un index B-tree MongoDB.
+// Il ne sert que les égalités (et $in sur la première clé) ; le backend refiltre ensuite les documents avec la requête complète.
+public class IndexHachage extends Index<Integer> {
+    // Par longueur de préfixe : valeur des clés -> (_id -> position du document)
+    private final List<Map<KeyValue, Map<Object, Integer>>> prefixes = new ArrayList<>();
+    private final Map<Object, Integer> documents = new ConcurrentHashMap<>();
+
+    public IndexHachage(String nom, List<IndexKey> cles, boolean sparse) {
+        super(nom, cles, sparse);
+        for (int i = 0; i < cles.size(); i++) {
+            prefixes.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public Integer getPosition(Document document) {
+        return documents.get(document.get("_id"));
+    }
+
+    @Override
+    public void checkAdd(Document document, MongoCollection<Integer> collection) {
+        // pas de contrainte d'unicité
+    }
+
+    @Override
+    public void add(Document document, Integer position, MongoCollection<Integer> collection) {
+        if (ignore(document)) {
+            return;
+        }
+        Object id = document.get("_id");
+        documents.put(id, position);
+        for (KeyValue valeur : getKeyValues(document)) {
+            for (int n = 1; n <= prefixes.size(); n++) {
+                prefixes.get(n - 1).computeIfAbsent(prefixe(valeur, n), v -> new ConcurrentHashMap<>()).put(id, position);
+            }
+        }
+    }
+
+    @Override
+    public Integer remove(Document document) {
+        Object id = document.get("_id");
+        Integer position = documents.remove(id);
+        if (position == null) {
+            return null;
+        }
+        for (KeyValue valeur : getKeyValues(document)) {
+            for (int n = 1; n <= prefixes.size(); n++) {
+                Map<KeyValue, Map<Object, Integer>> table = prefixes.get(n - 1);
+                KeyValue cle = prefixe(valeur, n);
+                Map<Object, Integer> entrees = table.get(cle);
+                if (entrees != null) {
+                    entrees.remove(id);
+                    if (entrees.isEmpty()) {
+                        table.remove(cle);
+                    }
+                }
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public boolean canHandle(Document query) {
+        return longueurPrefixe(query) > 0;
+    }
+
+    @Override
+    public Iterable<Integer> getPositions(Document query) {
+        int n = longueurPrefixe(query);
+        List<String> cles = keys();
+        Object premiere = query.get(cles.get(0));
+        Collection<?> valeurs = estIn(premiere) ? (Collection<?>) ((Document) premiere).get("$in") : List.of(premiere);
+        Set<Integer> positions = new HashSet<>();
+        for (Object valeur : valeurs) {
+            Document recherche = new Document(cles.get(0), valeur);
+            for (int i = 1; i < n; i++) {
+                recherche.put(cles.get(i), query.get(cles.get(i)));
+            }
+            for (KeyValue cle : getKeyValues(recherche)) {
+                Map<Object, Integer> entrees = prefixes.get(n - 1).get(prefixe(cle, n));
+                if (entrees != null) {
+                    positions.addAll(entrees.values());
+                }
+            }
+        }
+        // Ordre d'insertion, comme un parcours complet
+        List<Integer> triees = new ArrayList<>(positions);
+        triees.sort(null);
+        return triees;
+    }
+
+    @Override
+    public long getCount() {
+        return documents.size();
+    }
+
+    @Override
+    public long getDataSize() {
+        return 0;
+    }
+
+    @Override
+    public void checkUpdate(Document ancien, Document nouveau, MongoCollection<Integer> collection) {
+        // pas de contrainte d'unicité
+    }
+
+    @Override
+    public void updateInPlace(Document ancien, Document nouveau, Integer position, MongoCollection<Integer> collection) {
+        remove(ancien);
+        add(nouveau, position, collection);
+    }
+
+    @Override
+    public void drop() {
+        prefixes.forEach(Map::clear);
+        documents.clear();
+    }
+
+    // Nombre de premières clés de l'index fixées par égalité dans la requête ($in admis seul, sur la première)
+    private int longueurPrefixe(Document query) {
+        List<String> cles = keys();
+        if (!query.containsKey(cles.get(0))) {
+            return 0;
+        }
+        Object premiere = query.get(cles.get(0));
+        if (estIn(premiere)) {
+            return ((Document) premiere).get("$in") instanceof Collection ? 1 : 0;
+        }
+        int n = 0;
+        while (n < cles.size() && query.containsKey(cles.get(n)) && estEgalite(query.get(cles.get(n)))) {
+            n++;
+        }
+        return n;
+    }
+
+    private boolean ignore(Document document) {
+        return isSparse() && keys().stream().noneMatch(document::containsKey);
+    }
+
+    private static boolean estEgalite(Object valeur) {
+        if (valeur instanceof Document document) {
+            return document.keySet().stream().noneMatch(cle -> cle.startsWith("$"));
+        }
+        return !(valeur instanceof Collection) && !(valeur instanceof java.util.regex.Pattern);
+    }
+
+    private static boolean estIn(Object valeur) {
+        return valeur instanceof Document document && document.size() == 1 && document.containsKey("$in");
+    }
+
+    private static KeyValue prefixe(KeyValue valeur, int n) {
+        if (n == valeur.size()) {
+            return valeur;
+        }
+        List<Object> valeurs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            valeurs.add(valeur.get(i));
+        }
+        return new KeyValue(valeurs);
+    }
+}
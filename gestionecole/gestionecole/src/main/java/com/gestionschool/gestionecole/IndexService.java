@@ -0,0 +1,204 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.ConvertingParameterAccessor;
+import org.springframework.data.mongodb.repository.query.MongoParametersParameterAccessor;
+import org.springframework.data.mongodb.repository.query.MongoQueryMethod;
+import org.springframework.data.mongodb.repository.query.PartTreeMongoQuery;
+import org.springframework.data.mongodb.util.json.ParameterBindingDocumentCodec;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.repository.query.ValueExpressionDelegate;
+import org.springframework.stereotype.Service;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class IndexService {
+    private static final Logger log = LoggerFactory.getLogger(IndexService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ArchivageService archivageService;
+
+    @Value("${gestionecole.index.creation-auto:true}")
+    private boolean creationAuto;
+
+    // Création en arrière-plan : un index impossible à créer (doublons existants...) est journalisé sans bloquer le démarrage
+    @EventListener(ApplicationReadyEvent.class)
+    public void creerIndexAuDemarrage() {
+        if (creationAuto) {
+            Thread thread = new Thread(this::creerIndex, "creation-index");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public List<String> creerIndex() {
+        MongoMappingContext mappingContext = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<String> crees = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(definition -> {
+                try {
+                    crees.add(entity.getCollection() + "." + indexOps.createIndex(definition));
+                } catch (RuntimeException e) {
+                    log.warn("Index {} non créé sur {} : {}", definition.getIndexKeys(), entity.getCollection(), e.getMessage());
+                }
+            });
+        }
+        return crees;
+    }
+
+    // Requêtes vérifiées par explain(), avec des valeurs d'exemple : construites par Spring Data à partir des méthodes
+    // des repositories et par les méthodes mêmes des services, pour qu'un finder ou un filtre modifié soit expliqué tel quel
+    private Map<String, Requete> requetes() {
+        SaisieEvaluation saisie = new SaisieEvaluation();
+        saisie.setClasse("6A");
+        saisie.setNomCours("Maths");
+        saisie.setTypeEvaluation("Examen");
+        saisie.setDateEvaluation("2025-01-01");
+        Map<String, Requete> requetes = new LinkedHashMap<>();
+        requetes.put("EleveRepository.findMatriculesIn", repository(EleveRepository.class, "findMatriculesIn", List.of("M001")));
+        requetes.put("EleveRepository.findIdsByNomClasse", repository(EleveRepository.class, "findIdsByNomClasse", "6A"));
+        requetes.put("EleveRepository.findByMatriculeIn", repository(EleveRepository.class, "findByMatriculeIn", List.of("M001")));
+        requetes.put("EffectifClasseService.classeParNom", new Requete(Classes.class, EffectifClasseService.classeParNom("6A")));
+        requetes.put("CoursRepository.findByClasse", repository(CoursRepository.class, "findByClasse", "6A"));
+        requetes.put("NoteRepository.moyennesParCoursEleve", repository(NoteRepository.class, "moyennesParCoursEleve", "M001"));
+        requetes.put("NoteRepository.moyennesParCoursClasse", repository(NoteRepository.class, "moyennesParCoursClasse", "6A"));
+        requetes.put("NoteService.notesSaisies", new Requete(Note.class, NoteService.notesSaisies(saisie, List.of("M001"))));
+        requetes.put("ClassementService.parCours", new Requete(Note.class, ClassementService.parCours("6A", "Maths")));
+        requetes.put("ScolariteRepository.countByStatut", repository(ScolariteRepository.class, "countByStatut", Scolarite.STATUT_PAYE));
+        requetes.put("scolarités d'une année", new Requete(Scolarite.class, new Query(archivageService.criteres(ArchivageService.SCOLARITES, "2025"))));
+        requetes.put("SoldeScolariteRepository.findByAnneeAndResteDuCentimesGreaterThan", repository(SoldeScolariteRepository.class,
+                "findByAnneeAndResteDuCentimesGreaterThan", 2025, 0L, SoldeScolariteService.PAR_RESTE_DU));
+        requetes.put("SoldeScolariteRepository.findByAnneeAndNomClasseAndResteDuCentimesGreaterThan", repository(SoldeScolariteRepository.class,
+                "findByAnneeAndNomClasseAndResteDuCentimesGreaterThan", 2025, "6A", 0L, SoldeScolariteService.PAR_RESTE_DU));
+        requetes.put("EmargementRepository.countByPresent", repository(EmargementRepository.class, "countByPresent", true));
+        requetes.put("EmargementRepository.findByEleveId", repository(EmargementRepository.class, "findByEleveId", "x"));
+        requetes.put("émargements d'une année", new Requete(Emargement.class, new Query(archivageService.criteres("emargements", "2024-2025"))));
+        requetes.put("SeanceEmargementRepository.findByCoursIdAndClasseAndDate", repository(SeanceEmargementRepository.class,
+                "findByCoursIdAndClasseAndDate", "x", "6A", "2025-01-01"));
+        requetes.put("SeanceEmargementRepository.findByEleveIds", repository(SeanceEmargementRepository.class, "findByEleveIds", "x"));
+        requetes.put("JobService.parCle", new Requete(Job.class, JobService.parCle("x")));
+        requetes.put("JobService.prochainEnFile", new Requete(Job.class, JobService.prochainEnFile()));
+        return requetes;
+    }
+
+    // Requête qu'exécute la méthode d'un repository : @Query, $match d'une @Aggregation ou requête dérivée du nom
+    private Requete repository(Class<?> repository, String nom, Object... valeurs) {
+        Method methode = Arrays.stream(repository.getMethods()).filter(m -> m.getName().equals(nom)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(repository.getSimpleName() + "." + nom + " introuvable"));
+        RepositoryMetadata metadata = AbstractRepositoryMetadata.getMetadata(repository);
+        MongoQueryMethod queryMethod = new MongoQueryMethod(methode, metadata, new SpelAwareProxyProjectionFactory(),
+                mongoTemplate.getConverter().getMappingContext());
+        // Collection du repository (une @Aggregation renvoie un autre type que l'entité)
+        Class<?> type = metadata.getDomainType();
+        ParameterBindingDocumentCodec codec = new ParameterBindingDocumentCodec();
+        if (queryMethod.hasAnnotatedQuery()) {
+            String filtre = methode.getAnnotation(org.springframework.data.mongodb.repository.Query.class).value();
+            return new Requete(type, new BasicQuery(codec.decode(filtre, valeurs)));
+        }
+        if (queryMethod.hasAnnotatedAggregation()) {
+            Document match = codec.decode(queryMethod.getAnnotatedAggregation()[0], valeurs).get("$match", Document.class);
+            return new Requete(type, new BasicQuery(match == null ? new Document() : match));
+        }
+        return new Requete(type, new RequeteDerivee(queryMethod, mongoTemplate).lier(valeurs));
+    }
+
+    public List<RapportExplain> explain() {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        List<RapportExplain> rapports = new ArrayList<>();
+        requetes().forEach((nom, requete) -> {
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(requete.type);
+            Document filtre = queryMapper.getMappedObject(requete.query.getQueryObject(), entity);
+            Document find = new Document("find", entity.getCollection()).append("filter", filtre);
+            if (requete.query.isSorted()) {
+                find.append("sort", queryMapper.getMappedSort(requete.query.getSortObject(), entity));
+            }
+            Document commande = new Document("explain", find).append("verbosity", "queryPlanner");
+            Document resultat = mongoTemplate.getDb().runCommand(commande);
+            Document planner = resultat.get("queryPlanner", Document.class);
+
+            Set<String> etapes = new LinkedHashSet<>();
+            Set<String> index = new LinkedHashSet<>();
+            parcourir(planner == null ? null : planner.get("winningPlan"), etapes, index);
+
+            RapportExplain rapport = new RapportExplain();
+            rapport.setRequete(nom);
+            rapport.setCollection(entity.getCollection());
+            rapport.setFiltre(filtre.toJson());
+            rapport.setEtapes(new ArrayList<>(etapes));
+            rapport.setIndex(new ArrayList<>(index));
+            rapport.setCollscan(etapes.contains("COLLSCAN"));
+            rapports.add(rapport);
+        });
+        return rapports;
+    }
+
+    // Parcourt le plan (inputStage, inputStages, queryPlan...) pour relever les étapes et les index utilisés
+    private void parcourir(Object noeud, Set<String> etapes, Set<String> index) {
+        if (noeud instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                etapes.add(stage);
+            }
+            if (document.get("indexName") instanceof String nom) {
+                index.add(nom);
+            }
+            document.values().forEach(valeur -> parcourir(valeur, etapes, index));
+        } else if (noeud instanceof List<?> liste) {
+            liste.forEach(valeur -> parcourir(valeur, etapes, index));
+        }
+    }
+
+    private static class Requete {
+        private final Class<?> type;
+        private final Query query;
+
+        Requete(Class<?> type, Query query) {
+            this.type = type;
+            this.query = query;
+        }
+    }
+
+    // Requête dérivée du nom de la méthode, liée comme à l'exécution (createQuery n'est accessible qu'à une sous-classe)
+    private static class RequeteDerivee extends PartTreeMongoQuery {
+        private final MongoTemplate mongoTemplate;
+
+        RequeteDerivee(MongoQueryMethod queryMethod, MongoTemplate mongoTemplate) {
+            super(queryMethod, mongoTemplate, ValueExpressionDelegate.create());
+            this.mongoTemplate = mongoTemplate;
+        }
+
+        Query lier(Object[] valeurs) {
+            return createQuery(new ConvertingParameterAccessor(mongoTemplate.getConverter(),
+                    new MongoParametersParameterAccessor(getQueryMethod(), valeurs)));
+        }
+    }
+}
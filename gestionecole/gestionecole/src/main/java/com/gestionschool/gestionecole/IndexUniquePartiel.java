@@ -0,0 +1,83 @@
+package com.gestionschool.gestionecole;
+
+import de.bwaldvogel.mongo.MongoCollection;
+import de.bwaldvogel.mongo.backend.DefaultQueryMatcher;
+import de.bwaldvogel.mongo.backend.IndexKey;
+import de.bwaldvogel.mongo.backend.QueryMatcher;
+import de.bwaldvogel.mongo.backend.memory.index.MemoryUniqueIndex;
+import de.bwaldvogel.mongo.bson.Document;
+import de.bwaldvogel.mongo.exception.KeyConstraintError;
+import java.util.List;
+
+// Index unique partiel du stockage en mémoire : seuls les documents qui satisfont le partialFilterExpression
+// sont soumis à l'unicité (le backend d'origine ignore le filtre et contraint tous les documents).
+// Il ne sert aucune requête, puisqu'il ne contient pas les documents écartés par le filtre.
+public class IndexUniquePartiel extends MemoryUniqueIndex {
+    private final Document filtre;
+    private final QueryMatcher matcher = new DefaultQueryMatcher();
+
+    public IndexUniquePartiel(String nom, List<IndexKey> cles, boolean sparse, Document filtre) {
+        super(nom, cles, sparse);
+        this.filtre = filtre;
+    }
+
+    private boolean couvre(Document document) {
+        return matcher.matches(document, filtre);
+    }
+
+    @Override
+    public synchronized void checkAdd(Document document, MongoCollection<Integer> collection) {
+        if (couvre(document)) {
+            super.checkAdd(document, collection);
+        }
+    }
+
+    @Override
+    public synchronized void add(Document document, Integer position, MongoCollection<Integer> collection) {
+        if (couvre(document)) {
+            super.add(document, position, collection);
+        }
+    }
+
+    @Override
+    public synchronized Integer remove(Document document) {
+        return couvre(document) ? super.remove(document) : null;
+    }
+
+    @Override
+    public synchronized void checkUpdate(Document ancien, Document nouveau, MongoCollection<Integer> collection) {
+        if (!couvre(nouveau)) {
+            return;
+        }
+        if (couvre(ancien)) {
+            super.checkUpdate(ancien, nouveau, collection);
+        } else {
+            super.checkAdd(nouveau, collection);
+        }
+    }
+
+    @Override
+    public synchronized void updateInPlace(Document ancien, Document nouveau, Integer position, MongoCollection<Integer> collection)
+            throws KeyConstraintError {
+        boolean avant = couvre(ancien);
+        boolean apres = couvre(nouveau);
+        if (avant && apres) {
+            super.updateInPlace(ancien, nouveau, position, collection);
+        } else if (avant) {
+            super.remove(ancien);
+        } else if (apres) {
+            super.add(nouveau, position, collection);
+        }
+    }
+
+    // Documents écartés par le filtre : absents de l'index comme ceux d'un index sparse, que le backend laisse supprimer
+    @Override
+    protected boolean isSparse() {
+        return true;
+    }
+
+    @Override
+    public synchronized boolean canHandle(Document query) {
+        return false;
+    }
+}
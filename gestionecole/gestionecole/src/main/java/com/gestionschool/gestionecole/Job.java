@@ -0,0 +1,84 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+import java.util.Map;
+
+// Traitement lourd exécuté hors requête HTTP (bulletins d'une classe, impayés, assiduité), la collection "jobs" servant de file.
+// cle identifie une demande identique sur les mêmes données : une seule exécution, résultat réutilisé jusqu'à expiration.
+// Elle est retirée à l'échec ou à l'expiration, d'où l'index unique creux : un seul job actif par demande
+@Document(collection = "jobs")
+@CompoundIndex(name = "etat_creation", def = "{ 'etat': 1, 'dateCreation': 1 }")
+public class Job {
+    public static final String EN_ATTENTE = "EN_ATTENTE";
+    public static final String EN_COURS = "EN_COURS";
+    public static final String TERMINE = "TERMINE";
+    public static final String ECHEC = "ECHEC";
+
+    public static final String BULLETINS_CLASSE = "BULLETINS_CLASSE";
+    public static final String IMPAYES = "IMPAYES";
+    public static final String ASSIDUITE = "ASSIDUITE";
+
+    @Id
+    private String id;
+    private String type;
+    private Map<String, String> parametres;
+    @JsonIgnore
+    @Indexed(unique = true, sparse = true)
+    private String cle;
+    private String etat;
+    private int progression; // pourcentage
+    private String message;
+    private long demandes; // demandes identiques servies par ce job
+    private Instant dateCreation;
+    private Instant dateDebut;
+    private Instant dateFin;
+    @JsonIgnore
+    private Instant battement; // dernier signe de vie du worker, pour reprendre un job abandonné
+    private Instant expiration;
+    @JsonIgnore
+    private String resultat; // identifiant du fichier GridFS (jobs_resultats)
+    private String nomResultat;
+    private String typeContenu;
+    private long taille;
+
+    // Getters et setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Map<String, String> getParametres() { return parametres; }
+    public void setParametres(Map<String, String> parametres) { this.parametres = parametres; }
+    public String getCle() { return cle; }
+    public void setCle(String cle) { this.cle = cle; }
+    public String getEtat() { return etat; }
+    public void setEtat(String etat) { this.etat = etat; }
+    public int getProgression() { return progression; }
+    public void setProgression(int progression) { this.progression = progression; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    public long getDemandes() { return demandes; }
+    public void setDemandes(long demandes) { this.demandes = demandes; }
+    public Instant getDateCreation() { return dateCreation; }
+    public void setDateCreation(Instant dateCreation) { this.dateCreation = dateCreation; }
+    public Instant getDateDebut() { return dateDebut; }
+    public void setDateDebut(Instant dateDebut) { this.dateDebut = dateDebut; }
+    public Instant getDateFin() { return dateFin; }
+    public void setDateFin(Instant dateFin) { this.dateFin = dateFin; }
+    public Instant getBattement() { return battement; }
+    public void setBattement(Instant battement) { this.battement = battement; }
+    public Instant getExpiration() { return expiration; }
+    public void setExpiration(Instant expiration) { this.expiration = expiration; }
+    public String getResultat() { return resultat; }
+    public void setResultat(String resultat) { this.resultat = resultat; }
+    public String getNomResultat() { return nomResultat; }
+    public void setNomResultat(String nomResultat) { this.nomResultat = nomResultat; }
+    public String getTypeContenu() { return typeContenu; }
+    public void setTypeContenu(String typeContenu) { this.typeContenu = typeContenu; }
+    public long getTaille() { return taille; }
+    public void setTaille(long taille) { this.taille = taille; }
+}
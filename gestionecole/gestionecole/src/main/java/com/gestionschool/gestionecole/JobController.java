@@ -0,0 +1,51 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.util.List;
+
+// POST /api/jobs { "type": "BULLETINS_CLASSE", "parametres": { "classe": "6A" } } -> 202 + Location, à suivre par GET /api/jobs/{id}
+// jusqu'à l'état TERMINE, puis GET /api/jobs/{id}/resultat. Un résultat déjà calculé et encore valide est rendu tout de suite (200).
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+    @Autowired
+    private JobService jobService;
+
+    @PostMapping
+    public ResponseEntity<Job> soumettre(@RequestBody Job demande) {
+        Job job = jobService.soumettre(demande.getType(), demande.getParametres());
+        return ResponseEntity.status(Job.TERMINE.equals(job.getEtat()) ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping
+    public List<Job> getJobsRecents(@RequestParam(defaultValue = "50") int limit) {
+        return jobService.getJobsRecents(Math.min(Math.max(limit, 1), 500));
+    }
+
+    @GetMapping("/{id}")
+    public Job getJob(@PathVariable String id) {
+        return jobService.getJob(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job inconnu : " + id));
+    }
+
+    @GetMapping("/{id}/resultat")
+    public ResponseEntity<StreamingResponseBody> getResultat(@PathVariable String id) {
+        Job job = getJob(id);
+        GridFSFile fichier = jobService.getResultat(job);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getNomResultat() + "\"")
+                .contentType(MediaType.parseMediaType(job.getTypeContenu()))
+                .contentLength(fichier.getLength())
+                .body(out -> jobService.telecharger(fichier, out));
+    }
+}
@@ -0,0 +1,6 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface JobRepository extends MongoRepository<Job, String> {
+}
@@ -0,0 +1,367 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Rapports lourds calculés en arrière-plan par gestionecole.jobs.threads workers, la collection "jobs" servant de file persistante :
+// un job EN_ATTENTE est pris par findAndModify (un seul worker, toutes instances confondues), son résultat écrit en GridFS
+// (jobs_resultats, lisible depuis toutes les instances) puis gardé gestionecole.jobs.ttl. Une demande identique (même type,
+// mêmes paramètres, mêmes versions partagées des collections lues) rejoint le job en cours ou réutilise son résultat au lieu
+// d'en relancer le calcul ; l'index unique sur cle empêche deux instances de créer chacune le sien.
+// Un job EN_COURS sans signe de vie depuis gestionecole.jobs.abandon (instance arrêtée) est remis en file.
+@Service
+public class JobService {
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+    private static final String ZIP = "application/zip";
+    private static final String JSON = "application/json";
+    // Type -> { paramètres obligatoires séparés par des virgules, paramètres facultatifs, collections lues, type de contenu }
+    private static final Map<String, String[]> TYPES = Map.of(
+            Job.BULLETINS_CLASSE, new String[] { "classe", "", "notes,eleves,cours", ZIP },
+            Job.IMPAYES, new String[] { "annee", "classe", "scolarites", JSON },
+            Job.ASSIDUITE, new String[] { "classe", "anneeScolaire", "emargements,eleves", JSON });
+
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Lazy
+    @Autowired
+    private BulletinPdfService bulletinPdfService;
+    @Autowired
+    private SoldeScolariteService soldeScolariteService;
+    @Autowired
+    private AppelService appelService;
+
+    @Value("${gestionecole.jobs.threads:2}")
+    private int threads;
+    @Value("${gestionecole.jobs.file-max:500}")
+    private int fileMax;
+    @Value("${gestionecole.jobs.ttl:PT30M}")
+    private Duration ttl;
+    @Value("${gestionecole.jobs.abandon:PT5M}")
+    private Duration abandon;
+
+    // Soumission et réveil des workers (pas de synchronized : le service est un proxy)
+    private final Object verrou = new Object();
+    private final Object signal = new Object();
+    private final Set<String> enCoursIci = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+    private GridFSBucket resultats;
+
+    @PostConstruct
+    public void initialiser() {
+        resultats = GridFSBuckets.create(mongoTemplate.getDb(), "jobs_resultats");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void demarrer() {
+        AtomicInteger numero = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "job-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.submit(this::boucle);
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    // Job existant si la même demande est en file, en cours ou déjà calculée et pas expirée ; nouveau job sinon
+    public Job soumettre(String type, Map<String, String> parametres) {
+        String[] definition = TYPES.get(type);
+        if (definition == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Type de job inconnu : " + type
+                    + " (possibles : " + String.join(", ", new TreeMap<>(TYPES).keySet()) + ")");
+        }
+        Map<String, String> retenus = parametres(definition, parametres == null ? Map.of() : parametres);
+        String requete = type + " " + retenus;
+        String cle = requete + " " + versionsCollections.versionsPartagees(Arrays.asList(definition[2].split(",")));
+        Job job;
+        synchronized (verrou) {
+            // Un résultat expiré mais pas encore purgé libère sa clé
+            mongoTemplate.updateMulti(Query.query(Criteria.where("cle").is(cle).and("expiration").lt(Instant.now())),
+                    new Update().unset("cle"), Job.class);
+            Query existant = parCle(cle);
+            for (int essai = 1; ; essai++) {
+                job = mongoTemplate.findAndModify(existant, new Update().inc("demandes", 1),
+                        FindAndModifyOptions.options().returnNew(true), Job.class);
+                if (job != null) {
+                    return job;
+                }
+                if (mongoTemplate.count(Query.query(Criteria.where("etat").is(Job.EN_ATTENTE)), Job.class) >= fileMax) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "File de jobs pleine, réessayer plus tard");
+                }
+                job = new Job();
+                job.setType(type);
+                job.setParametres(retenus);
+                job.setCle(cle);
+                job.setEtat(Job.EN_ATTENTE);
+                job.setDemandes(1);
+                job.setTypeContenu(definition[3]);
+                job.setDateCreation(Instant.now());
+                try {
+                    job = jobRepository.insert(job);
+                    break;
+                } catch (DuplicateKeyException e) {
+                    // Une autre instance vient de créer le même job : le rejoindre
+                    if (essai == 3) {
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Job " + requete + " en cours de création, réessayer");
+                    }
+                }
+            }
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        return job;
+    }
+
+    public Optional<Job> getJob(String id) {
+        return jobRepository.findById(id);
+    }
+
+    public List<Job> getJobsRecents(int limite) {
+        return mongoTemplate.find(new Query().with(Sort.by(Sort.Direction.DESC, "dateCreation")).limit(limite), Job.class);
+    }
+
+    // Fichier GridFS du résultat d'un job terminé : 404 si inconnu ou expiré, 409 s'il n'est pas encore terminé
+    public GridFSFile getResultat(Job job) {
+        if (!Job.TERMINE.equals(job.getEtat())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + job.getId() + " pas terminé (" + job.getEtat() + ")");
+        }
+        GridFSFile fichier = job.getResultat() == null ? null
+                : resultats.find(new Document("_id", new ObjectId(job.getResultat()))).first();
+        if (fichier == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Résultat du job " + job.getId() + " expiré");
+        }
+        return fichier;
+    }
+
+    public void telecharger(GridFSFile fichier, OutputStream out) {
+        resultats.downloadToStream(fichier.getObjectId(), out);
+    }
+
+    // Signes de vie des jobs exécutés ici, reprise des jobs abandonnés, purge des résultats expirés
+    @Scheduled(fixedDelayString = "${gestionecole.jobs.entretien:PT1M}")
+    public void entretenir() {
+        Instant maintenant = Instant.now();
+        if (!enCoursIci.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(enCoursIci).and("etat").is(Job.EN_COURS)),
+                    Update.update("battement", maintenant), Job.class);
+        }
+        long repris = mongoTemplate.updateMulti(Query.query(Criteria.where("etat").is(Job.EN_COURS).and("battement").lt(maintenant.minus(abandon))),
+                new Update().set("etat", Job.EN_ATTENTE).set("progression", 0).unset("dateDebut"), Job.class).getModifiedCount();
+        if (repris > 0) {
+            log.warn("{} job(s) abandonné(s) remis en file", repris);
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        for (Job job : mongoTemplate.findAllAndRemove(Query.query(Criteria.where("expiration").lt(maintenant)), Job.class)) {
+            if (job.getResultat() != null) {
+                supprimerResultat(new ObjectId(job.getResultat()));
+            }
+        }
+    }
+
+    private void supprimerResultat(ObjectId id) {
+        try {
+            resultats.delete(id);
+        } catch (MongoGridFSException e) {
+            log.warn("Résultat {} non supprimé : {}", id, e.getMessage());
+        }
+    }
+
+    private void boucle() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Job job = prendre();
+                if (job == null) {
+                    synchronized (signal) {
+                        signal.wait(abandon.toMillis() / 2);
+                    }
+                } else {
+                    executer(job);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Worker de jobs : erreur inattendue", e);
+            }
+        }
+    }
+
+    // Le plus ancien job en file, passé EN_COURS en une seule écriture
+    private Job prendre() {
+        Instant maintenant = Instant.now();
+        Query query = prochainEnFile();
+        Update update = new Update().set("etat", Job.EN_COURS).set("dateDebut", maintenant).set("battement", maintenant);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Job.class);
+    }
+
+    static Query parCle(String cle) {
+        return Query.query(Criteria.where("cle").is(cle));
+    }
+
+    static Query prochainEnFile() {
+        return Query.query(Criteria.where("etat").is(Job.EN_ATTENTE)).with(Sort.by("dateCreation"));
+    }
+
+    private void executer(Job job) {
+        enCoursIci.add(job.getId());
+        String extension = ZIP.equals(job.getTypeContenu()) ? ".zip" : ".json";
+        GridFSUploadStream out = resultats.openUploadStream(job.getId() + extension,
+                new GridFSUploadOptions().metadata(new Document("job", job.getId()).append("typeContenu", job.getTypeContenu())));
+        // Seule l'exécution qui a pris le job le termine : si le job a été repris après abandon, ce résultat est jeté
+        Query prise = Query.query(Criteria.where("_id").is(job.getId()).and("etat").is(Job.EN_COURS).and("dateDebut").is(job.getDateDebut()));
+        try {
+            calculer(job, out, avancement(job.getId()));
+            out.close();
+            GridFSFile fichier = resultats.find(new Document("_id", out.getObjectId())).first();
+            Instant fin = Instant.now();
+            long termines = mongoTemplate.updateFirst(prise, new Update()
+                    .set("etat", Job.TERMINE).set("progression", 100).set("dateFin", fin).set("expiration", fin.plus(ttl))
+                    .set("resultat", out.getObjectId().toHexString()).set("taille", fichier == null ? 0 : fichier.getLength())
+                    .set("nomResultat", nomResultat(job) + extension), Job.class).getModifiedCount();
+            if (termines == 0) {
+                supprimerResultat(out.getObjectId());
+            }
+        } catch (Exception e) {
+            try {
+                out.abort();
+            } catch (RuntimeException suppression) {
+                log.warn("Résultat partiel du job {} non supprimé : {}", job.getId(), suppression.getMessage());
+            }
+            log.error("Job {} ({}) en échec", job.getId(), job.getType(), e);
+            Instant fin = Instant.now();
+            // Pas de cache pour un échec : la demande suivante relance le calcul
+            mongoTemplate.updateFirst(prise, new Update()
+                    .set("etat", Job.ECHEC).set("message", e.getMessage()).set("dateFin", fin).set("expiration", fin).unset("cle"), Job.class);
+        } finally {
+            enCoursIci.remove(job.getId());
+        }
+    }
+
+    private void calculer(Job job, OutputStream out, Progression progression) throws IOException {
+        Map<String, String> parametres = job.getParametres();
+        switch (job.getType()) {
+            case Job.BULLETINS_CLASSE -> bulletinPdfService.zipClasse(parametres.get("classe"), out, progression);
+            case Job.IMPAYES -> objectMapper.writeValue(out, soldeScolariteService.rapportImpayes(
+                    entier(parametres.get("annee")), parametres.get("classe"), progression));
+            case Job.ASSIDUITE -> objectMapper.writeValue(out, appelService.getAssiduiteClasse(
+                    parametres.get("classe"), parametres.get("anneeScolaire"), progression));
+            default -> throw new IllegalStateException("Type de job inconnu : " + job.getType());
+        }
+    }
+
+    // Écrit en base seulement quand le pourcentage change
+    private Progression avancement(String id) {
+        int[] dernier = { 0 };
+        return (faits, total) -> {
+            int pourcentage = total == 0 ? 99 : (int) Math.min(99, faits * 100 / total);
+            if (pourcentage > dernier[0]) {
+                dernier[0] = pourcentage;
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                        new Update().set("progression", pourcentage).set("battement", Instant.now()), Job.class);
+            }
+        };
+    }
+
+    // Paramètres connus du type, triés pour que deux demandes identiques aient la même clé ; 400 si un obligatoire manque
+    private static Map<String, String> parametres(String[] definition, Map<String, String> parametres) {
+        Map<String, String> retenus = new TreeMap<>();
+        for (String nom : definition[0].split(",")) {
+            String valeur = parametres.get(nom);
+            if (valeur == null || valeur.isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètre obligatoire manquant : " + nom);
+            }
+            retenus.put(nom, valeur.trim());
+        }
+        for (String nom : definition[1].split(",")) {
+            String valeur = parametres.get(nom);
+            if (!nom.isEmpty() && valeur != null && !valeur.isBlank()) {
+                retenus.put(nom, valeur.trim());
+            }
+        }
+        for (String nom : parametres.keySet()) {
+            if (!retenus.containsKey(nom) && !Arrays.asList(definition[1].split(",")).contains(nom)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Paramètre inconnu : " + nom);
+            }
+        }
+        if (retenus.containsKey("annee")) {
+            entier(retenus.get("annee"));
+        }
+        if (retenus.containsKey("anneeScolaire")) {
+            AnneeScolaire.debut(retenus.get("anneeScolaire"));
+        }
+        return retenus;
+    }
+
+    private static Integer entier(String valeur) {
+        try {
+            return Integer.valueOf(valeur);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nombre attendu : " + valeur);
+        }
+    }
+
+    private static String nomResultat(Job job) {
+        List<String> morceaux = new ArrayList<>();
+        morceaux.add(job.getType().toLowerCase().replace('_', '-'));
+        morceaux.addAll(job.getParametres().values());
+        return String.join("-", morceaux).replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -0,0 +1,33 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/memoire")
+@Profile("memoire")
+public class MemoireController {
+    @Autowired
+    private GenerateurDonnees generateurDonnees;
+    @Autowired
+    private StockageMemoire stockageMemoire;
+
+    @PostMapping("/generation")
+    public Map<String, Long> generer(@RequestParam int eleves,
+                                     @RequestParam(defaultValue = "18") int notesParEleve,
+                                     @RequestParam(defaultValue = "6") int paiementsParEleve,
+                                     @RequestParam(defaultValue = "42") long graine) {
+        return generateurDonnees.generer(eleves, notesParEleve, paiementsParEleve, graine);
+    }
+    @PostMapping("/instantane")
+    public Map<String, Long> sauvegarder() {
+        if (stockageMemoire.getInstantane() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "gestionecole.memoire.instantane non renseigné");
+        }
+        return stockageMemoire.sauvegarder();
+    }
+}
@@ -0,0 +1,107 @@
+package com.gestionschool.gestionecole;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+// Durée des méthodes des *Service, taille des résultats des *Repository et journal des appels au-delà du seuil.
+// La durée des repositories est déjà mesurée par Spring Data (spring.data.repository.invocations).
+@Aspect
+@Component
+public class MetriquesAspect {
+    private static final Logger log = LoggerFactory.getLogger("gestionecole.lent");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${gestionecole.metriques.seuil-lent:200ms}")
+    private Duration seuilLent;
+
+    @Around("execution(public * com.gestionschool.gestionecole.*Service.*(..))")
+    public Object mesurerService(ProceedingJoinPoint point) throws Throwable {
+        String service = point.getSignature().getDeclaringType().getSimpleName();
+        String methode = point.getSignature().getName();
+        long debut = System.nanoTime();
+        String exception = "none";
+        try {
+            return point.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long duree = System.nanoTime() - debut;
+            Timer.builder("gestionecole.service.appels")
+                    .tag("service", service).tag("methode", methode).tag("exception", exception)
+                    .register(meterRegistry).record(Duration.ofNanos(duree));
+            journaliser("service", service + "." + methode, duree, null, point.getArgs());
+        }
+    }
+
+    // findAll, save... sont déclarées par Spring Data : on repère les repositories par le proxy, pas par la méthode
+    @Around("execution(public * *(..)) && this(org.springframework.data.repository.Repository)")
+    public Object mesurerRepository(ProceedingJoinPoint point) throws Throwable {
+        long debut = System.nanoTime();
+        Object resultat = point.proceed();
+        long duree = System.nanoTime() - debut;
+        String repository = nomRepository(point.getThis());
+        String methode = point.getSignature().getName();
+        long taille = taille(resultat);
+        if (taille >= 0) {
+            DistributionSummary.builder("gestionecole.repository.resultats")
+                    .baseUnit("documents").tag("repository", repository).tag("methode", methode)
+                    .register(meterRegistry).record(taille);
+        }
+        journaliser("repository", repository + "." + methode, duree, taille, point.getArgs());
+        return resultat;
+    }
+
+    private void journaliser(String couche, String appel, long duree, Long taille, Object[] args) {
+        if (duree >= seuilLent.toNanos()) {
+            log.warn("{} lent : {} en {} ms{} args={}", couche, appel, duree / 1_000_000,
+                    taille == null || taille < 0 ? "" : ", " + taille + " documents", resume(args));
+        }
+    }
+
+    private static String nomRepository(Object proxy) {
+        for (Class<?> interfaceProxy : proxy.getClass().getInterfaces()) {
+            if (interfaceProxy.getPackageName().equals(MetriquesAspect.class.getPackageName())) {
+                return interfaceProxy.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+
+    private static long taille(Object resultat) {
+        if (resultat instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (resultat instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (resultat instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (resultat instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    private static String resume(Object[] args) {
+        String texte = Arrays.deepToString(args);
+        return texte.length() > 200 ? texte.substring(0, 200) + "…" : texte;
+    }
+}
@@ -0,0 +1,25 @@
+package com.gestionschool.gestionecole;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.time.Duration;
+
+// Métriques exposées sur /actuator/prometheus ; seuil du journal des appels lents : gestionecole.metriques.seuil-lent
+@Configuration
+public class MetriquesConfig {
+    @Bean
+    public MongoClientSettingsBuilderCustomizer commandesLentes(@Value("${gestionecole.metriques.seuil-lent:200ms}") Duration seuil) {
+        return settings -> settings.addCommandListener(new CommandesLentesListener(seuil));
+    }
+
+    @Bean
+    public FilterRegistrationBean<TailleReponseFilter> tailleReponseFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<TailleReponseFilter> registration = new FilterRegistrationBean<>(new TailleReponseFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.gestionschool.gestionecole;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Profils "virtuel" (requêtes Tomcat et services sur threads virtuels) et "reactif" (driver MongoDB réactif).
+// Les threads virtuels dépendent du JDK qui exécute l'application (21 ou plus), pas de la cible de compilation (17)
+@Component
+public class ModeExecution {
+    private static final Logger log = LoggerFactory.getLogger(ModeExecution.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean threadsVirtuels;
+    @Autowired
+    private Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void annoncer() {
+        boolean reactif = environment.matchesProfiles("reactif");
+        if (threadsVirtuels && Runtime.version().feature() < 21) {
+            log.warn("Threads virtuels demandés mais Java {} ne les propose pas : pool de threads plateforme utilisé",
+                    Runtime.version().feature());
+        } else {
+            log.info("Exécution des requêtes sur {}{}", threadsVirtuels ? "threads virtuels" : "threads plateforme",
+                    reactif ? ", lectures /api/reactif sur le driver réactif" : "");
+        }
+    }
+}
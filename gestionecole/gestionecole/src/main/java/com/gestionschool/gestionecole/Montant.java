@@ -0,0 +1,24 @@
+package com.gestionschool.gestionecole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Conversion exacte des montants en centimes (arrondi bancaire, comme $round côté MongoDB)
+public final class Montant {
+    private Montant() {}
+
+    public static long centimes(Double montant) {
+        if (montant == null) {
+            return 0;
+        }
+        return BigDecimal.valueOf(montant).setScale(2, RoundingMode.HALF_EVEN).movePointRight(2).longValueExact();
+    }
+
+    public static double valeur(long centimes) {
+        return BigDecimal.valueOf(centimes).movePointLeft(2).doubleValue();
+    }
+
+    public static long mensualite(long annuelCentimes) {
+        return BigDecimal.valueOf(annuelCentimes).divide(BigDecimal.valueOf(12), 0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+}
@@ -0,0 +1,26 @@
+package com.gestionschool.gestionecole;
+
+import java.util.List;
+
+// Moyenne d'un élève (ou d'une classe) dans un cours, calculée par agrégation
+public class MoyenneCours {
+    private String nomCours;
+    private String classe;
+    private Double moyenne;
+    private Double moyenneClasse;
+    private Integer nombreNotes;
+    private List<Double> notes;
+    // Getters et setters
+    public String getNomCours() { return nomCours; }
+    public void setNomCours(String nomCours) { this.nomCours = nomCours; }
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public Double getMoyenne() { return moyenne; }
+    public void setMoyenne(Double moyenne) { this.moyenne = moyenne; }
+    public Double getMoyenneClasse() { return moyenneClasse; }
+    public void setMoyenneClasse(Double moyenneClasse) { this.moyenneClasse = moyenneClasse; }
+    public Integer getNombreNotes() { return nombreNotes; }
+    public void setNombreNotes(Integer nombreNotes) { this.nombreNotes = nombreNotes; }
+    public List<Double> getNotes() { return notes; }
+    public void setNotes(List<Double> notes) { this.notes = notes; }
+}
@@ -1,9 +1,16 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "notes")
+@CompoundIndex(name = "eleve_cours", def = "{ 'matriculeEleve': 1, 'nomCours': 1 }")
+@CompoundIndex(name = "classe_cours", def = "{ 'classe': 1, 'nomCours': 1 }")
+// Une note par élève et par évaluation (clé de la saisie groupée) ; les notes sans type ou sans date n'y sont pas soumises
+@CompoundIndex(name = "evaluation_eleve", def = "{ 'classe': 1, 'nomCours': 1, 'typeEvaluation': 1, 'dateEvaluation': 1, 'matriculeEleve': 1 }",
+        unique = true, partialFilter = "{ 'classe': { '$type': 'string' }, 'nomCours': { '$type': 'string' }, 'typeEvaluation': { '$type': 'string' },"
+                + " 'dateEvaluation': { '$type': 'string' }, 'matriculeEleve': { '$type': 'string' } }")
 public class Note {
     @Id
     private String id;
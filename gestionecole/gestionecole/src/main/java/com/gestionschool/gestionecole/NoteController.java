@@ -1,33 +1,56 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notes")
 public class NoteController {
     @Autowired
     private NoteService noteService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<Note> getAllNotes() {
         return noteService.getAllNotes();
     }
+    @GetMapping(params = { "anneeScolaire", "!limit" })
+    public List<Note> getNotesAnnee(@RequestParam String anneeScolaire) {
+        return noteService.getNotesAnnee(anneeScolaire);
+    }
+    @GetMapping(params = "limit")
+    public PageResult getNotesPage(PageQuery pageQuery, @RequestParam(required = false) String anneeScolaire) {
+        return noteService.getNotesPage(pageQuery, anneeScolaire);
+    }
     @GetMapping("/{id}")
-    public Optional<Note> getNoteById(@PathVariable String id) {
-        return noteService.getNoteById(id);
+    public ResponseEntity<Note> getNoteById(@PathVariable String id) {
+        return patchService.lecture(noteService.getNoteById(id));
     }
     @PostMapping
     public Note createNote(@RequestBody Note note) {
         return noteService.saveNote(note);
     }
+    @PostMapping("/evaluation")
+    public RapportSaisie saisirEvaluation(@RequestBody SaisieEvaluation saisie) {
+        return noteService.saisirEvaluation(saisie);
+    }
     @PutMapping("/{id}")
     public Note updateNote(@PathVariable String id, @RequestBody Note note) {
         note.setId(id);
         return noteService.saveNote(note);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Note> patchNote(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Note note = noteService.patchNote(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(note)).body(note);
+    }
     @DeleteMapping("/{id}")
     public void deleteNote(@PathVariable String id) {
         noteService.deleteNote(id);
@@ -0,0 +1,10 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+// Actif uniquement avec le profil "reactif"
+public interface NoteReactifRepository extends ReactiveMongoRepository<Note, String> {
+    Flux<Note> findByClasse(String classe);
+    Flux<Note> findByMatriculeEleve(String matriculeEleve);
+}
@@ -1,5 +1,51 @@
 package com.gestionschool.gestionecole;
 
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
 
-public interface NoteRepository extends MongoRepository<Note, String> {} 
\ No newline at end of file
+public interface NoteRepository extends MongoRepository<Note, String> {
+
+    // Moyennes d'un élève par cours
+    @Aggregation(pipeline = {
+        "{ '$match': { 'matriculeEleve': ?0, 'valeur': { '$ne': null } } }",
+        "{ '$group': { '_id': '$nomCours', 'classe': { '$first': '$classe' }, 'moyenne': { '$avg': '$valeur' }, 'nombreNotes': { '$sum': 1 }, 'notes': { '$push': '$valeur' } } }",
+        "{ '$project': { '_id': 0, 'nomCours': '$_id', 'classe': 1, 'moyenne': 1, 'nombreNotes': 1, 'notes': 1 } }",
+        "{ '$sort': { 'nomCours': 1 } }"
+    })
+    List<MoyenneCours> moyennesParCoursEleve(String matriculeEleve);
+
+    // Moyennes de toute la classe par cours
+    @Aggregation(pipeline = {
+        "{ '$match': { 'classe': ?0, 'valeur': { '$ne': null } } }",
+        "{ '$group': { '_id': '$nomCours', 'moyenne': { '$avg': '$valeur' }, 'nombreNotes': { '$sum': 1 } } }",
+        "{ '$project': { '_id': 0, 'nomCours': '$_id', 'moyenne': 1, 'nombreNotes': 1 } }",
+        "{ '$sort': { 'nomCours': 1 } }"
+    })
+    List<MoyenneCours> moyennesParCoursClasse(String classe);
+
+    // Moyennes par cours et moyenne générale de chaque élève de la classe, du meilleur au moins bon
+    @Aggregation(pipeline = {
+        "{ '$match': { 'classe': ?0, 'valeur': { '$ne': null } } }",
+        "{ '$group': { '_id': { 'matricule': '$matriculeEleve', 'cours': '$nomCours' }, 'moyenne': { '$avg': '$valeur' }, 'nombreNotes': { '$sum': 1 } } }",
+        "{ '$sort': { '_id.cours': 1 } }",
+        "{ '$group': { '_id': '$_id.matricule', 'moyennes': { '$push': { 'nomCours': '$_id.cours', 'moyenne': '$moyenne', 'nombreNotes': '$nombreNotes' } }, 'moyenneGenerale': { '$avg': '$moyenne' } } }",
+        "{ '$project': { '_id': 0, 'matriculeEleve': '$_id', 'moyennes': 1, 'moyenneGenerale': 1 } }",
+        "{ '$sort': { 'moyenneGenerale': -1, 'matriculeEleve': 1 } }"
+    })
+    List<Bulletin> bulletinsClasse(String classe);
+
+    // Position d'un élève dans sa classe, sans construire les bulletins des autres : moyenne générale de l'élève,
+    // moyenne et effectif de la classe, rang de compétition (1 + nombre d'élèves de moyenne strictement supérieure)
+    @Aggregation(pipeline = {
+        "{ '$match': { 'classe': ?0, 'valeur': { '$ne': null } } }",
+        "{ '$group': { '_id': { 'matricule': '$matriculeEleve', 'cours': '$nomCours' }, 'moyenne': { '$avg': '$valeur' } } }",
+        "{ '$sort': { '_id.cours': 1 } }",
+        "{ '$group': { '_id': '$_id.matricule', 'moyenneGenerale': { '$avg': '$moyenne' } } }",
+        "{ '$group': { '_id': null, 'moyennes': { '$push': '$moyenneGenerale' }, 'moyenneClasse': { '$avg': '$moyenneGenerale' }, 'effectifClasse': { '$sum': 1 },"
+            + " 'eleve': { '$max': { '$cond': [ { '$eq': [ '$_id', ?1 ] }, '$moyenneGenerale', null ] } } } }",
+        "{ '$project': { '_id': 0, 'moyenneGenerale': '$eleve', 'moyenneClasse': 1, 'effectifClasse': 1,"
+            + " 'rang': { '$add': [ { '$size': { '$filter': { 'input': '$moyennes', 'cond': { '$gt': [ '$$this', '$eleve' ] } } } }, 1 ] } } }"
+    })
+    Bulletin rangClasse(String classe, String matriculeEleve);
+}
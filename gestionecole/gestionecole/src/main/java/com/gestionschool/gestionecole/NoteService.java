@@ -1,25 +1,323 @@
 package com.gestionschool.gestionecole;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class NoteService {
+    public static final int SAISIE_MAX = 1000;
+
     @Autowired
     private NoteRepository noteRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private EffectifClasseService effectifClasseService;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private ClassementService classementService;
+    @Autowired
+    private ArchivageService archivageService;
+
+    private static final int DOUBLON = 11000;
+
+    // Écriture d'une note et mise à jour des classements sous le même verrou (par note) : les retraits et ajouts
+    // s'appliquent dans l'ordre des écritures, sinon le retrait d'une valeur pas encore ajoutée serait perdu.
+    // Une saisie groupée les prend tous
+    private final ReentrantLock[] verrous = new ReentrantLock[64];
+    {
+        for (int i = 0; i < verrous.length; i++) {
+            verrous[i] = new ReentrantLock();
+        }
+    }
 
     public List<Note> getAllNotes() {
         return noteRepository.findAll();
     }
+    // Notes d'une année scolaire, lues dans sa partition si elle est close
+    public List<Note> getNotesAnnee(String anneeScolaire) {
+        return mongoTemplate.find(new Query(archivageService.criteres("notes", anneeScolaire)), Note.class,
+                archivageService.collection("notes", anneeScolaire));
+    }
+    public PageResult getNotesPage(PageQuery pageQuery, String anneeScolaire) {
+        if (anneeScolaire == null) {
+            return paginationService.page(Note.class, pageQuery);
+        }
+        return paginationService.page(Note.class, pageQuery, archivageService.criteres("notes", anneeScolaire),
+                archivageService.collection("notes", anneeScolaire));
+    }
     public Optional<Note> getNoteById(String id) {
         return noteRepository.findById(id);
     }
+    // L'ancienne note est celle que l'écriture a remplacée (findAndReplace la renvoie) : deux PUT simultanés
+    // retirent chacun du classement la valeur qu'ils ont réellement écrasée
+    // Nouvelle note : id attribué avant l'écriture, pour l'écrire sous son verrou.
+    // Verrou des statistiques pris avant celui de la note, partout
     public Note saveNote(Note note) {
-        return noteRepository.save(note);
+        archivageService.verifierOuverte("notes", AnneeScolaire.de(note.getDateEvaluation()));
+        if (note.getId() == null) {
+            note.setId(new ObjectId().toHexString());
+        }
+        Lock statistiques = statistiquesService.verrouEcriture();
+        statistiques.lock();
+        try {
+            Note ancienne;
+            ReentrantLock verrou = verrou(note.getId());
+            verrou.lock();
+            try {
+                ancienne = mongoTemplate.findAndReplace(Query.query(Criteria.where("_id").is(note.getId())), note,
+                        FindAndReplaceOptions.options().upsert());
+                classementService.noteEnregistree(ancienne, note);
+            } catch (DuplicateKeyException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "L'élève " + note.getMatriculeEleve()
+                        + " a déjà une note pour cette évaluation");
+            } finally {
+                verrou.unlock();
+            }
+            statistiquesService.compteurAjoute("notes", ancienne == null);
+        } finally {
+            statistiques.unlock();
+        }
+        versionsCollections.incrementer("notes");
+        return note;
+    }
+    public Note patchNote(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(Note.class, id, patch, ifMatch, (ancienne, nouvelle, ecriture) -> {
+            archivageService.verifierOuverte("notes", AnneeScolaire.de(nouvelle.getDateEvaluation()));
+            Note saved;
+            ReentrantLock verrou = verrou(id);
+            verrou.lock();
+            try {
+                saved = ecriture.get();
+                classementService.noteEnregistree(ancienne, saved);
+            } finally {
+                verrou.unlock();
+            }
+            versionsCollections.incrementer("notes");
+            return saved;
+        });
+    }
+    // Saisie groupée : une lecture des notes existantes puis une seule écriture en masse non ordonnée,
+    // chaque note étant identifiée par l'élève et l'évaluation (classe, cours, type, date ; index unique evaluation_eleve).
+    // Lecture, écriture et classements sous tous les verrous de notes : les anciennes valeurs retirées des classements
+    // sont bien celles que l'écriture remplace
+    public RapportSaisie saisirEvaluation(SaisieEvaluation saisie) {
+        validerSaisie(saisie);
+        archivageService.verifierOuverte("notes", AnneeScolaire.de(saisie.getDateEvaluation()));
+        Set<String> matricules = new HashSet<>();
+        for (Note ligne : saisie.getNotes()) {
+            if (ligne != null && ligne.getMatriculeEleve() != null) {
+                matricules.add(ligne.getMatriculeEleve());
+            }
+        }
+        Set<String> inscrits = effectifClasseService.inscrits(saisie.getClasse(), matricules);
+        Lock statistiques = statistiquesService.verrouEcriture();
+        statistiques.lock();
+        for (ReentrantLock verrou : verrous) {
+            verrou.lock();
+        }
+        try {
+            return saisir(saisie, matricules, inscrits);
+        } finally {
+            for (int i = verrous.length - 1; i >= 0; i--) {
+                verrous[i].unlock();
+            }
+            statistiques.unlock();
+        }
+    }
+
+    private RapportSaisie saisir(SaisieEvaluation saisie, Set<String> matricules, Set<String> inscrits) {
+        Map<String, Note> existantes = new HashMap<>();
+        for (Note note : mongoTemplate.find(notesSaisies(saisie, matricules), Note.class)) {
+            existantes.putIfAbsent(note.getMatriculeEleve(), note);
+        }
+
+        RapportSaisie rapport = new RapportSaisie();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        List<RapportSaisie.Ligne> ecrites = new ArrayList<>();
+        List<Note> nouvelles = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        Set<String> vus = new HashSet<>();
+        for (Note ligne : saisie.getNotes()) {
+            RapportSaisie.Ligne statut = rapport.ajouter(ligne == null ? null : ligne.getMatriculeEleve());
+            String erreur = ligne == null || ligne.getMatriculeEleve() == null || ligne.getMatriculeEleve().isBlank() ? "Matricule manquant"
+                    : !vus.add(ligne.getMatriculeEleve()) ? "Matricule en double dans la saisie"
+                    : !inscrits.contains(ligne.getMatriculeEleve()) ? "Élève non inscrit en " + saisie.getClasse()
+                    : ligne.getValeur() == null || ligne.getValeur() < 0 || ligne.getValeur() > 20 ? "Note invalide (attendue entre 0 et 20)"
+                    : null;
+            if (erreur != null) {
+                statut.setStatut(RapportSaisie.REJETEE);
+                statut.setMessage(erreur);
+                continue;
+            }
+            Note ancienne = existantes.get(ligne.getMatriculeEleve());
+            if (ancienne != null && Objects.equals(ancienne.getValeur(), ligne.getValeur())
+                    && Objects.equals(ancienne.getObservation(), ligne.getObservation())) {
+                statut.setStatut(RapportSaisie.INCHANGEE);
+                statut.setId(ancienne.getId());
+                continue;
+            }
+            Note nouvelle = new Note();
+            nouvelle.setId(ancienne == null ? null : ancienne.getId());
+            nouvelle.setMatriculeEleve(ligne.getMatriculeEleve());
+            nouvelle.setClasse(saisie.getClasse());
+            nouvelle.setNomCours(saisie.getNomCours());
+            nouvelle.setTypeEvaluation(saisie.getTypeEvaluation());
+            nouvelle.setDateEvaluation(saisie.getDateEvaluation());
+            nouvelle.setValeur(ligne.getValeur());
+            nouvelle.setObservation(ligne.getObservation());
+            Update update = new Update().set("valeur", nouvelle.getValeur());
+            if (nouvelle.getObservation() == null) {
+                update.unset("observation");
+            } else {
+                update.set("observation", nouvelle.getObservation());
+            }
+            bulk.upsert(new Query(evaluation(saisie).and("matriculeEleve").is(nouvelle.getMatriculeEleve())), update);
+            statut.setStatut(ancienne == null ? RapportSaisie.CREEE : RapportSaisie.MODIFIEE);
+            statut.setId(nouvelle.getId());
+            ecrites.add(statut);
+            nouvelles.add(nouvelle);
+            updates.add(update);
+        }
+
+        if (!ecrites.isEmpty()) {
+            BulkWriteResult resultat;
+            Set<Integer> echecs = new HashSet<>();
+            Set<Integer> doublons = new HashSet<>();
+            try {
+                resultat = bulk.execute();
+            } catch (BulkOperationException e) {
+                resultat = e.getResult();
+                for (BulkWriteError erreur : e.getErrors()) {
+                    echecs.add(erreur.getIndex());
+                    if (erreur.getCode() == DOUBLON) {
+                        doublons.add(erreur.getIndex());
+                    } else {
+                        ecrites.get(erreur.getIndex()).setStatut(RapportSaisie.REJETEE);
+                        ecrites.get(erreur.getIndex()).setMessage(erreur.getMessage());
+                    }
+                }
+            }
+            for (BulkWriteUpsert upsert : resultat.getUpserts()) {
+                String id = upsert.getId().isObjectId() ? upsert.getId().asObjectId().getValue().toHexString() : upsert.getId().asString().getValue();
+                ecrites.get(upsert.getIndex()).setId(id);
+                nouvelles.get(upsert.getIndex()).setId(id);
+            }
+            long creees = 0;
+            for (int i = 0; i < ecrites.size(); i++) {
+                if (!echecs.contains(i)) {
+                    Note nouvelle = nouvelles.get(i);
+                    classementService.noteEnregistree(existantes.get(nouvelle.getMatriculeEleve()), nouvelle);
+                    creees += RapportSaisie.CREEE.equals(ecrites.get(i).getStatut()) ? 1 : 0;
+                }
+            }
+            // Note créée entre la lecture et l'écriture (écriture hors verrou, import) : réécrite en mise à jour,
+            // la note remplacée étant celle que renvoie findAndModify
+            for (int i : doublons) {
+                Note nouvelle = nouvelles.get(i);
+                Query parEleve = new Query(evaluation(saisie).and("matriculeEleve").is(nouvelle.getMatriculeEleve()));
+                Note remplacee = mongoTemplate.findAndModify(parEleve, updates.get(i), FindAndModifyOptions.options().upsert(true), Note.class);
+                if (remplacee != null) {
+                    nouvelle.setId(remplacee.getId());
+                    ecrites.get(i).setStatut(RapportSaisie.MODIFIEE);
+                } else {
+                    // supprimée entre-temps : recréée par l'upsert
+                    nouvelle.setId(mongoTemplate.findOne(parEleve, Note.class).getId());
+                    creees++;
+                }
+                ecrites.get(i).setId(nouvelle.getId());
+                classementService.noteEnregistree(remplacee, nouvelle);
+            }
+            statistiquesService.compteurAjoutes("notes", creees);
+            versionsCollections.incrementer("notes");
+        }
+        rapport.compter();
+        return rapport;
     }
     public void deleteNote(String id) {
-        noteRepository.deleteById(id);
+        Note ancienne;
+        Lock statistiques = statistiquesService.verrouEcriture();
+        statistiques.lock();
+        try {
+            ReentrantLock verrou = verrou(id);
+            verrou.lock();
+            try {
+                ancienne = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Note.class);
+                classementService.noteSupprimee(ancienne);
+            } finally {
+                verrou.unlock();
+            }
+            if (ancienne != null) {
+                statistiquesService.compteurSupprime("notes");
+            }
+        } finally {
+            statistiques.unlock();
+        }
+        if (ancienne != null) {
+            versionsCollections.incrementer("notes");
+        }
+    }
+
+    private ReentrantLock verrou(String id) {
+        return verrous[Math.floorMod(id.hashCode(), verrous.length)];
+    }
+
+    private static void validerSaisie(SaisieEvaluation saisie) {
+        if (estVide(saisie.getClasse()) || estVide(saisie.getNomCours()) || estVide(saisie.getTypeEvaluation()) || estVide(saisie.getDateEvaluation())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "classe, nomCours, typeEvaluation et dateEvaluation sont obligatoires");
+        }
+        if (saisie.getNotes() == null || saisie.getNotes().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Aucune note à enregistrer");
+        }
+        if (saisie.getNotes().size() > SAISIE_MAX) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Au plus " + SAISIE_MAX + " notes par saisie");
+        }
+    }
+
+    // Notes déjà saisies de l'évaluation pour ces élèves (aussi expliquée par IndexService)
+    static Query notesSaisies(SaisieEvaluation saisie, Collection<String> matricules) {
+        return new Query(evaluation(saisie).and("matriculeEleve").in(matricules));
+    }
+
+    private static Criteria evaluation(SaisieEvaluation saisie) {
+        return Criteria.where("classe").is(saisie.getClasse()).and("nomCours").is(saisie.getNomCours())
+                .and("typeEvaluation").is(saisie.getTypeEvaluation()).and("dateEvaluation").is(saisie.getDateEvaluation());
+    }
+
+    private static boolean estVide(String valeur) {
+        return valeur == null || valeur.isBlank();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.gestionschool.gestionecole;
+
+// Paramètres de pagination : ?limit=50&after=<curseur>&sort=-nom&fields=nom,prenom,matricule&expand=eleve,cours
+public class PageQuery {
+    private Integer limit;
+    private String after;
+    private String sort;
+    private String fields;
+    private String expand;
+    // Getters et setters
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    public String getAfter() { return after; }
+    public void setAfter(String after) { this.after = after; }
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+    public String getFields() { return fields; }
+    public void setFields(String fields) { this.fields = fields; }
+    public String getExpand() { return expand; }
+    public void setExpand(String expand) { this.expand = expand; }
+}
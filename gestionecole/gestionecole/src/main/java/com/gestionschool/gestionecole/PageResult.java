@@ -0,0 +1,20 @@
+package com.gestionschool.gestionecole;
+
+import java.util.List;
+import java.util.Map;
+
+public class PageResult {
+    private List<Map<String, Object>> content;
+    private String nextCursor;
+    private Integer limit;
+    private String sort;
+    // Getters et setters
+    public List<Map<String, Object>> getContent() { return content; }
+    public void setContent(List<Map<String, Object>> content) { this.content = content; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+}
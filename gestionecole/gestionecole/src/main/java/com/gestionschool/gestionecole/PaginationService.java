@@ -0,0 +1,186 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pagination par curseur (keyset) commune à toutes les collections : aucune page ne charge plus de TAILLE_MAX documents
+@Service
+public class PaginationService {
+    public static final int TAILLE_PAR_DEFAUT = 50;
+    public static final int TAILLE_MAX = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ExpansionService expansionService;
+
+    public PageResult page(Class<?> entityClass, PageQuery pageQuery) {
+        return page(entityClass, pageQuery, new Criteria());
+    }
+
+    public PageResult page(Class<?> entityClass, PageQuery pageQuery, Criteria filtre) {
+        return page(entityClass, pageQuery, filtre, null);
+    }
+
+    // collection : partition d'une année close (ArchivageService), null pour la collection de l'entité
+    public PageResult page(Class<?> entityClass, PageQuery pageQuery, Criteria filtre, String collection) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityClass);
+        String lue = collection == null ? entity.getCollection() : collection;
+        int limit = pageQuery.getLimit() == null ? TAILLE_PAR_DEFAUT : Math.max(1, Math.min(pageQuery.getLimit(), TAILLE_MAX));
+
+        String sortField = "_id";
+        Sort.Direction direction = Sort.Direction.ASC;
+        String sort = pageQuery.getSort();
+        if (sort != null && !sort.isBlank()) {
+            if (sort.startsWith("-")) {
+                direction = Sort.Direction.DESC;
+                sort = sort.substring(1);
+            }
+            sortField = fieldName(entity, sort.trim());
+        }
+
+        List<String> expansions = expansionService.expansions(entity.getCollection(), pageQuery.getExpand());
+        // $and plutôt que addCriteria : le filtre et le curseur peuvent tous deux être des $or sans clé
+        Criteria critere = filtre;
+        if (pageQuery.getAfter() != null && !pageQuery.getAfter().isBlank()) {
+            critere = new Criteria().andOperator(filtre, apres(decodeCursor(pageQuery.getAfter()), sortField, direction));
+        }
+        Query query = new Query(critere);
+        query.with(Sort.by(direction, sortField));
+        if (!"_id".equals(sortField)) {
+            query.with(Sort.by(direction, "_id"));
+        }
+        if (pageQuery.getFields() != null && !pageQuery.getFields().isBlank()) {
+            for (String field : pageQuery.getFields().split(",")) {
+                if (!field.isBlank()) {
+                    query.fields().include(fieldName(entity, field.trim()));
+                }
+            }
+            query.fields().include(sortField);
+            for (String local : expansionService.champsLocaux(entity.getCollection(), expansions)) {
+                query.fields().include(fieldName(entity, local));
+            }
+        }
+        query.limit(limit + 1);
+
+        List<Document> documents = expansions.isEmpty()
+                ? mongoTemplate.find(query, Document.class, lue)
+                : agreger(entity, lue, query, expansions);
+        boolean suivante = documents.size() > limit;
+        if (suivante) {
+            documents = documents.subList(0, limit);
+        }
+
+        List<Map<String, Object>> content = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            content.add(toJson(document));
+        }
+
+        PageResult result = new PageResult();
+        result.setContent(content);
+        result.setLimit(limit);
+        result.setSort(pageQuery.getSort());
+        if (suivante) {
+            Document dernier = documents.get(documents.size() - 1);
+            result.setNextCursor(encodeCursor(dernier.get(sortField), dernier.get("_id")));
+        }
+        return result;
+    }
+
+    // Même page que find(), les références étant résolues par $lookup après le $limit : une jointure par document de la page
+    private List<Document> agreger(MongoPersistentEntity<?> entity, String collection, Query query, List<String> expansions) {
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", mapper.getMappedObject(query.getQueryObject(), entity)));
+        pipeline.add(new Document("$sort", mapper.getMappedSort(query.getSortObject(), entity)));
+        pipeline.add(new Document("$limit", query.getLimit()));
+        if (!query.getFieldsObject().isEmpty()) {
+            pipeline.add(new Document("$project", mapper.getMappedFields(query.getFieldsObject(), entity)));
+        }
+        pipeline.addAll(expansionService.etapes(entity.getCollection(), expansions));
+        return mongoTemplate.getCollection(collection).aggregate(pipeline).into(new ArrayList<>());
+    }
+
+    private String fieldName(MongoPersistentEntity<?> entity, String propriete) {
+        if ("id".equals(propriete) || "_id".equals(propriete)) {
+            return "_id";
+        }
+        MongoPersistentProperty property = entity.getPersistentProperty(propriete);
+        if (property == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Champ inconnu : " + propriete);
+        }
+        return property.getFieldName();
+    }
+
+    // Documents strictement après le curseur dans l'ordre (sortField, _id). Mongo trie les valeurs nulles ou absentes
+    // avant toutes les autres, et { $gt: null } ne renvoie rien : elles sont traitées à part ({ champ: null } couvre les deux)
+    private Criteria apres(Document cursor, String sortField, Sort.Direction direction) {
+        Object id = cursor.get("id");
+        if ("_id".equals(sortField)) {
+            return direction.isAscending() ? Criteria.where("_id").gt(id) : Criteria.where("_id").lt(id);
+        }
+        Object valeur = cursor.get("v");
+        Criteria memeValeur = Criteria.where(sortField).is(valeur);
+        memeValeur = direction.isAscending() ? memeValeur.and("_id").gt(id) : memeValeur.and("_id").lt(id);
+        if (valeur == null) {
+            // Croissant : reste des nuls puis toutes les valeurs ; décroissant : les nuls sont en dernier
+            return direction.isAscending()
+                    ? new Criteria().orOperator(memeValeur, Criteria.where(sortField).ne(null))
+                    : memeValeur;
+        }
+        if (direction.isAscending()) {
+            return new Criteria().orOperator(Criteria.where(sortField).gt(valeur), memeValeur);
+        }
+        return new Criteria().orOperator(Criteria.where(sortField).lt(valeur), memeValeur, Criteria.where(sortField).is(null));
+    }
+
+    private static String encodeCursor(Object valeur, Object id) {
+        return encodeCursor(new Document("v", valeur).append("id", id));
+    }
+
+    // Curseur opaque : le document en JSON étendu, encodé en base64 URL
+    static String encodeCursor(Document curseur) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(curseur.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Document decodeCursor(String cursor) {
+        try {
+            return Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Curseur invalide");
+        }
+    }
+
+    static Map<String, Object> toJson(Document document) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            if ("_class".equals(entry.getKey())) {
+                continue;
+            }
+            if ("_id".equals(entry.getKey())) {
+                Object id = entry.getValue();
+                json.put("id", id instanceof ObjectId ? ((ObjectId) id).toHexString() : id);
+            } else {
+                json.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return json;
+    }
+}
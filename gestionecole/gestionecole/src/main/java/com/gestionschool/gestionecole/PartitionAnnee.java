@@ -0,0 +1,51 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Année close d'une collection chaude (notes, scolarites, emargements, seances_emargement) :
+// ses documents sont dans la collection "partition", ou compressés dans "fichier" (bucket GridFS "archives") quand l'état est ARCHIVEE.
+// EN_BASCULE : enregistrée (l'année refuse les écritures) mais encore en copie, les lectures restent sur la collection chaude.
+// EN_COMPRESSION : prise par une instance pour l'écriture de l'archive, la collection reste lisible jusqu'au passage à ARCHIVEE.
+@Document(collection = "partitions")
+public class PartitionAnnee {
+    public static final String EN_BASCULE = "EN_BASCULE";
+    public static final String EN_BASE = "EN_BASE";
+    public static final String EN_COMPRESSION = "EN_COMPRESSION";
+    public static final String ARCHIVEE = "ARCHIVEE";
+
+    @Id
+    private String id; // collection:annee
+    private String collection;
+    private String annee; // année scolaire (2023-2024), ou année de facturation pour les scolarités (2024)
+    private String partition;
+    private String etat;
+    private long documents;
+    private String fichier; // identifiant du fichier GridFS de la dernière archive
+    private String dateBascule;
+    private String dateArchivage; // début de la compression tant que l'état est EN_COMPRESSION
+
+    public static String id(String collection, String annee) {
+        return collection + ":" + annee;
+    }
+
+    // Getters et setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getCollection() { return collection; }
+    public void setCollection(String collection) { this.collection = collection; }
+    public String getAnnee() { return annee; }
+    public void setAnnee(String annee) { this.annee = annee; }
+    public String getPartition() { return partition; }
+    public void setPartition(String partition) { this.partition = partition; }
+    public String getEtat() { return etat; }
+    public void setEtat(String etat) { this.etat = etat; }
+    public long getDocuments() { return documents; }
+    public void setDocuments(long documents) { this.documents = documents; }
+    public String getFichier() { return fichier; }
+    public void setFichier(String fichier) { this.fichier = fichier; }
+    public String getDateBascule() { return dateBascule; }
+    public void setDateBascule(String dateBascule) { this.dateBascule = dateBascule; }
+    public String getDateArchivage() { return dateArchivage; }
+    public void setDateArchivage(String dateArchivage) { this.dateArchivage = dateArchivage; }
+}
@@ -0,0 +1,9 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+
+public interface PartitionAnneeRepository extends MongoRepository<PartitionAnnee, String> {
+    List<PartitionAnnee> findByCollection(String collection, Sort sort);
+}
@@ -0,0 +1,165 @@
+package com.gestionschool.gestionecole;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// PATCH en JSON merge-patch (RFC 7396) : le patch passe par les setters de l'entité (champs dérivés compris),
+// puis seuls les champs dont la valeur stockée change partent en $set / $unset.
+// L'écriture est conditionnée au document lu (comparaison de $$ROOT), si bien que les services voient le véritable ancien état.
+// If-Match (facultatif) porte l'ETag du document, renvoyé par chaque PATCH ; un patch vide {} le lit sans rien écrire.
+@Service
+public class PatchService {
+    public static final String MERGE_PATCH = "application/merge-patch+json";
+    private static final int ESSAIS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Écriture côté service : contrôles avant, ecriture.get() pour appliquer le $set / $unset, suivi des index après
+    @FunctionalInterface
+    public interface Enregistrement<T> {
+        T enregistrer(T ancien, T nouveau, Supplier<T> ecriture);
+    }
+
+    public <T> T modifier(Class<T> type, String id, Map<String, Object> patch, String ifMatch, Enregistrement<T> enregistrement) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+        verifierChamps(entity, id, patch);
+        for (int essai = 1; ; essai++) {
+            Document brut = mongoTemplate.findOne(new BasicQuery(new Document("_id", cle(id))), Document.class, entity.getCollection());
+            if (brut == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Document introuvable : " + id);
+            }
+            T ancien = mongoTemplate.getConverter().read(type, brut);
+            verifierVersion(ifMatch, ancien);
+            T nouveau = fusionner(mongoTemplate.getConverter().read(type, brut), patch);
+            Update update = difference(ecrire(ancien), ecrire(nouveau));
+            if (update.getUpdateObject().isEmpty()) {
+                return ancien;
+            }
+            try {
+                return enregistrement.enregistrer(ancien, nouveau, () -> appliquer(type, entity, brut, update));
+            } catch (ModificationConcurrente e) {
+                if (ifMatch != null) {
+                    throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Document modifié depuis la version " + ifMatch);
+                }
+                if (essai == ESSAIS) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "Document modifié pendant la mise à jour : " + id);
+                }
+            }
+        }
+    }
+
+    // Applique le patch à une entité déjà chargée (documents sans collection propre, ex. émargements d'une séance)
+    public <T> T fusionner(T entite, Map<String, Object> patch) {
+        try {
+            return objectMapper.readerForUpdating(entite).readValue((JsonNode) objectMapper.valueToTree(patch));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Patch invalide : " + e.getMessage());
+        }
+    }
+
+    public void verifierVersion(String ifMatch, Object entite) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return;
+        }
+        String attendu = etag(entite);
+        for (String version : ifMatch.split(",")) {
+            String valeur = version.trim();
+            if (valeur.startsWith("W/")) {
+                valeur = valeur.substring(2);
+            }
+            if (valeur.equals(attendu)) {
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Document modifié depuis la version " + ifMatch);
+    }
+
+    // GET /{id} : même ETag que PATCH, donc utilisable tel quel en If-Match ; 304 sur If-None-Match (corps vide si absent, comme avant)
+    public <T> ResponseEntity<T> lecture(Optional<T> entite) {
+        return entite.map(e -> ResponseEntity.ok().eTag(etag(e)).body(e)).orElseGet(() -> ResponseEntity.ok().build());
+    }
+
+    // ETag d'un document : empreinte de sa forme stockée
+    public String etag(Object entite) {
+        String json = ecrire(entite).toJson();
+        return "\"" + DigestUtils.md5DigestAsHex(json.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private <T> T appliquer(Class<T> type, MongoPersistentEntity<?> entity, Document brut, Update update) {
+        Document filtre = new Document("_id", brut.get("_id"))
+                .append("$expr", new Document("$eq", List.of("$$ROOT", new Document("$literal", brut))));
+        Document modifie = mongoTemplate.findAndModify(new BasicQuery(filtre), update, FindAndModifyOptions.options().returnNew(true),
+                Document.class, entity.getCollection());
+        if (modifie == null) {
+            throw new ModificationConcurrente();
+        }
+        return mongoTemplate.getConverter().read(type, modifie);
+    }
+
+    private static Update difference(Document ancien, Document nouveau) {
+        Set<String> champs = new LinkedHashSet<>(ancien.keySet());
+        champs.addAll(nouveau.keySet());
+        champs.remove("_id");
+        champs.remove("_class");
+        Update update = new Update();
+        for (String champ : champs) {
+            if (!nouveau.containsKey(champ)) {
+                update.unset(champ);
+            } else if (!Objects.equals(ancien.get(champ), nouveau.get(champ))) {
+                update.set(champ, nouveau.get(champ));
+            }
+        }
+        return update;
+    }
+
+    private static void verifierChamps(MongoPersistentEntity<?> entity, String id, Map<String, Object> patch) {
+        for (Map.Entry<String, Object> champ : patch.entrySet()) {
+            if ("id".equals(champ.getKey())) {
+                if (champ.getValue() != null && !id.equals(champ.getValue())) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "L'identifiant ne peut pas être modifié");
+                }
+            } else if (entity.getPersistentProperty(champ.getKey()) == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Champ inconnu : " + champ.getKey());
+            }
+        }
+        patch.remove("id");
+    }
+
+    private Document ecrire(Object entite) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entite, document);
+        return document;
+    }
+
+    private static Object cle(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static class ModificationConcurrente extends RuntimeException {
+    }
+}
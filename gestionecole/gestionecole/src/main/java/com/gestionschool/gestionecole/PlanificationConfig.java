@@ -0,0 +1,10 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tâches planifiées (bascule annuelle des archives), voir gestionecole.archivage.* dans application.properties
+@Configuration
+@EnableScheduling
+public class PlanificationConfig {
+}
@@ -0,0 +1,174 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+// Index des créneaux par (ressource, jour) trié par heure de début : un chevauchement se vérifie en O(log n)
+@Service
+public class PlanningService {
+    @Autowired
+    private EmploiDuTempsRepository emploiDuTempsRepository;
+
+    private Map<String, Occupation> occupations;
+    private final Map<String, Creneau> parId = new HashMap<>();
+
+    public synchronized List<ConflitPlanning> conflits(EmploiDuTemps emploiDuTemps) {
+        Creneau creneau = Creneau.de(emploiDuTemps);
+        List<ConflitPlanning> conflits = new ArrayList<>();
+        for (String ressource : creneau.getRessources()) {
+            Occupation occupation = index().get(cle(ressource, creneau.getJour()));
+            if (occupation != null) {
+                for (Creneau autre : occupation.chevauchements(creneau)) {
+                    if (autre.getId() == null || !autre.getId().equals(creneau.getId())) {
+                        conflits.add(new ConflitPlanning(creneau, autre, ressource));
+                    }
+                }
+            }
+        }
+        return conflits;
+    }
+
+    // Vérification et enregistrement sous le même verrou pour que deux créneaux concurrents ne se chevauchent pas
+    public synchronized EmploiDuTemps planifier(EmploiDuTemps emploiDuTemps, UnaryOperator<EmploiDuTemps> enregistrer) {
+        List<ConflitPlanning> conflits = conflits(emploiDuTemps);
+        if (!conflits.isEmpty()) {
+            ConflitPlanning conflit = conflits.get(0);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Chevauchement avec le créneau " + conflit.getConflitAvec()
+                    + " (" + conflit.getRessource() + ", " + conflit.getJour() + " " + conflit.getDebut() + "-" + conflit.getFin() + ")");
+        }
+        EmploiDuTemps saved = enregistrer.apply(emploiDuTemps);
+        enregistre(saved);
+        return saved;
+    }
+
+    public synchronized void enregistre(EmploiDuTemps emploiDuTemps) {
+        if (occupations == null) {
+            return;
+        }
+        supprime(emploiDuTemps.getId());
+        try {
+            ajouter(Creneau.de(emploiDuTemps));
+        } catch (IllegalArgumentException e) {
+            // créneau non planifiable (heures manquantes) : rien à indexer
+        }
+    }
+
+    public synchronized void supprime(String id) {
+        if (occupations == null || id == null) {
+            return;
+        }
+        Creneau ancien = parId.remove(id);
+        if (ancien != null) {
+            for (String ressource : ancien.getRessources()) {
+                Occupation occupation = occupations.get(cle(ressource, ancien.getJour()));
+                if (occupation != null) {
+                    occupation.retirer(ancien);
+                }
+            }
+        }
+    }
+
+    // Vérification de tout l'emploi du temps : un balayage trié par ressource et par jour, O(n log n)
+    public List<ConflitPlanning> verifierTout() {
+        Map<String, List<Creneau>> parCle = new HashMap<>();
+        List<ConflitPlanning> conflits = new ArrayList<>();
+        for (EmploiDuTemps emploiDuTemps : emploiDuTempsRepository.findAll()) {
+            try {
+                Creneau creneau = Creneau.de(emploiDuTemps);
+                for (String ressource : creneau.getRessources()) {
+                    parCle.computeIfAbsent(cle(ressource, creneau.getJour()), c -> new ArrayList<>()).add(creneau);
+                }
+            } catch (IllegalArgumentException e) {
+                ConflitPlanning invalide = new ConflitPlanning();
+                invalide.setEmploiDuTempsId(emploiDuTemps.getId());
+                invalide.setRessource(e.getMessage());
+                invalide.setJour(emploiDuTemps.getJour());
+                conflits.add(invalide);
+            }
+        }
+        parCle.forEach((cle, creneaux) -> {
+            String ressource = cle.substring(0, cle.lastIndexOf('|'));
+            creneaux.sort(Comparator.comparingInt(Creneau::getDebut));
+            List<Creneau> actifs = new ArrayList<>();
+            for (Creneau creneau : creneaux) {
+                actifs.removeIf(actif -> actif.getFin() <= creneau.getDebut());
+                for (Creneau actif : actifs) {
+                    conflits.add(new ConflitPlanning(creneau, actif, ressource));
+                }
+                actifs.add(creneau);
+            }
+        });
+        return conflits;
+    }
+
+    // Construit à la première vérification, puis tenu à jour par EmploiDuTempsService
+    private Map<String, Occupation> index() {
+        if (occupations == null) {
+            occupations = new HashMap<>();
+            for (EmploiDuTemps emploiDuTemps : emploiDuTempsRepository.findAll()) {
+                try {
+                    ajouter(Creneau.de(emploiDuTemps));
+                } catch (IllegalArgumentException e) {
+                    // ignoré : signalé par verifierTout()
+                }
+            }
+        }
+        return occupations;
+    }
+
+    private void ajouter(Creneau creneau) {
+        if (creneau.getId() != null) {
+            parId.put(creneau.getId(), creneau);
+        }
+        for (String ressource : creneau.getRessources()) {
+            occupations.computeIfAbsent(cle(ressource, creneau.getJour()), c -> new Occupation()).ajouter(creneau);
+        }
+    }
+
+    private static String cle(String ressource, String jour) {
+        return ressource + "|" + jour;
+    }
+
+    // Créneaux d'une ressource pour un jour ; dureeMax borne la recherche des créneaux commencés plus tôt
+    private static class Occupation {
+        private final NavigableMap<Integer, List<Creneau>> parDebut = new TreeMap<>();
+        private int dureeMax;
+
+        void ajouter(Creneau creneau) {
+            parDebut.computeIfAbsent(creneau.getDebut(), d -> new ArrayList<>(1)).add(creneau);
+            dureeMax = Math.max(dureeMax, creneau.getFin() - creneau.getDebut());
+        }
+
+        void retirer(Creneau creneau) {
+            List<Creneau> creneaux = parDebut.get(creneau.getDebut());
+            if (creneaux != null) {
+                creneaux.removeIf(c -> c.getId() != null && c.getId().equals(creneau.getId()));
+                if (creneaux.isEmpty()) {
+                    parDebut.remove(creneau.getDebut());
+                }
+            }
+        }
+
+        List<Creneau> chevauchements(Creneau creneau) {
+            List<Creneau> resultat = new ArrayList<>();
+            for (List<Creneau> creneaux : parDebut.subMap(creneau.getDebut() - dureeMax, false, creneau.getFin(), false).values()) {
+                for (Creneau autre : creneaux) {
+                    if (autre.chevauche(creneau)) {
+                        resultat.add(autre);
+                    }
+                }
+            }
+            return resultat;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gestionschool.gestionecole;
+
+// Place d'un élève dans sa classe pour un cours et une période, d'après sa moyenne
+public class PositionEleve {
+    private String matriculeEleve;
+    private String classe;
+    private String nomCours;
+    private String periode;
+    private String typeEvaluation;
+    private Double moyenne;
+    private Integer nombreNotes;
+    private Integer rang;
+    private Integer effectif;
+    private Double percentile;
+    // Getters et setters
+    public String getMatriculeEleve() { return matriculeEleve; }
+    public void setMatriculeEleve(String matriculeEleve) { this.matriculeEleve = matriculeEleve; }
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public String getNomCours() { return nomCours; }
+    public void setNomCours(String nomCours) { this.nomCours = nomCours; }
+    public String getPeriode() { return periode; }
+    public void setPeriode(String periode) { this.periode = periode; }
+    public String getTypeEvaluation() { return typeEvaluation; }
+    public void setTypeEvaluation(String typeEvaluation) { this.typeEvaluation = typeEvaluation; }
+    public Double getMoyenne() { return moyenne; }
+    public void setMoyenne(Double moyenne) { this.moyenne = moyenne; }
+    public Integer getNombreNotes() { return nombreNotes; }
+    public void setNombreNotes(Integer nombreNotes) { this.nombreNotes = nombreNotes; }
+    public Integer getRang() { return rang; }
+    public void setRang(Integer rang) { this.rang = rang; }
+    public Integer getEffectif() { return effectif; }
+    public void setEffectif(Integer effectif) { this.effectif = effectif; }
+    public Double getPercentile() { return percentile; }
+    public void setPercentile(Double percentile) { this.percentile = percentile; }
+}
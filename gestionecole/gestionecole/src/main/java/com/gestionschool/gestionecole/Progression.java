@@ -0,0 +1,9 @@
+package com.gestionschool.gestionecole;
+
+// Avancement d'un traitement long exécuté en job : faits sur total, appelé au fil du calcul
+@FunctionalInterface
+public interface Progression {
+    Progression AUCUNE = (faits, total) -> {};
+
+    void avancer(long faits, long total);
+}
@@ -0,0 +1,26 @@
+package com.gestionschool.gestionecole;
+
+import java.util.List;
+
+// Plan retenu par MongoDB pour une requête d'un repository
+public class RapportExplain {
+    private String requete;
+    private String collection;
+    private String filtre;
+    private List<String> etapes;
+    private List<String> index;
+    private boolean collscan;
+    // Getters et setters
+    public String getRequete() { return requete; }
+    public void setRequete(String requete) { this.requete = requete; }
+    public String getCollection() { return collection; }
+    public void setCollection(String collection) { this.collection = collection; }
+    public String getFiltre() { return filtre; }
+    public void setFiltre(String filtre) { this.filtre = filtre; }
+    public List<String> getEtapes() { return etapes; }
+    public void setEtapes(List<String> etapes) { this.etapes = etapes; }
+    public List<String> getIndex() { return index; }
+    public void setIndex(List<String> index) { this.index = index; }
+    public boolean isCollscan() { return collscan; }
+    public void setCollscan(boolean collscan) { this.collscan = collscan; }
+}
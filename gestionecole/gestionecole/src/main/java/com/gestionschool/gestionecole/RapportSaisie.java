@@ -0,0 +1,65 @@
+package com.gestionschool.gestionecole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Résultat d'une saisie groupée : un statut par ligne, dans l'ordre de la requête
+public class RapportSaisie {
+    public static final String CREEE = "CREEE";
+    public static final String MODIFIEE = "MODIFIEE";
+    public static final String INCHANGEE = "INCHANGEE";
+    public static final String REJETEE = "REJETEE";
+
+    private int creees;
+    private int modifiees;
+    private int inchangees;
+    private int rejetees;
+    private List<Ligne> lignes = new ArrayList<>();
+
+    public Ligne ajouter(String matriculeEleve) {
+        Ligne ligne = new Ligne();
+        ligne.setMatriculeEleve(matriculeEleve);
+        lignes.add(ligne);
+        return ligne;
+    }
+
+    public void compter() {
+        creees = modifiees = inchangees = rejetees = 0;
+        for (Ligne ligne : lignes) {
+            switch (ligne.getStatut()) {
+                case CREEE -> creees++;
+                case MODIFIEE -> modifiees++;
+                case INCHANGEE -> inchangees++;
+                default -> rejetees++;
+            }
+        }
+    }
+
+    // Getters et setters
+    public int getCreees() { return creees; }
+    public void setCreees(int creees) { this.creees = creees; }
+    public int getModifiees() { return modifiees; }
+    public void setModifiees(int modifiees) { this.modifiees = modifiees; }
+    public int getInchangees() { return inchangees; }
+    public void setInchangees(int inchangees) { this.inchangees = inchangees; }
+    public int getRejetees() { return rejetees; }
+    public void setRejetees(int rejetees) { this.rejetees = rejetees; }
+    public List<Ligne> getLignes() { return lignes; }
+    public void setLignes(List<Ligne> lignes) { this.lignes = lignes; }
+
+    public static class Ligne {
+        private String matriculeEleve;
+        private String id;
+        private String statut;
+        private String message;
+        // Getters et setters
+        public String getMatriculeEleve() { return matriculeEleve; }
+        public void setMatriculeEleve(String matriculeEleve) { this.matriculeEleve = matriculeEleve; }
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getStatut() { return statut; }
+        public void setStatut(String statut) { this.statut = statut; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,35 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+// Lectures à forte volumétrie sur le driver réactif (profil "reactif").
+// En application/x-ndjson les documents sont écrits au fur et à mesure, sans bloquer de thread pendant les E/S MongoDB.
+@RestController
+@RequestMapping("/api/reactif")
+@Profile("reactif")
+public class ReactifController {
+    @Autowired
+    private EleveReactifRepository eleveReactifRepository;
+    @Autowired
+    private NoteReactifRepository noteReactifRepository;
+
+    @GetMapping("/eleves")
+    public Flux<Eleve> getAllEleves() {
+        return eleveReactifRepository.findAll();
+    }
+    @GetMapping("/eleves/classe/{nomClasse}")
+    public Flux<Eleve> getElevesByClasse(@PathVariable String nomClasse) {
+        return eleveReactifRepository.findByNomClasse(nomClasse);
+    }
+    @GetMapping("/notes/classe/{classe}")
+    public Flux<Note> getNotesByClasse(@PathVariable String classe) {
+        return noteReactifRepository.findByClasse(classe);
+    }
+    @GetMapping("/notes/eleve/{matricule}")
+    public Flux<Note> getNotesByEleve(@PathVariable String matricule) {
+        return noteReactifRepository.findByMatriculeEleve(matricule);
+    }
+}
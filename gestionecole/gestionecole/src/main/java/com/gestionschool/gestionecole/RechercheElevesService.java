@@ -0,0 +1,114 @@
+package com.gestionschool.gestionecole;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Recherche à la frappe : index construit au démarrage (en arrière-plan) puis tenu à jour par EleveService
+@Service
+public class RechercheElevesService {
+    public static final int RESULTATS_PAR_DEFAUT = 10;
+    public static final int RESULTATS_MAX = 50;
+    private static final Logger log = LoggerFactory.getLogger(RechercheElevesService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private VersionsCollections versionsCollections;
+
+    @Value("${gestionecole.recherche.construction-auto:true}")
+    private boolean constructionAuto;
+
+    private volatile IndexEleves index;
+    private volatile boolean enConstruction;
+    // Élèves modifiés pendant une construction, relus une fois le nouvel index en place
+    private final Set<String> modifiesPendantConstruction = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construireAuDemarrage() {
+        if (constructionAuto) {
+            reconstruireEnArrierePlan();
+        }
+    }
+
+    public void reconstruireEnArrierePlan() {
+        Thread thread = new Thread(this::reconstruire, "index-recherche-eleves");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public List<Eleve> rechercher(String q, Integer k) {
+        int nombre = k == null ? RESULTATS_PAR_DEFAUT : Math.max(1, Math.min(k, RESULTATS_MAX));
+        return index().rechercher(q, nombre);
+    }
+
+    public void eleveEnregistre(Eleve eleve) {
+        if (enConstruction) {
+            modifiesPendantConstruction.add(eleve.getId());
+        }
+        IndexEleves courant = index;
+        if (courant != null) {
+            courant.ajouter(eleve);
+        }
+    }
+
+    public void eleveSupprime(String id) {
+        if (enConstruction) {
+            modifiesPendantConstruction.add(id);
+        }
+        IndexEleves courant = index;
+        if (courant != null) {
+            courant.supprimer(id);
+        }
+    }
+
+    public synchronized void reconstruire() {
+        enConstruction = true;
+        try {
+            long debut = System.currentTimeMillis();
+            IndexEleves nouveau = new IndexEleves();
+            try (Stream<Eleve> eleves = mongoTemplate.stream(new Query(), Eleve.class)) {
+                eleves.forEach(nouveau::ajouter);
+            }
+            index = nouveau;
+            for (String id : modifiesPendantConstruction) {
+                modifiesPendantConstruction.remove(id);
+                eleveRepository.findById(id).ifPresentOrElse(nouveau::ajouter, () -> nouveau.supprimer(id));
+            }
+            // Une recherche servie pendant la construction (après un import) avait déjà l'ETag de la nouvelle version des élèves
+            versionsCollections.incrementer("eleves");
+            log.info("Index de recherche des élèves construit : {} élèves en {} ms", nouveau.taille(), System.currentTimeMillis() - debut);
+        } catch (RuntimeException e) {
+            log.warn("Index de recherche des élèves non construit : {}", e.getMessage());
+        } finally {
+            enConstruction = false;
+        }
+    }
+
+    // Une recherche avant la fin de la construction attend l'index : sous le moniteur de reconstruire(), elle ne relance
+    // une construction que si aucune autre ne l'a produit entre-temps (les recherches en attente réutilisent le même)
+    private IndexEleves index() {
+        IndexEleves courant = index;
+        if (courant == null) {
+            synchronized (this) {
+                if (index == null) {
+                    reconstruire();
+                }
+                courant = index;
+            }
+        }
+        return courant == null ? new IndexEleves() : courant;
+    }
+}
@@ -0,0 +1,23 @@
+package com.gestionschool.gestionecole;
+
+import java.util.List;
+
+// Toutes les notes d'une évaluation : seuls matriculeEleve, valeur et observation sont lus dans chaque ligne
+public class SaisieEvaluation {
+    private String classe;
+    private String nomCours;
+    private String typeEvaluation;
+    private String dateEvaluation;
+    private List<Note> notes;
+    // Getters et setters
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public String getNomCours() { return nomCours; }
+    public void setNomCours(String nomCours) { this.nomCours = nomCours; }
+    public String getTypeEvaluation() { return typeEvaluation; }
+    public void setTypeEvaluation(String typeEvaluation) { this.typeEvaluation = typeEvaluation; }
+    public String getDateEvaluation() { return dateEvaluation; }
+    public void setDateEvaluation(String dateEvaluation) { this.dateEvaluation = dateEvaluation; }
+    public List<Note> getNotes() { return notes; }
+    public void setNotes(List<Note> notes) { this.notes = notes; }
+}
@@ -1,10 +1,16 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "scolarites")
+@CompoundIndex(name = "eleve_annee_mois", def = "{ 'matriculeEleve': 1, 'annee': 1, 'mois': 1 }")
+@CompoundIndex(name = "classe_annee_mois", def = "{ 'nomClasse': 1, 'annee': 1, 'mois': 1 }")
 public class Scolarite {
+    public static final String STATUT_PAYE = "Payé";
+
     @Id
     private String id;
     private String matriculeEleve;
@@ -17,6 +23,7 @@ public class Scolarite {
     private Double montantPaye;
     private String datePaiement;
     private String modePaiement;
+    @Indexed
     private String statut;
     private String observation;
     
@@ -30,7 +37,7 @@ public class Scolarite {
         this.nomEleve = nomEleve;
         this.nomClasse = nomClasse;
         this.montantAnnuel = montantAnnuel;
-        this.montantMensuel = montantAnnuel / 12.0;
+        this.montantMensuel = mensualite(montantAnnuel);
         this.mois = mois;
         this.annee = annee;
         this.montantPaye = montantPaye;
@@ -55,7 +62,7 @@ public class Scolarite {
     public Double getMontantAnnuel() { return montantAnnuel; }
     public void setMontantAnnuel(Double montantAnnuel) { 
         this.montantAnnuel = montantAnnuel; 
-        this.montantMensuel = montantAnnuel / 12.0;
+        this.montantMensuel = mensualite(montantAnnuel);
     }
     
     public Double getMontantMensuel() { return montantMensuel; }
@@ -81,4 +88,9 @@ public class Scolarite {
     
     public String getObservation() { return observation; }
     public void setObservation(String observation) { this.observation = observation; }
-} 
\ No newline at end of file
+    
+    // Mensualité arrondie au centime exact
+    private static Double mensualite(Double montantAnnuel) {
+        return montantAnnuel == null ? null : Montant.valeur(Montant.mensualite(Montant.centimes(montantAnnuel)));
+    }
+}
\ No newline at end of file
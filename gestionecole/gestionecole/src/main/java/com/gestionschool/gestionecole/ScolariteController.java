@@ -1,23 +1,36 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/scolarites")
 public class ScolariteController {
     @Autowired
     private ScolariteService scolariteService;
+    @Autowired
+    private PatchService patchService;
 
     @GetMapping
     public List<Scolarite> getAllScolarites() {
         return scolariteService.getAllScolarites();
     }
+    @GetMapping(params = { "annee", "!limit" })
+    public List<Scolarite> getScolaritesAnnee(@RequestParam Integer annee) {
+        return scolariteService.getScolaritesAnnee(annee);
+    }
+    @GetMapping(params = "limit")
+    public PageResult getScolaritesPage(PageQuery pageQuery, @RequestParam(required = false) Integer annee) {
+        return scolariteService.getScolaritesPage(pageQuery, annee);
+    }
     @GetMapping("/{id}")
-    public Optional<Scolarite> getScolariteById(@PathVariable String id) {
-        return scolariteService.getScolariteById(id);
+    public ResponseEntity<Scolarite> getScolariteById(@PathVariable String id) {
+        return patchService.lecture(scolariteService.getScolariteById(id));
     }
     @PostMapping
     public Scolarite createScolarite(@RequestBody Scolarite scolarite) {
@@ -28,6 +41,12 @@ public class ScolariteController {
         scolarite.setId(id);
         return scolariteService.saveScolarite(scolarite);
     }
+    @PatchMapping(value = "/{id}", consumes = { PatchService.MERGE_PATCH, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Scolarite> patchScolarite(@PathVariable String id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Scolarite scolarite = scolariteService.patchScolarite(id, patch, ifMatch);
+        return ResponseEntity.ok().eTag(patchService.etag(scolarite)).body(scolarite);
+    }
     @DeleteMapping("/{id}")
     public void deleteScolarite(@PathVariable String id) {
         scolariteService.deleteScolarite(id);
@@ -2,4 +2,6 @@ package com.gestionschool.gestionecole;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface ScolariteRepository extends MongoRepository<Scolarite, String> {} 
\ No newline at end of file
+public interface ScolariteRepository extends MongoRepository<Scolarite, String> {
+    long countByStatut(String statut);
+}
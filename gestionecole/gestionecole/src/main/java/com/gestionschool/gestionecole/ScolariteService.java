@@ -1,25 +1,122 @@
 package com.gestionschool.gestionecole;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class ScolariteService {
     @Autowired
     private ScolariteRepository scolariteRepository;
+    @Autowired
+    private PaginationService paginationService;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+    @Autowired
+    private PatchService patchService;
+    @Autowired
+    private SoldeScolariteService soldeScolariteService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ArchivageService archivageService;
 
     public List<Scolarite> getAllScolarites() {
         return scolariteRepository.findAll();
     }
+    // Scolarités d'une année de facturation, lues dans sa partition si elle est close
+    public List<Scolarite> getScolaritesAnnee(Integer annee) {
+        String cle = String.valueOf(annee);
+        return mongoTemplate.find(new Query(archivageService.criteres("scolarites", cle)), Scolarite.class,
+                archivageService.collection("scolarites", cle));
+    }
+    public PageResult getScolaritesPage(PageQuery pageQuery, Integer annee) {
+        if (annee == null) {
+            return paginationService.page(Scolarite.class, pageQuery);
+        }
+        String cle = String.valueOf(annee);
+        return paginationService.page(Scolarite.class, pageQuery, archivageService.criteres("scolarites", cle),
+                archivageService.collection("scolarites", cle));
+    }
     public Optional<Scolarite> getScolariteById(String id) {
         return scolariteRepository.findById(id);
     }
+    // L'ancienne version est celle que l'écriture a effectivement remplacée (findAndReplace la renvoie) :
+    // deux PUT simultanés ne comptent pas deux fois le même paiement dans les soldes et les statistiques
     public Scolarite saveScolarite(Scolarite scolarite) {
-        return scolariteRepository.save(scolarite);
+        verifierOuverte(scolarite);
+        Scolarite ancienne = null;
+        Scolarite saved;
+        // Écriture et compteurs sans reconstruction des statistiques entre les deux
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            if (scolarite.getId() == null) {
+                saved = scolariteRepository.save(scolarite);
+            } else {
+                ancienne = mongoTemplate.findAndReplace(Query.query(Criteria.where("_id").is(scolarite.getId())), scolarite,
+                        FindAndReplaceOptions.options().upsert());
+                saved = scolarite;
+            }
+            statistiquesService.scolariteEnregistree(ancienne, saved);
+        } finally {
+            verrou.unlock();
+        }
+        return enregistrer(ancienne, saved);
+    }
+    // Marquer un paiement ne renvoie que statut, montantPaye, datePaiement... au lieu de toute la scolarité
+    public Scolarite patchScolarite(String id, Map<String, Object> patch, String ifMatch) {
+        return patchService.modifier(Scolarite.class, id, patch, ifMatch,
+                (ancienne, nouvelle, ecriture) -> {
+                    verifierOuverte(nouvelle);
+                    Scolarite saved;
+                    Lock verrou = statistiquesService.verrouEcriture();
+                    verrou.lock();
+                    try {
+                        saved = ecriture.get();
+                        statistiquesService.scolariteEnregistree(ancienne, saved);
+                    } finally {
+                        verrou.unlock();
+                    }
+                    return enregistrer(ancienne, saved);
+                });
     }
     public void deleteScolarite(String id) {
-        scolariteRepository.deleteById(id);
+        Scolarite supprimee;
+        Lock verrou = statistiquesService.verrouEcriture();
+        verrou.lock();
+        try {
+            supprimee = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Scolarite.class);
+            if (supprimee != null) {
+                statistiquesService.scolariteSupprimee(supprimee);
+            }
+        } finally {
+            verrou.unlock();
+        }
+        Optional.ofNullable(supprimee).ifPresent(ancienne -> {
+            soldeScolariteService.paiementSupprime(ancienne);
+            versionsCollections.incrementer("scolarites");
+        });
+    }
+
+    private void verifierOuverte(Scolarite scolarite) {
+        if (scolarite.getAnnee() != null) {
+            archivageService.verifierOuverte("scolarites", String.valueOf(scolarite.getAnnee()));
+        }
+    }
+
+    private Scolarite enregistrer(Scolarite ancienne, Scolarite saved) {
+        soldeScolariteService.paiementEnregistre(ancienne, saved);
+        versionsCollections.incrementer("scolarites");
+        return saved;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// Un appel complet : la liste des élèves (ordre fixe) et un bit de présence par position
+@Document(collection = "seances_emargement")
+@CompoundIndex(name = "cours_classe_date", def = "{ 'coursId': 1, 'classe': 1, 'date': 1 }", unique = true)
+public class SeanceEmargement {
+    @Id
+    private String id;
+    @Version
+    private Long version;
+    private String coursId;
+    private String classe;
+    private String date;
+    @Indexed
+    private List<String> eleveIds = new ArrayList<>();
+    private byte[] presences = new byte[0];
+    private int nombrePresents;
+
+    public int position(String eleveId) {
+        return eleveIds.indexOf(eleveId);
+    }
+
+    public boolean estPresent(int position) {
+        return BitSet.valueOf(presences).get(position);
+    }
+
+    // Getters et setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public String getCoursId() { return coursId; }
+    public void setCoursId(String coursId) { this.coursId = coursId; }
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+    public List<String> getEleveIds() { return eleveIds; }
+    public void setEleveIds(List<String> eleveIds) { this.eleveIds = eleveIds; }
+    public byte[] getPresences() { return presences; }
+    public void setPresences(byte[] presences) { this.presences = presences; }
+    public int getNombrePresents() { return nombrePresents; }
+    public void setNombrePresents(int nombrePresents) { this.nombrePresents = nombrePresents; }
+}
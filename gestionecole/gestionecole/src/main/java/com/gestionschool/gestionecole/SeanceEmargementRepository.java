@@ -0,0 +1,11 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface SeanceEmargementRepository extends MongoRepository<SeanceEmargement, String> {
+    Optional<SeanceEmargement> findByCoursIdAndClasseAndDate(String coursId, String classe, String date);
+
+    List<SeanceEmargement> findByEleveIds(String eleveId);
+}
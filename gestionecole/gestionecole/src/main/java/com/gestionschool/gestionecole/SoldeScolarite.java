@@ -0,0 +1,59 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Map;
+
+// Solde matérialisé d'un élève pour une année, montants en centimes, mis à jour à chaque paiement
+@Document(collection = "soldes_scolarite")
+@CompoundIndex(name = "annee_classe_reste", def = "{ 'annee': 1, 'nomClasse': 1, 'resteDuCentimes': -1 }")
+@CompoundIndex(name = "annee_reste", def = "{ 'annee': 1, 'resteDuCentimes': -1 }")
+public class SoldeScolarite {
+    @Id
+    private String id;
+    @Indexed
+    private String matriculeEleve;
+    private String nomEleve;
+    private String nomClasse;
+    private Integer annee;
+    private long annuelCentimes;
+    private long mensualiteCentimes;
+    private long payeCentimes;
+    private long resteDuCentimes;
+    private long nombrePaiements;
+    private Map<String, Long> payeParMois;
+    // Horodatage (ms) de la dernière écriture : recalculer() retire les soldes qu'il n'a pas réécrits
+    private long miseAJour;
+
+    public static String id(String matriculeEleve, Integer annee) {
+        return matriculeEleve + ":" + annee;
+    }
+
+    // Getters et setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getMatriculeEleve() { return matriculeEleve; }
+    public void setMatriculeEleve(String matriculeEleve) { this.matriculeEleve = matriculeEleve; }
+    public String getNomEleve() { return nomEleve; }
+    public void setNomEleve(String nomEleve) { this.nomEleve = nomEleve; }
+    public String getNomClasse() { return nomClasse; }
+    public void setNomClasse(String nomClasse) { this.nomClasse = nomClasse; }
+    public Integer getAnnee() { return annee; }
+    public void setAnnee(Integer annee) { this.annee = annee; }
+    public long getAnnuelCentimes() { return annuelCentimes; }
+    public void setAnnuelCentimes(long annuelCentimes) { this.annuelCentimes = annuelCentimes; }
+    public long getMensualiteCentimes() { return mensualiteCentimes; }
+    public void setMensualiteCentimes(long mensualiteCentimes) { this.mensualiteCentimes = mensualiteCentimes; }
+    public long getPayeCentimes() { return payeCentimes; }
+    public void setPayeCentimes(long payeCentimes) { this.payeCentimes = payeCentimes; }
+    public long getResteDuCentimes() { return resteDuCentimes; }
+    public void setResteDuCentimes(long resteDuCentimes) { this.resteDuCentimes = resteDuCentimes; }
+    public long getNombrePaiements() { return nombrePaiements; }
+    public void setNombrePaiements(long nombrePaiements) { this.nombrePaiements = nombrePaiements; }
+    public Map<String, Long> getPayeParMois() { return payeParMois; }
+    public void setPayeParMois(Map<String, Long> payeParMois) { this.payeParMois = payeParMois; }
+    public long getMiseAJour() { return miseAJour; }
+    public void setMiseAJour(long miseAJour) { this.miseAJour = miseAJour; }
+}
@@ -0,0 +1,30 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/scolarites")
+public class SoldeScolariteController {
+    @Autowired
+    private SoldeScolariteService soldeScolariteService;
+
+    @GetMapping("/soldes/{matricule}")
+    public List<SoldeScolarite> getSoldesEleve(@PathVariable String matricule) {
+        return soldeScolariteService.getSoldesEleve(matricule);
+    }
+    @GetMapping("/impayes")
+    public List<SoldeScolarite> getImpayes(@RequestParam Integer annee, @RequestParam(required = false) String classe) {
+        return soldeScolariteService.getImpayes(annee, classe);
+    }
+    @GetMapping("/impayes/mois/{mois}")
+    public List<SoldeScolarite> getImpayesDuMois(@PathVariable String mois, @RequestParam Integer annee,
+                                                 @RequestParam(required = false) String classe) {
+        return soldeScolariteService.getImpayesDuMois(annee, mois, classe);
+    }
+    @PostMapping("/soldes/recalcul")
+    public long recalculer() {
+        return soldeScolariteService.recalculer();
+    }
+}
@@ -0,0 +1,13 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.List;
+
+public interface SoldeScolariteRepository extends MongoRepository<SoldeScolarite, String> {
+    List<SoldeScolarite> findByMatriculeEleve(String matriculeEleve, Sort sort);
+
+    List<SoldeScolarite> findByAnneeAndResteDuCentimesGreaterThan(Integer annee, long reste, Sort sort);
+
+    List<SoldeScolarite> findByAnneeAndNomClasseAndResteDuCentimesGreaterThan(Integer annee, String nomClasse, long reste, Sort sort);
+}
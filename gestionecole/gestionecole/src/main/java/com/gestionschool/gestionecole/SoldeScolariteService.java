@@ -0,0 +1,221 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// Soldes de scolarité matérialisés : un document par élève et par année, mis à jour par une seule écriture atomique par paiement
+@Service
+public class SoldeScolariteService {
+    private static final String MOIS_INCONNU = "inconnu";
+    static final Sort PAR_RESTE_DU = Sort.by(Sort.Direction.DESC, "resteDuCentimes").and(Sort.by("matriculeEleve"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private SoldeScolariteRepository soldeScolariteRepository;
+    @Autowired
+    private ArchivageService archivageService;
+    @Autowired
+    private VersionsCollections versionsCollections;
+
+    public List<SoldeScolarite> getSoldesEleve(String matriculeEleve) {
+        return soldeScolariteRepository.findByMatriculeEleve(matriculeEleve, Sort.by("annee"));
+    }
+
+    public List<SoldeScolarite> getImpayes(Integer annee, String nomClasse) {
+        if (nomClasse == null) {
+            return soldeScolariteRepository.findByAnneeAndResteDuCentimesGreaterThan(annee, 0, PAR_RESTE_DU);
+        }
+        return soldeScolariteRepository.findByAnneeAndNomClasseAndResteDuCentimesGreaterThan(annee, nomClasse, 0, PAR_RESTE_DU);
+    }
+
+    // Élèves dont la mensualité du mois n'est pas entièrement réglée
+    public List<SoldeScolarite> getImpayesDuMois(Integer annee, String mois, String nomClasse) {
+        Criteria criteria = Criteria.where("annee").is(annee);
+        if (nomClasse != null) {
+            criteria = criteria.and("nomClasse").is(nomClasse);
+        }
+        criteria = criteria.andOperator(Criteria.expr(ComparisonOperators
+                .valueOf(ConditionalOperators.ifNull("payeParMois." + nomChamp(mois)).then(0))
+                .lessThan("mensualiteCentimes")));
+        return mongoTemplate.find(Query.query(criteria).with(PAR_RESTE_DU), SoldeScolarite.class);
+    }
+
+    // Job IMPAYES : soldes restant dus regroupés par classe, avec les mois dont la mensualité n'est pas entièrement réglée
+    public Map<String, Object> rapportImpayes(Integer annee, String nomClasse, Progression progression) {
+        List<SoldeScolarite> impayes = getImpayes(annee, nomClasse);
+        Map<String, List<Map<String, Object>>> parClasse = new TreeMap<>();
+        Map<String, Long> restesParClasse = new TreeMap<>();
+        long total = 0;
+        for (int i = 0; i < impayes.size(); i++) {
+            SoldeScolarite solde = impayes.get(i);
+            String classe = solde.getNomClasse() == null ? "" : solde.getNomClasse();
+            List<String> moisImpayes = new ArrayList<>();
+            if (solde.getPayeParMois() != null) {
+                solde.getPayeParMois().forEach((mois, paye) -> {
+                    if (!MOIS_INCONNU.equals(mois) && paye != null && paye < solde.getMensualiteCentimes()) {
+                        moisImpayes.add(mois);
+                    }
+                });
+            }
+            Map<String, Object> ligne = new LinkedHashMap<>();
+            ligne.put("matriculeEleve", solde.getMatriculeEleve());
+            ligne.put("nomEleve", solde.getNomEleve());
+            ligne.put("annuelCentimes", solde.getAnnuelCentimes());
+            ligne.put("payeCentimes", solde.getPayeCentimes());
+            ligne.put("resteDuCentimes", solde.getResteDuCentimes());
+            ligne.put("moisPartiellementPayes", moisImpayes);
+            parClasse.computeIfAbsent(classe, c -> new ArrayList<>()).add(ligne);
+            restesParClasse.merge(classe, solde.getResteDuCentimes(), Long::sum);
+            total += solde.getResteDuCentimes();
+            progression.avancer(i + 1, impayes.size());
+        }
+        List<Map<String, Object>> classes = new ArrayList<>();
+        parClasse.forEach((classe, eleves) -> {
+            Map<String, Object> ligne = new LinkedHashMap<>();
+            ligne.put("nomClasse", classe);
+            ligne.put("resteDuCentimes", restesParClasse.get(classe));
+            ligne.put("eleves", eleves);
+            classes.add(ligne);
+        });
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("annee", annee);
+        rapport.put("nomClasse", nomClasse);
+        rapport.put("elevesEnRetard", impayes.size());
+        rapport.put("resteDuCentimes", total);
+        rapport.put("classes", classes);
+        return rapport;
+    }
+
+    public void paiementEnregistre(Scolarite ancienne, Scolarite nouvelle) {
+        if (ancienne != null && memeSolde(ancienne, nouvelle) && Objects.equals(mois(ancienne), mois(nouvelle))) {
+            appliquer(nouvelle, Montant.centimes(nouvelle.getMontantPaye()) - Montant.centimes(ancienne.getMontantPaye()), 0);
+            return;
+        }
+        if (ancienne != null) {
+            paiementSupprime(ancienne);
+        }
+        appliquer(nouvelle, Montant.centimes(nouvelle.getMontantPaye()), 1);
+    }
+
+    public void paiementSupprime(Scolarite ancienne) {
+        if (ancienne.getMatriculeEleve() == null || ancienne.getAnnee() == null) {
+            return;
+        }
+        String champMois = "payeParMois." + mois(ancienne);
+        long paye = Montant.centimes(ancienne.getMontantPaye());
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("payeCentimes").toValue(ajouter("payeCentimes", -paye))
+                .set(champMois).toValue(ajouter(champMois, -paye))
+                .set("nombrePaiements").toValue(ajouter("nombrePaiements", -1))
+                .set("resteDuCentimes").toValue(ArithmeticOperators.valueOf("annuelCentimes").subtract("payeCentimes"))
+                .set("miseAJour").toValue(System.currentTimeMillis());
+        mongoTemplate.updateFirst(parId(ancienne), update, SoldeScolarite.class);
+        // Plus aucun paiement pour cet élève et cette année : pas de solde (sinon tout l'annuel resterait affiché comme impayé).
+        // Conditionnel : un paiement enregistré entre-temps garde le document
+        mongoTemplate.remove(parId(ancienne).addCriteria(Criteria.where("nombrePaiements").lte(0)), SoldeScolarite.class);
+    }
+
+    // Reconstruit les soldes à partir de l'historique des paiements (reprise des données existantes) ;
+    // ceux des années basculées en partition ne bougent plus et sont gardés tels quels.
+    // $merge remplace les soldes en place, puis seuls ceux qu'il n'a pas écrits (plus aucun paiement) sont retirés :
+    // les lectures ne voient jamais la collection vide. Un paiement enregistré pendant la reconstruction date son solde
+    // d'après le début de celle-ci, qui le garde
+    public long recalculer() {
+        List<Integer> closes = archivageService.anneesBasculees(ArchivageService.SCOLARITES).stream().map(Integer::valueOf).toList();
+        long debut = System.currentTimeMillis();
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("matriculeEleve", new Document("$type", "string"))
+                        .append("annee", new Document("$ne", null).append("$nin", closes))),
+                Document.parse("{ '$group': { '_id': { 'm': '$matriculeEleve', 'a': '$annee', 'mois': { '$ifNull': [ '$mois', '" + MOIS_INCONNU + "' ] } },"
+                        + " 'paye': { '$sum': { '$toLong': { '$round': [ { '$multiply': [ { '$ifNull': [ '$montantPaye', 0 ] }, 100 ] }, 0 ] } } },"
+                        + " 'nombre': { '$sum': 1 }, 'annuel': { '$last': '$montantAnnuel' },"
+                        + " 'nomEleve': { '$last': '$nomEleve' }, 'nomClasse': { '$last': '$nomClasse' } } }"),
+                Document.parse("{ '$group': { '_id': { 'm': '$_id.m', 'a': '$_id.a' },"
+                        + " 'payeParMois': { '$push': { 'k': '$_id.mois', 'v': '$paye' } }, 'payeCentimes': { '$sum': '$paye' },"
+                        + " 'nombrePaiements': { '$sum': '$nombre' }, 'annuel': { '$last': '$annuel' },"
+                        + " 'nomEleve': { '$last': '$nomEleve' }, 'nomClasse': { '$last': '$nomClasse' } } }"),
+                Document.parse("{ '$project': { '_id': { '$concat': [ '$_id.m', ':', { '$toString': '$_id.a' } ] },"
+                        + " 'matriculeEleve': '$_id.m', 'annee': '$_id.a', 'nomEleve': 1, 'nomClasse': 1,"
+                        + " 'payeParMois': { '$arrayToObject': '$payeParMois' }, 'payeCentimes': 1, 'nombrePaiements': 1,"
+                        + " 'annuelCentimes': { '$toLong': { '$round': [ { '$multiply': [ { '$ifNull': [ '$annuel', 0 ] }, 100 ] }, 0 ] } } } }"),
+                Document.parse("{ '$set': { 'mensualiteCentimes': { '$toLong': { '$round': [ { '$divide': [ '$annuelCentimes', 12 ] }, 0 ] } },"
+                        + " 'resteDuCentimes': { '$subtract': [ '$annuelCentimes', '$payeCentimes' ] },"
+                        + " 'miseAJour': { '$literal': " + debut + " } } }"),
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(SoldeScolarite.class)).append("on", "_id")
+                        .append("whenMatched", "replace").append("whenNotMatched", "insert")));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Scolarite.class))
+                .aggregate(pipeline).allowDiskUse(true).toCollection();
+        mongoTemplate.remove(Query.query(Criteria.where("annee").nin(closes)
+                .orOperator(Criteria.where("miseAJour").lt(debut), Criteria.where("miseAJour").exists(false))), SoldeScolarite.class);
+        versionsCollections.incrementer("scolarites");
+        return soldeScolariteRepository.count();
+    }
+
+    private void appliquer(Scolarite scolarite, long deltaPaye, long deltaNombre) {
+        if (scolarite.getMatriculeEleve() == null || scolarite.getAnnee() == null) {
+            return;
+        }
+        String champMois = "payeParMois." + mois(scolarite);
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("matriculeEleve").toValue(scolarite.getMatriculeEleve())
+                .set("annee").toValue(scolarite.getAnnee());
+        if (scolarite.getNomEleve() != null) {
+            update.set("nomEleve").toValue(scolarite.getNomEleve());
+        }
+        if (scolarite.getNomClasse() != null) {
+            update.set("nomClasse").toValue(scolarite.getNomClasse());
+        }
+        if (scolarite.getMontantAnnuel() != null) {
+            long annuel = Montant.centimes(scolarite.getMontantAnnuel());
+            update.set("annuelCentimes").toValue(annuel)
+                    .set("mensualiteCentimes").toValue(Montant.mensualite(annuel));
+        } else {
+            update.set("annuelCentimes").toValue(ajouter("annuelCentimes", 0))
+                    .set("mensualiteCentimes").toValue(ajouter("mensualiteCentimes", 0));
+        }
+        update.set("payeCentimes").toValue(ajouter("payeCentimes", deltaPaye))
+                .set(champMois).toValue(ajouter(champMois, deltaPaye))
+                .set("nombrePaiements").toValue(ajouter("nombrePaiements", deltaNombre))
+                .set("resteDuCentimes").toValue(ArithmeticOperators.valueOf("annuelCentimes").subtract("payeCentimes"))
+                .set("miseAJour").toValue(System.currentTimeMillis());
+        mongoTemplate.findAndModify(parId(scolarite), update, FindAndModifyOptions.options().upsert(true), SoldeScolarite.class);
+    }
+
+    private static ArithmeticOperators.Add ajouter(String champ, long delta) {
+        return ArithmeticOperators.valueOf(ConditionalOperators.ifNull(champ).then(0L)).add(delta);
+    }
+
+    private static Query parId(Scolarite scolarite) {
+        return Query.query(Criteria.where("_id").is(SoldeScolarite.id(scolarite.getMatriculeEleve(), scolarite.getAnnee())));
+    }
+
+    private static boolean memeSolde(Scolarite a, Scolarite b) {
+        return Objects.equals(a.getMatriculeEleve(), b.getMatriculeEleve()) && Objects.equals(a.getAnnee(), b.getAnnee());
+    }
+
+    private static String mois(Scolarite scolarite) {
+        return scolarite.getMois() == null || scolarite.getMois().isBlank() ? MOIS_INCONNU : nomChamp(scolarite.getMois());
+    }
+
+    // Le mois sert de nom de champ : pas de '.' ni de '$'
+    private static String nomChamp(String mois) {
+        return mois.trim().replace('.', '_').replace('$', '_');
+    }
+}
@@ -0,0 +1,61 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Compteurs du tableau de bord, tenus à jour à chaque enregistrement/suppression (document unique)
+@Document(collection = "statistiques")
+public class Statistiques {
+    public static final String ID = "ecole";
+
+    @Id
+    private String id;
+    private boolean initialise;
+    private long eleves;
+    private long classes;
+    private long enseignants;
+    private long cours;
+    private long notes;
+    private long emploisDuTemps;
+    private long emargements;
+    private long emargementsPresents;
+    private long scolarites;
+    private long scolaritesPayees;
+    private long telephones;
+    @Transient
+    private double tauxPresence;
+    @Transient
+    private double tauxPaiement;
+    // Getters et setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public boolean isInitialise() { return initialise; }
+    public void setInitialise(boolean initialise) { this.initialise = initialise; }
+    public long getEleves() { return eleves; }
+    public void setEleves(long eleves) { this.eleves = eleves; }
+    public long getClasses() { return classes; }
+    public void setClasses(long classes) { this.classes = classes; }
+    public long getEnseignants() { return enseignants; }
+    public void setEnseignants(long enseignants) { this.enseignants = enseignants; }
+    public long getCours() { return cours; }
+    public void setCours(long cours) { this.cours = cours; }
+    public long getNotes() { return notes; }
+    public void setNotes(long notes) { this.notes = notes; }
+    public long getEmploisDuTemps() { return emploisDuTemps; }
+    public void setEmploisDuTemps(long emploisDuTemps) { this.emploisDuTemps = emploisDuTemps; }
+    public long getEmargements() { return emargements; }
+    public void setEmargements(long emargements) { this.emargements = emargements; }
+    public long getEmargementsPresents() { return emargementsPresents; }
+    public void setEmargementsPresents(long emargementsPresents) { this.emargementsPresents = emargementsPresents; }
+    public long getScolarites() { return scolarites; }
+    public void setScolarites(long scolarites) { this.scolarites = scolarites; }
+    public long getScolaritesPayees() { return scolaritesPayees; }
+    public void setScolaritesPayees(long scolaritesPayees) { this.scolaritesPayees = scolaritesPayees; }
+    public long getTelephones() { return telephones; }
+    public void setTelephones(long telephones) { this.telephones = telephones; }
+    public double getTauxPresence() { return tauxPresence; }
+    public void setTauxPresence(double tauxPresence) { this.tauxPresence = tauxPresence; }
+    public double getTauxPaiement() { return tauxPaiement; }
+    public void setTauxPaiement(double tauxPaiement) { this.tauxPaiement = tauxPaiement; }
+}
@@ -0,0 +1,20 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/statistics")
+public class StatistiquesController {
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @GetMapping
+    public Statistiques getStatistiques() {
+        return statistiquesService.getStatistiques();
+    }
+    @PostMapping("/recalcul")
+    public Statistiques recalculer() {
+        return statistiquesService.recalculer();
+    }
+}
@@ -0,0 +1,48 @@
+package com.gestionschool.gestionecole;
+
+// Résumé d'une distribution de notes (ou de moyennes) : histogramme en 20 tranches d'un point
+public class StatistiquesDistribution {
+    private String classe;
+    private String nomCours;
+    private String periode;
+    private String typeEvaluation;
+    private String dateEvaluation;
+    private int effectif;
+    private Double moyenne;
+    private Double ecartType;
+    private Double min;
+    private Double premierQuartile;
+    private Double mediane;
+    private Double troisiemeQuartile;
+    private Double max;
+    private int[] histogramme;
+    // Getters et setters
+    public String getClasse() { return classe; }
+    public void setClasse(String classe) { this.classe = classe; }
+    public String getNomCours() { return nomCours; }
+    public void setNomCours(String nomCours) { this.nomCours = nomCours; }
+    public String getPeriode() { return periode; }
+    public void setPeriode(String periode) { this.periode = periode; }
+    public String getTypeEvaluation() { return typeEvaluation; }
+    public void setTypeEvaluation(String typeEvaluation) { this.typeEvaluation = typeEvaluation; }
+    public String getDateEvaluation() { return dateEvaluation; }
+    public void setDateEvaluation(String dateEvaluation) { this.dateEvaluation = dateEvaluation; }
+    public int getEffectif() { return effectif; }
+    public void setEffectif(int effectif) { this.effectif = effectif; }
+    public Double getMoyenne() { return moyenne; }
+    public void setMoyenne(Double moyenne) { this.moyenne = moyenne; }
+    public Double getEcartType() { return ecartType; }
+    public void setEcartType(Double ecartType) { this.ecartType = ecartType; }
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+    public Double getPremierQuartile() { return premierQuartile; }
+    public void setPremierQuartile(Double premierQuartile) { this.premierQuartile = premierQuartile; }
+    public Double getMediane() { return mediane; }
+    public void setMediane(Double mediane) { this.mediane = mediane; }
+    public Double getTroisiemeQuartile() { return troisiemeQuartile; }
+    public void setTroisiemeQuartile(Double troisiemeQuartile) { this.troisiemeQuartile = troisiemeQuartile; }
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+    public int[] getHistogramme() { return histogramme; }
+    public void setHistogramme(int[] histogramme) { this.histogramme = histogramme; }
+}
@@ -0,0 +1,5 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface StatistiquesRepository extends MongoRepository<Statistiques, String> {}
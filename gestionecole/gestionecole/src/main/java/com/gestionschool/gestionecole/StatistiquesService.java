@@ -0,0 +1,231 @@
+package com.gestionschool.gestionecole;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class StatistiquesService {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private StatistiquesRepository statistiquesRepository;
+    @Autowired
+    private EleveRepository eleveRepository;
+    @Autowired
+    private ClassesRepository classesRepository;
+    @Autowired
+    private EnseignantRepository enseignantRepository;
+    @Autowired
+    private CoursRepository coursRepository;
+    @Autowired
+    private NoteRepository noteRepository;
+    @Autowired
+    private EmploiDuTempsRepository emploiDuTempsRepository;
+    @Autowired
+    private EmargementRepository emargementRepository;
+    @Autowired
+    private ScolariteRepository scolariteRepository;
+
+    // Les compteurs sont modifiés sous le verrou partagé et recalculer() prend le verrou exclusif : aucun $inc ne tombe
+    // entre la lecture des collections et l'écriture du résultat ($out des téléphones, save des compteurs), où il serait perdu
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    // Lecture d'un seul document ; les compteurs ne sont recalculés qu'à la première utilisation
+    public Statistiques getStatistiques() {
+        Statistiques statistiques = statistiquesRepository.findById(Statistiques.ID)
+                .filter(Statistiques::isInitialise)
+                .orElseGet(this::recalculer);
+        statistiques.setTauxPresence(taux(statistiques.getEmargementsPresents(), statistiques.getEmargements()));
+        statistiques.setTauxPaiement(taux(statistiques.getScolaritesPayees(), statistiques.getScolarites()));
+        return statistiques;
+    }
+
+    // Verrou partagé que chaque service tient de l'écriture d'un document jusqu'à la mise à jour de ses compteurs :
+    // une reconstruction ne peut ni compter le document puis recevoir son $inc, ni écraser ce $inc
+    public Lock verrouEcriture() {
+        return verrou.readLock();
+    }
+
+    // Reconstruit tous les compteurs à partir des collections (resynchronisation), écritures des compteurs suspendues
+    public Statistiques recalculer() {
+        verrou.writeLock().lock();
+        try {
+            return reconstruire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private Statistiques reconstruire() {
+        mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("telephone").type(JsonSchemaObject.Type.STRING)),
+                Aggregation.project().and(StringOperators.valueOf("telephone").trim()).as("telephone"),
+                Aggregation.match(Criteria.where("telephone").ne("")),
+                Aggregation.group("telephone").count().as("nombre"),
+                Aggregation.out("telephones")), "eleves", TelephoneParent.class);
+
+        Statistiques statistiques = new Statistiques();
+        statistiques.setId(Statistiques.ID);
+        statistiques.setInitialise(true);
+        statistiques.setEleves(eleveRepository.count());
+        statistiques.setClasses(classesRepository.count());
+        statistiques.setEnseignants(enseignantRepository.count());
+        statistiques.setCours(coursRepository.count());
+        statistiques.setNotes(noteRepository.count());
+        statistiques.setEmploisDuTemps(emploiDuTempsRepository.count());
+        Document seances = mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.group().sum(ArrayOperators.Size.lengthOfArray("eleveIds")).as("eleves").sum("nombrePresents").as("presents")),
+                SeanceEmargement.class, Document.class).getUniqueMappedResult();
+        statistiques.setEmargements(emargementRepository.count() + nombre(seances, "eleves"));
+        statistiques.setEmargementsPresents(emargementRepository.countByPresent(true) + nombre(seances, "presents"));
+        statistiques.setScolarites(scolariteRepository.count());
+        statistiques.setScolaritesPayees(scolariteRepository.countByStatut(Scolarite.STATUT_PAYE));
+        statistiques.setTelephones(mongoTemplate.count(new Query(), TelephoneParent.class));
+        return statistiquesRepository.save(statistiques);
+    }
+
+    // Après une écriture en masse : le prochain getStatistiques() recalcule tout
+    public void invalider() {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(Statistiques.ID)),
+                new Update().set("initialise", false), Statistiques.class);
+    }
+
+    public void compteurAjoute(String compteur, boolean nouveau) {
+        if (nouveau) {
+            incrementer(compteur, 1);
+        }
+    }
+
+    public void compteurAjoutes(String compteur, long nouveaux) {
+        incrementer(compteur, nouveaux);
+    }
+
+    public void compteurSupprime(String compteur) {
+        incrementer(compteur, -1);
+    }
+
+    public void eleveEnregistre(Eleve ancien, Eleve nouveau) {
+        compteurAjoute("eleves", ancien == null);
+        String ancienTelephone = ancien == null ? null : telephone(ancien);
+        String nouveauTelephone = telephone(nouveau);
+        if (!Objects.equals(ancienTelephone, nouveauTelephone)) {
+            retirerTelephone(ancienTelephone);
+            ajouterTelephone(nouveauTelephone);
+        }
+    }
+
+    public void eleveSupprime(Eleve ancien) {
+        compteurSupprime("eleves");
+        retirerTelephone(telephone(ancien));
+    }
+
+    public void emargementEnregistre(Emargement ancien, Emargement nouveau) {
+        compteurAjoute("emargements", ancien == null);
+        incrementer("emargementsPresents", present(nouveau) - (ancien == null ? 0 : present(ancien)));
+    }
+
+    public void emargementsEnregistres(long nouveaux, long deltaPresents) {
+        incrementer("emargements", nouveaux);
+        incrementer("emargementsPresents", deltaPresents);
+    }
+
+    public void emargementSupprime(Emargement ancien) {
+        compteurSupprime("emargements");
+        incrementer("emargementsPresents", -present(ancien));
+    }
+
+    public void scolariteEnregistree(Scolarite ancienne, Scolarite nouvelle) {
+        compteurAjoute("scolarites", ancienne == null);
+        incrementer("scolaritesPayees", payee(nouvelle) - (ancienne == null ? 0 : payee(ancienne)));
+    }
+
+    public void scolariteSupprimee(Scolarite ancienne) {
+        compteurSupprime("scolarites");
+        incrementer("scolaritesPayees", -payee(ancienne));
+    }
+
+    // Sans upsert : tant que le document n'est pas initialisé, le premier getStatistiques() le reconstruit
+    private void incrementer(String compteur, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        verrou.readLock().lock();
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(Statistiques.ID)),
+                    new Update().inc(compteur, delta), Statistiques.class);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void ajouterTelephone(String telephone) {
+        if (telephone == null) {
+            return;
+        }
+        verrou.readLock().lock();
+        try {
+            TelephoneParent parent = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(telephone)),
+                    new Update().inc("nombre", 1), FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    TelephoneParent.class);
+            if (parent != null && parent.getNombre() == 1) {
+                incrementer("telephones", 1);
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void retirerTelephone(String telephone) {
+        if (telephone == null) {
+            return;
+        }
+        verrou.readLock().lock();
+        try {
+            TelephoneParent parent = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(telephone)),
+                    new Update().inc("nombre", -1), FindAndModifyOptions.options().returnNew(true),
+                    TelephoneParent.class);
+            if (parent != null && parent.getNombre() <= 0) {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(telephone).and("nombre").lte(0)), TelephoneParent.class);
+                incrementer("telephones", -1);
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private static String telephone(Eleve eleve) {
+        if (eleve.getTelephone() == null || eleve.getTelephone().isBlank()) {
+            return null;
+        }
+        return eleve.getTelephone().trim();
+    }
+
+    private static int present(Emargement emargement) {
+        return Boolean.TRUE.equals(emargement.getPresent()) ? 1 : 0;
+    }
+
+    private static int payee(Scolarite scolarite) {
+        return Scolarite.STATUT_PAYE.equals(scolarite.getStatut()) ? 1 : 0;
+    }
+
+    private static long nombre(Document document, String champ) {
+        return document == null || document.get(champ) == null ? 0 : ((Number) document.get(champ)).longValue();
+    }
+
+    private static double taux(long valeur, long total) {
+        return total == 0 ? 0 : Math.round(valeur * 1000.0 / total) / 10.0;
+    }
+}
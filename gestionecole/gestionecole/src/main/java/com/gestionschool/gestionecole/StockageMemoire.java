@@ -0,0 +1,142 @@
+package com.gestionschool.gestionecole;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.ServerVersion;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Base du profil "memoire" : serveur MongoDB en mémoire sur un port local éphémère (BaseMemoire),
+// rechargé au démarrage depuis l'instantané puis réécrit à l'arrêt quand gestionecole.memoire.instantane est renseigné.
+// Instantané : gzip, une ligne JSON étendu { collection, document } par document ; les index sont recréés par IndexService.
+public class StockageMemoire {
+    private static final Logger log = LoggerFactory.getLogger(StockageMemoire.class);
+    private static final int TAILLE_LOT = 1000;
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final String base;
+    private final Path instantane;
+    private MongoServer serveur;
+    private ConnectionString connexion;
+
+    public StockageMemoire(String base, Path instantane) {
+        this.base = base;
+        this.instantane = instantane;
+    }
+
+    public void demarrer() {
+        serveur = new MongoServer(new BaseMemoire().version(ServerVersion.MONGO_5_0));
+        InetSocketAddress adresse = serveur.bind();
+        connexion = new ConnectionString("mongodb://" + adresse.getHostString() + ":" + adresse.getPort() + "/" + base);
+        log.info("Stockage en mémoire démarré sur {}", connexion);
+        if (instantane != null && Files.exists(instantane)) {
+            charger();
+        }
+    }
+
+    public void arreter() {
+        try {
+            if (instantane != null) {
+                sauvegarder();
+            }
+        } catch (RuntimeException e) {
+            log.error("Instantané {} non écrit", instantane, e);
+        } finally {
+            serveur.shutdownNow();
+        }
+    }
+
+    public ConnectionString getConnexion() {
+        return connexion;
+    }
+
+    public Path getInstantane() {
+        return instantane;
+    }
+
+    // Écrit dans un fichier temporaire puis le renomme : un arrêt brutal laisse l'instantané précédent intact
+    public Map<String, Long> sauvegarder() {
+        Map<String, Long> comptes = new LinkedHashMap<>();
+        try (MongoClient client = MongoClients.create(connexion)) {
+            MongoDatabase database = client.getDatabase(base);
+            Path temporaire = Files.createTempFile(instantane.toAbsolutePath().getParent(), instantane.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporaire)), StandardCharsets.UTF_8))) {
+                for (String nom : database.listCollectionNames()) {
+                    long nombre = 0;
+                    for (Document document : database.getCollection(nom).find()) {
+                        writer.write(new Document("collection", nom).append("document", document).toJson(JSON));
+                        writer.newLine();
+                        nombre++;
+                    }
+                    comptes.put(nom, nombre);
+                }
+            }
+            Files.move(temporaire, instantane, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Instantané {} écrit : {}", instantane, comptes);
+        return comptes;
+    }
+
+    private void charger() {
+        Map<String, Long> comptes = new LinkedHashMap<>();
+        try (MongoClient client = MongoClients.create(connexion);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     new GZIPInputStream(Files.newInputStream(instantane)), StandardCharsets.UTF_8))) {
+            MongoDatabase database = client.getDatabase(base);
+            String nom = null;
+            List<Document> lot = new ArrayList<>(TAILLE_LOT);
+            String ligne;
+            while ((ligne = reader.readLine()) != null) {
+                if (ligne.isBlank()) {
+                    continue;
+                }
+                Document entree = Document.parse(ligne);
+                String collection = entree.getString("collection");
+                if (!collection.equals(nom) || lot.size() == TAILLE_LOT) {
+                    inserer(nom == null ? null : database.getCollection(nom), lot);
+                    nom = collection;
+                }
+                lot.add(entree.get("document", Document.class));
+                comptes.merge(collection, 1L, Long::sum);
+            }
+            inserer(nom == null ? null : database.getCollection(nom), lot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Instantané illisible : " + instantane, e);
+        }
+        log.info("Instantané {} chargé : {}", instantane, comptes);
+    }
+
+    private static void inserer(MongoCollection<Document> collection, List<Document> lot) {
+        if (collection != null && !lot.isEmpty()) {
+            collection.insertMany(lot);
+        }
+        lot.clear();
+    }
+}
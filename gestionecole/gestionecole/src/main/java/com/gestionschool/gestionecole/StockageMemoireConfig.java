@@ -0,0 +1,25 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import java.nio.file.Path;
+
+// Profil "memoire" : MongoTemplate, repositories et métriques du driver restent ceux de Spring Boot,
+// seule la connexion pointe vers le StockageMemoire local (voir application-memoire.properties)
+@Configuration
+@Profile("memoire")
+public class StockageMemoireConfig {
+    @Bean(initMethod = "demarrer", destroyMethod = "arreter")
+    public StockageMemoire stockageMemoire(@Value("${spring.data.mongodb.database:gestionecole}") String base,
+                                           @Value("${gestionecole.memoire.instantane:}") String instantane) {
+        return new StockageMemoire(base, instantane.isBlank() ? null : Path.of(instantane));
+    }
+
+    @Bean
+    public MongoConnectionDetails mongoConnectionDetails(StockageMemoire stockageMemoire) {
+        return stockageMemoire::getConnexion;
+    }
+}
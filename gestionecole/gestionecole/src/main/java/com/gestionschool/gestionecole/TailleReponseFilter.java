@@ -0,0 +1,113 @@
+package com.gestionschool.gestionecole;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+
+// Octets écrits dans le corps des réponses /api, par route (y compris les exports en flux, comptés à la fin de la requête asynchrone)
+public class TailleReponseFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    public TailleReponseFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReponseComptee comptee = new ReponseComptee(response);
+        chain.doFilter(request, comptee);
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    enregistrer(request, response, comptee.octets);
+                }
+                @Override
+                public void onTimeout(AsyncEvent event) {}
+                @Override
+                public void onError(AsyncEvent event) {}
+                @Override
+                public void onStartAsync(AsyncEvent event) {}
+            });
+        } else {
+            enregistrer(request, response, comptee.octets);
+        }
+    }
+
+    private void enregistrer(HttpServletRequest request, HttpServletResponse response, long octets) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("gestionecole.http.reponses.taille")
+                .baseUnit("bytes")
+                .tag("uri", route == null ? "UNKNOWN" : route.toString())
+                .tag("method", request.getMethod())
+                .tag("status", Integer.toString(response.getStatus()))
+                .register(meterRegistry).record(octets);
+    }
+
+    private static class ReponseComptee extends HttpServletResponseWrapper {
+        private long octets;
+        private ServletOutputStream flux;
+
+        ReponseComptee(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (flux == null) {
+                ServletOutputStream delegue = super.getOutputStream();
+                flux = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegue.write(b);
+                        octets++;
+                    }
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegue.write(b, off, len);
+                        octets += len;
+                    }
+                    @Override
+                    public void flush() throws IOException {
+                        delegue.flush();
+                    }
+                    @Override
+                    public void close() throws IOException {
+                        delegue.close();
+                    }
+                    @Override
+                    public boolean isReady() {
+                        return delegue.isReady();
+                    }
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegue.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return flux;
+        }
+    }
+}
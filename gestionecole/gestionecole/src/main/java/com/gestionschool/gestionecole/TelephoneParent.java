@@ -0,0 +1,17 @@
+package com.gestionschool.gestionecole;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Nombre d'élèves rattachés à chaque numéro de téléphone parent
+@Document(collection = "telephones")
+public class TelephoneParent {
+    @Id
+    private String telephone;
+    private long nombre;
+    // Getters et setters
+    public String getTelephone() { return telephone; }
+    public void setTelephone(String telephone) { this.telephone = telephone; }
+    public long getNombre() { return nombre; }
+    public void setNombre(long nombre) { this.nombre = nombre; }
+}
@@ -0,0 +1,96 @@
+package com.gestionschool.gestionecole;
+
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Updates.inc;
+
+// Numéro de version par collection, incrémenté à chaque écriture par les services dans un compteur en base (versions_collections),
+// commun à toutes les instances et gardé au redémarrage. Les ETag en dépendent, comme les résultats de job qui restent valables
+// tant que leurs collections n'ont pas changé.
+// Chaque instance garde la dernière version lue au plus gestionecole.etag.fraicheur : ses propres écritures la mettent à jour
+// aussitôt, celles des autres instances se voient dans ce délai.
+@Component
+public class VersionsCollections {
+    private static final String COLLECTION = "versions_collections";
+
+    private final Map<String, VersionLue> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${gestionecole.etag.fraicheur:PT1S}")
+    private Duration fraicheur;
+
+    public long version(String collection) {
+        VersionLue lue = versions.get(collection);
+        if (lue == null || System.nanoTime() - lue.lueA > fraicheur.toNanos()) {
+            Document document = mongoTemplate.getCollection(COLLECTION).find(eq("_id", collection)).first();
+            lue = retenir(collection, document == null ? 0 : ((Number) document.get("version")).longValue());
+        }
+        return lue.version;
+    }
+
+    public void incrementer(String collection) {
+        Document document = mongoTemplate.getCollection(COLLECTION).findOneAndUpdate(eq("_id", collection), inc("version", 1L),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        retenir(collection, ((Number) document.get("version")).longValue());
+    }
+
+    // "notes:12.eleves:40" : mêmes valeurs sur toutes les instances tant qu'aucune de ces collections n'est modifiée
+    public String versionsPartagees(List<String> collections) {
+        Map<String, Long> lues = new HashMap<>();
+        for (Document document : mongoTemplate.getCollection(COLLECTION).find(in("_id", collections))) {
+            lues.put(document.getString("_id"), ((Number) document.get("version")).longValue());
+        }
+        StringJoiner versionsLues = new StringJoiner(".");
+        for (String collection : collections) {
+            versionsLues.add(collection + ":" + lues.getOrDefault(collection, 0L));
+        }
+        return versionsLues.toString();
+    }
+
+    // Même version et même requête (chemin + paramètres) donnent le même corps, donc un ETag fort, le même sur toutes les instances
+    public String etag(String collection, String requete) {
+        return "\"" + collection + "-" + version(collection) + "-" + Integer.toHexString(requete.hashCode()) + "\"";
+    }
+
+    // Réponse lisant plusieurs collections (?expand=...) : l'ETag change dès que l'une d'elles est modifiée
+    public String etag(List<String> collections, String requete) {
+        StringJoiner versionsLues = new StringJoiner(".");
+        for (String collection : collections) {
+            versionsLues.add(Long.toString(version(collection)));
+        }
+        return "\"" + String.join("+", collections) + "-" + versionsLues + "-" + Integer.toHexString(requete.hashCode()) + "\"";
+    }
+
+    // Les versions ne font que croître : une lecture partie avant une écriture de cette instance ne la fait pas oublier
+    private VersionLue retenir(String collection, long version) {
+        VersionLue lue = new VersionLue(version, System.nanoTime());
+        return versions.merge(collection, lue, (ancienne, nouvelle) -> nouvelle.version >= ancienne.version ? nouvelle
+                : new VersionLue(ancienne.version, nouvelle.lueA));
+    }
+
+    private static class VersionLue {
+        private final long version;
+        private final long lueA;
+
+        VersionLue(long version, long lueA) {
+            this.version = version;
+            this.lueA = lueA;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.gestionschool.gestionecole;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Requêtes, agrégations et mises à jour par pipeline des services exécutées sur BaseMemoire (profil "memoire")
+class BaseMemoireTest {
+	private static StockageMemoire stockage;
+	private static MongoClient client;
+	private static MongoTemplate mongoTemplate;
+	private static MongoRepositoryFactory repositories;
+
+	@BeforeAll
+	static void demarrer() {
+		stockage = new StockageMemoire("tests", null);
+		stockage.demarrer();
+		client = MongoClients.create(stockage.getConnexion());
+		mongoTemplate = new MongoTemplate(client, "tests");
+		repositories = new MongoRepositoryFactory(mongoTemplate);
+	}
+
+	@AfterAll
+	static void arreter() {
+		client.close();
+		stockage.arreter();
+	}
+
+	@BeforeEach
+	void vider() {
+		mongoTemplate.getDb().drop();
+		IndexService indexService = new IndexService();
+		ReflectionTestUtils.setField(indexService, "mongoTemplate", mongoTemplate);
+		indexService.creerIndex();
+	}
+
+	private static Scolarite scolarite(String matricule, double annuel, String mois, double paye) {
+		return new Scolarite(matricule, "Eleve " + matricule, "6A", annuel, mois, 2024, paye, "2024-10-01", "Espèces", Scolarite.STATUT_PAYE);
+	}
+
+	private static Note note(String matricule, String nomCours, double valeur) {
+		return note(matricule, nomCours, "2024-10-01", valeur);
+	}
+
+	private static Note note(String matricule, String nomCours, String dateEvaluation, double valeur) {
+		Note note = new Note();
+		note.setMatriculeEleve(matricule);
+		note.setClasse("6A");
+		note.setNomCours(nomCours);
+		note.setTypeEvaluation("Examen");
+		note.setDateEvaluation(dateEvaluation);
+		note.setValeur(valeur);
+		return note;
+	}
+
+	private static Eleve eleve(String id, String telephone) {
+		Eleve eleve = new Eleve();
+		eleve.setId(id);
+		eleve.setNom("Nom " + id);
+		eleve.setMatricule("M" + id);
+		eleve.setTelephone(telephone);
+		return eleve;
+	}
+
+	private static SoldeScolariteService soldeScolariteService() {
+		ArchivageService archivageService = new ArchivageService();
+		ReflectionTestUtils.setField(archivageService, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(archivageService, "partitionAnneeRepository", repositories.getRepository(PartitionAnneeRepository.class));
+		SoldeScolariteService service = new SoldeScolariteService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(service, "soldeScolariteRepository", repositories.getRepository(SoldeScolariteRepository.class));
+		ReflectionTestUtils.setField(service, "archivageService", archivageService);
+		VersionsCollections versionsCollections = new VersionsCollections();
+		ReflectionTestUtils.setField(versionsCollections, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(service, "versionsCollections", versionsCollections);
+		return service;
+	}
+
+	private static PaginationService paginationService() {
+		PaginationService service = new PaginationService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(service, "expansionService", new ExpansionService());
+		return service;
+	}
+
+	private static StatistiquesService statistiquesService() {
+		StatistiquesService service = new StatistiquesService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(service, "statistiquesRepository", repositories.getRepository(StatistiquesRepository.class));
+		ReflectionTestUtils.setField(service, "eleveRepository", repositories.getRepository(EleveRepository.class));
+		ReflectionTestUtils.setField(service, "classesRepository", repositories.getRepository(ClassesRepository.class));
+		ReflectionTestUtils.setField(service, "enseignantRepository", repositories.getRepository(EnseignantRepository.class));
+		ReflectionTestUtils.setField(service, "coursRepository", repositories.getRepository(CoursRepository.class));
+		ReflectionTestUtils.setField(service, "noteRepository", repositories.getRepository(NoteRepository.class));
+		ReflectionTestUtils.setField(service, "emploiDuTempsRepository", repositories.getRepository(EmploiDuTempsRepository.class));
+		ReflectionTestUtils.setField(service, "emargementRepository", repositories.getRepository(EmargementRepository.class));
+		ReflectionTestUtils.setField(service, "scolariteRepository", repositories.getRepository(ScolariteRepository.class));
+		return service;
+	}
+
+	private static SoldeScolarite solde(String matricule) {
+		return mongoTemplate.findById(SoldeScolarite.id(matricule, 2024), SoldeScolarite.class);
+	}
+
+	@Test
+	void soldesReconstruitsPuisMisAJourParPaiement() {
+		SoldeScolariteService service = soldeScolariteService();
+		Scolarite fevrier = scolarite("M1", 1200.5, "Février", 50);
+		mongoTemplate.insertAll(List.of(scolarite("M1", 1200.5, "Janvier", 100.05), fevrier, scolarite("M2", 900, "Janvier", 75)));
+		// Solde dont les paiements ont disparu : retiré, les autres sont remplacés en place
+		SoldeScolarite perime = new SoldeScolarite();
+		perime.setId(SoldeScolarite.id("M9", 2024));
+		perime.setMatriculeEleve("M9");
+		perime.setAnnee(2024);
+		mongoTemplate.insert(perime);
+
+		assertEquals(2, service.recalculer());
+		assertNull(solde("M9"));
+		SoldeScolarite m1 = solde("M1");
+		assertEquals(120050, m1.getAnnuelCentimes());
+		assertEquals(10004, m1.getMensualiteCentimes());
+		assertEquals(15005, m1.getPayeCentimes());
+		assertEquals(105045, m1.getResteDuCentimes());
+		assertEquals(2, m1.getNombrePaiements());
+		assertEquals(Map.of("Janvier", 10005L, "Février", 5000L), m1.getPayeParMois());
+
+		// Montant modifié : même solde, même mois
+		Scolarite corrige = scolarite("M1", 1200.5, "Février", 100);
+		corrige.setId(fevrier.getId());
+		service.paiementEnregistre(fevrier, corrige);
+		m1 = solde("M1");
+		assertEquals(20005, m1.getPayeCentimes());
+		assertEquals(10000L, m1.getPayeParMois().get("Février"));
+		assertEquals(2, m1.getNombrePaiements());
+
+		// Premier paiement : solde créé par upsert, puis supprimé avec son dernier paiement
+		Scolarite mars = scolarite("M3", 600, "Mars", 30);
+		service.paiementEnregistre(null, mars);
+		SoldeScolarite m3 = solde("M3");
+		assertEquals(60000, m3.getAnnuelCentimes());
+		assertEquals(5000, m3.getMensualiteCentimes());
+		assertEquals(57000, m3.getResteDuCentimes());
+		assertEquals(1, m3.getNombrePaiements());
+		service.paiementSupprime(mars);
+		assertNull(solde("M3"));
+
+		assertEquals(List.of("M1", "M2"), service.getImpayesDuMois(2024, "Février", null).stream()
+				.map(SoldeScolarite::getMatriculeEleve).toList());
+		assertTrue(service.getImpayesDuMois(2024, "Janvier", null).isEmpty());
+	}
+
+	@Test
+	void bulletinsDeLaClasseAvecExAequo() {
+		mongoTemplate.insertAll(List.of(note("A", "Maths", 12), note("A", "Maths", "2024-11-05", 14), note("A", "Français", 10),
+				note("B", "Maths", 16), note("B", "Français", 8), note("D", "Maths", 8), note("D", "Français", 16),
+				note("C", "Maths", 9)));
+		BulletinService service = new BulletinService();
+		ReflectionTestUtils.setField(service, "noteRepository", repositories.getRepository(NoteRepository.class));
+
+		BulletinClasse classe = service.getBulletinClasse("6A");
+
+		assertEquals(List.of("B", "D", "A", "C"), classe.getBulletins().stream().map(Bulletin::getMatriculeEleve).toList());
+		assertEquals(List.of(1, 1, 3, 4), classe.getBulletins().stream().map(Bulletin::getRang).toList());
+		assertEquals(11.5, classe.getBulletins().get(2).getMoyenneGenerale());
+		assertEquals(List.of("Français", "Maths"), classe.getMoyennesParCours().stream().map(MoyenneCours::getNomCours).toList());
+		assertEquals(11.8, classe.getMoyennesParCours().get(1).getMoyenne());
+
+		// Bulletin d'un élève : mêmes rang, moyennes et effectif que dans le bulletin de la classe
+		for (Bulletin attendu : classe.getBulletins()) {
+			Bulletin bulletin = service.getBulletin(attendu.getMatriculeEleve()).orElseThrow();
+			assertEquals(attendu.getRang(), bulletin.getRang());
+			assertEquals(attendu.getMoyenneGenerale(), bulletin.getMoyenneGenerale());
+			assertEquals(classe.getMoyenneClasse(), bulletin.getMoyenneClasse());
+			assertEquals(4, bulletin.getEffectifClasse());
+			assertEquals("6A", bulletin.getClasse());
+		}
+		Bulletin a = service.getBulletin("A").orElseThrow();
+		assertEquals(13.0, a.getMoyennes().get(1).getMoyenne());
+		assertEquals(11.8, a.getMoyennes().get(1).getMoyenneClasse());
+		assertFalse(service.getBulletin("Z").isPresent());
+	}
+
+	@Test
+	void effectifsRecalculesQuandLaClasseEstRenommee() {
+		Classes sixieme = new Classes();
+		sixieme.setId("c1");
+		sixieme.setNomClasse("6A");
+		sixieme.setCapacite(30);
+		mongoTemplate.insert(sixieme);
+		Eleve deplace = eleve("3", null);
+		deplace.setNomClasse("6B");
+		mongoTemplate.insertAll(List.of(deplace));
+		VersionsCollections versionsCollections = new VersionsCollections();
+		ReflectionTestUtils.setField(versionsCollections, "mongoTemplate", mongoTemplate);
+		EffectifClasseService service = new EffectifClasseService();
+		ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(service, "classesRepository", repositories.getRepository(ClassesRepository.class));
+		ReflectionTestUtils.setField(service, "versionsCollections", versionsCollections);
+		for (String id : List.of("1", "2")) {
+			Eleve eleve = eleve(id, null);
+			eleve.setNomClasse("6A");
+			service.reserver(null, eleve);
+			mongoTemplate.insert(eleve);
+		}
+		assertEquals(2, service.getEffectif("c1").orElseThrow().getEffectif());
+
+		Classes renommee = new Classes();
+		renommee.setId("c1");
+		renommee.setNomClasse("6B");
+		renommee.setCapacite(25);
+		mongoTemplate.save(renommee);
+		service.classeEnregistree(sixieme, renommee);
+
+		// Le nouveau nom reprend la capacité et les élèves qui le portent ; l'ancien garde ses élèves, sans capacité
+		EffectifClasse effectif = service.getEffectif("c1").orElseThrow();
+		assertEquals("6B", effectif.getNomClasse());
+		assertEquals(25, effectif.getCapacite());
+		assertEquals(List.of("M3"), effectif.getMatricules());
+		EffectifClasse ancien = mongoTemplate.findById("6A", EffectifClasse.class);
+		assertEquals(2, ancien.getEffectif());
+		assertNull(ancien.getCapacite());
+
+		// Retour à l'ancien nom : plus de classe ni d'élève pour 6B, dont l'effectif disparaît
+		mongoTemplate.remove(Query.query(Criteria.where("nomClasse").is("6B")), Eleve.class);
+		mongoTemplate.save(sixieme);
+		service.classeEnregistree(renommee, sixieme);
+		assertNull(mongoTemplate.findById("6B", EffectifClasse.class));
+		assertEquals(30, mongoTemplate.findById("6A", EffectifClasse.class).getCapacite());
+	}
+
+	@Test
+	void paginationParTelephoneAvecValeursNulles() {
+		mongoTemplate.insertAll(List.of(eleve("1", "0602"), eleve("2", null), eleve("3", "0601"),
+				eleve("4", null), eleve("5", "0602"), eleve("6", "0600")));
+		mongoTemplate.getCollection("eleves").insertOne(new Document("_id", "7").append("nom", "Sans téléphone"));
+		PaginationService service = paginationService();
+
+		assertEquals(List.of("2", "4", "7", "6", "3", "1", "5"), parcourir(service, "telephone"));
+		assertEquals(List.of("5", "1", "3", "6", "7", "4", "2"), parcourir(service, "-telephone"));
+	}
+
+	private static List<Object> parcourir(PaginationService service, String sort) {
+		List<Object> ids = new ArrayList<>();
+		PageQuery pageQuery = new PageQuery();
+		pageQuery.setLimit(2);
+		pageQuery.setSort(sort);
+		do {
+			PageResult page = service.page(Eleve.class, pageQuery);
+			page.getContent().forEach(eleve -> ids.add(eleve.get("id")));
+			pageQuery.setAfter(page.getNextCursor());
+		} while (pageQuery.getAfter() != null);
+		return ids;
+	}
+
+	@Test
+	void expansionDesReferencesEnChaineEtEnObjectId() {
+		ObjectId sixiemeA = new ObjectId();
+		mongoTemplate.getCollection("classes").insertMany(List.of(
+				new Document("_id", sixiemeA).append("nomClasse", "6A").append("niveau", "6e"),
+				new Document("_id", "c-5B").append("nomClasse", "5B").append("niveau", "5e")));
+		mongoTemplate.getCollection("emploisdutemps").insertMany(List.of(
+				new Document("_id", "e1").append("classeId", sixiemeA.toHexString()).append("jour", "Lundi"),
+				new Document("_id", "e2").append("classeId", "c-5B").append("jour", "Mardi"),
+				new Document("_id", "e3").append("classeId", "inconnue").append("jour", "Mercredi")));
+		PageQuery pageQuery = new PageQuery();
+		pageQuery.setExpand("classe");
+
+		List<Map<String, Object>> content = paginationService().page(EmploiDuTemps.class, pageQuery).getContent();
+
+		assertEquals(3, content.size());
+		Map<?, ?> classe = (Map<?, ?>) content.get(0).get("classe");
+		assertEquals(sixiemeA.toHexString(), classe.get("id"));
+		assertEquals("6A", classe.get("nomClasse"));
+		assertEquals("5B", ((Map<?, ?>) content.get(1).get("classe")).get("nomClasse"));
+		assertFalse(content.get(2).containsKey("classe"));
+	}
+
+	@Test
+	void telephonesDistinctsApresTrim() {
+		mongoTemplate.insertAll(List.of(eleve("1", " 0601 "), eleve("2", "0601"), eleve("3", "0602"),
+				eleve("4", "   "), eleve("5", null)));
+		Statistiques statistiques = statistiquesService().recalculer();
+
+		assertEquals(5, statistiques.getEleves());
+		assertEquals(2, statistiques.getTelephones());
+		assertEquals(2, mongoTemplate.findById("0601", Document.class, "telephones").get("nombre"));
+	}
+}
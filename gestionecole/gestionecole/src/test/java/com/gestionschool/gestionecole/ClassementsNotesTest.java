@@ -0,0 +1,177 @@
+package com.gestionschool.gestionecole;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassementsNotesTest {
+	private static final String T1 = "2024-2025-T1";
+
+	private static Note note(String matricule, String nomCours, String type, String date, double valeur) {
+		Note note = new Note();
+		note.setMatriculeEleve(matricule);
+		note.setClasse("6A");
+		note.setNomCours(nomCours);
+		note.setTypeEvaluation(type);
+		note.setDateEvaluation(date);
+		note.setValeur(valeur);
+		return note;
+	}
+
+	private static ClassementsNotes classements(Note... notes) {
+		ClassementsNotes classements = new ClassementsNotes();
+		for (Note note : notes) {
+			classements.ajouter(note);
+		}
+		return classements;
+	}
+
+	@Test
+	void periodeDeduiteDeLaDateDEvaluation() {
+		assertEquals(T1, ClassementsNotes.periode("2024-10-01"));
+		assertEquals("2024-2025-T2", ClassementsNotes.periode("2025-01-15T08:00:00"));
+		assertEquals("2024-2025-T3", ClassementsNotes.periode("2025-06-30"));
+		assertEquals(ClassementsNotes.SANS_DATE, ClassementsNotes.periode(null));
+		assertEquals(ClassementsNotes.SANS_DATE, ClassementsNotes.periode("pas-une-date"));
+	}
+
+	@Test
+	void classementSurLaMoyenneAvecExAequo() {
+		ClassementsNotes classements = classements(
+				note("A", "Maths", "Examen", "2024-10-01", 10),
+				note("A", "Maths", "Contrôle", "2024-10-08", 14),
+				note("B", "Maths", "Examen", "2024-10-01", 12),
+				note("C", "Maths", "Examen", "2024-10-01", 9));
+
+		List<PositionEleve> classement = classements.classement("6A", "Maths", T1, null);
+
+		assertEquals(List.of("A", "B", "C"), classement.stream().map(PositionEleve::getMatriculeEleve).toList());
+		assertEquals(List.of(1, 1, 3), classement.stream().map(PositionEleve::getRang).toList());
+		assertEquals(12.0, classement.get(0).getMoyenne());
+		assertEquals(2, classement.get(0).getNombreNotes());
+		assertEquals(3, classement.get(0).getEffectif());
+		assertEquals(66.67, classement.get(0).getPercentile());
+		assertEquals(16.67, classement.get(2).getPercentile());
+	}
+
+	@Test
+	void groupeParTypeDEvaluation() {
+		ClassementsNotes classements = classements(
+				note("A", "Maths", "Examen", "2024-10-01", 10),
+				note("A", "Maths", "Contrôle", "2024-10-08", 18),
+				note("B", "Maths", "Examen", "2024-10-01", 12));
+
+		List<PositionEleve> examen = classements.classement("6A", "Maths", T1, "Examen");
+
+		assertEquals("B", examen.get(0).getMatriculeEleve());
+		assertEquals(10.0, examen.get(1).getMoyenne());
+		assertEquals(1, classements.classement("6A", "Maths", T1, "Contrôle").size());
+		assertEquals(2, classements.statistiques("6A", "Maths", T1, null).getEffectif());
+	}
+
+	@Test
+	void positionsDansChaqueCours() {
+		ClassementsNotes classements = classements(
+				note("A", "Maths", "Examen", "2024-10-01", 15),
+				note("B", "Maths", "Examen", "2024-10-01", 11),
+				note("A", "Français", "Examen", "2024-10-02", 8),
+				note("B", "Français", "Examen", "2024-10-02", 13));
+
+		List<PositionEleve> positions = classements.positions("A", "6A", T1, null);
+
+		assertEquals(List.of("Français", "Maths"), positions.stream().map(PositionEleve::getNomCours).toList());
+		assertEquals(List.of(2, 1), positions.stream().map(PositionEleve::getRang).toList());
+	}
+
+	@Test
+	void retirerApresAjouterRendLEtatPrecedent() {
+		ClassementsNotes classements = classements(
+				note("A", "Maths", "Examen", "2024-10-01", 10),
+				note("A", "Maths", "Contrôle", "2024-10-08", 14),
+				note("B", "Maths", "Examen", "2024-10-01", 12));
+		StatistiquesDistribution avant = classements.statistiques("6A", "Maths", T1, null);
+		List<PositionEleve> classementAvant = classements.classement("6A", "Maths", T1, null);
+
+		Note modifiee = note("A", "Maths", "Contrôle", "2024-10-08", 19.5);
+		Note nouvelle = note("C", "Maths", "Examen", "2024-10-01", 16);
+		classements.ajouter(modifiee);
+		classements.ajouter(nouvelle);
+		classements.retirer(nouvelle);
+		classements.retirer(modifiee);
+
+		DistributionNotesTest.assertMemesStatistiques(avant, classements.statistiques("6A", "Maths", T1, null));
+		assertMemesPositions(classementAvant, classements.classement("6A", "Maths", T1, null));
+		assertEquals(3, classements.taille());
+	}
+
+	@Test
+	void retirerUneNoteAbsenteNeChangeRien() {
+		ClassementsNotes classements = classements(note("A", "Maths", "Examen", "2024-10-01", 10));
+		List<PositionEleve> avant = classements.classement("6A", "Maths", T1, null);
+
+		classements.retirer(note("A", "Maths", "Examen", "2024-10-01", 13));
+		classements.retirer(note("Z", "Maths", "Examen", "2024-10-01", 10));
+		classements.retirer(note("A", "Physique", "Examen", "2024-10-01", 10));
+
+		assertMemesPositions(avant, classements.classement("6A", "Maths", T1, null));
+		assertEquals(1, classements.taille());
+	}
+
+	@Test
+	void retirerLaDerniereNoteVideLeCours() {
+		Note seule = note("A", "Maths", "Examen", "2024-10-01", 10);
+		ClassementsNotes classements = classements(seule);
+
+		classements.retirer(seule);
+
+		assertTrue(classements.classement("6A", "Maths", T1, null).isEmpty());
+		assertTrue(classements.evaluations("6A", "Maths", null).isEmpty());
+		assertEquals(0, classements.taille());
+	}
+
+	@Test
+	void remplacerUnCours() {
+		ClassementsNotes classements = classements(
+				note("A", "Maths", "Examen", "2024-10-01", 10),
+				note("B", "Français", "Examen", "2024-10-01", 12));
+
+		classements.remplacer("6A", "Maths", List.of(
+				note("A", "Maths", "Examen", "2024-10-01", 8),
+				note("C", "Maths", "Examen", "2024-10-01", 17)));
+
+		List<PositionEleve> maths = classements.classement("6A", "Maths", T1, null);
+		assertEquals(List.of("C", "A"), maths.stream().map(PositionEleve::getMatriculeEleve).toList());
+		assertEquals(1, classements.classement("6A", "Français", T1, null).size());
+		assertEquals(3, classements.taille());
+	}
+
+	@Test
+	void statistiquesParEvaluation() {
+		ClassementsNotes classements = classements(
+				note("A", "Maths", "Examen", "2024-10-01", 10),
+				note("B", "Maths", "Examen", "2024-10-01", 14),
+				note("A", "Maths", "Contrôle", "2025-01-10", 16));
+
+		List<StatistiquesDistribution> toutes = classements.evaluations("6A", "Maths", null);
+		List<StatistiquesDistribution> premierTrimestre = classements.evaluations("6A", "Maths", T1);
+
+		assertEquals(2, toutes.size());
+		assertEquals(1, premierTrimestre.size());
+		assertEquals(12.0, premierTrimestre.get(0).getMoyenne());
+		assertEquals("Examen", premierTrimestre.get(0).getTypeEvaluation());
+	}
+
+	private static void assertMemesPositions(List<PositionEleve> attendues, List<PositionEleve> obtenues) {
+		assertEquals(attendues.size(), obtenues.size());
+		for (int i = 0; i < attendues.size(); i++) {
+			assertEquals(attendues.get(i).getMatriculeEleve(), obtenues.get(i).getMatriculeEleve());
+			assertEquals(attendues.get(i).getMoyenne(), obtenues.get(i).getMoyenne());
+			assertEquals(attendues.get(i).getNombreNotes(), obtenues.get(i).getNombreNotes());
+			assertEquals(attendues.get(i).getRang(), obtenues.get(i).getRang());
+			assertEquals(attendues.get(i).getEffectif(), obtenues.get(i).getEffectif());
+			assertEquals(attendues.get(i).getPercentile(), obtenues.get(i).getPercentile());
+		}
+	}
+}
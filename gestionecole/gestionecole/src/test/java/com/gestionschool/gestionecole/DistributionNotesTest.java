@@ -0,0 +1,108 @@
+package com.gestionschool.gestionecole;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributionNotesTest {
+
+	private static DistributionNotes distribution(int... valeurs) {
+		DistributionNotes distribution = new DistributionNotes();
+		for (int valeur : valeurs) {
+			distribution.ajouter(valeur);
+		}
+		return distribution;
+	}
+
+	@Test
+	void rangDeCompetitionAvecExAequo() {
+		DistributionNotes distribution = distribution(1500, 1200, 1800, 1500);
+
+		assertEquals(1, distribution.rang(1800));
+		assertEquals(2, distribution.rang(1500));
+		assertEquals(4, distribution.rang(1200));
+		// Une valeur absente se classe où elle serait insérée
+		assertEquals(2, distribution.rang(1600));
+	}
+
+	@Test
+	void percentileCompteLesExAequoPourMoitie() {
+		DistributionNotes distribution = distribution(1200, 1500, 1500, 1800);
+
+		assertEquals(12.5, distribution.percentile(1200));
+		assertEquals(50.0, distribution.percentile(1500));
+		assertEquals(87.5, distribution.percentile(1800));
+		assertEquals(0.0, new DistributionNotes().percentile(1000));
+	}
+
+	@Test
+	void quantileParInterpolationLineaire() {
+		DistributionNotes distribution = distribution(2000, 1000, 1500, 1200);
+
+		assertEquals(10.0, distribution.quantile(0));
+		assertEquals(11.5, distribution.quantile(0.25));
+		assertEquals(13.5, distribution.quantile(0.5));
+		assertEquals(16.25, distribution.quantile(0.75));
+		assertEquals(20.0, distribution.quantile(1));
+		assertEquals(14.0, distribution(1400).quantile(0.5));
+		assertNull(new DistributionNotes().quantile(0.5));
+	}
+
+	@Test
+	void retirerApresAjouterRendLEtatPrecedent() {
+		DistributionNotes distribution = distribution(850, 1200, 1200, 1575, 1990, 0, 2000, 1425, 975);
+		StatistiquesDistribution avant = distribution.statistiques();
+
+		distribution.ajouter(1333);
+		distribution.ajouter(1200);
+		assertTrue(distribution.retirer(1200));
+		assertTrue(distribution.retirer(1333));
+
+		assertMemesStatistiques(avant, distribution.statistiques());
+		assertEquals(3, distribution.rang(1575));
+	}
+
+	@Test
+	void retirerUneValeurAbsenteNeChangeRien() {
+		DistributionNotes distribution = distribution(1000, 1500);
+		StatistiquesDistribution avant = distribution.statistiques();
+
+		assertFalse(distribution.retirer(1200));
+		assertFalse(new DistributionNotes().retirer(1200));
+
+		assertMemesStatistiques(avant, distribution.statistiques());
+	}
+
+	@Test
+	void histogrammeParTrancheDUnPoint() {
+		int[] histogramme = distribution(0, 99, 100, 1950, 2000).histogramme();
+
+		assertEquals(DistributionNotes.TRANCHES, histogramme.length);
+		assertEquals(2, histogramme[0]);
+		assertEquals(1, histogramme[1]);
+		assertEquals(2, histogramme[19]);
+	}
+
+	@Test
+	void centiemesBornesEntreZeroEtVingt() {
+		assertEquals(1234, DistributionNotes.centiemes(12.34));
+		assertEquals(0, DistributionNotes.centiemes(-3));
+		assertEquals(DistributionNotes.MAX, DistributionNotes.centiemes(25));
+	}
+
+	static void assertMemesStatistiques(StatistiquesDistribution attendues, StatistiquesDistribution obtenues) {
+		assertEquals(attendues.getEffectif(), obtenues.getEffectif());
+		assertEquals(attendues.getMoyenne(), obtenues.getMoyenne());
+		assertEquals(attendues.getEcartType(), obtenues.getEcartType());
+		assertEquals(attendues.getMin(), obtenues.getMin());
+		assertEquals(attendues.getPremierQuartile(), obtenues.getPremierQuartile());
+		assertEquals(attendues.getMediane(), obtenues.getMediane());
+		assertEquals(attendues.getTroisiemeQuartile(), obtenues.getTroisiemeQuartile());
+		assertEquals(attendues.getMax(), obtenues.getMax());
+		assertArrayEquals(attendues.getHistogramme(), obtenues.getHistogramme());
+	}
+}
@@ -0,0 +1,243 @@
+package com.gestionschool.gestionecole;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Services réels (contexte Spring du profil "memoire") sous écritures concurrentes
+@SpringBootTest(properties = {
+		"gestionecole.index.creation-auto=false",
+		"gestionecole.recherche.construction-auto=false",
+		"gestionecole.classements.construction-auto=false" })
+@ActiveProfiles("memoire")
+class ServicesMemoireTest {
+	private static final String T1 = "2024-2025-T1";
+	private static final int ELEVES = 30;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+	@Autowired
+	private IndexService indexService;
+	@Autowired
+	private NoteService noteService;
+	@Autowired
+	private ClassementService classementService;
+	@Autowired
+	private StatistiquesService statistiquesService;
+	@Autowired
+	private EleveService eleveService;
+	@Autowired
+	private ClassesService classesService;
+	@Autowired
+	private CoursService coursService;
+	@Autowired
+	private EnseignantService enseignantService;
+	@Autowired
+	private ScolariteService scolariteService;
+	@Autowired
+	private EmargementService emargementService;
+
+	@BeforeEach
+	void vider() {
+		mongoTemplate.getDb().drop();
+		indexService.creerIndex();
+		List<Eleve> eleves = new ArrayList<>();
+		for (int i = 0; i < ELEVES; i++) {
+			Eleve eleve = new Eleve();
+			eleve.setMatricule("M" + i);
+			eleve.setNom("Nom " + i);
+			eleve.setNomClasse("6A");
+			eleves.add(eleve);
+		}
+		mongoTemplate.insertAll(eleves);
+		classementService.reconstruire();
+	}
+
+	private static SaisieEvaluation saisie(Random aleatoire) {
+		SaisieEvaluation saisie = new SaisieEvaluation();
+		saisie.setClasse("6A");
+		saisie.setNomCours("Maths");
+		saisie.setTypeEvaluation("Examen");
+		saisie.setDateEvaluation("2024-10-01");
+		List<Note> notes = new ArrayList<>();
+		for (int i = 0; i < ELEVES; i++) {
+			Note note = new Note();
+			note.setMatriculeEleve("M" + i);
+			note.setValeur((double) aleatoire.nextInt(21));
+			notes.add(note);
+		}
+		saisie.setNotes(notes);
+		return saisie;
+	}
+
+	private static Note note(String matricule, String type, String date, double valeur) {
+		Note note = new Note();
+		note.setMatriculeEleve(matricule);
+		note.setClasse("6A");
+		note.setNomCours("Maths");
+		note.setTypeEvaluation(type);
+		note.setDateEvaluation(date);
+		note.setValeur(valeur);
+		return note;
+	}
+
+	@Test
+	void saisiesSimultaneesSansDoublonNiDeriveDesClassements() throws Exception {
+		ExecutorService ecrivains = Executors.newFixedThreadPool(6);
+		List<Future<?>> ecritures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Random aleatoire = new Random(t);
+			ecritures.add(ecrivains.submit(() -> {
+				for (int tour = 0; tour < 5; tour++) {
+					noteService.saisirEvaluation(saisie(aleatoire));
+				}
+			}));
+		}
+		// Modifications note par note (PUT) pendant les saisies
+		for (int t = 0; t < 2; t++) {
+			Random aleatoire = new Random(10 + t);
+			ecritures.add(ecrivains.submit(() -> {
+				for (int tour = 0; tour < 40; tour++) {
+					List<Note> notes = mongoTemplate.find(new Query(), Note.class);
+					if (!notes.isEmpty()) {
+						Note note = notes.get(aleatoire.nextInt(notes.size()));
+						note.setValeur((double) aleatoire.nextInt(21));
+						noteService.saveNote(note);
+					}
+				}
+			}));
+		}
+		for (Future<?> ecriture : ecritures) {
+			ecriture.get();
+		}
+		ecrivains.shutdown();
+
+		assertEquals(ELEVES, mongoTemplate.count(new Query(Criteria.where("nomCours").is("Maths")), Note.class));
+		StatistiquesDistribution incrementales = classementService.statistiques("6A", "Maths", T1, null);
+		List<PositionEleve> classement = classementService.classement("6A", "Maths", T1, null);
+		classementService.reconstruire();
+		DistributionNotesTest.assertMemesStatistiques(classementService.statistiques("6A", "Maths", T1, null), incrementales);
+		assertEquals(classementService.classement("6A", "Maths", T1, null).stream().map(PositionEleve::getMoyenne).toList(),
+				classement.stream().map(PositionEleve::getMoyenne).toList());
+	}
+
+	@Test
+	void uneSeuleNoteParEleveEtParEvaluation() {
+		noteService.saveNote(note("M1", "Examen", "2024-10-01", 12));
+		ResponseStatusException doublon = assertThrows(ResponseStatusException.class,
+				() -> noteService.saveNote(note("M1", "Examen", "2024-10-01", 15)));
+		assertEquals(HttpStatus.CONFLICT, doublon.getStatusCode());
+
+		// Sans type ni date, la note n'est pas une évaluation : pas d'unicité
+		Note hors = noteService.saveNote(note("M1", null, null, 8));
+		noteService.saveNote(note("M1", null, null, 9));
+		assertEquals(3, mongoTemplate.count(new Query(Criteria.where("matriculeEleve").is("M1")), Note.class));
+		noteService.deleteNote(hors.getId());
+		assertEquals(2, mongoTemplate.count(new Query(Criteria.where("matriculeEleve").is("M1")), Note.class));
+	}
+
+	// Les reconstructions s'arrêtent avant les écrivains : un compteur faussé par l'une d'elles n'est pas corrigé par la suivante
+	@Test
+	void compteursExactsAvecEcrituresPendantLaReconstruction() throws Exception {
+		statistiquesService.recalculer();
+		List<String> eleveIds = mongoTemplate.find(new Query(), Eleve.class).stream().map(Eleve::getId).toList();
+		AtomicBoolean fin = new AtomicBoolean();
+		List<Runnable> ecrivains = List.of(
+				() -> {
+					for (int i = 0; !fin.get(); i++) {
+						Eleve eleve = new Eleve();
+						eleve.setMatricule("N" + i);
+						eleve.setNom("Nouveau " + i);
+						eleve.setTelephone("06" + (i % 17));
+						Eleve saved = eleveService.saveEleve(eleve);
+						if (i % 4 == 0) {
+							eleveService.deleteEleve(saved.getId());
+						}
+					}
+				},
+				() -> {
+					for (int i = 0; !fin.get(); i++) {
+						String date = LocalDate.of(2024, 11, 1).plusDays(i / ELEVES).toString();
+						Note saved = noteService.saveNote(note("M" + (i % ELEVES), "Devoir", date, i % 21));
+						if (i % 3 == 0) {
+							noteService.deleteNote(saved.getId());
+						}
+					}
+				},
+				() -> {
+					for (int i = 0; !fin.get(); i++) {
+						Classes classe = new Classes();
+						classe.setNomClasse("C" + i);
+						Classes saved = classesService.saveClasse(classe);
+						Cours cours = new Cours();
+						cours.setNomCours("Cours " + i);
+						coursService.saveCours(cours);
+						Enseignant enseignant = new Enseignant();
+						enseignant.setNomEnseignant("Enseignant " + i);
+						enseignantService.saveEnseignant(enseignant);
+						if (i % 5 == 0) {
+							classesService.deleteClasse(saved.getId());
+						}
+					}
+				},
+				() -> {
+					for (int i = 0; !fin.get(); i++) {
+						boolean payee = i % 2 == 0;
+						Scolarite saved = scolariteService.saveScolarite(new Scolarite("M" + (i % ELEVES), "Nom", "6A", 120000.0, "Janvier", 2024,
+								payee ? 10000.0 : 0.0, payee ? "2024-01-05" : null, payee ? "Espèces" : null, payee ? Scolarite.STATUT_PAYE : "En attente"));
+						if (i % 4 == 1) {
+							scolariteService.deleteScolarite(saved.getId());
+						}
+						Emargement emargement = new Emargement();
+						emargement.setEleveId(eleveIds.get(i % ELEVES));
+						emargement.setCoursId("Maths");
+						emargement.setDate(LocalDate.of(2024, 10, 1).plusDays(i / ELEVES).toString());
+						emargement.setPresent(i % 3 != 0);
+						emargementService.saveEmargement(emargement);
+					}
+				});
+		ExecutorService executeur = Executors.newFixedThreadPool(ecrivains.size());
+		List<Future<?>> ecritures = ecrivains.stream().<Future<?>>map(executeur::submit).toList();
+		for (int reconstruction = 0; reconstruction < 30; reconstruction++) {
+			statistiquesService.recalculer();
+		}
+		fin.set(true);
+		for (Future<?> ecriture : ecritures) {
+			ecriture.get();
+		}
+		executeur.shutdown();
+
+		Statistiques incrementales = statistiquesService.getStatistiques();
+		Statistiques attendues = statistiquesService.recalculer();
+		assertTrue(attendues.getNotes() > 0);
+		assertEquals(attendues.getEleves(), incrementales.getEleves());
+		assertEquals(attendues.getTelephones(), incrementales.getTelephones());
+		assertEquals(attendues.getNotes(), incrementales.getNotes());
+		assertEquals(attendues.getClasses(), incrementales.getClasses());
+		assertEquals(attendues.getCours(), incrementales.getCours());
+		assertEquals(attendues.getEnseignants(), incrementales.getEnseignants());
+		assertEquals(attendues.getScolarites(), incrementales.getScolarites());
+		assertEquals(attendues.getScolaritesPayees(), incrementales.getScolaritesPayees());
+		assertEquals(attendues.getEmargements(), incrementales.getEmargements());
+		assertEquals(attendues.getEmargementsPresents(), incrementales.getEmargementsPresents());
+	}
+}
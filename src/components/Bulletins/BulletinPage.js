@@ -22,23 +22,32 @@ import {
   Grade as GradeIcon,
   Phone as PhoneIcon
 } from '@mui/icons-material';
-import { getEleves } from '../../services/eleveService';
-import { getNotes } from '../../services/noteService';
+import { searchEleves } from '../../services/eleveService';
+import { getBulletin } from '../../services/bulletinService';
 import { useSnackbar } from 'notistack';
 import BulletinTemplate from './BulletinTemplate';
 
 function BulletinPage() {
   const [eleves, setEleves] = useState([]);
-  const [notes, setNotes] = useState([]);
   const [selectedEleve, setSelectedEleve] = useState(null);
   const [bulletinData, setBulletinData] = useState(null);
   const [loading, setLoading] = useState(false);
   const { enqueueSnackbar } = useSnackbar();
 
+  const [recherche, setRecherche] = useState('');
+
+  // Recherche côté serveur (index /api/eleves/search), relancée 150 ms après la dernière frappe
   useEffect(() => {
-    getEleves().then(res => setEleves(res.data));
-    getNotes().then(res => setNotes(res.data));
-  }, []);
+    const terme = recherche.trim();
+    if (!terme) {
+      setEleves(selectedEleve ? [selectedEleve] : []);
+      return undefined;
+    }
+    const timer = setTimeout(() => {
+      searchEleves(terme).then(res => setEleves(res.data));
+    }, 150);
+    return () => clearTimeout(timer);
+  }, [recherche, selectedEleve]);
 
   const generateBulletin = async () => {
     if (!selectedEleve) {
@@ -49,65 +58,26 @@ function BulletinPage() {
     setLoading(true);
 
     try {
-      // Filtrer les notes de l'élève sélectionné
-      const eleveNotes = notes.filter(note => note.matriculeEleve === selectedEleve.matricule);
+      // Les moyennes sont calculées côté serveur par agrégation
+      const { data: bulletin } = await getBulletin(selectedEleve.matricule);
 
-      if (eleveNotes.length === 0) {
+      if (!bulletin || !bulletin.moyennes || bulletin.moyennes.length === 0) {
         enqueueSnackbar('Aucune note trouvée pour cet élève', { variant: 'info' });
         setBulletinData(null);
         return;
       }
 
-      // Nettoyer et valider les notes
-      const notesValidees = [];
-      const coursTraites = new Set();
-
-      eleveNotes.forEach(note => {
-        // Éviter les doublons de cours
-        if (!coursTraites.has(note.nomCours)) {
-          coursTraites.add(note.nomCours);
-          notesValidees.push(note);
-        } else {
-          console.warn(`Note dupliquée ignorée: ${note.nomCours} pour ${note.matriculeEleve}`);
-        }
-      });
-
-      // Grouper les notes par classe (normalement une seule classe par élève)
-      const notesParClasse = {};
-      notesValidees.forEach(note => {
-        // Utiliser la classe de l'élève comme classe principale
-        const classe = selectedEleve.nomClasse || note.classe || 'Classe non définie';
-        if (!notesParClasse[classe]) {
-          notesParClasse[classe] = [];
-        }
-        notesParClasse[classe].push(note);
-      });
+      const classe = selectedEleve.nomClasse || bulletin.classe || 'Classe non définie';
+      const resultatsParClasse = {
+        [classe]: bulletin.moyennes.map(m => ({
+          cours: m.nomCours,
+          notes: m.notes || [],
+          moyenne: m.moyenne.toFixed(2)
+        }))
+      };
 
-      // Calculer les moyennes par cours pour chaque classe
-      const resultatsParClasse = {};
-      Object.keys(notesParClasse).forEach(classe => {
-        const coursNotes = {};
-        notesParClasse[classe].forEach(note => {
-          if (!coursNotes[note.nomCours]) {
-            coursNotes[note.nomCours] = [];
-          }
-          coursNotes[note.nomCours].push(parseFloat(note.valeur));
-        });
-
-        const moyennes = Object.keys(coursNotes).map(cours => ({
-          cours: cours,
-          notes: coursNotes[cours],
-          moyenne: (coursNotes[cours].reduce((a, b) => a + b, 0) / coursNotes[cours].length).toFixed(2)
-        }));
-
-        resultatsParClasse[classe] = moyennes;
-      });
-
-      // Calculer la moyenne générale globale
-      const toutesLesMoyennes = Object.values(resultatsParClasse).flat().map(m => parseFloat(m.moyenne));
-      const moyenneGenerale = toutesLesMoyennes.length > 0
-        ? (toutesLesMoyennes.reduce((sum, m) => sum + m, 0) / toutesLesMoyennes.length).toFixed(2)
-        : 0;
+      const toutesLesMoyennes = bulletin.moyennes.map(m => m.moyenne);
+      const moyenneGenerale = bulletin.moyenneGenerale.toFixed(2);
 
       // Déterminer l'appréciation
       const appreciation = getAppreciation(moyenneGenerale);
@@ -122,6 +92,9 @@ function BulletinPage() {
         eleve: selectedEleve,
         resultatsParClasse: resultatsParClasse,
         moyenneGenerale: moyenneGenerale,
+        moyenneClasse: bulletin.moyenneClasse != null ? bulletin.moyenneClasse.toFixed(2) : null,
+        rang: bulletin.rang,
+        effectifClasse: bulletin.effectifClasse,
         appreciation: appreciation,
         dateGeneration: new Date().toLocaleDateString('fr-FR'),
         statistiques: {
@@ -196,7 +169,7 @@ function BulletinPage() {
               </tbody>
             </table>
             <div style="text-align: center; font-weight: bold; background-color: #f5f5f5; padding: 5px; border: 1px solid #ccc;">
-              📊 Moyenne de la classe ${classe}: ${(bulletinData.resultatsParClasse[classe].reduce((sum, m) => sum + parseFloat(m.moyenne), 0) / bulletinData.resultatsParClasse[classe].length).toFixed(2)}/20
+              📊 Moyenne de la classe ${classe}: ${bulletinData.moyenneClasse ?? '-'}/20
             </div>
           </div>
         `;
@@ -329,6 +302,8 @@ function BulletinPage() {
                getOptionLabel={(option) => `${option.matricule} - ${option.nom} ${option.prenom} (${option.nomClasse})`}
                value={selectedEleve}
                onChange={(event, newValue) => setSelectedEleve(newValue)}
+               onInputChange={(event, newInputValue) => setRecherche(newInputValue)}
+               isOptionEqualToValue={(option, value) => option.id === value.id}
                renderInput={(params) => (
                  <TextField
                    {...params}
@@ -450,27 +425,7 @@ function BulletinPage() {
                    </Box>
                  </Box>
                )}
-               filterOptions={(options, { inputValue }) => {
-                 const searchTerm = inputValue.toLowerCase();
-                 // Prioriser la recherche par matricule
-                 const filteredOptions = options.filter(option =>
-                   option.matricule.toLowerCase().includes(searchTerm) ||
-                   option.nom.toLowerCase().includes(searchTerm) ||
-                   option.prenom.toLowerCase().includes(searchTerm) ||
-                   option.nomClasse.toLowerCase().includes(searchTerm)
-                 );
-                 
-                 // Trier pour mettre les matricules en premier
-                 return filteredOptions.sort((a, b) => {
-                   const aStartsWithMatricule = a.matricule.toLowerCase().startsWith(searchTerm);
-                   const bStartsWithMatricule = b.matricule.toLowerCase().startsWith(searchTerm);
-                   
-                   if (aStartsWithMatricule && !bStartsWithMatricule) return -1;
-                   if (!aStartsWithMatricule && bStartsWithMatricule) return 1;
-                   
-                   return a.matricule.localeCompare(b.matricule);
-                 });
-               }}
+               filterOptions={(options) => options}
                sx={{
                  '& .MuiAutocomplete-paper': {
                    boxShadow: '0 8px 32px rgba(0,0,0,0.12)',
@@ -1,7 +1,5 @@
 import React, { useEffect, useState } from 'react';
-import { getEmargements, deleteEmargement } from '../../services/emargementService';
-import { getEleves } from '../../services/eleveService';
-import { getCours } from '../../services/coursService';
+import { getEmargementsDetailles, deleteEmargement } from '../../services/emargementService';
 import { DataGrid, GridToolbar } from '@mui/x-data-grid';
 import { IconButton, Dialog, DialogTitle, DialogContent, DialogContentText, DialogActions, Button, Box, Typography, TextField, Paper } from '@mui/material';
 import { Delete as DeleteIcon, Search as SearchIcon, Assignment as AssignmentIcon } from '@mui/icons-material';
@@ -9,16 +7,12 @@ import { useSnackbar } from 'notistack';
 
 function EmargementList() {
   const [emargements, setEmargements] = useState([]);
-  const [eleves, setEleves] = useState([]);
-  const [cours, setCours] = useState([]);
   const [search, setSearch] = useState('');
   const [deleteId, setDeleteId] = useState(null);
   const { enqueueSnackbar } = useSnackbar();
 
   useEffect(() => {
-    getEmargements().then(res => setEmargements(res.data));
-    getEleves().then(res => setEleves(res.data));
-    getCours().then(res => setCours(res.data));
+    getEmargementsDetailles().then(res => setEmargements(res.data));
   }, []);
 
   const handleDelete = (id) => setDeleteId(id);
@@ -33,24 +27,18 @@ function EmargementList() {
       .catch(() => enqueueSnackbar('Erreur lors de la suppression.', { variant: 'error' }));
   };
 
-  const getEleveNom = (id) => {
-    const eleve = eleves.find(e => e.id === id);
-    return eleve ? `${eleve.nom} ${eleve.prenom} (${eleve.matricule})` : 'Élève inconnu';
-  };
-  
-  const getCoursNom = (id) => {
-    const cour = cours.find(c => c.id === id);
-    return cour ? `${cour.nomCours} - ${cour.niveau}` : 'Cours inconnu';
-  };
+  const getEleveNom = (eleve) => eleve ? `${eleve.nom} ${eleve.prenom} (${eleve.matricule})` : 'Élève inconnu';
+
+  const getCoursNom = (cour) => cour ? `${cour.nomCours} - ${cour.classe}` : 'Cours inconnu';
 
   const filtered = emargements.filter(e =>
-    getEleveNom(e.id_eleve).toLowerCase().includes(search.toLowerCase()) ||
-    getCoursNom(e.id_cours).toLowerCase().includes(search.toLowerCase())
+    getEleveNom(e.eleve).toLowerCase().includes(search.toLowerCase()) ||
+    getCoursNom(e.cours).toLowerCase().includes(search.toLowerCase())
   );
 
   const columns = [
     { 
-      field: 'date_cours', 
+      field: 'date', 
       headerName: 'Date du cours', 
       width: 150,
       renderCell: (params) => (
@@ -65,7 +53,7 @@ function EmargementList() {
       width: 250, 
       valueGetter: params => {
         if (!params || !params.row) return 'Élève inconnu';
-        return getEleveNom(params.row.id_eleve);
+        return getEleveNom(params.row.eleve);
       },
       renderCell: (params) => (
         <div style={{ display: 'flex', justifyContent: 'center', alignItems: 'center', width: '100%' }}>
@@ -79,7 +67,7 @@ function EmargementList() {
       width: 250, 
       valueGetter: params => {
         if (!params || !params.row) return 'Cours inconnu';
-        return getCoursNom(params.row.id_cours);
+        return getCoursNom(params.row.cours);
       },
       renderCell: (params) => (
         <div style={{ display: 'flex', justifyContent: 'center', alignItems: 'center', width: '100%' }}>
@@ -88,25 +76,25 @@ function EmargementList() {
       )
     },
     { 
-      field: 'presence', 
+      field: 'present', 
       headerName: 'Présence', 
       width: 120, 
       valueGetter: params => {
         if (!params || !params.row) return 'Inconnu';
-        return params.row.presence ? 'Présent' : 'Absent';
+        return params.row.present ? 'Présent' : 'Absent';
       },
       renderCell: (params) => {
         if (!params || !params.row) return <div>Inconnu</div>;
         return (
           <div style={{ display: 'flex', justifyContent: 'center', alignItems: 'center', width: '100%' }}>
             <span style={{ 
-              color: params.row.presence ? '#2e7d32' : '#d32f2f',
+              color: params.row.present ? '#2e7d32' : '#d32f2f',
               fontWeight: 'bold',
               padding: '4px 8px',
               borderRadius: '4px',
-              backgroundColor: params.row.presence ? '#e8f5e8' : '#ffebee'
+              backgroundColor: params.row.present ? '#e8f5e8' : '#ffebee'
             }}>
-              {params.row.presence ? '✅ Présent' : '❌ Absent'}
+              {params.row.present ? '✅ Présent' : '❌ Absent'}
             </span>
           </div>
         );
@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from 'react';
-import { getEmploisDuTemps, deleteEmploiDuTemps } from '../../services/emploiDuTempsService';
+import { getEmploisDuTempsDetailles, deleteEmploiDuTemps } from '../../services/emploiDuTempsService';
 import { DataGrid, GridToolbar } from '@mui/x-data-grid';
 import { IconButton, Dialog, DialogTitle, DialogContent, DialogContentText, DialogActions, Button, Box, Typography, TextField, Paper, Chip, Avatar } from '@mui/material';
 import { Delete as DeleteIcon, Search as SearchIcon, Schedule as ScheduleIcon, Today as TodayIcon, AccessTime as AccessTimeIcon, Room as RoomIcon, School as SchoolIcon } from '@mui/icons-material';
@@ -12,7 +12,12 @@ function EmploiDuTempsList() {
   const { enqueueSnackbar } = useSnackbar();
 
   useEffect(() => {
-    getEmploisDuTemps().then(res => setEmploisDuTemps(res.data));
+    getEmploisDuTempsDetailles().then(res => setEmploisDuTemps(res.data.map(edt => ({
+      ...edt,
+      nomCours: edt.cours?.nomCours,
+      niveau: edt.classe?.niveau,
+      nomClasse: edt.classe?.nomClasse,
+    }))));
   }, []);
 
   const handleDelete = id => setDeleteId(id);
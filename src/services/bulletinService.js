@@ -1 +1,11 @@
- 
\ No newline at end of file
+import axios from 'axios';
+
+const API_URL = 'http://localhost:8080/api/bulletins';
+
+export const getBulletin = (matricule) => axios.get(`${API_URL}/${encodeURIComponent(matricule)}`);
+export const getBulletinClasse = (classe) => axios.get(`${API_URL}/classe/${encodeURIComponent(classe)}`);
+
+// PDF générés côté serveur : lien direct pour un élève, ZIP envoyé au fil de la génération pour une classe ou un niveau
+export const getBulletinPdfUrl = (matricule) => `${API_URL}/${encodeURIComponent(matricule)}/pdf`;
+export const getBulletinsClasseZipUrl = (classe) => `${API_URL}/classe/${encodeURIComponent(classe)}/pdf`;
+export const getBulletinsNiveauZipUrl = (niveau) => `${API_URL}/niveau/${encodeURIComponent(niveau)}/pdf`;
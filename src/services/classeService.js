@@ -3,7 +3,12 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/classes';
 
 export const getClasses = () => axios.get(API_URL);
+export const getClassesPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
 export const getClasse = (id) => axios.get(`${API_URL}/${id}`);
+export const getRoster = (id) => axios.get(`${API_URL}/${id}/roster`);
 export const createClasse = (classe) => axios.post(API_URL, classe);
 export const updateClasse = (id, classe) => axios.put(`${API_URL}/${id}`, classe);
+export const patchClasse = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
 export const deleteClasse = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
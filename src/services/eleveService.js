@@ -3,7 +3,12 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/eleves';
 
 export const getEleves = () => axios.get(API_URL);
+export const getElevesPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
+export const searchEleves = (q, k = 20) => axios.get(`${API_URL}/search`, { params: { q, k } });
 export const getEleve = (id) => axios.get(`${API_URL}/${id}`);
 export const createEleve = (eleve) => axios.post(API_URL, eleve);
 export const updateEleve = (id, eleve) => axios.put(`${API_URL}/${id}`, eleve);
+export const patchEleve = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
 export const deleteEleve = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
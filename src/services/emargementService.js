@@ -3,7 +3,16 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/emargements';
 
 export const getEmargements = () => axios.get(API_URL);
+export const getEmargementsAnnee = (anneeScolaire) => axios.get(API_URL, { params: { anneeScolaire } });
+// Élève et cours résolus par le serveur : { ..., eleve: { nom, prenom, matricule, nomClasse }, cours: { nomCours, classe } }
+export const getEmargementsDetailles = () => axios.get(API_URL, { params: { expand: 'eleve,cours' } });
+export const getEmargementsPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
 export const getEmargementById = (id) => axios.get(`${API_URL}/${id}`);
 export const createEmargement = (emargement) => axios.post(API_URL, emargement);
 export const updateEmargement = (id, emargement) => axios.put(`${API_URL}/${id}`, emargement);
-export const deleteEmargement = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
+export const patchEmargement = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
+export const deleteEmargement = (id) => axios.delete(`${API_URL}/${id}`); 
+export const getAppel = (coursId, classe, date) => axios.get(`${API_URL}/appel`, { params: { coursId, classe, date } });
+export const enregistrerAppel = (appel) => axios.post(`${API_URL}/appel`, appel);
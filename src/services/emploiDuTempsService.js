@@ -3,7 +3,15 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/emploisdutemps';
 
 export const getEmploisDuTemps = () => axios.get(API_URL);
+// Classe et cours résolus par le serveur : { ..., classe: { nomClasse, niveau }, cours: { nomCours, classe } }
+export const getEmploisDuTempsDetailles = () => axios.get(API_URL, { params: { expand: 'classe,cours' } });
+export const getEmploisDuTempsPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
 export const getEmploiDuTempsById = (id) => axios.get(`${API_URL}/${id}`);
 export const createEmploiDuTemps = (emploiDuTemps) => axios.post(API_URL, emploiDuTemps);
 export const updateEmploiDuTemps = (id, emploiDuTemps) => axios.put(`${API_URL}/${id}`, emploiDuTemps);
+export const patchEmploiDuTemps = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
+export const getConflits = () => axios.get(`${API_URL}/conflits`);
+export const verifierCreneau = (emploiDuTemps) => axios.post(`${API_URL}/conflits`, emploiDuTemps);
 export const deleteEmploiDuTemps = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
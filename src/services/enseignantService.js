@@ -3,7 +3,11 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/enseignants';
 
 export const getEnseignants = () => axios.get(API_URL);
+export const getEnseignantsPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
 export const getEnseignant = (id) => axios.get(`${API_URL}/${id}`);
 export const createEnseignant = (enseignant) => axios.post(API_URL, enseignant);
 export const updateEnseignant = (id, enseignant) => axios.put(`${API_URL}/${id}`, enseignant);
+export const patchEnseignant = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
 export const deleteEnseignant = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
@@ -0,0 +1,10 @@
+const API_URL = 'http://localhost:8080/api/export';
+
+// Lien de téléchargement direct : le navigateur reçoit le flux sans le charger en mémoire
+export const getExportUrl = (collection, { format = 'csv', gzip = false, ...filtres } = {}) => {
+  const params = new URLSearchParams({ format, gzip });
+  Object.entries(filtres).forEach(([cle, valeur]) => {
+    if (valeur !== undefined && valeur !== null && valeur !== '') params.append(cle, valeur);
+  });
+  return `${API_URL}/${collection}?${params.toString()}`;
+};
@@ -0,0 +1,19 @@
+import axios from 'axios';
+
+const API_URL = 'http://localhost:8080/api/jobs';
+
+// Rapports lourds calculés en arrière-plan : BULLETINS_CLASSE { classe }, IMPAYES { annee, classe? }, ASSIDUITE { classe, anneeScolaire? }
+export const creerJob = (type, parametres) => axios.post(API_URL, { type, parametres });
+export const getJob = (id) => axios.get(`${API_URL}/${id}`);
+export const getResultatJobUrl = (id) => `${API_URL}/${id}/resultat`;
+
+// Suit le job jusqu'à TERMINE (résolu avec le job) ou ECHEC (rejeté), en signalant la progression
+export const attendreJob = async (id, { intervalle = 1000, onProgression } = {}) => {
+  for (;;) {
+    const { data: job } = await getJob(id);
+    if (onProgression) onProgression(job.progression, job);
+    if (job.etat === 'TERMINE') return job;
+    if (job.etat === 'ECHEC') throw new Error(job.message || 'Job en échec');
+    await new Promise((resolve) => setTimeout(resolve, intervalle));
+  }
+};
@@ -3,7 +3,17 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/notes';
 
 export const getNotes = () => axios.get(API_URL);
+export const getNotesAnnee = (anneeScolaire) => axios.get(API_URL, { params: { anneeScolaire } });
+export const getNotesPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
 export const getNoteById = (id) => axios.get(`${API_URL}/${id}`);
 export const createNote = (note) => axios.post(API_URL, note);
 export const updateNote = (id, note) => axios.put(`${API_URL}/${id}`, note);
-export const deleteNote = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
+export const patchNote = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
+export const deleteNote = (id) => axios.delete(`${API_URL}/${id}`);
+export const saisirEvaluation = (saisie) => axios.post(`${API_URL}/evaluation`, saisie);
+export const getStatistiques = (classe, cours, params) => axios.get(`${API_URL}/statistiques`, { params: { classe, cours, ...params } });
+export const getClassement = (classe, cours, params) => axios.get(`${API_URL}/statistiques/classement`, { params: { classe, cours, ...params } });
+export const getPositionsEleve = (matricule, classe, params) => axios.get(`${API_URL}/statistiques/eleve/${matricule}`, { params: { classe, ...params } });
+export const getEvaluations = (classe, cours, params) => axios.get(`${API_URL}/statistiques/evaluations`, { params: { classe, cours, ...params } }); 
\ No newline at end of file
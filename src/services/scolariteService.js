@@ -3,7 +3,12 @@ import axios from 'axios';
 const API_URL = 'http://localhost:8080/api/scolarites';
 
 export const getScolarites = () => axios.get(API_URL);
+export const getScolaritesAnnee = (annee) => axios.get(API_URL, { params: { annee } });
+export const getScolaritesPage = (params) => axios.get(API_URL, { params: { limit: 50, ...params } });
 export const getScolariteById = (id) => axios.get(`${API_URL}/${id}`);
 export const createScolarite = (scolarite) => axios.post(API_URL, scolarite);
 export const updateScolarite = (id, scolarite) => axios.put(`${API_URL}/${id}`, scolarite);
+export const patchScolarite = (id, modifications, etag) => axios.patch(`${API_URL}/${id}`, modifications, {
+  headers: { 'Content-Type': 'application/merge-patch+json', ...(etag ? { 'If-Match': etag } : {}) },
+});
 export const deleteScolarite = (id) => axios.delete(`${API_URL}/${id}`); 
\ No newline at end of file
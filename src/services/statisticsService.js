@@ -5,19 +5,8 @@ const API_BASE_URL = 'http://localhost:8080/api';
 // Service pour récupérer les statistiques depuis la base de données
 export const getStatistics = async () => {
   try {
-    // Récupérer toutes les données en parallèle
-    const [elevesResponse, classesResponse, enseignantsResponse, coursResponse] = await Promise.all([
-      axios.get(`${API_BASE_URL}/eleves`),
-      axios.get(`${API_BASE_URL}/classes`),
-      axios.get(`${API_BASE_URL}/enseignants`),
-      axios.get(`${API_BASE_URL}/cours`)
-    ]);
-
-    // Calculer les statistiques
-    const eleves = elevesResponse.data;
-    const classes = classesResponse.data;
-    const enseignants = enseignantsResponse.data;
-    const cours = coursResponse.data;
+    // Compteurs précalculés côté serveur (un seul document lu)
+    const { data: stats } = await axios.get(`${API_BASE_URL}/statistics`);
 
     // Calculer les tendances (simulation basée sur les données existantes)
     const calculateTrend = (count) => {
@@ -32,43 +21,35 @@ export const getStatistics = async () => {
       return Math.min(95, Math.max(60, Math.floor((count / 50) * 100))); // Simulation de progression
     };
 
-    // Compter les numéros de téléphone uniques
-    const telephonesUniques = new Set();
-    eleves.forEach(eleve => {
-      if (eleve.telephone && eleve.telephone.trim() !== '') {
-        telephonesUniques.add(eleve.telephone.trim());
-      }
-    });
-
     return {
       eleves: {
-        count: eleves.length,
-        trend: calculateTrend(eleves.length),
-        progress: calculateProgress(eleves.length),
+        count: stats.eleves,
+        trend: calculateTrend(stats.eleves),
+        progress: calculateProgress(stats.eleves),
         subtitle: 'Élèves inscrits'
       },
       classes: {
-        count: classes.length,
-        trend: calculateTrend(classes.length),
-        progress: calculateProgress(classes.length),
+        count: stats.classes,
+        trend: calculateTrend(stats.classes),
+        progress: calculateProgress(stats.classes),
         subtitle: 'Classes actives'
       },
       enseignants: {
-        count: enseignants.length,
-        trend: calculateTrend(enseignants.length),
-        progress: calculateProgress(enseignants.length),
+        count: stats.enseignants,
+        trend: calculateTrend(stats.enseignants),
+        progress: calculateProgress(stats.enseignants),
         subtitle: 'Enseignants'
       },
       cours: {
-        count: cours.length,
-        trend: calculateTrend(cours.length),
-        progress: calculateProgress(cours.length),
+        count: stats.cours,
+        trend: calculateTrend(stats.cours),
+        progress: calculateProgress(stats.cours),
         subtitle: 'Cours dispensés'
       },
       telephones: {
-        count: telephonesUniques.size,
-        trend: calculateTrend(telephonesUniques.size),
-        progress: calculateProgress(telephonesUniques.size),
+        count: stats.telephones,
+        trend: calculateTrend(stats.telephones),
+        progress: calculateProgress(stats.telephones),
         subtitle: 'Liste des parents enregistrés'
       }
     };
@@ -88,20 +69,15 @@ export const getStatistics = async () => {
 // Service pour récupérer les statistiques des actions rapides
 export const getQuickActionsStats = async () => {
   try {
-    const [elevesResponse, classesResponse, notesResponse, emploisResponse] = await Promise.all([
-      axios.get(`${API_BASE_URL}/eleves`),
-      axios.get(`${API_BASE_URL}/classes`),
-      axios.get(`${API_BASE_URL}/notes`),
-      axios.get(`${API_BASE_URL}/emplois-du-temps`)
-    ]);
+    const { data: stats } = await axios.get(`${API_BASE_URL}/statistics`);
 
     return {
-      eleves: `${elevesResponse.data.length} élèves`,
-      classes: `${classesResponse.data.length} classes`,
-      notes: `${notesResponse.data.length} notes`,
-      emplois: `${emploisResponse.data.length} cours`,
-      emargements: `${Math.floor(Math.random() * 10) + 90}% présence`, // Simulation
-      scolarite: `${Math.floor(Math.random() * 10) + 85}% payé` // Simulation
+      eleves: `${stats.eleves} élèves`,
+      classes: `${stats.classes} classes`,
+      notes: `${stats.notes} notes`,
+      emplois: `${stats.emploisDuTemps} cours`,
+      emargements: `${Math.round(stats.tauxPresence)}% présence`,
+      scolarite: `${Math.round(stats.tauxPaiement)}% payé`
     };
   } catch (error) {
     console.error('Erreur lors de la récupération des stats des actions rapides:', error);